@@ -0,0 +1,14 @@
+package com.capgemini.wsb.fitnesstracker.achievement.api;
+
+import java.time.Instant;
+
+/**
+ * Achievement awarded to a user.
+ *
+ * @param code      code of the achievement rule
+ * @param name      name of the achievement
+ * @param awardedAt time the achievement was awarded
+ */
+public record AchievementDto(String code, String name, Instant awardedAt) {
+
+}
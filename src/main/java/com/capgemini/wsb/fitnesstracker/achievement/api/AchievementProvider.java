@@ -0,0 +1,15 @@
+package com.capgemini.wsb.fitnesstracker.achievement.api;
+
+import java.util.List;
+
+public interface AchievementProvider {
+
+    /**
+     * Retrieves the achievements awarded to the user.
+     *
+     * @param userId ID of the user
+     * @return achievements in the order they were awarded
+     */
+    List<AchievementDto> findAchievements(Long userId);
+
+}
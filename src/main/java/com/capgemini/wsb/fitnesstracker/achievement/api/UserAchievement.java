@@ -0,0 +1,46 @@
+package com.capgemini.wsb.fitnesstracker.achievement.api;
+
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Achievement awarded to a user, identified by the code of its rule.
+ */
+@Entity
+@Table(name = "user_achievements", indexes = {
+        @Index(name = "ux_user_achievements_user_code", columnList = "user_id, code", unique = true)
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class UserAchievement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    @Column(name = "code", nullable = false, length = 64)
+    private String code;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "awarded_at", nullable = false)
+    private Instant awardedAt;
+
+    public UserAchievement(final User user, final String code, final String name, final Instant awardedAt) {
+        this.user = user;
+        this.code = code;
+        this.name = name;
+        this.awardedAt = awardedAt;
+    }
+
+}
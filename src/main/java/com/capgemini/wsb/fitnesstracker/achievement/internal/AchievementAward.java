@@ -0,0 +1,15 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import java.time.Instant;
+
+/**
+ * Achievement awarded by the {@link AchievementEngine}, waiting to be stored by the {@link AchievementAwardWriter}.
+ *
+ * @param userId    ID of the user
+ * @param code      code of the achievement
+ * @param name      name of the achievement
+ * @param awardedAt time the achievement was awarded
+ */
+record AchievementAward(Long userId, String code, String name, Instant awardedAt) {
+
+}
@@ -0,0 +1,94 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.notification.api.Notification;
+import com.capgemini.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Stores the awarded achievements in batches of {@link AchievementProperties#getBatchSize()} every
+ * {@code achievement.flush-interval} (5 seconds by default) and on shutdown, and notifies the users about them.
+ * An achievement already stored, or of a user removed in the meantime, is skipped. A batch which could not be stored
+ * is put back into the queue, together with the achievements not flushed yet, for the next flush.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class AchievementAwardWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationPublisher notificationPublisher;
+    private final AchievementProperties properties;
+
+    private final Queue<AchievementAward> pending = new ConcurrentLinkedQueue<>();
+
+    void add(List<AchievementAward> awards) {
+        pending.addAll(awards);
+    }
+
+    /**
+     * Stores all pending achievements, until a batch fails.
+     *
+     * @return number of the stored achievements
+     */
+    @Scheduled(fixedDelayString = "${achievement.flush-interval:PT5S}")
+    @PreDestroy
+    public synchronized int flush() {
+        int stored = 0;
+        List<AchievementAward> batch = new ArrayList<>(properties.getBatchSize());
+        AchievementAward award;
+        try {
+            while ((award = pending.poll()) != null) {
+                batch.add(award);
+                if (batch.size() == properties.getBatchSize()) {
+                    stored += store(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                stored += store(batch);
+            }
+        } catch (RuntimeException e) {
+            // inserting the same achievement again is skipped, so the whole batch can be retried
+            pending.addAll(batch);
+            log.warn("Storing {} awarded achievements failed, they are kept for the next flush", batch.size(), e);
+        }
+        if (stored > 0) {
+            log.debug("Stored {} awarded achievements", stored);
+        }
+        return stored;
+    }
+
+    private int store(List<AchievementAward> batch) {
+        List<Object[]> rows = batch.stream()
+                .map(award -> new Object[]{award.code(), award.name(), Timestamp.from(award.awardedAt()), award.userId(), award.code()})
+                .toList();
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate("""
+                insert into user_achievements (user_id, code, name, awarded_at)
+                select id, ?, ?, ? from users
+                where id = ? and not exists (select 1 from user_achievements where user_id = users.id and code = ?)""", rows));
+
+        int stored = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] > 0) {
+                AchievementAward award = batch.get(i);
+                notificationPublisher.publish(new Notification(award.userId(), "Achievement unlocked: " + award.name(), award.awardedAt()));
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AchievementProperties.class)
+class AchievementConfig {
+
+    @Bean
+    AchievementRules achievementRules(AchievementProperties properties) {
+        return AchievementRules.compile(properties.getRules());
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.achievement.api.AchievementDto;
+import com.capgemini.wsb.fitnesstracker.achievement.api.AchievementProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/achievements")
+@RequiredArgsConstructor
+class AchievementController {
+
+    private final AchievementProvider achievementProvider;
+
+    @GetMapping("/{userId}")
+    public List<AchievementDto> getAchievements(@PathVariable Long userId) {
+        return achievementProvider.findAchievements(userId);
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Awards the achievements of the {@link AchievementRules} incrementally from the created trainings.
+ * <p>
+ * Every user has a {@link UserProgress}, built on the first created training of the user since startup by replaying
+ * the trainings of the user once; afterwards each training only updates the progress in memory and the training history
+ * is not read again. The progress is kept for at most {@link AchievementProperties#getProgressMaximumSize()} users and
+ * dropped after {@link AchievementProperties#getProgressIdleTime()} without a training, a dropped one is replayed again. The awarded achievements are handed over to the {@link AchievementAwardWriter}, which stores them
+ * in batches. Updated trainings do not change the progress, and awarded achievements are never revoked.
+ * <p>
+ * The trainings are recorded once their transaction commits. Until then they are registered as in flight and skipped
+ * by a concurrent replay of their user, so every committed training is counted exactly once, either by the replay or by
+ * its own event.
+ */
+@Component
+class AchievementEngine {
+
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+
+    private final AchievementRules rules;
+    private final AchievementAwardWriter awardWriter;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Cache<Long, UserProgress> progress;
+    private final Map<Long, Set<Long>> inFlight = new ConcurrentHashMap<>();
+
+    AchievementEngine(AchievementRules rules, AchievementAwardWriter awardWriter, JdbcTemplate jdbcTemplate, AchievementProperties properties) {
+        this.rules = rules;
+        this.awardWriter = awardWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.progress = Caffeine.newBuilder()
+                .maximumSize(properties.getProgressMaximumSize())
+                .expireAfterAccess(properties.getProgressIdleTime())
+                .build();
+    }
+
+    @EventListener
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        List<TrainingSnapshot> trainings = event.trainings();
+        if (rules.isEmpty() || trainings.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(trainings);
+            return;
+        }
+
+        trainings.forEach(training -> inFlight.computeIfAbsent(training.userId(), key -> ConcurrentHashMap.newKeySet()).add(training.trainingId()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        record(trainings);
+                    }
+                } finally {
+                    trainings.forEach(training -> inFlight.computeIfPresent(training.userId(), (userId, trainingIds) -> {
+                        trainingIds.remove(training.trainingId());
+                        return trainingIds.isEmpty() ? null : trainingIds;
+                    }));
+                }
+            }
+
+        });
+    }
+
+    long trackedUsers() {
+        progress.cleanUp();
+        return progress.estimatedSize();
+    }
+
+    /**
+     * Records committed trainings and hands the achievements they complete over to the {@link AchievementAwardWriter}.
+     */
+    void record(List<TrainingSnapshot> trainings) {
+        Map<Long, List<TrainingSnapshot>> trainingsByUser = new LinkedHashMap<>();
+        trainings.forEach(training -> trainingsByUser.computeIfAbsent(training.userId(), key -> new ArrayList<>()).add(training));
+
+        List<AchievementAward> awards = new ArrayList<>();
+        Instant now = Instant.now();
+        trainingsByUser.forEach((userId, userTrainings) -> {
+            UserProgress userProgress = progressOf(userId, awards, now);
+            synchronized (userProgress) {
+                for (TrainingSnapshot training : userTrainings) {
+                    userProgress.record(training.activityType(), training.distance(), training.startTime().getTime(),
+                                        rule -> awards.add(award(userId, rule, now)));
+                }
+            }
+        });
+        awardWriter.add(awards);
+    }
+
+    /**
+     * Returns the progress of the user, replaying the stored trainings of the user if there is none yet.
+     * The achievements awarded by the replay and not stored yet are added to the awards.
+     */
+    private UserProgress progressOf(Long userId, List<AchievementAward> awards, Instant now) {
+        UserProgress existing = progress.getIfPresent(userId);
+        if (existing != null) {
+            return existing;
+        }
+
+        UserProgress replayed = new UserProgress(rules);
+        for (String code : jdbcTemplate.queryForList("select code from user_achievements where user_id = ?", String.class, userId)) {
+            Integer rule = rules.indexOf(code);
+            if (rule != null) {
+                replayed.markAwarded(rule);
+            }
+        }
+        List<StoredTraining> stored = jdbcTemplate.query(
+                "select id, activity_type, distance, start_time from trainings where user_id = ? order by start_time, id",
+                (resultSet, row) -> new StoredTraining(resultSet.getLong(1),
+                                                       ACTIVITY_TYPES[resultSet.getInt(2)],
+                                                       resultSet.getDouble(3),
+                                                       resultSet.getTimestamp(4).getTime()),
+                userId);
+        // read after the query: a training committed before it was read has been in flight at least until now
+        Set<Long> skipped = new HashSet<>(inFlight.getOrDefault(userId, Set.of()));
+        List<AchievementAward> replayAwards = new ArrayList<>();
+        for (StoredTraining training : stored) {
+            if (!skipped.contains(training.id())) {
+                replayed.record(training.activityType(), training.distance(), training.startMillis(),
+                                rule -> replayAwards.add(award(userId, rule, now)));
+            }
+        }
+
+        existing = progress.asMap().putIfAbsent(userId, replayed);
+        if (existing != null) {
+            return existing;
+        }
+        awards.addAll(replayAwards);
+        return replayed;
+    }
+
+    private AchievementAward award(Long userId, int rule, Instant now) {
+        AchievementRules.Rule awarded = rules.rule(rule);
+        return new AchievementAward(userId, awarded.code(), awarded.name(), now);
+    }
+
+    private record StoredTraining(long id, ActivityType activityType, double distance, long startMillis) {
+
+    }
+
+}
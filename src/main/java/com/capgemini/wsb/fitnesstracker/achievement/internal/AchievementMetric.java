@@ -0,0 +1,28 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+/**
+ * Running value of the trainings of a user an achievement rule compares with its threshold.
+ */
+enum AchievementMetric {
+
+    /**
+     * Number of trainings.
+     */
+    TRAININGS,
+
+    /**
+     * Sum of the distances of the trainings.
+     */
+    TOTAL_DISTANCE,
+
+    /**
+     * Distance of the longest training.
+     */
+    LONGEST_DISTANCE,
+
+    /**
+     * Largest number of trainings started within the window of the rule.
+     */
+    TRAININGS_IN_WINDOW
+
+}
@@ -0,0 +1,51 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the achievements, see {@link AchievementEngine}. The interval of storing the awarded achievements
+ * is configured by {@code achievement.flush-interval}.
+ */
+@ConfigurationProperties(prefix = "achievement")
+@Getter
+class AchievementProperties {
+
+    /**
+     * Rules awarding the achievements, compiled by {@link AchievementRules#compile(List)}.
+     */
+    private final List<AchievementRuleDefinition> rules;
+
+    /**
+     * Number of awarded achievements stored with one JDBC batch.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximal number of users whose progress is kept in memory, the progress of the others is replayed when needed.
+     */
+    private final long progressMaximumSize;
+
+    /**
+     * Time without a created training after which the progress of a user is dropped from memory.
+     */
+    private final Duration progressIdleTime;
+
+    AchievementProperties(@DefaultValue List<AchievementRuleDefinition> rules,
+                          @DefaultValue("500") int batchSize,
+                          @DefaultValue("100000") long progressMaximumSize,
+                          @DefaultValue("24h") Duration progressIdleTime) {
+        if (batchSize < 1 || progressMaximumSize < 1) {
+            throw new IllegalArgumentException("Batch size and maximal number of tracked users must be positive.");
+        }
+        this.rules = rules;
+        this.batchSize = batchSize;
+        this.progressMaximumSize = progressMaximumSize;
+        this.progressIdleTime = progressIdleTime;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.achievement.api.AchievementDto;
+import com.capgemini.wsb.fitnesstracker.achievement.api.UserAchievement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+interface AchievementRepository extends JpaRepository<UserAchievement, Long> {
+
+    /**
+     * Query searching the achievements awarded to the user.
+     *
+     * @param userId ID of the user
+     * @return achievements ordered by the time they were awarded
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.achievement.api.AchievementDto(a.code, a.name, a.awardedAt)
+            from UserAchievement a
+            where a.user.id = :userId
+            order by a.awardedAt, a.id""")
+    List<AchievementDto> findByUserId(Long userId);
+
+}
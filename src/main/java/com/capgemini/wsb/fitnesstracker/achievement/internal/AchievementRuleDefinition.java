@@ -0,0 +1,29 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Declarative achievement rule: the achievement is awarded once the metric of the user's trainings reaches the threshold.
+ *
+ * @param code         unique code of the achievement, stored with the awarded achievements
+ * @param name         name of the achievement shown to the user, the code if not given
+ * @param metric       metric of the trainings compared with the threshold
+ * @param activityType activity type of the counted trainings, {@code null} for all of them
+ * @param threshold    value of the metric awarding the achievement, in trainings or kilometers
+ * @param window       window of {@link AchievementMetric#TRAININGS_IN_WINDOW}, not given for the other metrics
+ */
+record AchievementRuleDefinition(String code,
+                                 @Nullable String name,
+                                 AchievementMetric metric,
+                                 @Nullable ActivityType activityType,
+                                 double threshold,
+                                 @Nullable Duration window) {
+
+    String displayName() {
+        return name != null && !name.isBlank() ? name : code;
+    }
+
+}
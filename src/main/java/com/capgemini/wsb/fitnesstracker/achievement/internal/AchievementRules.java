@@ -0,0 +1,172 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Achievement rules compiled for incremental evaluation by {@link UserProgress}.
+ * <p>
+ * Rules sharing the metric, activity type and window are grouped into one slot, whose running value is kept once per
+ * user however many rules read it. The thresholds of a slot are sorted, so a user only has to remember the position of
+ * the first threshold not reached yet, and a training costs one update per slot of its activity type plus one comparison
+ * per awarded achievement, independent of the number of rules.
+ */
+final class AchievementRules {
+
+    static final int MAX_WINDOW_THRESHOLD = 10_000;
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+
+    private final Rule[] rules;
+    private final Slot[] slots;
+    private final int[][] slotsByActivity;
+    private final Map<String, Integer> indexByCode = new HashMap<>();
+
+    private AchievementRules(Rule[] rules, Slot[] slots, int[][] slotsByActivity) {
+        this.rules = rules;
+        this.slots = slots;
+        this.slotsByActivity = slotsByActivity;
+        for (int i = 0; i < rules.length; i++) {
+            indexByCode.put(rules[i].code(), i);
+        }
+    }
+
+    /**
+     * Compiles the rule definitions.
+     *
+     * @param definitions the rule definitions
+     * @return the compiled rules
+     * @throws IllegalArgumentException if a definition is invalid or two of them share a code
+     */
+    static AchievementRules compile(List<AchievementRuleDefinition> definitions) {
+        Set<String> codes = new HashSet<>();
+        Map<SlotKey, List<Integer>> rulesBySlot = new LinkedHashMap<>();
+        Rule[] rules = new Rule[definitions.size()];
+        for (int i = 0; i < rules.length; i++) {
+            AchievementRuleDefinition definition = definitions.get(i);
+            validate(definition);
+            if (!codes.add(definition.code())) {
+                throw new IllegalArgumentException("Duplicate achievement code: " + definition.code());
+            }
+            rules[i] = new Rule(definition.code(), definition.displayName(), definition.threshold());
+            long windowMillis = definition.window() != null ? definition.window().toMillis() : 0;
+            rulesBySlot.computeIfAbsent(new SlotKey(definition.metric(), definition.activityType(), windowMillis), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        Slot[] slots = new Slot[rulesBySlot.size()];
+        List<List<Integer>> slotsByActivity = new ArrayList<>();
+        for (ActivityType ignored : ACTIVITY_TYPES) {
+            slotsByActivity.add(new ArrayList<>());
+        }
+        int slot = 0;
+        for (Map.Entry<SlotKey, List<Integer>> entry : rulesBySlot.entrySet()) {
+            SlotKey key = entry.getKey();
+            int[] slotRules = entry.getValue()
+                    .stream()
+                    .sorted(Comparator.comparingDouble(rule -> rules[rule].threshold()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            double[] thresholds = Arrays.stream(slotRules).mapToDouble(rule -> rules[rule].threshold()).toArray();
+            int windowCapacity = key.metric() == AchievementMetric.TRAININGS_IN_WINDOW ? (int) Math.ceil(thresholds[thresholds.length - 1]) : 0;
+            slots[slot] = new Slot(key.metric(), key.windowMillis(), windowCapacity, thresholds, slotRules);
+            for (ActivityType activityType : ACTIVITY_TYPES) {
+                if (key.activityType() == null || key.activityType() == activityType) {
+                    slotsByActivity.get(activityType.ordinal()).add(slot);
+                }
+            }
+            slot++;
+        }
+        return new AchievementRules(rules,
+                                    slots,
+                                    slotsByActivity.stream()
+                                            .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                                            .toArray(int[][]::new));
+    }
+
+    private static void validate(AchievementRuleDefinition definition) {
+        if (definition.code() == null || definition.code().isBlank() || definition.metric() == null) {
+            throw new IllegalArgumentException("Achievement code and metric must be given.");
+        }
+        if (!(definition.threshold() > 0)) {
+            throw new IllegalArgumentException("Threshold of achievement %s must be positive.".formatted(definition.code()));
+        }
+        boolean windowed = definition.metric() == AchievementMetric.TRAININGS_IN_WINDOW;
+        if (windowed != (definition.window() != null)) {
+            throw new IllegalArgumentException("Window of achievement %s must be given exactly for %s."
+                                                       .formatted(definition.code(), AchievementMetric.TRAININGS_IN_WINDOW));
+        }
+        if (windowed && (definition.window().isNegative() || definition.window().isZero() || definition.threshold() > MAX_WINDOW_THRESHOLD)) {
+            throw new IllegalArgumentException("Window of achievement %s must be positive, with at most %d trainings."
+                                                       .formatted(definition.code(), MAX_WINDOW_THRESHOLD));
+        }
+    }
+
+    boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    int ruleCount() {
+        return rules.length;
+    }
+
+    Rule rule(int index) {
+        return rules[index];
+    }
+
+    Slot[] slots() {
+        return slots;
+    }
+
+    int[] slotsOf(ActivityType activityType) {
+        return slotsByActivity[activityType.ordinal()];
+    }
+
+    @Nullable
+    Integer indexOf(String code) {
+        return indexByCode.get(code);
+    }
+
+    /**
+     * Compiled rule.
+     *
+     * @param code      code of the achievement
+     * @param name      name of the achievement
+     * @param threshold value of the metric awarding the achievement
+     */
+    record Rule(String code, String name, double threshold) {
+
+    }
+
+    /**
+     * Rules sharing one running value, ordered by their thresholds.
+     *
+     * @param metric         metric of the running value
+     * @param windowMillis   window of {@link AchievementMetric#TRAININGS_IN_WINDOW}, 0 for the other metrics
+     * @param windowCapacity number of the latest training starts kept for the window, i.e. the highest threshold
+     * @param thresholds     thresholds of the rules in ascending order
+     * @param rules          indexes of the rules, in the order of their thresholds
+     */
+    record Slot(AchievementMetric metric, long windowMillis, int windowCapacity, double[] thresholds, int[] rules) {
+
+    }
+
+    private record SlotKey(AchievementMetric metric, @Nullable ActivityType activityType, long windowMillis) {
+
+        SlotKey {
+            Objects.requireNonNull(metric);
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.achievement.api.AchievementDto;
+import com.capgemini.wsb.fitnesstracker.achievement.api.AchievementProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+class AchievementServiceImpl implements AchievementProvider {
+
+    private final AchievementRepository achievementRepository;
+
+    @Override
+    public List<AchievementDto> findAchievements(Long userId) {
+        return achievementRepository.findByUserId(userId);
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Running state of one user for the {@link AchievementRules}: the value of every slot, the position of its first threshold
+ * not reached yet and, for the windowed slots, the latest training starts. Not thread-safe.
+ * <p>
+ * Memory: 12 bytes per slot, 8 bytes per kept training start and one bit per rule for the awarded achievements.
+ */
+final class UserProgress {
+
+    private final AchievementRules rules;
+    private final double[] values;
+    private final int[] nextThresholds;
+    private final long[][] starts;
+    private final int[] startCounts;
+    private final BitSet awarded;
+
+    UserProgress(AchievementRules rules) {
+        AchievementRules.Slot[] slots = rules.slots();
+        this.rules = rules;
+        this.values = new double[slots.length];
+        this.nextThresholds = new int[slots.length];
+        this.starts = new long[slots.length][];
+        this.startCounts = new int[slots.length];
+        this.awarded = new BitSet(rules.ruleCount());
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot].windowCapacity() > 0) {
+                starts[slot] = new long[slots[slot].windowCapacity() + 1];
+            }
+        }
+    }
+
+    /**
+     * Marks the achievement as already awarded, so it is not reported again.
+     *
+     * @param rule index of the rule
+     */
+    void markAwarded(int rule) {
+        awarded.set(rule);
+    }
+
+    /**
+     * Adds the training to the running values and reports the achievements it awards.
+     *
+     * @param activityType activity type of the training
+     * @param distance     distance of the training
+     * @param startMillis  start time of the training
+     * @param awards       receives the indexes of the rules awarded by the training
+     */
+    void record(ActivityType activityType, double distance, long startMillis, IntConsumer awards) {
+        AchievementRules.Slot[] slots = rules.slots();
+        for (int slot : rules.slotsOf(activityType)) {
+            AchievementRules.Slot definition = slots[slot];
+            double value = switch (definition.metric()) {
+                case TRAININGS -> values[slot] + 1;
+                case TOTAL_DISTANCE -> values[slot] + distance;
+                case LONGEST_DISTANCE -> Math.max(values[slot], distance);
+                case TRAININGS_IN_WINDOW -> Math.max(values[slot], addStart(slot, definition.windowMillis(), startMillis));
+            };
+            values[slot] = value;
+
+            double[] thresholds = definition.thresholds();
+            int next = nextThresholds[slot];
+            while (next < thresholds.length && thresholds[next] <= value) {
+                int rule = definition.rules()[next++];
+                if (!awarded.get(rule)) {
+                    awarded.set(rule);
+                    awards.accept(rule);
+                }
+            }
+            nextThresholds[slot] = next;
+        }
+    }
+
+    /**
+     * Keeps the start among the latest ones of the slot and counts the most trainings started within one window containing it.
+     * Only as many latest starts as the highest threshold of the slot are kept, so a training recorded long after
+     * the newer ones is only counted together with the kept starts, not with the older dropped ones.
+     */
+    private int addStart(int slot, long windowMillis, long startMillis) {
+        long[] kept = starts[slot];
+        int count = startCounts[slot];
+        int position = upperBound(kept, count, startMillis);
+        System.arraycopy(kept, position, kept, position + 1, count - position);
+        kept[position] = startMillis;
+        count++;
+
+        int most = 0;
+        for (int last = position; last < count && kept[last] - startMillis < windowMillis; last++) {
+            int first = upperBound(kept, last, kept[last] - windowMillis);
+            most = Math.max(most, last - first + 1);
+        }
+
+        // one slot more than the highest threshold is allocated for the start being added
+        if (count == kept.length) {
+            System.arraycopy(kept, 1, kept, 0, --count);
+        }
+        startCounts[slot] = count;
+        return most;
+    }
+
+    /**
+     * Index of the first of the sorted values greater than the key.
+     */
+    private static int upperBound(long[] values, int length, long key) {
+        int position = Arrays.binarySearch(values, 0, length, key);
+        if (position < 0) {
+            return -position - 1;
+        }
+        while (position < length && values[position] == key) {
+            position++;
+        }
+        return position;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inserts chunks of rows with one JDBC batch in its own transaction, reading back the generated IDs.
+ * If the batch violates a constraint (e.g. a concurrent insert of the same unique value), the chunk is retried row by row,
+ * each row in its own transaction, so only the offending rows are rejected.
+ * Other database errors are not handled and abort the insert.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchInserter {
+
+    private static final String[] GENERATED_COLUMNS = {"id"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Inserts all the rows.
+     *
+     * @param sql   insert statement of a single row, generating the {@code id} column
+     * @param rows  rows to be inserted
+     * @param batch binding of the rows and the callbacks notified of their outcome
+     * @param <T>   type of the inserted rows
+     */
+    public <T> void insert(String sql, List<T> rows, Batch<T> batch) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insertBatch(sql, rows, batch));
+            for (int i = 0; i < rows.size(); i++) {
+                batch.created(rows.get(i), ids.get(i));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch insert of {} rows failed, retrying row by row", rows.size());
+            rows.forEach(row -> insertSingle(sql, row, batch));
+        }
+    }
+
+    private <T> List<Long> insertBatch(String sql, List<T> rows, Batch<T> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(insertStatement(sql), new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                batch.bind(statement, rows.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        }, keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList()
+                .stream()
+                .map(keys -> ((Number) keys.get(GENERATED_COLUMNS[0])).longValue())
+                .toList();
+        batch.inserted(rows, ids);
+        return ids;
+    }
+
+    private <T> void insertSingle(String sql, T row, Batch<T> batch) {
+        try {
+            Long id = transactionTemplate.execute(status -> {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = insertStatement(sql).createPreparedStatement(connection);
+                    batch.bind(statement, row);
+                    return statement;
+                }, keyHolder);
+                long insertedId = keyHolder.getKey().longValue();
+                batch.inserted(List.of(row), List.of(insertedId));
+                return insertedId;
+            });
+            batch.created(row, id);
+        } catch (DataIntegrityViolationException e) {
+            batch.rejected(row, e);
+        }
+    }
+
+    private static PreparedStatementCreator insertStatement(String sql) {
+        return connection -> connection.prepareStatement(sql, GENERATED_COLUMNS);
+    }
+
+    /**
+     * Binding of the inserted rows and the callbacks notified of their outcome.
+     *
+     * @param <T> type of the inserted rows
+     */
+    public interface Batch<T> {
+
+        /**
+         * Sets the parameters of the insert statement to the values of the row.
+         */
+        void bind(PreparedStatement statement, T row) throws SQLException;
+
+        /**
+         * Called within the transaction which inserted the rows, before it is committed.
+         *
+         * @param rows inserted rows
+         * @param ids  generated IDs of the rows, in the same order
+         */
+        default void inserted(List<T> rows, List<Long> ids) {
+        }
+
+        /**
+         * Called once the row is committed.
+         */
+        void created(T row, long id);
+
+        /**
+         * Called when the row violates a constraint and was not inserted.
+         */
+        void rejected(T row, DataIntegrityViolationException e);
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import java.util.List;
+
+/**
+ * Outcome of a single row of a bulk operation, e.g. an import.
+ */
+public interface BatchResult {
+
+    enum Status {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    Status status();
+
+    /**
+     * Counts the results of the status.
+     */
+    static int count(List<? extends BatchResult> results, Status status) {
+        return (int) results.stream().filter(result -> result.status() == status).count();
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import java.util.List;
+
+/**
+ * Names of the caches used by a module. Every module declares its caches as a bean of this type,
+ * so that they are created, bounded and measured up front by the application-wide cache manager.
+ *
+ * @param names names of the caches
+ */
+public record CacheNames(List<String> names) {
+
+    public static CacheNames of(String... names) {
+        return new CacheNames(List.of(names));
+    }
+
+}
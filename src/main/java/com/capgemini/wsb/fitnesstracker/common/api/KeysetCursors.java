@@ -0,0 +1,65 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codec of the opaque keyset pagination cursors of the listings. A cursor wraps the sort keys of the last row
+ * returned on the previous page, prefixed by the kind of the listing, as an url-safe Base64 token,
+ * which the client passes back to read the next page.
+ */
+public final class KeysetCursors {
+
+    /**
+     * Response header carrying the cursor of the next page, present only if there may be more rows.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = ":";
+
+    private KeysetCursors() {
+    }
+
+    /**
+     * Encodes the keys of a cursor into a token.
+     *
+     * @param prefix kind of the listing, must not contain the separator
+     * @param keys   sort keys of the last row of the page
+     * @return token to be passed back by the client to read the next page
+     */
+    public static String encode(String prefix, long... keys) {
+        StringBuilder cursor = new StringBuilder(prefix);
+        for (long key : keys) {
+            cursor.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the keys of a token created by {@link #encode(String, long...)}.
+     *
+     * @param prefix   kind of the listing the token has to belong to
+     * @param keyCount number of the keys the token has to contain
+     * @param token    token received from the client
+     * @return decoded keys
+     * @throws IllegalArgumentException if the token is malformed or belongs to another listing
+     */
+    public static long[] decode(String prefix, int keyCount, String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != keyCount + 1 || !parts[0].equals(prefix)) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            long[] keys = new long[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = Long.parseLong(parts[i + 1]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes entities streamed from the database as newline-delimited JSON, one object per line.
+ * The rows are written as they arrive, and the persistence context is cleared every {@value #FETCH_SIZE} rows,
+ * so the memory used does not depend on the number of rows. The streaming queries should fetch the rows
+ * in chunks of the same size, see {@link #FETCH_SIZE_HINT}.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonExporter {
+
+    /**
+     * Number of rows fetched from the database at once and written before the persistence context is cleared.
+     */
+    public static final int FETCH_SIZE = 500;
+
+    /**
+     * {@link #FETCH_SIZE} as the value of a fetch size query hint, which has to be a constant string.
+     */
+    public static final String FETCH_SIZE_HINT = "500";
+
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final EntityManager entityManager;
+
+    /**
+     * Writes all streamed rows to the output stream. Has to be called within the transaction of the stream.
+     *
+     * @param rows         streamed rows, closed when written
+     * @param mapper       maps a row to the written object
+     * @param writer       writer of the mapped objects
+     * @param outputStream stream the rows are written to, it is flushed but not closed
+     * @param <T>          type of the rows
+     * @return number of the written rows
+     * @throws IOException if writing to the stream fails
+     */
+    public <T> long export(Stream<T> rows, Function<? super T, ?> mapper, ObjectWriter writer, OutputStream outputStream) throws IOException {
+        long exported = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(writer.writeValueAsBytes(mapper.apply(iterator.next())));
+                outputStream.write(LINE_SEPARATOR);
+
+                if (++exported % FETCH_SIZE == 0) {
+                    outputStream.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        outputStream.flush();
+        return exported;
+    }
+
+}
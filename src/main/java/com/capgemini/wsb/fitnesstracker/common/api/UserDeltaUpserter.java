@@ -0,0 +1,83 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Adds deltas to the per-user aggregates maintained incrementally from the trainings (statistics, rollups),
+ * and serializes all writers of the aggregates of the same user.
+ * <p>
+ * The deltas are applied by a native {@code MERGE}, as a JPQL update cannot insert the missing row. A {@code MERGE}
+ * of a missing row is not atomic against a concurrent one of the same key: both may try to insert it, and the loser fails
+ * on the unique key, which on PostgreSQL also aborts its whole transaction. So every writer first locks the rows
+ * of its users in the {@code users} table, in the ascending order of their IDs so that writers of several users cannot
+ * deadlock, and holds the locks until its transaction ends. The same locks keep the rebuilds of the aggregates, which
+ * replace the rows of a user as a whole, and the incremental deltas of that user from interleaving.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserDeltaUpserter {
+
+    static final int LOCK_CHUNK_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the rows of the users until the end of the current transaction.
+     *
+     * @param userIds IDs of the users
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockUsers(Collection<Long> userIds) {
+        requireTransaction();
+        List<Long> sorted = List.copyOf(new TreeSet<>(userIds));
+        for (int from = 0; from < sorted.size(); from += LOCK_CHUNK_SIZE) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + LOCK_CHUNK_SIZE, sorted.size()));
+            jdbcTemplate.queryForList("select id from users where id in (%s) order by id for update"
+                                              .formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))),
+                                      Long.class, chunk.toArray());
+        }
+    }
+
+    /**
+     * Locks the rows of the users with the IDs in the range until the end of the current transaction.
+     *
+     * @param fromUserId first ID of the range, inclusive
+     * @param toUserId   last ID of the range, exclusive
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockUserRange(long fromUserId, long toUserId) {
+        requireTransaction();
+        jdbcTemplate.queryForList("select id from users where id >= ? and id < ? order by id for update", Long.class, fromUserId, toUserId);
+    }
+
+    /**
+     * Locks the users and applies the deltas with one JDBC batch.
+     *
+     * @param mergeSql {@code MERGE} statement adding one delta to the aggregate row, inserting it if missing
+     * @param userIds  IDs of the users whose aggregates are changed
+     * @param deltas   parameters of the statement, one array per delta
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void upsert(String mergeSql, Collection<Long> userIds, List<Object[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        lockUsers(userIds);
+        jdbcTemplate.batchUpdate(mergeSql, deltas);
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("The users can only be locked within a transaction.");
+        }
+    }
+
+}
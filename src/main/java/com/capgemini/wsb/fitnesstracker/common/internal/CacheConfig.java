@@ -0,0 +1,35 @@
+package com.capgemini.wsb.fitnesstracker.common.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.CacheNames;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Bounded, size and TTL evicted caches of the application, one for every name declared by the {@link CacheNames} beans
+ * of the modules. The caches record their statistics, which are published by the actuator as the {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+class CacheConfig {
+
+    @Bean
+    CacheManager cacheManager(CacheProperties properties, List<CacheNames> cacheNames) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(cacheNames.stream().flatMap(names -> names.names().stream()).toList());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                                         .maximumSize(properties.getMaximumSize())
+                                         .expireAfterWrite(properties.getTimeToLive())
+                                         .recordStats());
+        return cacheManager;
+    }
+
+}
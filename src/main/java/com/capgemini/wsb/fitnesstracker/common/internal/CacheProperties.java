@@ -0,0 +1,32 @@
+package com.capgemini.wsb.fitnesstracker.common.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process caches of the application.
+ */
+@ConfigurationProperties(prefix = "cache")
+@Getter
+class CacheProperties {
+
+    /**
+     * Maximal number of entries kept in each of the caches.
+     */
+    private final long maximumSize;
+
+    /**
+     * Time after which a cached entry is evicted, counted from the moment it was loaded.
+     */
+    private final Duration timeToLive;
+
+    CacheProperties(@DefaultValue("10000") long maximumSize,
+                    @DefaultValue("10m") Duration timeToLive) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.common.internal;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@code @Scheduled} jobs of all modules, run by the scheduler configured under {@code spring.task.scheduling}.
+ */
+@Configuration
+@EnableScheduling
+class SchedulingConfig {
+
+}
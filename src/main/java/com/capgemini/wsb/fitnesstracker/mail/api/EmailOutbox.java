@@ -0,0 +1,21 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+import java.util.List;
+
+/**
+ * API interface for storing emails to be sent together with the business change producing them.
+ * <p>
+ * The emails are written to the outbox table in the current transaction and sent by the {@link EmailSender} after it
+ * commits, so they are neither sent for rolled back changes nor lost when the application stops before sending them.
+ */
+public interface EmailOutbox {
+
+    /**
+     * Stores the emails in the outbox, within the current transaction.
+     *
+     * @param emails emails to be sent
+     * @throws org.springframework.transaction.IllegalTransactionStateException if there is no transaction in progress
+     */
+    void enqueue(List<EmailDto> emails);
+
+}
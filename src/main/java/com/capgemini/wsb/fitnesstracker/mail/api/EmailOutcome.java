@@ -0,0 +1,34 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Final outcome of sending one email.
+ *
+ * @param email    the email
+ * @param status   whether the email was sent
+ * @param attempts number of attempts to send the email, {@code 0} if it was rejected without any attempt
+ * @param error    reason of the last failure, {@code null} if the email was sent
+ */
+public record EmailOutcome(EmailDto email, Status status, int attempts, @Nullable String error) {
+
+    public enum Status {
+
+        /**
+         * The email was accepted by the SMTP server.
+         */
+        SENT,
+
+        /**
+         * The attempt to send the email failed.
+         */
+        FAILED,
+
+        /**
+         * The email was not accepted for sending, e.g. because the queue of the sender was full.
+         */
+        REJECTED
+
+    }
+
+}
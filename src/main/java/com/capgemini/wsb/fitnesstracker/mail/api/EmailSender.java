@@ -1,15 +1,27 @@
 package com.capgemini.wsb.fitnesstracker.mail.api;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * API interface for component responsible for sending emails.
  */
 public interface EmailSender {
 
+    /**
+     * Sends the email message to the recipient from the provided {@link EmailDto}, without waiting for the outcome.
+     *
+     * @param email information on email to be sent
+     */
+    default void send(EmailDto email) {
+        sendAsync(email);
+    }
+
     /**
      * Sends the email message to the recipient from the provided {@link EmailDto}.
      *
      * @param email information on email to be sent
+     * @return outcome of the sending, completed once the email was sent or all attempts failed
      */
-    void send(EmailDto email);
+    CompletableFuture<EmailOutcome> sendAsync(EmailDto email);
 
 }
@@ -0,0 +1,20 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+/**
+ * Email template compiled by {@link EmailTemplates}, rendering the subject and content of an email from a model.
+ * The compiled template is immutable and can be shared by all threads.
+ *
+ * @param <T> type of the model
+ */
+public interface EmailTemplate<T> {
+
+    /**
+     * Renders the email for the model.
+     *
+     * @param toAddress address of the recipient
+     * @param model     model providing the values of the template placeholders
+     * @return the rendered email
+     */
+    EmailDto render(String toAddress, T model);
+
+}
@@ -0,0 +1,30 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+/**
+ * API interface for compiling email templates. The templates should be compiled once, e.g. when the application starts,
+ * and the compiled {@link EmailTemplate} reused for every email.
+ * <p>
+ * A template is a text resource whose first line is the subject and the rest, after an empty line, is the content.
+ * Both of them may contain the placeholders:
+ * <ul>
+ *     <li>{@code {{name}}} - value of the binding {@code name},</li>
+ *     <li>{@code {{#name}}...{{/name}}} - section rendered if the condition {@code name} holds,
+ *     or once for every element of the list {@code name},</li>
+ *     <li>{@code {{^name}}...{{/name}}} - section rendered if the condition {@code name} does not hold or the list {@code name} is empty.</li>
+ * </ul>
+ * A section tag alone on its line removes the whole line from the output.
+ */
+public interface EmailTemplates {
+
+    /**
+     * Compiles the template, resolving all its placeholders against the bindings.
+     *
+     * @param location location of the template resource, e.g. {@code classpath:templates/mail/report.txt}
+     * @param bindings bindings of the placeholders to the model
+     * @param <T>      type of the model
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template cannot be read, is malformed or uses a name which is not bound
+     */
+    <T> EmailTemplate<T> compile(String location, TemplateBindings<T> bindings);
+
+}
@@ -0,0 +1,34 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Binding of one template placeholder name, created by {@link TemplateBindings}.
+ */
+public sealed interface TemplateBinding {
+
+    record Text(Function<?, ?> accessor) implements TemplateBinding {
+
+    }
+
+    record Integral(ToLongFunction<?> accessor) implements TemplateBinding {
+
+    }
+
+    record Decimal(ToDoubleFunction<?> accessor, int fractionDigits) implements TemplateBinding {
+
+    }
+
+    record Condition(Predicate<?> accessor) implements TemplateBinding {
+
+    }
+
+    record Section(Function<?, ? extends List<?>> accessor, TemplateBindings<?> elementBindings) implements TemplateBinding {
+
+    }
+
+}
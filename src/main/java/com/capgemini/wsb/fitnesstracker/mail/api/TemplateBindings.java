@@ -0,0 +1,77 @@
+package com.capgemini.wsb.fitnesstracker.mail.api;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bindings of the template placeholder names to the accessors of the model, see {@link EmailTemplates}.
+ * The numeric accessors are rendered without boxing or formatting the values through {@link String#format}.
+ *
+ * @param <T> type of the model
+ */
+public final class TemplateBindings<T> {
+
+    private final Map<String, TemplateBinding> bindings = new HashMap<>();
+
+    /**
+     * Binds the name to a value rendered with {@link String#valueOf(Object)}.
+     */
+    public TemplateBindings<T> text(String name, Function<? super T, ?> accessor) {
+        return bind(name, new TemplateBinding.Text(accessor));
+    }
+
+    /**
+     * Binds the name to an integral value.
+     */
+    public TemplateBindings<T> integer(String name, ToLongFunction<? super T> accessor) {
+        return bind(name, new TemplateBinding.Integral(accessor));
+    }
+
+    /**
+     * Binds the name to a decimal value rendered with the fixed number of fraction digits, rounded half up.
+     */
+    public TemplateBindings<T> decimal(String name, ToDoubleFunction<? super T> accessor, int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > 9) {
+            throw new IllegalArgumentException("Fraction digits must be between 0 and 9, got %d.".formatted(fractionDigits));
+        }
+        return bind(name, new TemplateBinding.Decimal(accessor, fractionDigits));
+    }
+
+    /**
+     * Binds the name to a condition of the sections.
+     */
+    public TemplateBindings<T> condition(String name, Predicate<? super T> accessor) {
+        return bind(name, new TemplateBinding.Condition(accessor));
+    }
+
+    /**
+     * Binds the name to a list of the sections, whose content is rendered for every element with the element bindings.
+     */
+    public <E> TemplateBindings<T> list(String name, Function<? super T, ? extends List<? extends E>> accessor, TemplateBindings<E> elementBindings) {
+        return bind(name, new TemplateBinding.Section(accessor, elementBindings));
+    }
+
+    /**
+     * Finds the binding of the name.
+     *
+     * @param name placeholder name
+     * @return the binding, empty if the name is not bound
+     */
+    public Optional<TemplateBinding> find(String name) {
+        return Optional.ofNullable(bindings.get(name));
+    }
+
+    private TemplateBindings<T> bind(String name, TemplateBinding binding) {
+        if (bindings.putIfAbsent(name, binding) != null) {
+            throw new IllegalArgumentException("Name %s is already bound.".formatted(name));
+        }
+        return this;
+    }
+
+}
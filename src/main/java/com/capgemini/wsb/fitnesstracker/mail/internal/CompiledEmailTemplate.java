@@ -0,0 +1,44 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+
+/**
+ * Template compiled by {@link EmailTemplatesImpl}. The emails are rendered into a buffer reused by the thread,
+ * so rendering allocates little more than the resulting subject and content strings.
+ */
+final class CompiledEmailTemplate<T> implements EmailTemplate<T> {
+
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
+    /**
+     * Buffers grown over this capacity by a huge email are not kept for the next emails.
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    private final TemplateNode[] subject;
+    private final TemplateNode[] content;
+
+    CompiledEmailTemplate(TemplateNode[] subject, TemplateNode[] content) {
+        this.subject = subject;
+        this.content = content;
+    }
+
+    @Override
+    public EmailDto render(String toAddress, T model) {
+        StringBuilder buffer = BUFFER.get();
+        String renderedSubject = render(subject, buffer, model);
+        String renderedContent = render(content, buffer, model);
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return new EmailDto(toAddress, renderedSubject, renderedContent);
+    }
+
+    private static String render(TemplateNode[] nodes, StringBuilder buffer, Object model) {
+        buffer.setLength(0);
+        TemplateNode.renderAll(nodes, buffer, model);
+        return buffer.toString();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+class EmailOutboxImpl implements EmailOutbox {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<EmailDto> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(emails.size());
+        for (EmailDto email : emails) {
+            rows.add(new Object[]{email.toAddress(), email.subject(), email.content(), now, now});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into email_outbox (to_address, subject, content, status, attempts, next_attempt_at, created_at)
+                values (?, ?, ?, 'PENDING', 0, ?, ?)""", rows);
+    }
+
+}
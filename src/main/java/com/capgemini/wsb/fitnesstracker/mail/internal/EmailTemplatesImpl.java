@@ -0,0 +1,49 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplates;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Component
+@RequiredArgsConstructor
+class EmailTemplatesImpl implements EmailTemplates {
+
+    private final ResourceLoader resourceLoader;
+
+    @Override
+    public <T> EmailTemplate<T> compile(String location, TemplateBindings<T> bindings) {
+        Resource resource = resourceLoader.getResource(location);
+        String source;
+        try {
+            source = resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Email template %s cannot be read.".formatted(location), e);
+        }
+        try {
+            return compileSource(source, bindings);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Email template %s is invalid: %s".formatted(location, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Compiles the template source, the subject line followed by an empty line and the content.
+     */
+    static <T> EmailTemplate<T> compileSource(String source, TemplateBindings<T> bindings) {
+        String normalized = source.replace("\r\n", "\n");
+        int subjectEnd = normalized.indexOf('\n');
+        if (subjectEnd < 0 || !normalized.startsWith("\n", subjectEnd + 1)) {
+            throw new IllegalArgumentException("The subject line must be followed by an empty line.");
+        }
+        return new CompiledEmailTemplate<>(TemplateCompiler.compile(normalized.substring(0, subjectEnd), bindings),
+                                           TemplateCompiler.compile(normalized.substring(subjectEnd + 2), bindings));
+    }
+
+}
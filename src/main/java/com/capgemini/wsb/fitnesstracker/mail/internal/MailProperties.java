@@ -2,21 +2,66 @@ package com.capgemini.wsb.fitnesstracker.mail.internal;
 
 import com.capgemini.wsb.fitnesstracker.mail.api.EmailSender;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.time.Duration;
+
 /**
  * Configuration of the {@link EmailSender} (additional to the Spring mail configuration for {@link JavaMailSender} bean autoconfiguration).
  */
 @ConfigurationProperties(prefix = "mail")
 @Getter
-@RequiredArgsConstructor
 class MailProperties {
 
     /**
      * Email address that the email should be sent from.
      */
+    @Nullable
     private final String from;
 
+    /**
+     * Maximal number of emails waiting to be sent.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Time the caller waits for a free place in the full queue before the email is rejected.
+     */
+    private final Duration enqueueTimeout;
+
+    /**
+     * Number of worker threads sending the emails, each of them holds one SMTP connection while sending.
+     */
+    private final int workers;
+
+    /**
+     * Maximal number of emails sent over one SMTP connection.
+     */
+    private final int batchSize;
+
+    /**
+     * Time after which connecting to the SMTP server, and every read from and write to it, time out.
+     */
+    private final Duration sendTimeout;
+
+    MailProperties(@Nullable String from,
+                   @DefaultValue("10000") int queueCapacity,
+                   @DefaultValue("5s") Duration enqueueTimeout,
+                   @DefaultValue("4") int workers,
+                   @DefaultValue("100") int batchSize,
+                   @DefaultValue("30s") Duration sendTimeout) {
+        if (queueCapacity < 1 || workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Queue capacity, workers and batch size must be positive.");
+        }
+        this.from = from;
+        this.queueCapacity = queueCapacity;
+        this.enqueueTimeout = enqueueTimeout;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
 }
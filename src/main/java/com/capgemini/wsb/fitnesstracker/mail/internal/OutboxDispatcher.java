@@ -0,0 +1,217 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutcome;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the emails stored in the outbox by {@link EmailOutboxImpl} through the {@link EmailSender}.
+ * <p>
+ * Every poll claims up to {@link OutboxProperties#getBatchSize()} pending emails: their IDs are selected with
+ * {@code for update skip locked} and marked as sending under a random claim token by ID, in one short transaction.
+ * Concurrent dispatchers, e.g. on other nodes, skip the rows locked by the others instead of waiting for them, so they
+ * never claim the same emails or send an email twice. The claimed emails are read back by their token and handed to the
+ * sender; once all of them have an outcome, they are marked sent, or rescheduled with a backoff until
+ * {@link OutboxProperties#getMaxAttempts()} attempts fail. The poll does not wait for the SMTP server, it only skips
+ * claiming while the previous batch is still being sent, so the scheduler thread shared by all jobs is never blocked.
+ * Emails claimed by a dispatcher which stopped before finishing them are claimed again after
+ * {@link OutboxProperties#getClaimTimeout()}. The timed out claim counts as a failed attempt, as the email may have been
+ * sent before the dispatcher stopped, so such an email is marked failed once it used up its attempts. The claim timeout must
+ * be longer than the sender may take to queue and send an email, otherwise an email which is only sent slowly is sent twice.
+ * <p>
+ * The sent emails are purged in chunks of {@link OutboxProperties#getPurgeChunkSize()} rows after
+ * {@link OutboxProperties#getRetention()}, so the purge does not hold long locks on the table.
+ * <p>
+ * Nothing is sent if no {@link EmailSender} is configured, the emails wait in the outbox until it is.
+ */
+@Component
+@Slf4j
+class OutboxDispatcher {
+
+    private static final String CLAIM_TIMED_OUT = "Claim timed out before the email was sent.";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final ObjectProvider<EmailSender> emailSender;
+    private final OutboxProperties properties;
+
+    private volatile CompletableFuture<Integer> lastDispatch = CompletableFuture.completedFuture(0);
+
+    OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                     TransactionTemplate transactionTemplate,
+                     OutboxEmailRepository outboxEmailRepository,
+                     ObjectProvider<EmailSender> emailSender,
+                     OutboxProperties properties,
+                     MailProperties mailProperties) {
+        Duration sendingTime = mailProperties.getEnqueueTimeout().plus(mailProperties.getSendTimeout());
+        if (properties.getClaimTimeout().compareTo(sendingTime) <= 0) {
+            throw new IllegalArgumentException("Claim timeout %s must be longer than the enqueue and send timeouts of the sender, %s together."
+                                                       .formatted(properties.getClaimTimeout(), sendingTime));
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailSender = emailSender;
+        this.properties = properties;
+    }
+
+    /**
+     * Dispatches the next batch of the pending emails, unless the previous one is still being sent.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:PT1S}")
+    public void poll() {
+        if (lastDispatch.isDone()) {
+            lastDispatch = dispatch().whenComplete((claimed, e) -> {
+                if (e != null) {
+                    log.warn("Dispatching the outbox failed, the claimed emails will be claimed again", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Claims one batch of the pending emails and hands them to the sender, without waiting for them to be sent.
+     *
+     * @return number of the claimed emails, completed once the outcomes of all of them are recorded
+     */
+    CompletableFuture<Integer> dispatch() {
+        EmailSender sender = emailSender.getIfAvailable();
+        if (sender == null) {
+            return CompletableFuture.completedFuture(0);
+        }
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = claim(claimToken);
+        if (claimed == 0) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        List<OutboxEmail> emails = outboxEmailRepository.findByClaimTokenOrderByIdAsc(claimToken);
+        List<CompletableFuture<EmailOutcome>> outcomes = new ArrayList<>(emails.size());
+        for (OutboxEmail email : emails) {
+            outcomes.add(sender.sendAsync(new EmailDto(email.getToAddress(), email.getSubject(), email.getContent())));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new))
+                .thenApply(sent -> {
+                    record(claimToken, emails, outcomes.stream().map(CompletableFuture::join).toList());
+                    return claimed;
+                });
+    }
+
+    /**
+     * Marks up to one batch of the due emails, and those claimed too long ago, as sending under the claim token.
+     * The emails claimed too long ago are counted one attempt, and marked failed instead if it was their last one.
+     */
+    private int claim(String claimToken) {
+        Instant now = Instant.now();
+        Timestamp staleClaim = Timestamp.from(now.minus(properties.getClaimTimeout()));
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<Candidate> candidates = jdbcTemplate.query("""
+                    select id, status, attempts from email_outbox
+                    where (status = 'PENDING' and next_attempt_at <= ?)
+                       or (status = 'SENDING' and claimed_at < ?)
+                    order by id
+                    fetch first ? rows only
+                    for update skip locked""",
+                    (row, rowNum) -> new Candidate(row.getLong(1), "SENDING".equals(row.getString(2)), row.getInt(3)),
+                    Timestamp.from(now), staleClaim, properties.getBatchSize());
+            List<Object[]> rows = new ArrayList<>(candidates.size());
+            List<Object[]> failed = new ArrayList<>();
+            for (Candidate candidate : candidates) {
+                int attempts = candidate.stale() ? candidate.attempts() + 1 : candidate.attempts();
+                if (attempts < properties.getMaxAttempts()) {
+                    rows.add(new Object[]{claimToken, Timestamp.from(now), attempts, candidate.id()});
+                } else {
+                    log.warn("Email {} failed after {} attempts: its claim timed out", candidate.id(), attempts);
+                    failed.add(new Object[]{attempts, CLAIM_TIMED_OUT, candidate.id()});
+                }
+            }
+            jdbcTemplate.batchUpdate("update email_outbox set status = 'SENDING', claim_token = ?, claimed_at = ?, attempts = ? where id = ?", rows);
+            jdbcTemplate.batchUpdate("update email_outbox set status = 'FAILED', attempts = ?, last_error = ?, claim_token = null where id = ?", failed);
+            return rows.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    private void record(String claimToken, List<OutboxEmail> emails, List<EmailOutcome> outcomes) {
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> retried = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            OutboxEmail email = emails.get(i);
+            EmailOutcome outcome = outcomes.get(i);
+            int attempts = email.getAttempts() + 1;
+            if (outcome.status() == EmailOutcome.Status.SENT) {
+                sent.add(new Object[]{attempts, Timestamp.from(Instant.now()), email.getId(), claimToken});
+            } else if (attempts < properties.getMaxAttempts()) {
+                Instant nextAttempt = Instant.now().plus(properties.getRetryBackoff().multipliedBy(1L << (attempts - 1)));
+                retried.add(new Object[]{attempts, Timestamp.from(nextAttempt), abbreviate(outcome.error()), email.getId(), claimToken});
+            } else {
+                log.warn("Email {} to {} failed after {} attempts: {}", email.getId(), email.getToAddress(), attempts, outcome.error());
+                failed.add(new Object[]{attempts, abbreviate(outcome.error()), email.getId(), claimToken});
+            }
+        }
+        // the claim token guards against updating the emails claimed again by another dispatcher in the meantime
+        jdbcTemplate.batchUpdate("""
+                update email_outbox set status = 'SENT', attempts = ?, sent_at = ?, claim_token = null
+                where id = ? and claim_token = ?""", sent);
+        jdbcTemplate.batchUpdate("""
+                update email_outbox set status = 'PENDING', attempts = ?, next_attempt_at = ?, last_error = ?, claim_token = null
+                where id = ? and claim_token = ?""", retried);
+        jdbcTemplate.batchUpdate("""
+                update email_outbox set status = 'FAILED', attempts = ?, last_error = ?, claim_token = null
+                where id = ? and claim_token = ?""", failed);
+    }
+
+    /**
+     * Deletes the emails sent before the retention period.
+     *
+     * @return number of the deleted emails
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval:PT1H}")
+    public int purge() {
+        Timestamp sentBefore = Timestamp.from(Instant.now().minus(properties.getRetention()));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    delete from email_outbox
+                    where id in (select id from email_outbox
+                                 where status = 'SENT' and sent_at < ?
+                                 order by id
+                                 fetch first ? rows only)""", sentBefore, properties.getPurgeChunkSize());
+            purged += deleted;
+        } while (deleted == properties.getPurgeChunkSize());
+        if (purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Email due to be claimed, {@code stale} if it is claimed again after the claim timed out.
+     */
+    private record Candidate(long id, boolean stale, int attempts) {
+    }
+
+    @Nullable
+    private static String abbreviate(@Nullable String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+}
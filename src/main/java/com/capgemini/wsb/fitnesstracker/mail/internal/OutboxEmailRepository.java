@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    List<OutboxEmail> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    long countByStatus(OutboxEmail.Status status);
+
+}
@@ -0,0 +1,64 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the email outbox, see {@link OutboxDispatcher}. The polling and purging intervals are configured
+ * by {@code mail.outbox.poll-interval} and {@code mail.outbox.purge-interval}.
+ */
+@ConfigurationProperties(prefix = "mail.outbox")
+@Getter
+class OutboxProperties {
+
+    /**
+     * Maximal number of emails claimed and sent by one poll, together with the poll interval it limits the sending rate.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximal number of attempts to send an email before it is marked failed.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the next attempt to send a failed email, doubled with every attempt.
+     */
+    private final Duration retryBackoff;
+
+    /**
+     * Time after which the emails claimed by a dispatcher which did not finish sending them are claimed again.
+     */
+    private final Duration claimTimeout;
+
+    /**
+     * Time the sent emails are kept before they are purged.
+     */
+    private final Duration retention;
+
+    /**
+     * Number of sent emails deleted in one statement when purging.
+     */
+    private final int purgeChunkSize;
+
+    OutboxProperties(@DefaultValue("500") int batchSize,
+                     @DefaultValue("5") int maxAttempts,
+                     @DefaultValue("1m") Duration retryBackoff,
+                     @DefaultValue("5m") Duration claimTimeout,
+                     @DefaultValue("7d") Duration retention,
+                     @DefaultValue("1000") int purgeChunkSize) {
+        if (batchSize < 1 || maxAttempts < 1 || purgeChunkSize < 1) {
+            throw new IllegalArgumentException("Batch size, max attempts and purge chunk size must be positive.");
+        }
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.claimTimeout = claimTimeout;
+        this.retention = retention;
+        this.purgeChunkSize = purgeChunkSize;
+    }
+
+}
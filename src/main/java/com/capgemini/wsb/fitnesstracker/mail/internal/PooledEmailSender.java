@@ -0,0 +1,187 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutcome;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailSender;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmailSender} queueing the emails and sending them in the background, so the callers never wait for the SMTP server.
+ * <p>
+ * The emails are put into a queue of {@link MailProperties#getQueueCapacity()} emails, drained by
+ * {@link MailProperties#getWorkers()} worker threads. A worker takes up to {@link MailProperties#getBatchSize()} queued emails
+ * at once and sends them with a single {@link JavaMailSender#send(SimpleMailMessage...)} call, which connects to the SMTP
+ * server once and sends all of them over that connection. Every email is attempted once, the emails the server
+ * did not accept are reported as failed and retried by the {@link OutboxDispatcher} which stored them.
+ * The outcome of every email is reported by the future returned from {@link #sendAsync(EmailDto)}. The SMTP operations time out
+ * after {@link MailProperties#getSendTimeout()}, unless the timeouts are configured by {@code spring.mail.properties}.
+ * <p>
+ * Active only if the SMTP server is configured by {@code spring.mail.host}.
+ */
+@Component
+@ConditionalOnProperty("spring.mail.host")
+@Slf4j
+class PooledEmailSender implements EmailSender {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final JavaMailSender javaMailSender;
+    private final MailProperties properties;
+    private final BlockingQueue<PendingEmail> queue;
+    private final ExecutorService workers;
+
+    private volatile boolean running = true;
+
+    PooledEmailSender(JavaMailSender javaMailSender, MailProperties properties) {
+        this.javaMailSender = javaMailSender;
+        this.properties = properties;
+        if (javaMailSender instanceof JavaMailSenderImpl impl) {
+            String timeout = String.valueOf(properties.getSendTimeout().toMillis());
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.connectiontimeout", timeout);
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.timeout", timeout);
+            impl.getJavaMailProperties().putIfAbsent("mail.smtp.writetimeout", timeout);
+        }
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), new CustomizableThreadFactory("email-sender-"));
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Stops taking new emails and waits a while for the workers to send the queued ones.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        PendingEmail pending;
+        while ((pending = queue.poll()) != null) {
+            pending.complete(EmailOutcome.Status.FAILED, "Sender was shut down.");
+        }
+    }
+
+    @Override
+    public CompletableFuture<EmailOutcome> sendAsync(EmailDto email) {
+        PendingEmail pending = new PendingEmail(email);
+        if (!running) {
+            pending.complete(EmailOutcome.Status.REJECTED, "Sender was shut down.");
+            return pending.result;
+        }
+        try {
+            if (!queue.offer(pending, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                pending.complete(EmailOutcome.Status.REJECTED, "Queue of %d emails is full.".formatted(properties.getQueueCapacity()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.complete(EmailOutcome.Status.REJECTED, "Interrupted while queueing the email.");
+        }
+        return pending.result;
+    }
+
+    private void drain() {
+        List<PendingEmail> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingEmail first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(pending -> pending.complete(EmailOutcome.Status.FAILED, "Sender was shut down."));
+        }
+    }
+
+    /**
+     * Sends the batch over one SMTP connection.
+     */
+    private void deliver(List<PendingEmail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            batch.get(i).attempts++;
+            messages[i] = toMessage(batch.get(i).email);
+        }
+        try {
+            javaMailSender.send(messages);
+            batch.forEach(pending -> pending.complete(EmailOutcome.Status.SENT, null));
+        } catch (MailSendException e) {
+            // the failed messages are keyed by the sent message, all of them if the connection failed
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failed.isEmpty() ? e : failed.get(messages[i]);
+                if (failure == null) {
+                    batch.get(i).complete(EmailOutcome.Status.SENT, null);
+                } else {
+                    fail(batch.get(i), failure);
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(pending -> fail(pending, e));
+        }
+    }
+
+    private static void fail(PendingEmail pending, Exception failure) {
+        log.warn("Email to {} failed: {}", pending.email.toAddress(), failure.getMessage());
+        pending.complete(EmailOutcome.Status.FAILED, failure.getMessage());
+    }
+
+    private SimpleMailMessage toMessage(EmailDto email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (properties.getFrom() != null) {
+            message.setFrom(properties.getFrom());
+        }
+        message.setTo(email.toAddress());
+        message.setSubject(email.subject());
+        message.setText(email.content());
+        return message;
+    }
+
+    /**
+     * Email waiting in the queue.
+     */
+    private static final class PendingEmail {
+
+        private final EmailDto email;
+        private final CompletableFuture<EmailOutcome> result = new CompletableFuture<>();
+        private int attempts;
+
+        PendingEmail(EmailDto email) {
+            this.email = email;
+        }
+
+        void complete(EmailOutcome.Status status, @Nullable String error) {
+            result.complete(new EmailOutcome(email, status, attempts, error));
+        }
+
+    }
+
+}
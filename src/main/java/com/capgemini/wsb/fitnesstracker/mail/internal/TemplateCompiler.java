@@ -0,0 +1,176 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBinding;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Parses the template text into {@link TemplateNode}s, resolving every placeholder to its binding,
+ * see {@link com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplates} for the syntax.
+ */
+final class TemplateCompiler {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * Compiles the template text.
+     *
+     * @param text     the template text
+     * @param bindings bindings of the placeholders
+     * @return nodes of the compiled template
+     * @throws IllegalArgumentException if the template is malformed or uses a name which is not bound
+     */
+    static TemplateNode[] compile(String text, TemplateBindings<?> bindings) {
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(null, null, false, bindings));
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+
+        while (position < text.length()) {
+            int tagStart = text.indexOf(OPEN, position);
+            if (tagStart < 0) {
+                literal.append(text, position, text.length());
+                break;
+            }
+            int tagEnd = text.indexOf(CLOSE, tagStart + OPEN.length());
+            if (tagEnd < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset %d.".formatted(tagStart));
+            }
+            String tag = text.substring(tagStart + OPEN.length(), tagEnd).strip();
+            if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset %d.".formatted(tagStart));
+            }
+            int next = tagEnd + CLOSE.length();
+            char kind = tag.charAt(0);
+            boolean section = kind == '#' || kind == '^' || kind == '/';
+
+            literal.append(text, position, tagStart);
+            if (section) {
+                int lineEnd = standaloneLineEnd(text, tagStart, next);
+                if (lineEnd >= 0) {
+                    // drop the indentation before the tag and the rest of its line
+                    literal.setLength(literal.length() - (tagStart - lineStart(text, tagStart)));
+                    next = lineEnd;
+                }
+            }
+            flush(literal, frames.peek());
+
+            if (!section) {
+                frames.peek().nodes.add(valueNode(tag, frames.peek().bindings));
+            } else if (kind == '/') {
+                Frame closed = frames.pop();
+                String name = tag.substring(1).strip();
+                if (closed.name == null || !closed.name.equals(name)) {
+                    throw new IllegalArgumentException("Unexpected end of section %s at offset %d.".formatted(name, tagStart));
+                }
+                frames.peek().nodes.add(closed.toSection());
+            } else {
+                String name = tag.substring(1).strip();
+                TemplateBinding binding = resolve(name, frames.peek().bindings);
+                TemplateBindings<?> sectionBindings = frames.peek().bindings;
+                if (binding instanceof TemplateBinding.Section list) {
+                    sectionBindings = kind == '^' ? sectionBindings : list.elementBindings();
+                } else if (!(binding instanceof TemplateBinding.Condition)) {
+                    throw new IllegalArgumentException("Name %s is not a condition or a list, it cannot open a section.".formatted(name));
+                }
+                frames.push(new Frame(name, binding, kind == '^', sectionBindings));
+            }
+            position = next;
+        }
+        if (frames.size() > 1) {
+            throw new IllegalArgumentException("Section %s is not closed.".formatted(frames.peek().name));
+        }
+        flush(literal, frames.peek());
+        return frames.peek().nodes.toArray(TemplateNode[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TemplateNode valueNode(String name, TemplateBindings<?> bindings) {
+        TemplateBinding binding = resolve(name, bindings);
+        if (binding instanceof TemplateBinding.Text text) {
+            return new TemplateNode.TextValue((Function<Object, ?>) text.accessor());
+        }
+        if (binding instanceof TemplateBinding.Integral integral) {
+            return new TemplateNode.IntegralValue((ToLongFunction<Object>) integral.accessor());
+        }
+        if (binding instanceof TemplateBinding.Decimal decimal) {
+            return new TemplateNode.DecimalValue((ToDoubleFunction<Object>) decimal.accessor(), decimal.fractionDigits());
+        }
+        throw new IllegalArgumentException("Name %s is a condition or a list, it can only open a section.".formatted(name));
+    }
+
+    private static TemplateBinding resolve(String name, TemplateBindings<?> bindings) {
+        return bindings.find(name).orElseThrow(() -> new IllegalArgumentException("Name %s is not bound.".formatted(name)));
+    }
+
+    private static void flush(StringBuilder literal, Frame frame) {
+        if (!literal.isEmpty()) {
+            frame.nodes.add(new TemplateNode.Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static int lineStart(String text, int offset) {
+        return text.lastIndexOf('\n', offset - 1) + 1;
+    }
+
+    /**
+     * Returns the offset after the line of the tag if there is nothing but whitespace around the tag on its line, or {@code -1}.
+     */
+    private static int standaloneLineEnd(String text, int tagStart, int tagEnd) {
+        if (!text.substring(lineStart(text, tagStart), tagStart).isBlank()) {
+            return -1;
+        }
+        int newLine = text.indexOf('\n', tagEnd);
+        int lineEnd = newLine < 0 ? text.length() : newLine;
+        if (!text.substring(tagEnd, lineEnd).isBlank()) {
+            return -1;
+        }
+        return newLine < 0 ? lineEnd : newLine + 1;
+    }
+
+    /**
+     * Section being parsed, the root frame has no name.
+     */
+    private static final class Frame {
+
+        @Nullable
+        private final String name;
+        @Nullable
+        private final TemplateBinding binding;
+        private final boolean inverted;
+        private final TemplateBindings<?> bindings;
+        private final List<TemplateNode> nodes = new ArrayList<>();
+
+        Frame(@Nullable String name, @Nullable TemplateBinding binding, boolean inverted, TemplateBindings<?> bindings) {
+            this.name = name;
+            this.binding = binding;
+            this.inverted = inverted;
+            this.bindings = bindings;
+        }
+
+        @SuppressWarnings("unchecked")
+        TemplateNode toSection() {
+            TemplateNode[] content = nodes.toArray(TemplateNode[]::new);
+            if (binding instanceof TemplateBinding.Section list) {
+                return new TemplateNode.ListSection((Function<Object, ? extends List<?>>) list.accessor(), inverted, content);
+            }
+            return new TemplateNode.ConditionSection((Predicate<Object>) ((TemplateBinding.Condition) binding).accessor(), inverted, content);
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Node of a compiled template, rendering a literal, a value or a section of the model into the buffer.
+ */
+sealed interface TemplateNode {
+
+    void render(StringBuilder out, Object model);
+
+    static void renderAll(TemplateNode[] nodes, StringBuilder out, Object model) {
+        for (TemplateNode node : nodes) {
+            node.render(out, model);
+        }
+    }
+
+    record Literal(String text) implements TemplateNode {
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            out.append(text);
+        }
+
+    }
+
+    record TextValue(Function<Object, ?> accessor) implements TemplateNode {
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            out.append(accessor.apply(model));
+        }
+
+    }
+
+    record IntegralValue(ToLongFunction<Object> accessor) implements TemplateNode {
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            out.append(accessor.applyAsLong(model));
+        }
+
+    }
+
+    record DecimalValue(ToDoubleFunction<Object> accessor, int fractionDigits) implements TemplateNode {
+
+        private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000};
+        private static final double MAX_SCALED = 1e15;
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            appendDecimal(out, accessor.applyAsDouble(model), fractionDigits);
+        }
+
+        static void appendDecimal(StringBuilder out, double value, int fractionDigits) {
+            long scale = POWERS_OF_TEN[fractionDigits];
+            double scaledValue = Math.abs(value) * scale;
+            if (!(scaledValue < MAX_SCALED)) {
+                // infinite, NaN or too big to be scaled into a long
+                out.append(value);
+                return;
+            }
+            long scaled = Math.round(scaledValue);
+            if (value < 0 && scaled != 0) {
+                out.append('-');
+            }
+            out.append(scaled / scale);
+            if (fractionDigits > 0) {
+                long fraction = scaled % scale;
+                out.append('.');
+                for (long digit = scale / 10; digit > 1 && fraction < digit; digit /= 10) {
+                    out.append('0');
+                }
+                out.append(fraction);
+            }
+        }
+
+    }
+
+    record ConditionSection(Predicate<Object> condition, boolean inverted, TemplateNode[] content) implements TemplateNode {
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            if (condition.test(model) != inverted) {
+                renderAll(content, out, model);
+            }
+        }
+
+    }
+
+    record ListSection(Function<Object, ? extends List<?>> accessor, boolean inverted, TemplateNode[] content) implements TemplateNode {
+
+        @Override
+        public void render(StringBuilder out, Object model) {
+            List<?> elements = accessor.apply(model);
+            if (inverted) {
+                if (elements.isEmpty()) {
+                    renderAll(content, out, model);
+                }
+                return;
+            }
+            for (int i = 0; i < elements.size(); i++) {
+                renderAll(content, out, elements.get(i));
+            }
+        }
+
+    }
+
+}
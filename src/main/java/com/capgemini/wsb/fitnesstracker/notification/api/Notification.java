@@ -0,0 +1,14 @@
+package com.capgemini.wsb.fitnesstracker.notification.api;
+
+import java.time.Instant;
+
+/**
+ * Notification for a user, e.g. about a recorded training.
+ *
+ * @param userId     ID of the notified user
+ * @param message    one line describing what happened
+ * @param occurredAt time of the notified event
+ */
+public record Notification(Long userId, String message, Instant occurredAt) {
+
+}
@@ -0,0 +1,15 @@
+package com.capgemini.wsb.fitnesstracker.notification.api;
+
+/**
+ * API interface for notifying the users. The notifications are not sent one by one, but merged into digest emails.
+ */
+public interface NotificationPublisher {
+
+    /**
+     * Publishes the notification, to be sent with the next digest of the user.
+     *
+     * @param notification the notification
+     */
+    void publish(Notification notification);
+
+}
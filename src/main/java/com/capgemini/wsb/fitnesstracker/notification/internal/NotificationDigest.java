@@ -0,0 +1,22 @@
+package com.capgemini.wsb.fitnesstracker.notification.internal;
+
+import com.capgemini.wsb.fitnesstracker.notification.api.Notification;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Notifications of one user merged into one email.
+ *
+ * @param userId        ID of the user
+ * @param since         time the first notification was buffered
+ * @param notifications the kept notifications, in the order they were published
+ * @param omitted       number of the further notifications which were only counted
+ */
+record NotificationDigest(Long userId, Instant since, List<Notification> notifications, int omitted) {
+
+    int count() {
+        return notifications.size() + omitted;
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.capgemini.wsb.fitnesstracker.notification.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutbox;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplates;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import com.capgemini.wsb.fitnesstracker.notification.api.Notification;
+import com.capgemini.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import com.capgemini.wsb.fitnesstracker.user.api.UserProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the notifications of every user in memory and sends them as one digest email per user,
+ * once the first of them is older than {@link NotificationDigestProperties#getWindow()}.
+ * <p>
+ * The memory is bounded: a digest keeps at most {@link NotificationDigestProperties#getMaxNotificationsPerUser()}
+ * notifications and all digests together at most {@link NotificationDigestProperties#getMaxBufferedNotifications()},
+ * the further notifications are only counted. Reaching the total limit makes the next check send all digests early.
+ * The digests are stored in the {@link EmailOutbox} in chunks of users, all buffered ones also when the application
+ * shuts down; the digests which could not be stored stay in the buffer.
+ */
+@Component
+@Slf4j
+class NotificationDigestBuffer implements NotificationPublisher {
+
+    static final String TEMPLATE = "classpath:templates/mail/notification-digest.txt";
+    static final int FLUSH_CHUNK_SIZE = 500;
+    private static final DateTimeFormatter SINCE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final UserProvider userProvider;
+    private final EmailOutbox emailOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationDigestProperties properties;
+    private final EmailTemplate<NotificationDigest> template;
+
+    private final Map<Long, UserDigest> digests = new ConcurrentHashMap<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    NotificationDigestBuffer(UserProvider userProvider,
+                             EmailOutbox emailOutbox,
+                             TransactionTemplate transactionTemplate,
+                             NotificationDigestProperties properties,
+                             EmailTemplates emailTemplates) {
+        this.userProvider = userProvider;
+        this.emailOutbox = emailOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.template = emailTemplates.compile(TEMPLATE, new TemplateBindings<NotificationDigest>()
+                .integer("count", NotificationDigest::count)
+                .text("notificationsLabel", digest -> digest.count() == 1 ? "notification" : "notifications")
+                .text("since", digest -> SINCE_FORMAT.format(LocalDateTime.ofInstant(digest.since(), ZoneId.systemDefault())))
+                .list("notifications", NotificationDigest::notifications, new TemplateBindings<Notification>()
+                        .text("message", Notification::message))
+                .condition("omitted", digest -> digest.omitted() > 0)
+                .integer("omittedCount", NotificationDigest::omitted));
+    }
+
+    @Override
+    public void publish(Notification notification) {
+        digests.compute(notification.userId(), (userId, digest) -> {
+            UserDigest current = digest != null ? digest : new UserDigest(Instant.now());
+            if (current.notifications.size() >= properties.getMaxNotificationsPerUser()) {
+                current.omitted++;
+            } else if (buffered.incrementAndGet() > properties.getMaxBufferedNotifications()) {
+                buffered.decrementAndGet();
+                current.omitted++;
+            } else {
+                current.notifications.add(notification);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Sends the digests collected for longer than the window, or all of them if the buffer is full.
+     */
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval:PT30S}")
+    public void flushDue() {
+        flush(Instant.now());
+    }
+
+    /**
+     * Sends all buffered digests.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush(Instant.MAX);
+    }
+
+    int bufferedNotifications() {
+        return buffered.get();
+    }
+
+    /**
+     * Sends the digests collected for longer than the window before the time, or all of them if the buffer is full.
+     * The digests are taken from the buffer and stored in the outbox in chunks of {@value #FLUSH_CHUNK_SIZE} users,
+     * each in its own transaction; the digests of a chunk which could not be stored are put back into the buffer,
+     * together with the ones not flushed yet, for the next check.
+     */
+    void flush(Instant now) {
+        boolean full = buffered.get() >= properties.getMaxBufferedNotifications();
+        Instant startedBefore = now == Instant.MAX || full ? Instant.MAX : now.minus(properties.getWindow());
+        List<Long> dueUserIds = new ArrayList<>();
+        digests.forEach((userId, digest) -> {
+            if (digest.since.isBefore(startedBefore)) {
+                dueUserIds.add(userId);
+            }
+        });
+
+        int sent = 0;
+        for (int from = 0; from < dueUserIds.size(); from += FLUSH_CHUNK_SIZE) {
+            Map<Long, UserDigest> chunk = take(dueUserIds.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, dueUserIds.size())));
+            try {
+                sent += send(chunk);
+            } catch (RuntimeException e) {
+                chunk.forEach(this::restore);
+                log.warn("Sending {} notification digests failed, they are kept for the next check", chunk.size(), e);
+                break;
+            }
+        }
+        if (sent > 0) {
+            log.debug("Sent {} notification digests", sent);
+        }
+    }
+
+    /**
+     * Removes the digests of the users from the buffer.
+     */
+    private Map<Long, UserDigest> take(List<Long> userIds) {
+        Map<Long, UserDigest> taken = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            // removed under the lock of the key, so no notification is added to the removed digest
+            UserDigest removed = digests.remove(userId);
+            if (removed != null) {
+                buffered.addAndGet(-removed.notifications.size());
+                taken.put(userId, removed);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Puts the digest back into the buffer, merged with the notifications of the user collected since it was taken.
+     */
+    private void restore(Long userId, UserDigest taken) {
+        digests.compute(userId, (id, collected) -> {
+            if (collected == null) {
+                buffered.addAndGet(taken.notifications.size());
+                return taken;
+            }
+            UserDigest merged = new UserDigest(taken.since.isBefore(collected.since) ? taken.since : collected.since);
+            merged.omitted = taken.omitted + collected.omitted;
+            for (List<Notification> notifications : List.of(taken.notifications, collected.notifications)) {
+                int kept = Math.min(notifications.size(), properties.getMaxNotificationsPerUser() - merged.notifications.size());
+                merged.notifications.addAll(notifications.subList(0, kept));
+                merged.omitted += notifications.size() - kept;
+            }
+            buffered.addAndGet(merged.notifications.size() - collected.notifications.size());
+            return merged;
+        });
+    }
+
+    /**
+     * Renders the digests for the users and stores them in the outbox, in one transaction.
+     *
+     * @return number of the stored digests
+     */
+    private int send(Map<Long, UserDigest> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Long, String> emails = userProvider.findEmails(chunk.keySet());
+        List<EmailDto> messages = new ArrayList<>(chunk.size());
+        chunk.forEach((userId, digest) -> {
+            String email = emails.get(userId);
+            if (email != null) {
+                messages.add(template.render(email, new NotificationDigest(userId, digest.since, List.copyOf(digest.notifications), digest.omitted)));
+            }
+        });
+        if (!messages.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> emailOutbox.enqueue(messages));
+        }
+        return messages.size();
+    }
+
+    /**
+     * Notifications of one user collected so far, guarded by the lock of its key in the map.
+     */
+    private static final class UserDigest {
+
+        private final Instant since;
+        private final List<Notification> notifications = new ArrayList<>();
+        private int omitted;
+
+        UserDigest(Instant since) {
+            this.since = since;
+        }
+
+    }
+
+}
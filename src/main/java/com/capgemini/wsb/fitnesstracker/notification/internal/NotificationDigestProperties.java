@@ -0,0 +1,43 @@
+package com.capgemini.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the notification digests, see {@link NotificationDigestBuffer}. The interval of checking for the
+ * digests to be sent is configured by {@code notification.digest.flush-interval}.
+ */
+@ConfigurationProperties(prefix = "notification.digest")
+@Getter
+class NotificationDigestProperties {
+
+    /**
+     * Time the notifications of a user are collected, from the first one, before they are sent in one digest.
+     */
+    private final Duration window;
+
+    /**
+     * Maximal number of notifications kept in the digest of one user, the further ones are only counted.
+     */
+    private final int maxNotificationsPerUser;
+
+    /**
+     * Maximal number of notifications kept for all users, the further ones are only counted and all digests are sent early.
+     */
+    private final int maxBufferedNotifications;
+
+    NotificationDigestProperties(@DefaultValue("15m") Duration window,
+                                 @DefaultValue("20") int maxNotificationsPerUser,
+                                 @DefaultValue("100000") int maxBufferedNotifications) {
+        if (maxNotificationsPerUser < 1 || maxBufferedNotifications < 1) {
+            throw new IllegalArgumentException("Maximal numbers of notifications must be positive.");
+        }
+        this.window = window;
+        this.maxNotificationsPerUser = maxNotificationsPerUser;
+        this.maxBufferedNotifications = maxBufferedNotifications;
+    }
+
+}
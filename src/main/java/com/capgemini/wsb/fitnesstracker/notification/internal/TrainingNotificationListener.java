@@ -0,0 +1,40 @@
+package com.capgemini.wsb.fitnesstracker.notification.internal;
+
+import com.capgemini.wsb.fitnesstracker.notification.api.Notification;
+import com.capgemini.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Notifies the users about their recorded trainings, once the trainings are committed.
+ */
+@Component
+@RequiredArgsConstructor
+class TrainingNotificationListener {
+
+    private final NotificationPublisher notificationPublisher;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        Instant now = Instant.now();
+        for (TrainingSnapshot training : event.trainings()) {
+            notificationPublisher.publish(new Notification(training.userId(), message(training), now));
+        }
+    }
+
+    private static String message(TrainingSnapshot training) {
+        LocalDate day = LocalDate.ofInstant(training.startTime().toInstant(), ZoneId.systemDefault());
+        long minutes = (training.endTime().getTime() - training.startTime().getTime()) / 60_000;
+        return String.format(Locale.ROOT, "%s training of %.1f km in %d min recorded for %s",
+                             training.activityType().getDisplayName(), training.distance(), minutes, day);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+/**
+ * User receiving the weekly report.
+ *
+ * @param id        ID of the user
+ * @param firstName first name of the user
+ * @param email     email of the user
+ */
+record ReportRecipient(Long id, String firstName, String email) {
+
+}
@@ -0,0 +1,16 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Totals of the user's trainings of one activity type in the week.
+ *
+ * @param userId          ID of the user
+ * @param activityType    activity type of the trainings
+ * @param trainings       number of trainings
+ * @param distance        total distance of the trainings
+ * @param durationSeconds total duration of the trainings, in seconds
+ */
+record WeeklyActivityTotals(Long userId, ActivityType activityType, long trainings, double distance, long durationSeconds) {
+
+}
@@ -0,0 +1,27 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Summary of the user's trainings in one week.
+ *
+ * @param recipient  user receiving the report
+ * @param weekStart  first day (Monday) of the week
+ * @param activities totals per activity type, empty if the user did not train in the week
+ */
+record WeeklyReport(ReportRecipient recipient, LocalDate weekStart, List<WeeklyActivityTotals> activities) {
+
+    long trainings() {
+        return activities.stream().mapToLong(WeeklyActivityTotals::trainings).sum();
+    }
+
+    double distance() {
+        return activities.stream().mapToDouble(WeeklyActivityTotals::distance).sum();
+    }
+
+    long durationSeconds() {
+        return activities.stream().mapToLong(WeeklyActivityTotals::durationSeconds).sum();
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Checkpoint of the weekly reports: a chunk of users {@code [firstUserId, lastUserId]} of the week and whether
+ * their reports were already sent. The chunks are recorded as the users are scanned, so the recorded chunks of a week
+ * tell both which reports were sent and where the scan of an interrupted run continues. A chunk of a week is recorded
+ * once per first user, so two instances scanning the same week cannot both record it.
+ */
+@Entity
+@Table(name = "weekly_report_chunks",
+       indexes = @Index(name = "idx_weekly_report_chunks_week_start", columnList = "week_start, first_user_id", unique = true))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class WeeklyReportChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @Column(name = "first_user_id", nullable = false)
+    private Long firstUserId;
+
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    WeeklyReportChunk(LocalDate weekStart, Long firstUserId, Long lastUserId) {
+        this.weekStart = weekStart;
+        this.firstUserId = firstUserId;
+        this.lastUserId = lastUserId;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+interface WeeklyReportChunkRepository extends JpaRepository<WeeklyReportChunk, Long> {
+
+    List<WeeklyReportChunk> findByWeekStartAndCompletedFalseOrderByFirstUserIdAsc(LocalDate weekStart);
+
+    List<WeeklyReportChunk> findByWeekStartBeforeAndCompletedFalseOrderByWeekStartAscFirstUserIdAsc(LocalDate weekStart);
+
+    boolean existsByWeekStartAndCompletedFalse(LocalDate weekStart);
+
+    /**
+     * Query reading the ID of the last user recorded in a chunk of the week, where the scan of the users continues.
+     *
+     * @param weekStart first day of the week
+     * @return ID of the last scanned user, empty if the week was not started yet
+     */
+    @Query("select max(c.lastUserId) from WeeklyReportChunk c where c.weekStart = :weekStart")
+    Optional<Long> findLastScannedUserId(LocalDate weekStart);
+
+    /**
+     * Query claiming a chunk by marking it completed, unless another run already did. The updated row stays locked
+     * until the end of the transaction, so a concurrent claim of the same chunk waits for it and then updates nothing.
+     *
+     * @param id ID of the chunk
+     * @return {@code 1} if the chunk was claimed, {@code 0} if it was already completed
+     */
+    @Transactional
+    @Modifying
+    @Query("update WeeklyReportChunk c set c.completed = true where c.id = :id and c.completed = false")
+    int markCompleted(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WeeklyReportChunk c where c.weekStart < :weekStart and c.completed = true")
+    int deleteCompletedByWeekStartBefore(LocalDate weekStart);
+
+}
@@ -0,0 +1,32 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/v1/reports")
+@RequiredArgsConstructor
+class WeeklyReportController {
+
+    private final WeeklyReportJob weeklyReportJob;
+
+    /**
+     * Sends the weekly training reports to all users who did not receive them yet.
+     *
+     * @param weekStart the Monday starting the week, none for the last week
+     * @return the summary of the run
+     */
+    @PostMapping("/weekly")
+    public WeeklyReportRunSummary sendWeeklyReports(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Nullable LocalDate weekStart) {
+        LocalDate week = weekStart != null ? weekStart : WeeklyReportJob.lastWeekStart();
+        return weeklyReportJob.generate(week);
+    }
+
+}
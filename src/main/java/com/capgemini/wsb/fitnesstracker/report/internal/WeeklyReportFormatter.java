@@ -0,0 +1,49 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplates;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders the {@link WeeklyReport} as a plain text email from the {@value #TEMPLATE} template, compiled once on startup.
+ */
+@Component
+class WeeklyReportFormatter {
+
+    static final String TEMPLATE = "classpath:templates/mail/weekly-report.txt";
+
+    private final EmailTemplate<WeeklyReport> template;
+
+    WeeklyReportFormatter(EmailTemplates emailTemplates) {
+        TemplateBindings<WeeklyActivityTotals> activityBindings = new TemplateBindings<WeeklyActivityTotals>()
+                .text("activityType", WeeklyActivityTotals::activityType)
+                .integer("trainings", WeeklyActivityTotals::trainings)
+                .text("trainingsLabel", activity -> trainingsLabel(activity.trainings()))
+                .decimal("distance", WeeklyActivityTotals::distance, 1)
+                .integer("hours", activity -> activity.durationSeconds() / 3600)
+                .integer("minutes", activity -> activity.durationSeconds() % 3600 / 60);
+        TemplateBindings<WeeklyReport> reportBindings = new TemplateBindings<WeeklyReport>()
+                .text("firstName", report -> report.recipient().firstName())
+                .text("weekStart", WeeklyReport::weekStart)
+                .text("weekEnd", report -> report.weekStart().plusDays(6))
+                .condition("trained", report -> !report.activities().isEmpty())
+                .list("activities", WeeklyReport::activities, activityBindings)
+                .integer("trainings", WeeklyReport::trainings)
+                .text("trainingsLabel", report -> trainingsLabel(report.trainings()))
+                .decimal("distance", WeeklyReport::distance, 1)
+                .integer("hours", report -> report.durationSeconds() / 3600)
+                .integer("minutes", report -> report.durationSeconds() % 3600 / 60);
+        this.template = emailTemplates.compile(TEMPLATE, reportBindings);
+    }
+
+    EmailDto format(WeeklyReport report) {
+        return template.render(report.recipient().email(), report);
+    }
+
+    private static String trainingsLabel(long trainings) {
+        return trainings == 1 ? "training" : "trainings";
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutbox;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the weekly training reports of all users and emails them.
+ * <p>
+ * The users are scanned by their ID in chunks of {@link WeeklyReportProperties#getChunkSize()} users. Every chunk is
+ * recorded as a {@link WeeklyReportChunk} checkpoint and handed to a pool of {@link WeeklyReportProperties#getParallelism()}
+ * workers, which read the recipients of the chunk, aggregate their trainings of the week with one grouped query,
+ * and store the reports in the {@link EmailOutbox} in the same transaction which marks the chunk completed.
+ * The work queue is bounded, so once all workers are busy the scan processes the next chunk itself instead of reading ahead.
+ * <p>
+ * A run interrupted by a restart or failed chunks is resumed by the next run of the same week: the completed chunks are
+ * skipped, the incomplete ones are processed again and the scan continues after the last recorded user. The chunks still
+ * incomplete from the earlier weeks are retried by every run too, and their checkpoints are dropped only once completed.
+ * As the reports of a chunk are stored together with its checkpoint, every user receives the report once.
+ * <p>
+ * The runs of one instance are serialized, but the instances of the application run the job independently. So a chunk
+ * is claimed by a conditional update of its checkpoint, and its reports are stored only by the run whose update marked it
+ * completed; the other runs skip it. The scan of a week stops once a chunk was already recorded by another instance,
+ * which continues the scan itself.
+ * <p>
+ * The scheduled and resumed runs are executed by a coordinator thread of their own, which also processes the chunks
+ * the busy workers do not accept, so they never block the scheduler shared by all jobs.
+ */
+@Component
+@Slf4j
+class WeeklyReportJob {
+
+    private final WeeklyReportRepository reportRepository;
+    private final WeeklyReportChunkRepository chunkRepository;
+    private final WeeklyReportFormatter formatter;
+    private final EmailOutbox emailOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final WeeklyReportProperties properties;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+
+    WeeklyReportJob(WeeklyReportRepository reportRepository,
+                    WeeklyReportChunkRepository chunkRepository,
+                    WeeklyReportFormatter formatter,
+                    EmailOutbox emailOutbox,
+                    TransactionTemplate transactionTemplate,
+                    WeeklyReportProperties properties) {
+        this.reportRepository = reportRepository;
+        this.chunkRepository = chunkRepository;
+        this.formatter = formatter;
+        this.emailOutbox = emailOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.workers = new ThreadPoolExecutor(properties.getParallelism(), properties.getParallelism(), 0, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(properties.getParallelism()),
+                                              new CustomizableThreadFactory("weekly-report-"),
+                                              new ThreadPoolExecutor.CallerRunsPolicy());
+        this.coordinator = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("weekly-report-run-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Sends the reports of the last week, every Monday morning by default.
+     */
+    @Scheduled(cron = "${report.weekly.cron:0 0 6 * * MON}")
+    public void sendLastWeekReports() {
+        LocalDate weekStart = lastWeekStart();
+        coordinator.execute(() -> generate(weekStart));
+    }
+
+    /**
+     * Resumes the reports of the last week in the background, if their run was interrupted by the restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        LocalDate weekStart = lastWeekStart();
+        if (chunkRepository.existsByWeekStartAndCompletedFalse(weekStart)) {
+            log.info("Resuming weekly reports of the week of {}", weekStart);
+            coordinator.execute(() -> generate(weekStart));
+        }
+    }
+
+    /**
+     * Sends the reports of the week to all users who did not receive them yet.
+     *
+     * @param weekStart first day (Monday) of the week
+     * @return summary of the run
+     * @throws IllegalArgumentException if the week does not start on Monday
+     */
+    synchronized WeeklyReportRunSummary generate(LocalDate weekStart) {
+        if (weekStart.getDayOfWeek() != DayOfWeek.MONDAY) {
+            throw new IllegalArgumentException("Week must start on Monday, got %s.".formatted(weekStart));
+        }
+        long start = System.currentTimeMillis();
+        chunkRepository.deleteCompletedByWeekStartBefore(weekStart);
+
+        List<Future<Integer>> chunks = new ArrayList<>();
+        for (WeeklyReportChunk chunk : chunkRepository.findByWeekStartBeforeAndCompletedFalseOrderByWeekStartAscFirstUserIdAsc(weekStart)) {
+            chunks.add(workers.submit(() -> send(chunk)));
+        }
+        for (WeeklyReportChunk chunk : chunkRepository.findByWeekStartAndCompletedFalseOrderByFirstUserIdAsc(weekStart)) {
+            chunks.add(workers.submit(() -> send(chunk)));
+        }
+        long lastUserId = chunkRepository.findLastScannedUserId(weekStart).orElse(0L);
+        List<Long> userIds;
+        do {
+            userIds = reportRepository.findUserIdsAfter(lastUserId, Limit.of(properties.getChunkSize()));
+            if (!userIds.isEmpty()) {
+                lastUserId = userIds.get(userIds.size() - 1);
+                WeeklyReportChunk chunk;
+                try {
+                    chunk = chunkRepository.save(new WeeklyReportChunk(weekStart, userIds.get(0), lastUserId));
+                } catch (DataIntegrityViolationException e) {
+                    log.info("Weekly reports of the week of {} are scanned by another instance from user {}", weekStart, userIds.get(0));
+                    break;
+                }
+                chunks.add(workers.submit(() -> send(chunk)));
+            }
+        } while (userIds.size() == properties.getChunkSize());
+
+        int sent = 0;
+        int failed = 0;
+        for (Future<Integer> chunk : chunks) {
+            try {
+                sent += chunk.get();
+            } catch (ExecutionException e) {
+                failed++;
+                log.warn("Weekly reports of a chunk failed, they will be resumed by the next run", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending the weekly reports.", e);
+            }
+        }
+        WeeklyReportRunSummary summary = new WeeklyReportRunSummary(weekStart, chunks.size(), sent, failed, System.currentTimeMillis() - start);
+        log.info("Weekly reports of the week of {} sent: {}", weekStart, summary);
+        return summary;
+    }
+
+    /**
+     * Claims the chunk and stores the reports of its users in the outbox.
+     *
+     * @return number of sent reports, {@code 0} if another run completed the chunk meanwhile
+     */
+    int send(WeeklyReportChunk chunk) {
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(chunk.getWeekStart().atStartOfDay(zone).toInstant());
+        Date to = Date.from(chunk.getWeekStart().plusWeeks(1).atStartOfDay(zone).toInstant());
+        List<ReportRecipient> recipients = reportRepository.findRecipients(chunk.getFirstUserId(), chunk.getLastUserId());
+        List<WeeklyActivityTotals> totals = reportRepository.findWeeklyTotals(chunk.getFirstUserId(), chunk.getLastUserId(), from, to);
+
+        // both are ordered by the user, so the totals of every recipient are a consecutive run
+        List<EmailDto> emails = new ArrayList<>(recipients.size());
+        int first = 0;
+        for (ReportRecipient recipient : recipients) {
+            while (first < totals.size() && totals.get(first).userId() < recipient.id()) {
+                first++;
+            }
+            int end = first;
+            while (end < totals.size() && totals.get(end).userId().equals(recipient.id())) {
+                end++;
+            }
+            emails.add(formatter.format(new WeeklyReport(recipient, chunk.getWeekStart(), totals.subList(first, end))));
+            first = end;
+        }
+        Boolean claimed = transactionTemplate.execute(status -> {
+            if (chunkRepository.markCompleted(chunk.getId()) != 1) {
+                return false;
+            }
+            emailOutbox.enqueue(emails);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(claimed)) {
+            log.info("Weekly reports of chunk {} were already sent by another run", chunk.getId());
+            return 0;
+        }
+        return emails.size();
+    }
+
+    static LocalDate lastWeekStart() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+    }
+
+}
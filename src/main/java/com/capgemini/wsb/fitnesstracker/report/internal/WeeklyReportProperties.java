@@ -0,0 +1,33 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the weekly training reports, see {@link WeeklyReportJob}.
+ */
+@ConfigurationProperties(prefix = "report.weekly")
+@Getter
+class WeeklyReportProperties {
+
+    /**
+     * Number of consecutive users whose reports are generated and sent together.
+     */
+    private final int chunkSize;
+
+    /**
+     * Number of chunks processed concurrently, each of them holds a database connection while reading.
+     */
+    private final int parallelism;
+
+    WeeklyReportProperties(@DefaultValue("500") int chunkSize,
+                           @DefaultValue("4") int parallelism) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive.");
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+}
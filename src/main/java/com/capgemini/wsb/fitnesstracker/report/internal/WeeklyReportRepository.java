@@ -0,0 +1,53 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read-only queries over the users and their trainings needed by the weekly reports.
+ */
+interface WeeklyReportRepository extends Repository<User, Long> {
+
+    /**
+     * Keyset query reading the IDs of the users, in the ID order.
+     *
+     * @param afterUserId ID of the last user of the previous chunk, {@code 0} for the first chunk
+     * @param limit       maximal number of IDs to read
+     * @return IDs of the users
+     */
+    @Query("select u.id from User u where u.id > :afterUserId order by u.id")
+    List<Long> findUserIdsAfter(Long afterUserId, Limit limit);
+
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.report.internal.ReportRecipient(u.id, u.firstName, u.email)
+            from User u
+            where u.id between :firstUserId and :lastUserId
+            order by u.id""")
+    List<ReportRecipient> findRecipients(Long firstUserId, Long lastUserId);
+
+    /**
+     * Query aggregating the trainings of a chunk of users started in {@code [from, to)}, one row per user and activity type.
+     *
+     * @param firstUserId ID of the first user of the chunk
+     * @param lastUserId  ID of the last user of the chunk
+     * @param from        inclusive start of the week
+     * @param to          exclusive end of the week
+     * @return totals ordered by the user and activity type, users without trainings in the week have none
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.report.internal.WeeklyActivityTotals(
+                t.user.id, t.activityType, count(t), sum(t.distance), cast(sum(timestampdiff(second, t.startTime, t.endTime)) as Long))
+            from Training t
+            where t.user.id between :firstUserId and :lastUserId
+              and t.startTime >= :from
+              and t.startTime < :to
+            group by t.user.id, t.activityType
+            order by t.user.id, t.activityType""")
+    List<WeeklyActivityTotals> findWeeklyTotals(Long firstUserId, Long lastUserId, Date from, Date to);
+
+}
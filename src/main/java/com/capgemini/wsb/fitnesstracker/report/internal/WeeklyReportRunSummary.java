@@ -0,0 +1,16 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of one run of the weekly reports.
+ *
+ * @param weekStart      first day of the reported week
+ * @param chunks         number of chunks processed by this run
+ * @param sent           number of reports stored in the outbox by this run
+ * @param failedChunks   number of chunks which failed and are left to the next run
+ * @param durationMillis time the run took, in milliseconds
+ */
+record WeeklyReportRunSummary(LocalDate weekStart, int chunks, int sent, int failedChunks, long durationMillis) {
+
+}
@@ -0,0 +1,40 @@
+package com.capgemini.wsb.fitnesstracker.rollup.api;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of the periods the trainings are aggregated by in the {@link TrainingRollup}s.
+ */
+public enum RollupPeriod {
+
+    /**
+     * ISO week, starting on Monday.
+     */
+    WEEK {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    },
+
+    /**
+     * Calendar month.
+     */
+    MONTH {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+    };
+
+    /**
+     * Returns the first day of the period containing the date.
+     *
+     * @param date any day of the period
+     * @return first day of the period
+     */
+    public abstract LocalDate startOf(LocalDate date);
+
+}
@@ -0,0 +1,69 @@
+package com.capgemini.wsb.fitnesstracker.rollup.api;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Aggregate of the trainings of one user, of one activity type, started within one period.
+ */
+@Entity
+@Table(name = "training_rollups", indexes = {
+        @Index(name = "ux_training_rollups_user_period", columnList = "user_id, period_type, period_start, activity_type", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TrainingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", nullable = false, length = 8)
+    private RollupPeriod periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "activity_type", nullable = false)
+    private ActivityType activityType;
+
+    @Column(name = "training_count", nullable = false)
+    private int trainingCount;
+
+    @Column(name = "total_distance", nullable = false)
+    private double totalDistance;
+
+    @Column(name = "total_duration_seconds", nullable = false)
+    private long totalDurationSeconds;
+
+    public TrainingRollup(
+            final User user,
+            final RollupPeriod periodType,
+            final LocalDate periodStart,
+            final ActivityType activityType,
+            final int trainingCount,
+            final double totalDistance,
+            final long totalDurationSeconds) {
+        this.user = user;
+        this.periodType = periodType;
+        this.periodStart = periodStart;
+        this.activityType = activityType;
+        this.trainingCount = trainingCount;
+        this.totalDistance = totalDistance;
+        this.totalDurationSeconds = totalDurationSeconds;
+    }
+
+}
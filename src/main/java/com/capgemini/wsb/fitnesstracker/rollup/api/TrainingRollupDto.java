@@ -0,0 +1,22 @@
+package com.capgemini.wsb.fitnesstracker.rollup.api;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * Aggregate of the trainings of one activity type started within one period.
+ *
+ * @param periodStart          first day of the period
+ * @param activityType         activity type of the trainings
+ * @param trainingCount        number of the trainings
+ * @param totalDistance        total distance of the trainings
+ * @param totalDurationSeconds total duration of the trainings, in seconds
+ */
+public record TrainingRollupDto(LocalDate periodStart,
+                                ActivityType activityType,
+                                int trainingCount,
+                                double totalDistance,
+                                long totalDurationSeconds) {
+
+}
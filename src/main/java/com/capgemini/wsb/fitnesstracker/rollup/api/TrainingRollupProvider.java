@@ -0,0 +1,24 @@
+package com.capgemini.wsb.fitnesstracker.rollup.api;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TrainingRollupProvider {
+
+    /**
+     * Retrieves the aggregates of the user's trainings per period and activity type, read from the rollups only,
+     * so the cost depends on the number of periods in the range, not on the number of trainings.
+     *
+     * @param userId       ID of the user
+     * @param period       length of the periods
+     * @param from         inclusive start of the range, the period containing it is included
+     * @param to           exclusive end of the range
+     * @param activityType activity type to filter by, {@code null} for all of them
+     * @return aggregates ordered by the period start and activity type, periods without trainings are omitted
+     */
+    List<TrainingRollupDto> findRollups(Long userId, RollupPeriod period, LocalDate from, LocalDate to, @Nullable ActivityType activityType);
+
+}
@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+/**
+ * Report of the rollups backfill.
+ *
+ * @param users          number of users whose rollups were rebuilt
+ * @param trainings      number of aggregated trainings
+ * @param rollups        number of written rollups
+ * @param durationMillis time the backfill took, in milliseconds
+ */
+record RollupBackfillReport(int users, long trainings, long rollups, long durationMillis) {
+
+}
@@ -0,0 +1,73 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.rollup.api.RollupPeriod;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Changes of the rollups caused by a set of trainings, merged per rollup row,
+ * so every affected row is written once however many trainings fall into it.
+ * Trainings are assigned to the periods by the local date of their start.
+ */
+final class RollupDeltas {
+
+    private final Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+
+    /**
+     * Counts the training into all its rollups.
+     */
+    void add(TrainingSnapshot training) {
+        merge(training, 1);
+    }
+
+    /**
+     * Removes the training from all its rollups.
+     */
+    void remove(TrainingSnapshot training) {
+        merge(training, -1);
+    }
+
+    boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    int size() {
+        return deltas.size();
+    }
+
+    void forEach(BiConsumer<RollupKey, Delta> consumer) {
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                consumer.accept(key, delta);
+            }
+        });
+    }
+
+    private void merge(TrainingSnapshot training, int sign) {
+        LocalDate day = training.startTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        long durationSeconds = Math.max(0, training.endTime().getTime() - training.startTime().getTime()) / 1000;
+        Delta delta = new Delta(sign, sign * training.distance(), sign * durationSeconds);
+
+        for (RollupPeriod period : RollupPeriod.values()) {
+            deltas.merge(new RollupKey(training.userId(), period, period.startOf(day), training.activityType()), delta, Delta::plus);
+        }
+    }
+
+    record Delta(int trainings, double distance, long durationSeconds) {
+
+        Delta plus(Delta other) {
+            return new Delta(trainings + other.trainings, distance + other.distance, durationSeconds + other.durationSeconds);
+        }
+
+        boolean isZero() {
+            return trainings == 0 && distance == 0 && durationSeconds == 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.rollup.api.RollupPeriod;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * Identity of a {@link com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollup} row.
+ */
+record RollupKey(Long userId, RollupPeriod period, LocalDate periodStart, ActivityType activityType) {
+
+}
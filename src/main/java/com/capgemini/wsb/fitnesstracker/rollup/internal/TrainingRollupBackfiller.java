@@ -0,0 +1,83 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.UserDeltaUpserter;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rebuilds the rollups from the stored trainings, e.g. for the trainings created before the rollups were introduced.
+ * <p>
+ * The users having trainings are processed in chunks of {@value #USER_CHUNK_SIZE}. For every chunk the trainings are read
+ * with one query, aggregated in memory and the rollups of the chunk's users are replaced in one transaction, so the
+ * memory used is bounded by the chunk and the rollups of every user stay consistent while the backfill runs.
+ * The users of the chunk are locked by the {@link UserDeltaUpserter} before their trainings are read, so the trainings
+ * of these users written concurrently are either read by the chunk or applied by the {@link TrainingRollupEventListener}
+ * after the chunk commits, never both or neither.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class TrainingRollupBackfiller {
+
+    static final int USER_CHUNK_SIZE = 100;
+
+    private final TrainingRollupRepository trainingRollupRepository;
+    private final TrainingRollupWriter trainingRollupWriter;
+    private final UserDeltaUpserter userDeltaUpserter;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Rebuilds the rollups of all users.
+     *
+     * @return report of the backfill
+     */
+    RollupBackfillReport backfill() {
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> trainingRollupRepository.deleteOfUsersWithoutTrainings());
+
+        int users = 0;
+        long trainings = 0;
+        long rollups = 0;
+        long lastUserId = 0;
+        List<Long> userIds;
+        do {
+            userIds = trainingRollupRepository.findUserIdsWithTrainingsAfter(lastUserId, Limit.of(USER_CHUNK_SIZE));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<Long> chunk = userIds;
+            ChunkResult result = transactionTemplate.execute(status -> rebuild(chunk));
+
+            users += chunk.size();
+            trainings += result.trainings();
+            rollups += result.rollups();
+            lastUserId = chunk.get(chunk.size() - 1);
+        } while (userIds.size() == USER_CHUNK_SIZE);
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Rollups of {} users rebuilt from {} trainings into {} rollups in {} ms", users, trainings, rollups, duration);
+        return new RollupBackfillReport(users, trainings, rollups, duration);
+    }
+
+    private ChunkResult rebuild(List<Long> userIds) {
+        userDeltaUpserter.lockUsers(userIds);
+        trainingRollupRepository.deleteByUserIds(userIds);
+
+        List<TrainingSnapshot> trainings = trainingRollupRepository.findTrainingsOfUsers(userIds);
+        RollupDeltas deltas = new RollupDeltas();
+        trainings.forEach(deltas::add);
+        trainingRollupWriter.apply(deltas);
+        return new ChunkResult(trainings.size(), deltas.size());
+    }
+
+    private record ChunkResult(int trainings, int rollups) {
+
+    }
+
+}
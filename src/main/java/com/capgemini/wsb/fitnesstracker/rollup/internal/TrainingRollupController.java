@@ -0,0 +1,49 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.rollup.api.RollupPeriod;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollupDto;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/rollups")
+@RequiredArgsConstructor
+class TrainingRollupController {
+
+    private final TrainingRollupServiceImpl trainingRollupService;
+
+    /**
+     * Retrieves the aggregates of the user's trainings per period and activity type, started in {@code [from, to)}.
+     *
+     * @param userId       the ID of the user
+     * @param period       the length of the periods
+     * @param from         the inclusive start of the range, the whole period containing it is included
+     * @param to           the exclusive end of the range
+     * @param activityType the activity type, none for all of them
+     * @return a list of TrainingRollupDto ordered by the period start
+     */
+    @GetMapping("/{userId}")
+    public List<TrainingRollupDto> getRollups(@PathVariable Long userId,
+                                              @RequestParam RollupPeriod period,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(required = false) ActivityType activityType) {
+        return trainingRollupService.findRollups(userId, period, from, to, activityType);
+    }
+
+    /**
+     * Rebuilds the rollups of all users from the stored trainings.
+     *
+     * @return the report of the backfill
+     */
+    @PostMapping("/backfill")
+    public RollupBackfillReport backfillRollups() {
+        return trainingRollupService.backfillRollups();
+    }
+
+}
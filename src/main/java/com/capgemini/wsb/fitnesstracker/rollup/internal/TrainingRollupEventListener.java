@@ -0,0 +1,36 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the rollups incrementally from the training events, within the transaction changing the trainings.
+ */
+@Component
+@RequiredArgsConstructor
+class TrainingRollupEventListener {
+
+    private final TrainingRollupWriter trainingRollupWriter;
+
+    @EventListener
+    @Transactional
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        RollupDeltas deltas = new RollupDeltas();
+        event.trainings().forEach(deltas::add);
+        trainingRollupWriter.apply(deltas);
+    }
+
+    @EventListener
+    @Transactional
+    public void onTrainingUpdated(TrainingUpdatedEvent event) {
+        RollupDeltas deltas = new RollupDeltas();
+        deltas.remove(event.previous());
+        deltas.add(event.current());
+        trainingRollupWriter.apply(deltas);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.rollup.api.RollupPeriod;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollup;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollupDto;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+interface TrainingRollupRepository extends JpaRepository<TrainingRollup, Long> {
+
+    /**
+     * Query reading the rollups of the user in the range, served by the unique index leading with
+     * {@code (user_id, period_type, period_start)}, so only the requested rows are read.
+     *
+     * @param userId       ID of the user
+     * @param period       length of the periods
+     * @param from         inclusive lower bound of the period start
+     * @param to           exclusive upper bound of the period start
+     * @param activityType activity type to filter by, {@code null} for all of them
+     * @return rollups ordered by the period start and activity type
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollupDto(
+                r.periodStart, r.activityType, r.trainingCount, r.totalDistance, r.totalDurationSeconds)
+            from TrainingRollup r
+            where r.user.id = :userId
+              and r.periodType = :period
+              and r.periodStart >= :from
+              and r.periodStart < :to
+              and (:activityType is null or r.activityType = :activityType)
+            order by r.periodStart, r.activityType""")
+    List<TrainingRollupDto> findRollups(Long userId, RollupPeriod period, LocalDate from, LocalDate to, ActivityType activityType);
+
+    /**
+     * Keyset query reading the IDs of the users having any trainings, in the ID order.
+     *
+     * @param afterUserId ID of the last user of the previous chunk, {@code 0} for the first chunk
+     * @param limit       maximal number of IDs to read
+     * @return IDs of the users
+     */
+    @Query("select distinct t.user.id from Training t where t.user.id > :afterUserId order by t.user.id")
+    List<Long> findUserIdsWithTrainingsAfter(Long afterUserId, Limit limit);
+
+    /**
+     * Query reading all trainings of the users, without loading the training entities.
+     *
+     * @param userIds IDs of the users
+     * @return trainings of the users
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot(
+                t.id, t.user.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.user.id in :userIds""")
+    List<TrainingSnapshot> findTrainingsOfUsers(Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from TrainingRollup r where r.user.id in :userIds")
+    int deleteByUserIds(Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from TrainingRollup r where not exists (select t.id from Training t where t.user = r.user)")
+    int deleteOfUsersWithoutTrainings();
+
+}
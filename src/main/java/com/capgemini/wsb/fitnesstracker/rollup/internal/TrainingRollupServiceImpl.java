@@ -0,0 +1,42 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.rollup.api.RollupPeriod;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollupDto;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollupProvider;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+class TrainingRollupServiceImpl implements TrainingRollupProvider {
+
+    private final TrainingRollupRepository trainingRollupRepository;
+    private final TrainingRollupBackfiller trainingRollupBackfiller;
+
+    @Override
+    public List<TrainingRollupDto> findRollups(Long userId,
+                                               RollupPeriod period,
+                                               LocalDate from,
+                                               LocalDate to,
+                                               @Nullable ActivityType activityType) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start %s must be before its end %s.".formatted(from, to));
+        }
+        return trainingRollupRepository.findRollups(userId, period, period.startOf(from), to, activityType);
+    }
+
+    /**
+     * Rebuilds the rollups of all users from the stored trainings.
+     *
+     * @return report of the backfill
+     */
+    RollupBackfillReport backfillRollups() {
+        return trainingRollupBackfiller.backfill();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.UserDeltaUpserter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the {@link RollupDeltas} to the rollups table through the {@link UserDeltaUpserter}, with one upsert per affected
+ * rollup keyed on the unique {@code (user_id, period_type, period_start, activity_type)} columns.
+ */
+@Component
+@RequiredArgsConstructor
+class TrainingRollupWriter {
+
+    // the casts type the parameters of the values row for H2
+    private static final String UPSERT_SQL = """
+            merge into training_rollups r
+            using (values (cast(? as bigint), cast(? as varchar(8)), cast(? as date), cast(? as int),
+                           cast(? as int), cast(? as double precision), cast(? as bigint)))
+                as d(user_id, period_type, period_start, activity_type, trainings, distance, duration_seconds)
+            on r.user_id = d.user_id
+               and r.period_type = d.period_type
+               and r.period_start = d.period_start
+               and r.activity_type = d.activity_type
+            when matched then update set
+                training_count = r.training_count + d.trainings,
+                total_distance = r.total_distance + d.distance,
+                total_duration_seconds = r.total_duration_seconds + d.duration_seconds
+            when not matched then insert (user_id, period_type, period_start, activity_type,
+                                          training_count, total_distance, total_duration_seconds)
+                values (d.user_id, d.period_type, d.period_start, d.activity_type,
+                        d.trainings, d.distance, d.duration_seconds)""";
+
+    private final UserDeltaUpserter userDeltaUpserter;
+
+    /**
+     * Applies the deltas, must be called within a transaction. The users of the deltas stay locked until it ends.
+     *
+     * @param deltas the deltas to apply
+     */
+    void apply(RollupDeltas deltas) {
+        Set<Long> userIds = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            userIds.add(key.userId());
+            rows.add(new Object[]{key.userId(),
+                                  key.period().name(),
+                                  key.periodStart(),
+                                  key.activityType().ordinal(),
+                                  delta.trainings(),
+                                  delta.distance(),
+                                  delta.durationSeconds()});
+        });
+        userDeltaUpserter.upsert(UPSERT_SQL, userIds, rows);
+    }
+
+}
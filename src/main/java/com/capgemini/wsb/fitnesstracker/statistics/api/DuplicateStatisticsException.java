@@ -0,0 +1,19 @@
+package com.capgemini.wsb.fitnesstracker.statistics.api;
+
+import com.capgemini.wsb.fitnesstracker.exception.api.ConflictException;
+
+/**
+ * Exception indicating that the user already has {@link Statistics}.
+ */
+@SuppressWarnings("squid:S110")
+public class DuplicateStatisticsException extends ConflictException {
+
+    private DuplicateStatisticsException(String message) {
+        super(message);
+    }
+
+    public DuplicateStatisticsException(Long userId) {
+        this("Statistics already exist for user with ID=%s".formatted(userId));
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.capgemini.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Statistics of the trainings of one user.
+ *
+ * @param id                  ID of the statistics, ignored when creating or updating them
+ * @param userId              ID of the user, ignored when updating the statistics
+ * @param totalTrainings      number of the trainings
+ * @param totalDistance       total distance of the trainings
+ * @param totalCaloriesBurned total calories burned in the trainings
+ */
+public record StatisticsDto(Long id,
+                            Long userId,
+                            int totalTrainings,
+                            double totalDistance,
+                            int totalCaloriesBurned) {
+
+}
@@ -13,4 +13,13 @@ public interface StatisticsProvider {
      */
     Optional<Statistics> getStatistics(Long statisticsId);
 
+    /**
+     * Retrieves the statistics of the user.
+     * If the user has no statistics, then {@link Optional#empty()} will be returned.
+     *
+     * @param userId id of the user
+     * @return An {@link Optional} containing the located Statistics, or {@link Optional#empty()} if not found
+     */
+    Optional<Statistics> getStatisticsOfUser(Long userId);
+
 }
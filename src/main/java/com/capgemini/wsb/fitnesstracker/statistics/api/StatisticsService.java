@@ -0,0 +1,17 @@
+package com.capgemini.wsb.fitnesstracker.statistics.api;
+
+import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
+
+/**
+ * Interface (API) for modifying operations on {@link Statistics} entities through the API.
+ * Implementing classes are responsible for executing changes within a database transaction, whether by continuing an existing transaction or creating a new one if required.
+ */
+public interface StatisticsService {
+
+    Statistics createStatistics(StatisticsDto statistics) throws UserNotFoundException, DuplicateStatisticsException;
+
+    Statistics updateStatistics(Long statisticsId, StatisticsDto statistics) throws StatisticsNotFoundException;
+
+    void deleteStatistics(Long statisticsId) throws StatisticsNotFoundException;
+
+}
@@ -0,0 +1,128 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Trainings laid out column by column in primitive arrays, the input of {@link CalorieEngine}.
+ * <p>
+ * Everything the engine needs is resolved when a training is added (duration, activity ordinal, age at the training),
+ * so the calculation itself runs over plain arrays without any objects, boxing or lookups.
+ */
+final class CalorieBatch {
+
+    static final int UNKNOWN_AGE = -1;
+    static final int MAX_AGE = 120;
+
+    private long[] durationMillis;
+    private double[] distance;
+    private double[] averageSpeed;
+    private byte[] activity;
+    private int[] age;
+    private int size;
+
+    CalorieBatch(int capacity) {
+        durationMillis = new long[capacity];
+        distance = new double[capacity];
+        averageSpeed = new double[capacity];
+        activity = new byte[capacity];
+        age = new int[capacity];
+    }
+
+    /**
+     * Adds the training of a user.
+     *
+     * @param training  the training
+     * @param birthdate birthdate of the user, {@code null} if unknown
+     */
+    void add(TrainingSnapshot training, LocalDate birthdate) {
+        add(training.endTime().getTime() - training.startTime().getTime(),
+            training.distance(),
+            training.averageSpeed(),
+            training.activityType(),
+            ageAt(birthdate, training.startTime()));
+    }
+
+    /**
+     * Adds a training.
+     *
+     * @param durationMillis duration of the training, in milliseconds
+     * @param distance       distance of the training, in kilometers
+     * @param averageSpeed   average speed of the training, in kilometers per hour
+     * @param activityType   activity type of the training
+     * @param age            age of the user at the training, in years, or {@link #UNKNOWN_AGE}
+     */
+    void add(long durationMillis, double distance, double averageSpeed, ActivityType activityType, int age) {
+        if (size == activity.length) {
+            grow();
+        }
+        this.durationMillis[size] = Math.max(0, durationMillis);
+        this.distance[size] = distance;
+        this.averageSpeed[size] = averageSpeed;
+        this.activity[size] = (byte) activityType.ordinal();
+        this.age[size] = age;
+        size++;
+    }
+
+    /**
+     * Computes the age of a user at the start of a training.
+     *
+     * @param birthdate birthdate of the user, {@code null} if unknown
+     * @param startTime start time of the training
+     * @return age in whole years, or {@link #UNKNOWN_AGE}
+     */
+    static int ageAt(LocalDate birthdate, Date startTime) {
+        if (birthdate == null) {
+            return UNKNOWN_AGE;
+        }
+        LocalDate day = startTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return (int) Math.min(MAX_AGE, Math.max(0, ChronoUnit.YEARS.between(birthdate, day)));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all trainings, keeping the allocated arrays.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    long[] durationMillis() {
+        return durationMillis;
+    }
+
+    double[] distance() {
+        return distance;
+    }
+
+    double[] averageSpeed() {
+        return averageSpeed;
+    }
+
+    byte[] activity() {
+        return activity;
+    }
+
+    int[] age() {
+        return age;
+    }
+
+    private void grow() {
+        int capacity = Math.max(8, size * 2);
+        durationMillis = Arrays.copyOf(durationMillis, capacity);
+        distance = Arrays.copyOf(distance, capacity);
+        averageSpeed = Arrays.copyOf(averageSpeed, capacity);
+        activity = Arrays.copyOf(activity, capacity);
+        age = Arrays.copyOf(age, capacity);
+    }
+
+}
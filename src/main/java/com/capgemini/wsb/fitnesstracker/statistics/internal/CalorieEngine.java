@@ -0,0 +1,117 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estimates the calories burned during trainings from the MET (metabolic equivalent of task) of their activity,
+ * their duration, speed and the age of the user, for a person of the reference weight.
+ * <p>
+ * The MET of the running, walking and cycling grows with the speed, approximated by a line fitted to the
+ * Compendium of Physical Activities and clamped to the range of the activity. The speed is derived from the distance
+ * and duration of the training, falling back to its average speed; without any speed the typical MET of the activity
+ * is used. Swimming and tennis have a constant MET. The result is scaled by the resting metabolic rate of the reference
+ * person at the user's age relative to the reference age (Mifflin-St Jeor), so older users burn slightly less.
+ * <p>
+ * The MET models are kept in arrays indexed by the activity ordinal and the batches are processed in one pass over
+ * the primitive arrays of {@link CalorieBatch}, with no allocation per training.
+ */
+final class CalorieEngine {
+
+    static final double REFERENCE_WEIGHT_KG = 70;
+    static final int REFERENCE_AGE = 35;
+    private static final double MILLIS_PER_HOUR = 3_600_000;
+
+    // Mifflin-St Jeor resting metabolic rate of 70 kg, 175 cm, averaged over sexes: 10 * 70 + 6.25 * 175 - 78 - 5 * age
+    private static final double RMR_INTERCEPT = 1_715.75;
+    private static final double RMR_PER_YEAR = 5;
+    private static final double REFERENCE_RMR = RMR_INTERCEPT - RMR_PER_YEAR * REFERENCE_AGE;
+
+    private static final Map<ActivityType, MetModel> MODELS = new EnumMap<>(Map.of(
+            ActivityType.RUNNING, new MetModel(9.8, 2.0, 0.78, 6.0, 19.0),
+            ActivityType.CYCLING, new MetModel(7.5, -2.6, 0.53, 3.5, 16.0),
+            ActivityType.WALKING, new MetModel(3.5, 0.3, 0.70, 2.0, 8.0),
+            ActivityType.SWIMMING, MetModel.constant(8.0),
+            ActivityType.TENNIS, MetModel.constant(7.3)));
+
+    private static final double[] TYPICAL_MET = new double[ActivityType.values().length];
+    private static final double[] MET_INTERCEPT = new double[TYPICAL_MET.length];
+    private static final double[] MET_PER_KMH = new double[TYPICAL_MET.length];
+    private static final double[] MIN_MET = new double[TYPICAL_MET.length];
+    private static final double[] MAX_MET = new double[TYPICAL_MET.length];
+
+    static {
+        for (ActivityType activityType : ActivityType.values()) {
+            MetModel model = MODELS.get(activityType);
+            if (model == null) {
+                throw new IllegalStateException("No MET model for " + activityType);
+            }
+            int ordinal = activityType.ordinal();
+            TYPICAL_MET[ordinal] = model.typical();
+            MET_INTERCEPT[ordinal] = model.intercept();
+            MET_PER_KMH[ordinal] = model.perKmh();
+            MIN_MET[ordinal] = model.min();
+            MAX_MET[ordinal] = model.max();
+        }
+    }
+
+    private CalorieEngine() {
+    }
+
+    /**
+     * Estimates the calories burned during the trainings of the batch.
+     *
+     * @param batch the trainings
+     * @return burned kilocalories of every training, rounded, in the order of the batch
+     */
+    static int[] caloriesBurned(CalorieBatch batch) {
+        int[] calories = new int[batch.size()];
+        caloriesBurned(batch, calories);
+        return calories;
+    }
+
+    /**
+     * Estimates the calories burned during the trainings of the batch into the given array.
+     *
+     * @param batch    the trainings
+     * @param calories array receiving the burned kilocalories of every training, at least as long as the batch
+     */
+    static void caloriesBurned(CalorieBatch batch, int[] calories) {
+        long[] durationMillis = batch.durationMillis();
+        double[] distance = batch.distance();
+        double[] averageSpeed = batch.averageSpeed();
+        byte[] activity = batch.activity();
+        int[] age = batch.age();
+
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            int type = activity[i];
+            double hours = durationMillis[i] / MILLIS_PER_HOUR;
+            double speed = hours > 0 && distance[i] > 0 ? distance[i] / hours : averageSpeed[i];
+            double met = speed > 0
+                    ? Math.min(MAX_MET[type], Math.max(MIN_MET[type], MET_INTERCEPT[type] + MET_PER_KMH[type] * speed))
+                    : TYPICAL_MET[type];
+            double ageFactor = age[i] < 0 ? 1 : (RMR_INTERCEPT - RMR_PER_YEAR * age[i]) / REFERENCE_RMR;
+            calories[i] = (int) Math.round(met * ageFactor * REFERENCE_WEIGHT_KG * hours);
+        }
+    }
+
+    /**
+     * MET of an activity as a function of the speed.
+     *
+     * @param typical   MET used when the speed is unknown
+     * @param intercept MET at zero speed of the fitted line
+     * @param perKmh    MET growth per km/h of the fitted line
+     * @param min       lowest MET of the activity
+     * @param max       highest MET of the activity
+     */
+    private record MetModel(double typical, double intercept, double perKmh, double min, double max) {
+
+        static MetModel constant(double met) {
+            return new MetModel(met, met, 0, met, met);
+        }
+
+    }
+
+}
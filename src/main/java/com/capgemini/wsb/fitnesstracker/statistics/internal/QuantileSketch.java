@@ -0,0 +1,193 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of the distribution of positive values, answering rank and quantile queries with a relative error
+ * of at most {@value #RELATIVE_ACCURACY} (in the spirit of HDR histograms and DDSketch).
+ * <p>
+ * The values are counted in logarithmic buckets: bucket {@code i} holds the values in
+ * {@code (gamma^(i - 1 + offset), gamma^(i + offset)]} where {@code gamma = (1 + a) / (1 - a)} for the relative accuracy
+ * {@code a}, so every value is represented by its bucket with an error of at most {@code a}. Values outside
+ * {@code [}{@value #MIN_VALUE}{@code , }{@value #MAX_VALUE}{@code ]} are clamped to the range.
+ * <p>
+ * The counts are kept in a Fenwick tree, so adding, removing, ranking and quantiles all take {@code O(log buckets)},
+ * i.e. about ten array reads, and two sketches are merged by adding their arrays. The size is fixed:
+ * {@value #BUCKETS} buckets of one {@code long}, about 9 KB per sketch, no matter how many values are added.
+ * All methods are thread-safe.
+ */
+final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    static final double MIN_VALUE = 1e-3;
+    static final double MAX_VALUE = 1e7;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int OFFSET = (int) Math.floor(Math.log(MIN_VALUE) / LOG_GAMMA);
+    static final int BUCKETS = 1153;
+
+    static {
+        if (bucketOf(MAX_VALUE) != BUCKETS - 1) {
+            throw new IllegalStateException("Bucket count does not match the value range.");
+        }
+    }
+
+    // 1-based Fenwick tree over the bucket counts
+    private final long[] tree = new long[BUCKETS + 1];
+    private long count;
+
+    /**
+     * Adds the value.
+     *
+     * @param value positive value
+     */
+    void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * Removes the value added before.
+     *
+     * @param value positive value
+     */
+    void remove(double value) {
+        add(value, -1);
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Returns the fraction of the values lower than the given one, counting the values equal to it within the accuracy by half.
+     *
+     * @param value positive value
+     * @return fraction in {@code [0, 1]}, {@code NaN} if the sketch is empty
+     */
+    synchronized double rank(double value) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        int bucket = bucketOf(value);
+        long below = prefix(bucket);
+        long equal = prefix(bucket + 1) - below;
+        return Math.max(0, Math.min(1, (below + equal / 2.0) / count));
+    }
+
+    /**
+     * Returns the value below which the fraction of the values lies.
+     *
+     * @param fraction fraction in {@code [0, 1]}
+     * @return approximate quantile, {@code NaN} if the sketch is empty
+     */
+    synchronized double quantile(double fraction) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        long target = (long) Math.floor(Math.max(0, Math.min(1, fraction)) * (count - 1));
+        // find the first bucket whose cumulative count exceeds the target by descending the Fenwick tree
+        int position = 0;
+        long remaining = target;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= BUCKETS && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return valueOf(Math.min(position, BUCKETS - 1));
+    }
+
+    /**
+     * Adds all values of the other sketch to this one.
+     *
+     * @param other the sketch to merge
+     */
+    void merge(QuantileSketch other) {
+        long[] otherTree;
+        long otherCount;
+        synchronized (other) {
+            otherTree = other.tree.clone();
+            otherCount = other.count;
+        }
+        synchronized (this) {
+            // the Fenwick tree is linear in the counts, so the trees of two sketches are simply added
+            for (int i = 1; i <= BUCKETS; i++) {
+                tree[i] += otherTree[i];
+            }
+            count += otherCount;
+        }
+    }
+
+    synchronized void clear() {
+        Arrays.fill(tree, 0);
+        count = 0;
+    }
+
+    /**
+     * Serializes the sketch, see {@link #fromBytes(byte[])}.
+     *
+     * @return the serialized sketch
+     */
+    synchronized byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (BUCKETS + 1));
+        buffer.putLong(count);
+        for (int i = 1; i <= BUCKETS; i++) {
+            buffer.putLong(tree[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Deserializes the sketch created by {@link #toBytes()}.
+     *
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a sketch of this size
+     */
+    static QuantileSketch fromBytes(byte[] bytes) {
+        if (bytes.length != Long.BYTES * (BUCKETS + 1)) {
+            throw new IllegalArgumentException("Serialized sketch has unexpected length " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = buffer.getLong();
+        for (int i = 1; i <= BUCKETS; i++) {
+            sketch.tree[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+    private synchronized void add(double value, long delta) {
+        for (int i = bucketOf(value) + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+        count += delta;
+    }
+
+    /**
+     * Sum of the counts of the buckets {@code [0, bucket)}.
+     */
+    private long prefix(int bucket) {
+        long sum = 0;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static int bucketOf(double value) {
+        double clamped = Math.max(MIN_VALUE, Math.min(MAX_VALUE, value));
+        return (int) Math.ceil(Math.log(clamped) / LOG_GAMMA) - OFFSET;
+    }
+
+    /**
+     * Value represented by the bucket, with the same relative error to both bounds of the bucket.
+     */
+    private static double valueOf(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket + OFFSET) / (GAMMA + 1);
+    }
+
+}
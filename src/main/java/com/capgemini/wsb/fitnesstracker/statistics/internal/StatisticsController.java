@@ -0,0 +1,136 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import com.capgemini.wsb.fitnesstracker.statistics.api.StatisticsNotFoundException;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for managing the statistics of the users.
+ */
+@RestController
+@RequestMapping("/v1/statistics")
+@RequiredArgsConstructor
+class StatisticsController {
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private final StatisticsServiceImpl statisticsService;
+    private final StatisticsMapper statisticsMapper;
+    private final TrainingPercentileSketches trainingPercentileSketches;
+
+    /**
+     * Retrieves the statistics by their ID.
+     *
+     * @param id the ID of the statistics
+     * @return the StatisticsDto
+     * @throws StatisticsNotFoundException if the statistics are not found
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StatisticsDto getStatistics(@PathVariable Long id) {
+        return statisticsService.getStatistics(id)
+                .map(statisticsMapper::toDto)
+                .orElseThrow(() -> new StatisticsNotFoundException(id));
+    }
+
+    /**
+     * Retrieves the statistics of the user.
+     *
+     * @param userId the ID of the user
+     * @return a list containing the StatisticsDto if found, or an empty list if the user has no statistics
+     */
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<StatisticsDto> getStatisticsOfUser(@PathVariable Long userId) {
+        return statisticsService.getStatisticsOfUser(userId)
+                .map(statisticsMapper::toDto)
+                .stream()
+                .toList();
+    }
+
+    /**
+     * Retrieves a page of statistics with more calories burned than the threshold, the fewest calories first.
+     * If there may be more statistics, the cursor of the next page is returned in the {@value KeysetCursors#NEXT_CURSOR_HEADER} header.
+     *
+     * @param calories the exclusive threshold of the calories burned
+     * @param cursor   the cursor returned with the previous page, none for the first page
+     * @param limit    the maximal number of statistics on the page
+     * @return a list of StatisticsDto
+     */
+    @GetMapping(value = "/calories", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<StatisticsDto>> getStatisticsWithCaloriesAbove(@RequestParam int calories,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        StatisticsCursor position = cursor == null || cursor.isBlank()
+                ? StatisticsCursor.above(calories)
+                : StatisticsCursor.decode(cursor);
+        List<Statistics> statistics = statisticsService.findStatisticsAfter(position, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (statistics.size() == limit) {
+            Statistics last = statistics.get(statistics.size() - 1);
+            response.header(KeysetCursors.NEXT_CURSOR_HEADER, new StatisticsCursor(last.getTotalCaloriesBurned(), last.getId()).encode());
+        }
+        return response.body(statistics.stream()
+                                     .map(statisticsMapper::toDto)
+                                     .toList());
+    }
+
+    /**
+     * Retrieves the approximate distributions of the average speed, distance and duration of the trainings of the activity type.
+     *
+     * @param activityType the activity type
+     * @return a list of TrainingMetricDistribution, one per metric
+     */
+    @GetMapping(value = "/percentiles", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<TrainingMetricDistribution> getPercentiles(@RequestParam ActivityType activityType) {
+        return trainingPercentileSketches.distributionsOf(activityType);
+    }
+
+    /**
+     * Creates the statistics of a user.
+     *
+     * @param statisticsDto the statistics to create
+     * @return the created StatisticsDto
+     * @throws UserNotFoundException if the user is not found
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public StatisticsDto createStatistics(@RequestBody StatisticsDto statisticsDto) {
+        return statisticsMapper.toDto(statisticsService.createStatistics(statisticsDto));
+    }
+
+    /**
+     * Replaces the totals of the statistics.
+     *
+     * @param id            the ID of the statistics to update
+     * @param statisticsDto the new totals
+     * @return the updated StatisticsDto
+     * @throws StatisticsNotFoundException if the statistics are not found
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public StatisticsDto updateStatistics(@PathVariable Long id, @RequestBody StatisticsDto statisticsDto) {
+        return statisticsMapper.toDto(statisticsService.updateStatistics(id, statisticsDto));
+    }
+
+    /**
+     * Deletes the statistics.
+     *
+     * @param id the ID of the statistics to delete
+     * @throws StatisticsNotFoundException if the statistics are not found
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteStatistics(@PathVariable Long id) {
+        statisticsService.deleteStatistics(id);
+    }
+
+}
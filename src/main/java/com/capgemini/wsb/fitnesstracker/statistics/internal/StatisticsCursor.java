@@ -0,0 +1,52 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+
+/**
+ * Opaque keyset pagination cursor for the statistics listed by the calories burned, the fewest calories first.
+ * It wraps the calories and id of the last statistics returned on the previous page, so the next page is read with
+ * {@code (totalCaloriesBurned, id) > (lastCalories, lastId)} straight from the {@code (total_calories_burned, id)} index,
+ * no matter how deep the client has paged.
+ *
+ * @param calories calories burned of the last statistics of the previous page
+ * @param id       id of the last statistics of the previous page
+ */
+record StatisticsCursor(int calories, long id) {
+
+    private static final String PREFIX = "s";
+
+    /**
+     * Cursor pointing after the last statistics with the given calories burned, i.e. at the exclusive threshold.
+     *
+     * @param calories exclusive lower bound of the calories burned
+     * @return cursor of the first page
+     */
+    static StatisticsCursor above(int calories) {
+        return new StatisticsCursor(calories, Long.MAX_VALUE);
+    }
+
+    /**
+     * Encodes the cursor into an url-safe token.
+     *
+     * @return token to be passed back by the client to read the next page
+     */
+    String encode() {
+        return KeysetCursors.encode(PREFIX, calories, id);
+    }
+
+    /**
+     * Decodes the token created by {@link #encode()}.
+     *
+     * @param token token received from the client
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static StatisticsCursor decode(String token) {
+        long[] keys = KeysetCursors.decode(PREFIX, 2, token);
+        if (keys[0] != (int) keys[0]) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        return new StatisticsCursor((int) keys[0], keys[1]);
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.UserDeltaUpserter;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.user.api.UserProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link Statistics} of the users incrementally from the training events.
+ * <p>
+ * The events are handled synchronously within the transaction changing the trainings, so the statistics are committed
+ * or rolled back together with them. Every change is applied as a delta with a single upsert per affected user
+ * by the {@link UserDeltaUpserter}, which inserts the row for the first training of the user and keeps the users locked
+ * until the transaction ends. The trainings are never read back.
+ * The calories of all trainings of an event are estimated at once by {@link CalorieEngine}, with the ages of their users
+ * read by a single query. The calories counted are stored with the trainings, so that an update subtracts exactly them,
+ * even if the estimate of the previous state would differ by now, e.g. after the birthdate of the user was corrected.
+ */
+@Component
+@RequiredArgsConstructor
+class StatisticsEventListener {
+
+    // the casts type the parameters of the values row for H2
+    private static final String UPSERT_SQL = """
+            merge into statistics s
+            using (values (cast(? as bigint), cast(? as int), cast(? as double precision), cast(? as int)))
+                as d(user_id, trainings, distance, calories)
+            on s.user_id = d.user_id
+            when matched then update set
+                total_trainings = s.total_trainings + d.trainings,
+                total_distance = s.total_distance + d.distance,
+                total_calories_burned = s.total_calories_burned + d.calories
+            when not matched then insert (user_id, total_trainings, total_distance, total_calories_burned)
+                values (d.user_id, d.trainings, d.distance, d.calories)""";
+
+    private static final String STORE_CALORIES_SQL = "update trainings set calories_burned = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDeltaUpserter userDeltaUpserter;
+    private final UserProvider userProvider;
+
+    @EventListener
+    @Transactional
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        List<TrainingSnapshot> trainings = event.trainings();
+        int[] calories = caloriesBurned(trainings);
+
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < trainings.size(); i++) {
+            TrainingSnapshot training = trainings.get(i);
+            deltas.merge(training.userId(), Delta.added(training, calories[i]), Delta::plus);
+        }
+        apply(deltas);
+        storeCalories(trainings, calories);
+    }
+
+    @EventListener
+    @Transactional
+    public void onTrainingUpdated(TrainingUpdatedEvent event) {
+        TrainingSnapshot previous = event.previous();
+        TrainingSnapshot current = event.current();
+        int[] calories = caloriesBurned(List.of(previous, current));
+        // trainings counted before the calories were stored with them fall back to the estimate of their previous state
+        int previousCalories = previous.caloriesBurned() != null ? previous.caloriesBurned() : calories[0];
+        Delta removed = Delta.removed(previous, previousCalories);
+        Delta added = Delta.added(current, calories[1]);
+
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        deltas.put(previous.userId(), removed);
+        deltas.merge(current.userId(), added, Delta::plus);
+        apply(deltas);
+        storeCalories(List.of(current), new int[]{calories[1]});
+    }
+
+    private int[] caloriesBurned(List<TrainingSnapshot> trainings) {
+        Set<Long> userIds = trainings.stream()
+                .map(TrainingSnapshot::userId)
+                .collect(Collectors.toSet());
+        Map<Long, LocalDate> birthdates = userProvider.findBirthdates(userIds);
+
+        CalorieBatch batch = new CalorieBatch(trainings.size());
+        trainings.forEach(training -> batch.add(training, birthdates.get(training.userId())));
+        return CalorieEngine.caloriesBurned(batch);
+    }
+
+    private void storeCalories(List<TrainingSnapshot> trainings, int[] calories) {
+        List<Object[]> rows = new ArrayList<>(trainings.size());
+        for (int i = 0; i < trainings.size(); i++) {
+            rows.add(new Object[]{calories[i], trainings.get(i).trainingId()});
+        }
+        jdbcTemplate.batchUpdate(STORE_CALORIES_SQL, rows);
+    }
+
+    private void apply(Map<Long, Delta> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> {
+            if (!delta.isZero()) {
+                rows.add(new Object[]{userId, delta.trainings(), delta.distance(), delta.calories()});
+            }
+        });
+        userDeltaUpserter.upsert(UPSERT_SQL, deltas.keySet(), rows);
+    }
+
+    private record Delta(int trainings, double distance, int calories) {
+
+        static Delta added(TrainingSnapshot training, int calories) {
+            return new Delta(1, training.distance(), calories);
+        }
+
+        static Delta removed(TrainingSnapshot training, int calories) {
+            return new Delta(-1, -training.distance(), -calories);
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(trainings + other.trainings, distance + other.distance, calories + other.calories);
+        }
+
+        boolean isZero() {
+            return trainings == 0 && distance == 0 && calories == 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import org.springframework.stereotype.Component;
+
+@Component
+class StatisticsMapper {
+
+    StatisticsDto toDto(Statistics statistics) {
+        return new StatisticsDto(
+                statistics.getId(),
+                // reading the id of the lazy user does not initialize it
+                statistics.getUser().getId(),
+                statistics.getTotalTrainings(),
+                statistics.getTotalDistance(),
+                statistics.getTotalCaloriesBurned());
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint of the statistics rebuild: {@code GET /actuator/statisticsrebuild} reports the progress and ETA
+ * of the running or last rebuild, {@code POST /actuator/statisticsrebuild} starts a rebuild or resumes the interrupted one.
+ */
+@Component
+@Endpoint(id = "statisticsrebuild")
+@RequiredArgsConstructor
+class StatisticsRebuildEndpoint {
+
+    private final StatisticsRebuilder statisticsRebuilder;
+
+    @ReadOperation
+    public StatisticsRebuildProgress progress() {
+        return statisticsRebuilder.progress();
+    }
+
+    @WriteOperation
+    public StatisticsRebuildProgress start() {
+        return statisticsRebuilder.start();
+    }
+
+}
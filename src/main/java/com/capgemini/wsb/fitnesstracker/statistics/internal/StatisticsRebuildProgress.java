@@ -0,0 +1,34 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import java.time.Instant;
+
+/**
+ * Progress of the statistics rebuild.
+ *
+ * @param state              state of the rebuild
+ * @param totalRanges        number of user ID ranges of the rebuild
+ * @param completedRanges    number of already rebuilt ranges, including the ones completed before a resume
+ * @param users              number of users whose statistics were rebuilt by this run
+ * @param trainings          number of trainings aggregated by this run
+ * @param startedAt          start of this run, {@code null} if no rebuild has run yet
+ * @param elapsedMillis      duration of this run so far, in milliseconds
+ * @param etaMillis          estimated remaining time, in milliseconds, {@code null} until the first range of this run completes
+ * @param error              reason of the failure of the rebuild, {@code null} unless failed
+ */
+record StatisticsRebuildProgress(State state,
+                                 int totalRanges,
+                                 int completedRanges,
+                                 long users,
+                                 long trainings,
+                                 Instant startedAt,
+                                 long elapsedMillis,
+                                 Long etaMillis,
+                                 String error) {
+
+    enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    static final StatisticsRebuildProgress IDLE = new StatisticsRebuildProgress(State.IDLE, 0, 0, 0, 0, null, 0, null, null);
+
+}
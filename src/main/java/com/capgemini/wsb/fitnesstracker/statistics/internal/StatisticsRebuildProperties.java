@@ -0,0 +1,33 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the statistics rebuild, see {@link StatisticsRebuilder}.
+ */
+@ConfigurationProperties(prefix = "statistics.rebuild")
+@Getter
+class StatisticsRebuildProperties {
+
+    /**
+     * Number of consecutive user IDs rebuilt together, in one transaction.
+     */
+    private final int rangeSize;
+
+    /**
+     * Number of ranges rebuilt concurrently, each of them holds a database connection.
+     */
+    private final int parallelism;
+
+    StatisticsRebuildProperties(@DefaultValue("1000") int rangeSize,
+                                @DefaultValue("4") int parallelism) {
+        if (rangeSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Range size and parallelism must be positive.");
+        }
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+    }
+
+}
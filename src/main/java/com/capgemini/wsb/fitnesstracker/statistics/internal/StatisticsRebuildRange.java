@@ -0,0 +1,34 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Checkpoint of the statistics rebuild: a range of user IDs {@code [rangeStart, rangeEnd)} and whether its statistics
+ * were already rebuilt. The ranges are planned when a rebuild starts and removed when all of them are completed,
+ * so the remaining ranges identify an interrupted rebuild, which is resumed by the next one.
+ */
+@Entity
+@Table(name = "statistics_rebuild_ranges")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class StatisticsRebuildRange {
+
+    @Id
+    @Column(name = "range_start")
+    private Long rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private Long rangeEnd;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+}
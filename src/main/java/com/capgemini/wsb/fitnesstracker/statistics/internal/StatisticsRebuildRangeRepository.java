@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+interface StatisticsRebuildRangeRepository extends JpaRepository<StatisticsRebuildRange, Long> {
+
+    List<StatisticsRebuildRange> findByCompletedFalseOrderByRangeStartAsc();
+
+    long countByCompletedTrue();
+
+}
@@ -0,0 +1,29 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Training read by the statistics rebuild together with the birthdate of its user.
+ *
+ * @param trainingId   ID of the training
+ * @param userId       ID of the user owning the training
+ * @param startTime    start time of the training
+ * @param endTime      end time of the training
+ * @param activityType activity type of the training
+ * @param distance     distance of the training
+ * @param averageSpeed average speed of the training
+ * @param birthdate    birthdate of the user
+ */
+record StatisticsRebuildSource(Long trainingId,
+                               Long userId,
+                               Date startTime,
+                               Date endTime,
+                               ActivityType activityType,
+                               double distance,
+                               double averageSpeed,
+                               LocalDate birthdate) {
+
+}
@@ -0,0 +1,354 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.UserDeltaUpserter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes the statistics of all users from their trainings, e.g. after data fixes or a change of {@link CalorieEngine}.
+ * <p>
+ * The user IDs are partitioned into ranges of {@link StatisticsRebuildProperties#getRangeSize()} IDs, recorded as
+ * {@link StatisticsRebuildRange} checkpoints. The ranges are rebuilt in parallel on a fork-join pool of
+ * {@link StatisticsRebuildProperties#getParallelism()} workers. Every range is rebuilt in one transaction: its trainings
+ * are streamed with one query ordered by the user, their calories estimated by {@link CalorieEngine} and stored with
+ * the trainings in chunks of {@value #CALORIE_CHUNK_SIZE}, the statistics of the range replaced with a JDBC batch and
+ * the checkpoint marked completed. A rebuild interrupted by a crash or a failure is therefore resumed by the next one
+ * from the ranges which were not committed yet. After a range fails no further range is started, and the rebuild
+ * finishes only once the ranges already running have finished, so a next rebuild never overlaps them.
+ * <p>
+ * The users of a range are locked by the {@link UserDeltaUpserter} before its trainings are read, as is every user whose
+ * statistics the {@link StatisticsEventListener} changes. A training written concurrently is therefore either read by
+ * the range or applied as a delta after the range commits, so the rebuild may run while trainings are being written.
+ */
+@Component
+@Slf4j
+class StatisticsRebuilder {
+
+    static final String FETCH_SIZE = "1000";
+    static final int CALORIE_CHUNK_SIZE = 1000;
+
+    private static final String STORE_CALORIES_SQL = "update trainings set calories_burned = ? where id = ?";
+
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsRebuildRangeRepository rangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDeltaUpserter userDeltaUpserter;
+    private final StatisticsRebuildProperties properties;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator;
+
+    private volatile Run run;
+
+    StatisticsRebuilder(StatisticsRepository statisticsRepository,
+                        StatisticsRebuildRangeRepository rangeRepository,
+                        JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        UserDeltaUpserter userDeltaUpserter,
+                        StatisticsRebuildProperties properties) {
+        this.statisticsRepository = statisticsRepository;
+        this.rangeRepository = rangeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userDeltaUpserter = userDeltaUpserter;
+        this.properties = properties;
+        this.pool = new ForkJoinPool(properties.getParallelism());
+        this.coordinator = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("statistics-rebuild-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Starts the rebuild in the background, resuming the interrupted one if there is any.
+     * Does nothing if a rebuild is already running.
+     *
+     * @return progress of the started or already running rebuild
+     */
+    synchronized StatisticsRebuildProgress start() {
+        if (run != null && run.state == StatisticsRebuildProgress.State.RUNNING) {
+            return run.progress();
+        }
+        Run started = new Run();
+        run = started;
+        coordinator.execute(() -> rebuild(started));
+        return started.progress();
+    }
+
+    /**
+     * Returns the progress of the running or last rebuild.
+     *
+     * @return progress of the rebuild
+     */
+    StatisticsRebuildProgress progress() {
+        Run current = run;
+        return current == null ? StatisticsRebuildProgress.IDLE : current.progress();
+    }
+
+    private void rebuild(Run run) {
+        try {
+            List<StatisticsRebuildRange> pending = rangeRepository.findByCompletedFalseOrderByRangeStartAsc();
+            if (pending.isEmpty()) {
+                // ranges all completed by a rebuild interrupted before clearing them belong to a finished rebuild
+                jdbcTemplate.update("delete from statistics_rebuild_ranges");
+                planRanges();
+                pending = rangeRepository.findByCompletedFalseOrderByRangeStartAsc();
+            } else {
+                log.info("Resuming statistics rebuild with {} pending ranges", pending.size());
+            }
+            run.planned((int) rangeRepository.countByCompletedTrue(), (int) rangeRepository.count());
+
+            rebuildRanges(run, pending);
+            jdbcTemplate.update("delete from statistics_rebuild_ranges");
+            run.finish(StatisticsRebuildProgress.State.COMPLETED, null);
+            log.info("Statistics of {} users rebuilt from {} trainings in {} ms", run.users, run.trainings, run.elapsedMillis());
+        } catch (RuntimeException e) {
+            log.error("Statistics rebuild failed, it will be resumed by the next rebuild", e);
+            run.finish(StatisticsRebuildProgress.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void planRanges() {
+        Long minId = jdbcTemplate.queryForObject("select min(id) from users", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        if (minId == null) {
+            // no users: a single empty range still clears the statistics left without users
+            minId = 0L;
+            maxId = 0L;
+        }
+        List<Object[]> ranges = new ArrayList<>();
+        for (long start = minId; start <= maxId; start += properties.getRangeSize()) {
+            ranges.add(new Object[]{start, Math.min(start + properties.getRangeSize(), maxId + 1)});
+        }
+        jdbcTemplate.batchUpdate("insert into statistics_rebuild_ranges (range_start, range_end, completed) values (?, ?, false)", ranges);
+    }
+
+    /**
+     * Rebuilds the ranges on the pool and waits until all of them have finished.
+     *
+     * @throws RuntimeException the failure of the first failed range, with those of the others suppressed
+     */
+    private void rebuildRanges(Run run, List<StatisticsRebuildRange> ranges) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(ranges.size());
+        for (StatisticsRebuildRange range : ranges) {
+            tasks.add(pool.submit(() -> {
+                if (run.isAborted()) {
+                    return;
+                }
+                try {
+                    rebuildRange(run, range);
+                } catch (RuntimeException e) {
+                    run.abort();
+                    throw e;
+                }
+            }));
+        }
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Rebuilds the statistics of the users of the range and marks it completed, all in one transaction.
+     */
+    private void rebuildRange(Run run, StatisticsRebuildRange range) {
+        RangeAggregate aggregate = transactionTemplate.execute(status -> {
+            userDeltaUpserter.lockUserRange(range.getRangeStart(), range.getRangeEnd());
+            RangeAggregate aggregated = new RangeAggregate();
+            try (Stream<StatisticsRebuildSource> trainings = statisticsRepository.streamRebuildSources(range.getRangeStart(), range.getRangeEnd())) {
+                trainings.forEach(aggregated::add);
+            }
+            aggregated.storeCalories();
+            jdbcTemplate.update("delete from statistics where user_id >= ? and user_id < ?", range.getRangeStart(), range.getRangeEnd());
+            jdbcTemplate.batchUpdate("insert into statistics (user_id, total_trainings, total_distance, total_calories_burned) values (?, ?, ?, ?)",
+                                     aggregated.rows());
+            jdbcTemplate.update("update statistics_rebuild_ranges set completed = true where range_start = ?", range.getRangeStart());
+            return aggregated;
+        });
+        run.rangeCompleted(aggregate.users, aggregate.trainings);
+    }
+
+    /**
+     * Totals of the users of one range, accumulated from its trainings streamed in the order of the users.
+     * The calories are estimated and stored in chunks, so only the totals of the users are kept for the whole range.
+     */
+    private final class RangeAggregate {
+
+        private final CalorieBatch batch = new CalorieBatch(CALORIE_CHUNK_SIZE);
+        private final long[] trainingIds = new long[CALORIE_CHUNK_SIZE];
+        private final int[] userOfTraining = new int[CALORIE_CHUNK_SIZE];
+        private final int[] calories = new int[CALORIE_CHUNK_SIZE];
+
+        private long[] userIds = new long[64];
+        private int[] userTrainings = new int[64];
+        private double[] userDistance = new double[64];
+        private int[] userCalories = new int[64];
+        private int users;
+        private int trainings;
+
+        void add(StatisticsRebuildSource training) {
+            if (users == 0 || userIds[users - 1] != training.userId()) {
+                if (users == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, users * 2);
+                    userTrainings = Arrays.copyOf(userTrainings, users * 2);
+                    userDistance = Arrays.copyOf(userDistance, users * 2);
+                    userCalories = Arrays.copyOf(userCalories, users * 2);
+                }
+                userIds[users++] = training.userId();
+            }
+            int user = users - 1;
+            userTrainings[user]++;
+            userDistance[user] += training.distance();
+
+            trainingIds[batch.size()] = training.trainingId();
+            userOfTraining[batch.size()] = user;
+            batch.add(training.endTime().getTime() - training.startTime().getTime(),
+                      training.distance(),
+                      training.averageSpeed(),
+                      training.activityType(),
+                      CalorieBatch.ageAt(training.birthdate(), training.startTime()));
+            trainings++;
+            if (batch.size() == CALORIE_CHUNK_SIZE) {
+                storeCalories();
+            }
+        }
+
+        /**
+         * Estimates the calories of the trainings added since the last call, adds them to their users
+         * and stores them with the trainings.
+         */
+        void storeCalories() {
+            int size = batch.size();
+            if (size == 0) {
+                return;
+            }
+            CalorieEngine.caloriesBurned(batch, calories);
+            for (int i = 0; i < size; i++) {
+                userCalories[userOfTraining[i]] += calories[i];
+            }
+            jdbcTemplate.batchUpdate(STORE_CALORIES_SQL, new BatchPreparedStatementSetter() {
+
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setInt(1, calories[i]);
+                    statement.setLong(2, trainingIds[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+
+            });
+            batch.clear();
+        }
+
+        List<Object[]> rows() {
+            List<Object[]> rows = new ArrayList<>(users);
+            for (int user = 0; user < users; user++) {
+                rows.add(new Object[]{userIds[user], userTrainings[user], userDistance[user], userCalories[user]});
+            }
+            return rows;
+        }
+
+    }
+
+    /**
+     * State of one rebuild, updated concurrently by the workers.
+     */
+    private static final class Run {
+
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger completedRanges = new AtomicInteger();
+        private final AtomicInteger completedByThisRun = new AtomicInteger();
+        private final AtomicLong users = new AtomicLong();
+        private final AtomicLong trainings = new AtomicLong();
+        private volatile int totalRanges;
+        private volatile boolean aborted;
+        private volatile StatisticsRebuildProgress.State state = StatisticsRebuildProgress.State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        void planned(int alreadyCompleted, int total) {
+            completedRanges.set(alreadyCompleted);
+            totalRanges = total;
+        }
+
+        void rangeCompleted(int rangeUsers, int rangeTrainings) {
+            users.addAndGet(rangeUsers);
+            trainings.addAndGet(rangeTrainings);
+            completedByThisRun.incrementAndGet();
+            completedRanges.incrementAndGet();
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        boolean isAborted() {
+            return aborted;
+        }
+
+        void finish(StatisticsRebuildProgress.State finalState, String failure) {
+            error = failure;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        long elapsedMillis() {
+            Instant end = finishedAt == null ? Instant.now() : finishedAt;
+            return Duration.between(startedAt, end).toMillis();
+        }
+
+        StatisticsRebuildProgress progress() {
+            long elapsed = elapsedMillis();
+            int done = completedByThisRun.get();
+            int remaining = totalRanges - completedRanges.get();
+            Long eta = null;
+            if (state != StatisticsRebuildProgress.State.RUNNING) {
+                eta = state == StatisticsRebuildProgress.State.COMPLETED ? 0L : null;
+            } else if (done > 0) {
+                eta = elapsed * remaining / done;
+            }
+            return new StatisticsRebuildProgress(state, totalRanges, completedRanges.get(), users.get(), trainings.get(),
+                                                 startedAt, elapsed, eta, error);
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+interface StatisticsRepository extends JpaRepository<Statistics, Long> {
+
+    /**
+     * Query reading the statistics of the user, with a single lookup in the unique {@code user_id} index.
+     *
+     * @param userId ID of the user
+     * @return statistics of the user, if the user has any
+     */
+    Optional<Statistics> findByUserId(Long userId);
+
+    /**
+     * Keyset query reading the statistics positioned after the cursor in the {@code (totalCaloriesBurned, id)} order,
+     * as a range scan of the {@code (total_calories_burned, id)} index.
+     *
+     * @param afterCalories calories burned of the last statistics of the previous page
+     * @param afterId       id of the last statistics of the previous page
+     * @param limit         maximal number of statistics to read
+     * @return statistics ordered by the calories burned and id
+     */
+    @Query("""
+            select s from Statistics s
+            where s.totalCaloriesBurned > :afterCalories
+               or (s.totalCaloriesBurned = :afterCalories and s.id > :afterId)
+            order by s.totalCaloriesBurned, s.id""")
+    List<Statistics> findByCaloriesAfter(int afterCalories, long afterId, Limit limit);
+
+    /**
+     * Query streaming the trainings of the users in the ID range {@code [fromUserId, toUserId)} with their birthdates,
+     * ordered by the user, read through the {@code (user_id, end_time)} index of the trainings.
+     * Must be called within a transaction and the returned stream has to be closed.
+     *
+     * @param fromUserId inclusive start of the user ID range
+     * @param toUserId   exclusive end of the user ID range
+     * @return stream of the trainings
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.statistics.internal.StatisticsRebuildSource(
+                t.id, u.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed, u.birthdate)
+            from Training t join t.user u
+            where u.id >= :fromUserId and u.id < :toUserId
+            order by u.id""")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = StatisticsRebuilder.FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<StatisticsRebuildSource> streamRebuildSources(long fromUserId, long toUserId);
+
+}
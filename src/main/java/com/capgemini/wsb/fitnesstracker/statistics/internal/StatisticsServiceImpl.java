@@ -0,0 +1,123 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.statistics.api.*;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
+import com.capgemini.wsb.fitnesstracker.user.api.UserProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service implementation for managing the statistics of the users.
+ * The statistics are maintained from the training events by {@link StatisticsEventListener},
+ * the modifying operations here are meant for corrections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final StatisticsRepository statisticsRepository;
+    private final UserProvider userProvider;
+
+    @Override
+    public Optional<Statistics> getStatistics(Long statisticsId) {
+        return statisticsRepository.findById(statisticsId);
+    }
+
+    @Override
+    public Optional<Statistics> getStatisticsOfUser(Long userId) {
+        return statisticsRepository.findByUserId(userId);
+    }
+
+    /**
+     * Finds a page of statistics with more calories burned than the threshold, the fewest calories first.
+     *
+     * @param cursor position after which the page starts, see {@link StatisticsCursor#above(int)} for the first page
+     * @param limit  maximal number of statistics on the page
+     * @return statistics ordered by the calories burned and id
+     * @throws BusinessException if the limit is out of range
+     */
+    List<Statistics> findStatisticsAfter(StatisticsCursor cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and %d.".formatted(MAX_PAGE_SIZE));
+        }
+        return statisticsRepository.findByCaloriesAfter(cursor.calories(), cursor.id(), Limit.of(limit));
+    }
+
+    /**
+     * Creates the statistics of the user.
+     *
+     * @param statistics the statistics to create
+     * @return the created statistics
+     * @throws UserNotFoundException         if the user does not exist
+     * @throws DuplicateStatisticsException if the user already has statistics
+     */
+    @Override
+    @Transactional
+    public Statistics createStatistics(StatisticsDto statistics) {
+        User user = userProvider.getUser(statistics.userId())
+                .orElseThrow(() -> new UserNotFoundException(statistics.userId()));
+        if (statisticsRepository.findByUserId(user.getId()).isPresent()) {
+            throw new DuplicateStatisticsException(user.getId());
+        }
+        validate(statistics);
+
+        log.info("Creating statistics of user {}", user.getId());
+        return statisticsRepository.save(new Statistics(user,
+                                                        statistics.totalTrainings(),
+                                                        statistics.totalDistance(),
+                                                        statistics.totalCaloriesBurned()));
+    }
+
+    /**
+     * Replaces the totals of the statistics, the user of the statistics is not changed.
+     *
+     * @param statisticsId the ID of the statistics to update
+     * @param statistics   the new totals
+     * @return the updated statistics
+     * @throws StatisticsNotFoundException if the statistics do not exist
+     */
+    @Override
+    @Transactional
+    public Statistics updateStatistics(Long statisticsId, StatisticsDto statistics) {
+        Statistics existing = statisticsRepository.findById(statisticsId)
+                .orElseThrow(() -> new StatisticsNotFoundException(statisticsId));
+        validate(statistics);
+
+        existing.setTotalTrainings(statistics.totalTrainings());
+        existing.setTotalDistance(statistics.totalDistance());
+        existing.setTotalCaloriesBurned(statistics.totalCaloriesBurned());
+        return existing;
+    }
+
+    /**
+     * Deletes the statistics.
+     *
+     * @param statisticsId the ID of the statistics to delete
+     * @throws StatisticsNotFoundException if the statistics do not exist
+     */
+    @Override
+    @Transactional
+    public void deleteStatistics(Long statisticsId) {
+        Statistics existing = statisticsRepository.findById(statisticsId)
+                .orElseThrow(() -> new StatisticsNotFoundException(statisticsId));
+        statisticsRepository.delete(existing);
+    }
+
+    private static void validate(StatisticsDto statistics) {
+        if (statistics.totalTrainings() < 0 || statistics.totalDistance() < 0 || statistics.totalCaloriesBurned() < 0) {
+            throw new IllegalArgumentException("Statistics totals must not be negative.");
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Metrics of the trainings whose distribution is tracked by {@link TrainingPercentileSketches}.
+ */
+enum TrainingMetric {
+
+    /**
+     * Average speed, in km/h, derived from the distance and duration if not given.
+     */
+    AVERAGE_SPEED,
+
+    /**
+     * Distance, in km.
+     */
+    DISTANCE,
+
+    /**
+     * Duration, in seconds.
+     */
+    DURATION;
+
+    private static final double MILLIS_PER_HOUR = 3_600_000;
+
+    /**
+     * Returns the metric of the training.
+     *
+     * @param durationMillis duration of the training, in milliseconds
+     * @param distance       distance of the training
+     * @param averageSpeed   average speed of the training
+     * @return value of the metric, non-positive if unknown
+     */
+    double of(long durationMillis, double distance, double averageSpeed) {
+        return switch (this) {
+            case AVERAGE_SPEED -> averageSpeed > 0 || durationMillis <= 0 ? averageSpeed : distance / (durationMillis / MILLIS_PER_HOUR);
+            case DISTANCE -> distance;
+            case DURATION -> durationMillis / 1000.0;
+        };
+    }
+
+}
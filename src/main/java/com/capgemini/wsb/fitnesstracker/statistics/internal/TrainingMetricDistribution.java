@@ -0,0 +1,24 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Approximate distribution of one metric of the trainings of one activity type.
+ *
+ * @param metric the metric
+ * @param count  number of the trainings with a known value of the metric
+ * @param p10    10th percentile
+ * @param p25    25th percentile
+ * @param p50    median
+ * @param p75    75th percentile
+ * @param p90    90th percentile
+ * @param p99    99th percentile
+ */
+record TrainingMetricDistribution(TrainingMetric metric,
+                                  long count,
+                                  Double p10,
+                                  Double p25,
+                                  Double p50,
+                                  Double p75,
+                                  Double p90,
+                                  Double p99) {
+
+}
@@ -0,0 +1,49 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Persisted {@link QuantileSketch} of one metric of the trainings of one activity type.
+ */
+@Entity
+@Table(name = "training_percentile_sketches")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(exclude = "sketch")
+class TrainingPercentileSketch {
+
+    @Id
+    @Column(name = "sketch_key", length = 32)
+    private String key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "activity_type", nullable = false, length = 16)
+    private ActivityType activityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 16)
+    private TrainingMetric metric;
+
+    @Lob
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    TrainingPercentileSketch(ActivityType activityType, TrainingMetric metric, byte[] sketch, Instant updatedAt) {
+        this.key = activityType.name() + ":" + metric.name();
+        this.activityType = activityType;
+        this.metric = metric;
+        this.sketch = sketch;
+        this.updatedAt = updatedAt;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+interface TrainingPercentileSketchRepository extends JpaRepository<TrainingPercentileSketch, String> {
+
+    /**
+     * Reads all persisted sketches, locking them until the end of the transaction.
+     *
+     * @return all persisted sketches
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from TrainingPercentileSketch s")
+    List<TrainingPercentileSketch> findAllForUpdate();
+
+    /**
+     * Reads the highest ID of the stored trainings.
+     *
+     * @return highest training ID, or {@code null} if there are no trainings
+     */
+    @Query("select max(t.id) from Training t")
+    Long findMaxTrainingId();
+
+    /**
+     * Query streaming the trainings up to the ID, without loading the training entities.
+     * Must be called within a transaction and the returned stream has to be closed.
+     *
+     * @param maxId highest ID of the streamed trainings
+     * @return stream of the trainings
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot(
+                t.id, t.user.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.id <= :maxId""")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = StatisticsRebuilder.FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<TrainingSnapshot> streamTrainingsUpTo(long maxId);
+
+}
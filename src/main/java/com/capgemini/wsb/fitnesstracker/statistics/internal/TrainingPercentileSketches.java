@@ -0,0 +1,292 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingPercentileProvider;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingPercentiles;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link QuantileSketch}es of the average speed, distance and duration of the trainings of every activity type,
+ * ranking a training among the others without querying the database.
+ * <p>
+ * The sketches are updated incrementally from the training events once their transaction commits. They are persisted
+ * every {@code statistics.percentiles.persist-interval} (1 minute by default) and loaded on startup; if nothing was
+ * persisted yet, they are built from the stored trainings up to the highest training ID at the start of the build instead.
+ * The events arriving until the sketches are loaded or built are buffered and applied afterwards, during a build only
+ * those of the trainings above that ID, so no training is counted by both the build and its event. Updates from the last
+ * interval before a crash are lost, and so are the updates of the trainings below that ID changed during the build,
+ * which only slightly shifts the approximate percentiles.
+ * <p>
+ * Every instance of the application counts only the trainings written through it, so the persisted sketches have
+ * a single writer: an instance persists them only if nobody else has since it loaded or persisted them last, otherwise
+ * its own counts would replace those of the other instance. The writer is taken over by another instance once it stops.
+ * <p>
+ * Memory: {@code activity types * metrics} sketches of about 9 KB each (see {@link QuantileSketch}),
+ * i.e. 5 * 3 * 9 KB = 135 KB in total, independent of the number of trainings.
+ */
+@Component
+@Slf4j
+class TrainingPercentileSketches implements TrainingPercentileProvider {
+
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+    private static final TrainingMetric[] METRICS = TrainingMetric.values();
+    private static final double[] DISTRIBUTION_FRACTIONS = {0.10, 0.25, 0.50, 0.75, 0.90, 0.99};
+
+    private final TrainingPercentileSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final QuantileSketch[][] sketches = new QuantileSketch[ACTIVITY_TYPES.length][METRICS.length];
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final Object eventLock = new Object();
+
+    /**
+     * Training events arriving until the sketches are loaded, {@code null} afterwards. Guarded by {@link #eventLock}.
+     */
+    private List<Object> bufferedEvents = new ArrayList<>();
+
+    /**
+     * Time of the persisted sketches as last loaded or persisted by this instance, {@code null} if there were none.
+     */
+    private volatile Instant persistedAt;
+
+    TrainingPercentileSketches(TrainingPercentileSketchRepository sketchRepository, TransactionTemplate transactionTemplate) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        for (QuantileSketch[] activitySketches : sketches) {
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                activitySketches[metric] = new QuantileSketch();
+            }
+        }
+    }
+
+    /**
+     * Loads the persisted sketches, or builds them from all stored trainings if there are none,
+     * and applies the training events buffered meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (eventLock) {
+            if (bufferedEvents == null) {
+                bufferedEvents = new ArrayList<>();
+            }
+        }
+        long start = System.currentTimeMillis();
+        List<TrainingPercentileSketch> persisted = sketchRepository.findAll();
+        if (!persisted.isEmpty()) {
+            for (TrainingPercentileSketch sketch : persisted) {
+                sketchOf(sketch.getActivityType(), sketch.getMetric()).merge(QuantileSketch.fromBytes(sketch.getSketch()));
+            }
+            persistedAt = latestUpdate(persisted);
+            applyBufferedEvents(-1);
+            log.info("Training percentile sketches loaded in {} ms", System.currentTimeMillis() - start);
+            return;
+        }
+        Long maxId = sketchRepository.findMaxTrainingId();
+        long highWaterId = maxId == null ? 0 : maxId;
+        long trainings = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<TrainingSnapshot> stream = sketchRepository.streamTrainingsUpTo(highWaterId)) {
+                for (TrainingSnapshot training : (Iterable<TrainingSnapshot>) stream::iterator) {
+                    add(training);
+                    count++;
+                }
+            }
+            return count;
+        });
+        changed.set(trainings > 0);
+        applyBufferedEvents(highWaterId);
+        log.info("Training percentile sketches built from {} trainings in {} ms", trainings, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        if (!buffered(event)) {
+            event.trainings().forEach(this::add);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingUpdated(TrainingUpdatedEvent event) {
+        if (!buffered(event)) {
+            remove(event.previous());
+            add(event.current());
+        }
+    }
+
+    /**
+     * Persists the sketches, if they have changed since they were persisted last
+     * and no other instance has persisted them since.
+     */
+    @Scheduled(fixedDelayString = "${statistics.percentiles.persist-interval:PT1M}",
+               initialDelayString = "${statistics.percentiles.persist-interval:PT1M}")
+    public void persist() {
+        if (!changed.getAndSet(false)) {
+            return;
+        }
+        // the database keeps the timestamps with a lower precision than Instant
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        boolean persisted = transactionTemplate.execute(status -> {
+            Instant latest = latestUpdate(sketchRepository.findAllForUpdate());
+            if (latest != null && !latest.equals(persistedAt)) {
+                return false;
+            }
+            List<TrainingPercentileSketch> rows = new ArrayList<>(ACTIVITY_TYPES.length * METRICS.length);
+            for (ActivityType activityType : ACTIVITY_TYPES) {
+                for (TrainingMetric metric : METRICS) {
+                    rows.add(new TrainingPercentileSketch(activityType, metric, sketchOf(activityType, metric).toBytes(), now));
+                }
+            }
+            sketchRepository.saveAll(rows);
+            return true;
+        });
+        if (persisted) {
+            persistedAt = now;
+        } else {
+            log.warn("Training percentile sketches not persisted, another instance of the application persists them");
+        }
+    }
+
+    @Override
+    public TrainingPercentiles percentilesOf(Training training) {
+        long durationMillis = training.getEndTime().getTime() - training.getStartTime().getTime();
+        return new TrainingPercentiles(
+                percentile(training.getActivityType(), TrainingMetric.AVERAGE_SPEED, durationMillis, training),
+                percentile(training.getActivityType(), TrainingMetric.DISTANCE, durationMillis, training),
+                percentile(training.getActivityType(), TrainingMetric.DURATION, durationMillis, training));
+    }
+
+    /**
+     * Returns the approximate distributions of all metrics of the trainings of the activity type.
+     *
+     * @param activityType the activity type
+     * @return distribution of every metric
+     */
+    List<TrainingMetricDistribution> distributionsOf(ActivityType activityType) {
+        List<TrainingMetricDistribution> distributions = new ArrayList<>(METRICS.length);
+        for (TrainingMetric metric : METRICS) {
+            QuantileSketch sketch = sketchOf(activityType, metric);
+            Double[] quantiles = new Double[DISTRIBUTION_FRACTIONS.length];
+            for (int i = 0; i < quantiles.length; i++) {
+                quantiles[i] = orNull(sketch.quantile(DISTRIBUTION_FRACTIONS[i]));
+            }
+            distributions.add(new TrainingMetricDistribution(metric, sketch.count(),
+                                                             quantiles[0], quantiles[1], quantiles[2], quantiles[3], quantiles[4], quantiles[5]));
+        }
+        return distributions;
+    }
+
+    /**
+     * Forgets all trainings, so far only for the tests.
+     */
+    void clear() {
+        for (QuantileSketch[] activitySketches : sketches) {
+            for (QuantileSketch sketch : activitySketches) {
+                sketch.clear();
+            }
+        }
+        changed.set(true);
+    }
+
+    private Double percentile(ActivityType activityType, TrainingMetric metric, long durationMillis, Training training) {
+        double value = metric.of(durationMillis, training.getDistance(), training.getAverageSpeed());
+        if (value <= 0) {
+            return null;
+        }
+        Double rank = orNull(sketchOf(activityType, metric).rank(value));
+        return rank == null ? null : Math.round(rank * 1000) / 10.0;
+    }
+
+    /**
+     * Buffers the event if the sketches are not loaded yet.
+     *
+     * @return whether the event was buffered
+     */
+    private boolean buffered(Object event) {
+        synchronized (eventLock) {
+            if (bufferedEvents == null) {
+                return false;
+            }
+            bufferedEvents.add(event);
+            return true;
+        }
+    }
+
+    /**
+     * Applies the buffered events and stops buffering.
+     *
+     * @param highWaterId highest ID of the trainings counted by the build, whose events are skipped
+     */
+    private void applyBufferedEvents(long highWaterId) {
+        synchronized (eventLock) {
+            for (Object event : bufferedEvents) {
+                if (event instanceof TrainingsCreatedEvent created) {
+                    created.trainings().stream()
+                            .filter(training -> training.trainingId() > highWaterId)
+                            .forEach(this::add);
+                } else if (event instanceof TrainingUpdatedEvent updated && updated.current().trainingId() > highWaterId) {
+                    remove(updated.previous());
+                    add(updated.current());
+                }
+            }
+            bufferedEvents = null;
+        }
+    }
+
+    private void add(TrainingSnapshot training) {
+        update(training, true);
+    }
+
+    private void remove(TrainingSnapshot training) {
+        update(training, false);
+    }
+
+    private void update(TrainingSnapshot training, boolean add) {
+        long durationMillis = training.endTime().getTime() - training.startTime().getTime();
+        for (TrainingMetric metric : METRICS) {
+            double value = metric.of(durationMillis, training.distance(), training.averageSpeed());
+            if (value > 0) {
+                QuantileSketch sketch = sketchOf(training.activityType(), metric);
+                if (add) {
+                    sketch.add(value);
+                } else {
+                    sketch.remove(value);
+                }
+            }
+        }
+        changed.set(true);
+    }
+
+    private QuantileSketch sketchOf(ActivityType activityType, TrainingMetric metric) {
+        return sketches[activityType.ordinal()][metric.ordinal()];
+    }
+
+    @Nullable
+    private static Instant latestUpdate(List<TrainingPercentileSketch> sketches) {
+        return sketches.stream()
+                .map(TrainingPercentileSketch::getUpdatedAt)
+                .max(Instant::compareTo)
+                .orElse(null);
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Date;
+
+/**
+ * Compact view of the {@link Training}, referencing the user by ID only instead of embedding the whole user record.
+ */
+public record CompactTrainingDto(Long id,
+                                 Long userId,
+                                 Date startTime,
+                                 Date endTime,
+                                 ActivityType activityType,
+                                 double distance,
+                                 double averageSpeed) {
+
+}
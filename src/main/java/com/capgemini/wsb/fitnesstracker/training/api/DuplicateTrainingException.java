@@ -0,0 +1,19 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+import com.capgemini.wsb.fitnesstracker.exception.api.ConflictException;
+
+/**
+ * Exception indicating that the {@link Training} with the same deduplication key already exists.
+ */
+@SuppressWarnings("squid:S110")
+public class DuplicateTrainingException extends ConflictException {
+
+    private DuplicateTrainingException(String message) {
+        super(message);
+    }
+
+    public DuplicateTrainingException(Long existingId) {
+        this("Training already exists with ID=%s".formatted(existingId));
+    }
+
+}
@@ -4,10 +4,20 @@ import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 
 @Entity
-@Table(name = "trainings")
+@Table(name = "trainings", indexes = {
+        @Index(name = "idx_trainings_user_id_end_time", columnList = "user_id, end_time"),
+        @Index(name = "idx_trainings_activity_type_end_time", columnList = "activity_type, end_time"),
+        @Index(name = "idx_trainings_end_time", columnList = "end_time"),
+        @Index(name = "ux_trainings_dedup_key", columnList = "dedup_key", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -18,8 +28,9 @@ public class Training {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
 
     @Column(name = "start_time", nullable = false)
@@ -38,6 +49,22 @@ public class Training {
     @Column(name = "average_speed")
     private double averageSpeed;
 
+    /**
+     * Key identifying the training across repeated uploads, see {@link #clientDedupKey(Long, String)}
+     * and {@link #derivedDedupKey(Long, Date, Date, ActivityType)}. It is assigned when the training is uploaded
+     * through the API, a derived key is derived again when the training is updated; trainings stored otherwise
+     * have none and are not deduplicated.
+     */
+    @Column(name = "dedup_key", length = 64)
+    private String dedupKey;
+
+    /**
+     * Calories burned as counted in the statistics of the user, written by the statistics module only,
+     * so that an update of the training subtracts exactly what was added. Trainings not counted yet have none.
+     */
+    @Column(name = "calories_burned", insertable = false, updatable = false)
+    private Integer caloriesBurned;
+
     public Training(
             final User user,
             final Date startTime,
@@ -52,4 +79,37 @@ public class Training {
         this.distance = distance;
         this.averageSpeed = averageSpeed;
     }
+
+    /**
+     * Creates the deduplication key from the idempotency key sent by the client, scoped to the user.
+     *
+     * @param userId         ID of the user owning the training
+     * @param idempotencyKey idempotency key sent by the client
+     * @return deduplication key
+     */
+    public static String clientDedupKey(Long userId, String idempotencyKey) {
+        return sha256("client:" + userId + ":" + idempotencyKey);
+    }
+
+    /**
+     * Derives the deduplication key of a training uploaded without an idempotency key,
+     * so the same training of the same user is recognized however many times it is uploaded.
+     *
+     * @param userId       ID of the user owning the training
+     * @param startTime    start time of the training
+     * @param endTime      end time of the training
+     * @param activityType activity type of the training
+     * @return deduplication key
+     */
+    public static String derivedDedupKey(Long userId, Date startTime, Date endTime, ActivityType activityType) {
+        return sha256("derived:" + userId + ":" + startTime.getTime() + ":" + endTime.getTime() + ":" + activityType.name());
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,6 @@
 package com.capgemini.wsb.fitnesstracker.training.api;
 
 import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
-import com.capgemini.wsb.fitnesstracker.user.api.User;
-import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
 import lombok.*;
 
 import java.util.Date;
@@ -11,12 +9,13 @@ import java.util.Date;
 @AllArgsConstructor
 public class TrainingDto {
 
-    private User user;
+    private Long id;
+    private TrainingUserDto user;
     private Date startTime;
     private Date endTime;
     private ActivityType activityType;
     private double distance;
     private double averageSpeed;
-
+    private TrainingPercentiles percentiles;
 
 }
\ No newline at end of file
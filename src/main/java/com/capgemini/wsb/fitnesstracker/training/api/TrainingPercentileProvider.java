@@ -0,0 +1,17 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+/**
+ * Ranks trainings among all trainings of the same activity type, implemented by the statistics module.
+ */
+public interface TrainingPercentileProvider {
+
+    /**
+     * Ranks the training among all trainings of the same activity type, from in-memory sketches,
+     * without querying the database.
+     *
+     * @param training the training to rank
+     * @return approximate percentiles of the training
+     */
+    TrainingPercentiles percentilesOf(Training training);
+
+}
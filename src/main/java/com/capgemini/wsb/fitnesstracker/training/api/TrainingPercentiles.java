@@ -0,0 +1,14 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+/**
+ * Position of a training among all trainings of the same activity type, e.g. "faster than 80% of runners".
+ * Every value is the approximate percentage of those trainings with a lower value of the metric,
+ * or {@code null} if the metric of the training is unknown or there are no trainings to compare with.
+ *
+ * @param averageSpeed percentage of the trainings with a lower average speed
+ * @param distance     percentage of the trainings with a shorter distance
+ * @param duration     percentage of the trainings with a shorter duration
+ */
+public record TrainingPercentiles(Double averageSpeed, Double distance, Double duration) {
+
+}
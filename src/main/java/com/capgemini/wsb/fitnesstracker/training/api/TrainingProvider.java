@@ -19,6 +19,21 @@ public interface TrainingProvider {
     Optional<Training> getTraining(Long trainingId);
     List<Training> findAllTrainings();
     List<Training> findTrainingsByUserId(Long userId);
+
+    /**
+     * Retrieves all trainings in the compact form, with the user referenced by ID only.
+     *
+     * @return all trainings ordered by ID
+     */
+    List<CompactTrainingDto> findAllCompactTrainings();
+
+    /**
+     * Retrieves trainings of the user in the compact form, with the user referenced by ID only.
+     *
+     * @param userId ID of the user
+     * @return trainings of the user ordered by ID
+     */
+    List<CompactTrainingDto> findCompactTrainingsByUserId(Long userId);
     List<Training> findFinishedTrainingsAfter(LocalDate afterTime);
     List<Training> findTrainingsByActivityType(ActivityType activityType);
     Training createTraining(TrainingRequestDto trainingRequestDto);
@@ -15,4 +15,10 @@ public class TrainingRequestDto {
     private double distance;
     private double averageSpeed;
 
+    /**
+     * Optional key chosen by the client, identifying the training across retried uploads.
+     * If missing, the training is identified by its user, start time, end time and activity type.
+     */
+    private String idempotencyKey;
+
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.springframework.lang.Nullable;
+
+import java.util.Date;
+
+/**
+ * Immutable state of a {@link Training} at the moment of an event, safe to be handed over to other modules.
+ *
+ * @param trainingId     ID of the training
+ * @param userId         ID of the user owning the training
+ * @param startTime      start time of the training
+ * @param endTime        end time of the training
+ * @param activityType   activity type of the training
+ * @param distance       distance of the training
+ * @param averageSpeed   average speed of the training
+ * @param caloriesBurned calories burned as counted in the statistics, {@code null} if not counted yet
+ */
+public record TrainingSnapshot(Long trainingId,
+                               Long userId,
+                               Date startTime,
+                               Date endTime,
+                               ActivityType activityType,
+                               double distance,
+                               double averageSpeed,
+                               @Nullable Integer caloriesBurned) {
+
+    public TrainingSnapshot(Long trainingId,
+                            Long userId,
+                            Date startTime,
+                            Date endTime,
+                            ActivityType activityType,
+                            double distance,
+                            double averageSpeed) {
+        this(trainingId, userId, startTime, endTime, activityType, distance, averageSpeed, null);
+    }
+
+    public static TrainingSnapshot of(Training training) {
+        return new TrainingSnapshot(training.getId(),
+                                    training.getUser().getId(),
+                                    training.getStartTime(),
+                                    training.getEndTime(),
+                                    training.getActivityType(),
+                                    training.getDistance(),
+                                    training.getAverageSpeed(),
+                                    training.getCaloriesBurned());
+    }
+
+}
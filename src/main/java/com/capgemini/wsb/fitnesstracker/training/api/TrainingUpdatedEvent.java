@@ -0,0 +1,12 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+/**
+ * Event published when a training is updated.
+ * It is published within the transaction updating the training, so synchronous listeners take part in it.
+ *
+ * @param previous the training before the update
+ * @param current  the training after the update
+ */
+public record TrainingUpdatedEvent(TrainingSnapshot previous, TrainingSnapshot current) {
+
+}
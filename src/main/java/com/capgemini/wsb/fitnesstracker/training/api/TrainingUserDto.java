@@ -0,0 +1,8 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+/**
+ * Summary of the user owning a training, embedded in {@link TrainingDto} instead of the whole user.
+ */
+public record TrainingUserDto(Long id, String firstName, String lastName, String email) {
+
+}
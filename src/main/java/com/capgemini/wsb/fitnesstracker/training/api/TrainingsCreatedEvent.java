@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.training.api;
+
+import java.util.List;
+
+/**
+ * Event published when trainings are created, one or many at once.
+ * It is published within the transaction creating the trainings, so synchronous listeners take part in it.
+ *
+ * @param trainings the created trainings
+ */
+public record TrainingsCreatedEvent(List<TrainingSnapshot> trainings) {
+
+}
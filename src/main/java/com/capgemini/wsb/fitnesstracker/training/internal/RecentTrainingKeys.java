@@ -0,0 +1,55 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Short-lived in-memory set of the deduplication keys of the recently created trainings.
+ * Retried uploads usually arrive within minutes, so most duplicates are recognized here in constant time,
+ * without touching the database. Older duplicates are still rejected by the unique index on the key.
+ */
+@Component
+class RecentTrainingKeys {
+
+    private final Cache<String, Long> trainingIds;
+
+    RecentTrainingKeys(TrainingIngestProperties properties) {
+        this.trainingIds = Caffeine.newBuilder()
+                .maximumSize(properties.getRecentKeysMaximumSize())
+                .expireAfterWrite(properties.getRecentKeysTimeToLive())
+                .build();
+    }
+
+    /**
+     * Looks up the recently created training with the key.
+     *
+     * @param dedupKey deduplication key
+     * @return ID of the training, or {@link Optional#empty()} if none was created recently
+     */
+    Optional<Long> find(String dedupKey) {
+        return Optional.ofNullable(trainingIds.getIfPresent(dedupKey));
+    }
+
+    /**
+     * Remembers the key of a committed training.
+     *
+     * @param dedupKey   deduplication key
+     * @param trainingId ID of the training
+     */
+    void remember(String dedupKey, Long trainingId) {
+        trainingIds.put(dedupKey, trainingId);
+    }
+
+    /**
+     * Forgets the key of a training which no longer has it.
+     *
+     * @param dedupKey deduplication key
+     */
+    void forget(String dedupKey) {
+        trainingIds.invalidate(dedupKey);
+    }
+
+}
@@ -1,15 +1,26 @@
 package com.capgemini.wsb.fitnesstracker.training.internal;
 
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto;
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingDto;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,8 +28,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TrainingController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final Instant UNBOUNDED_FROM = Instant.EPOCH;
+    private static final Instant UNBOUNDED_TO = Instant.parse("9999-12-31T23:59:59Z");
+
     public final TrainingServiceImpl trainingService;
     public final TrainingMapper trainingMapper;
+    private final TrainingExporter trainingExporter;
+    private final TrainingIngester trainingIngester;
+    private final TrainingStreamIngester trainingStreamIngester;
+    private final TrainingFeed trainingFeed;
 
     @GetMapping
     public List<TrainingDto> getAllTraining() {
@@ -28,6 +48,69 @@ public class TrainingController {
                 .toList();
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTrainings() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(trainingExporter::export);
+    }
+
+    /**
+     * Retrieves a page of trainings finished in the window {@code [from, to)}, the most recently finished first,
+     * optionally only of one user and/or activity type.
+     * If there may be more trainings, the cursor of the next page is returned in the {@value KeysetCursors#NEXT_CURSOR_HEADER} header.
+     *
+     * @param userId       the ID of the user, none for all users
+     * @param activityType the activity type, none for all of them
+     * @param from         the inclusive start of the window, none for unbounded
+     * @param to           the exclusive end of the window, none for unbounded
+     * @param cursor       the cursor returned with the previous page, none for the first page
+     * @param limit        the maximal number of trainings on the page
+     * @return a list of TrainingDto
+     */
+    @GetMapping("/page")
+    public ResponseEntity<List<TrainingDto>> getTrainingsPage(@RequestParam(required = false) Long userId,
+                                                              @RequestParam(required = false) ActivityType activityType,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        TrainingCursor position = cursor == null || cursor.isBlank()
+                ? TrainingCursor.before(to == null ? UNBOUNDED_TO : to)
+                : TrainingCursor.decode(cursor);
+        List<Training> trainings = trainingService.findTrainingsBefore(userId, activityType, from == null ? UNBOUNDED_FROM : from, position, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (trainings.size() == limit) {
+            Training last = trainings.get(trainings.size() - 1);
+            response.header(KeysetCursors.NEXT_CURSOR_HEADER, new TrainingCursor(last.getEndTime().getTime(), last.getId()).encode());
+        }
+        return response.body(trainings.stream()
+                                     .map(trainingMapper::toDto)
+                                     .toList());
+    }
+
+    @GetMapping("/compact")
+    public List<CompactTrainingDto> getAllCompactTrainings() {
+        return trainingService.findAllCompactTrainings();
+    }
+
+    @GetMapping("/compact/{userId}")
+    public List<CompactTrainingDto> getCompactTrainingsForUser(@PathVariable Long userId) {
+        return trainingService.findCompactTrainingsByUserId(userId);
+    }
+
+    /**
+     * Streams the trainings of the users as Server-Sent Events as they are created or updated, see {@link TrainingFeed}.
+     *
+     * @param userIds the IDs of the followed users
+     * @return the stream of the events
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLiveTrainings(@RequestParam Set<Long> userIds) {
+        return trainingFeed.subscribe(userIds);
+    }
+
     @GetMapping("/{userId}")
     public List<TrainingDto> getTrainingsForUser(@PathVariable Long userId) {
         return trainingService.findTrainingsByUserId(userId)
@@ -54,11 +137,41 @@ public class TrainingController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public TrainingDto createTraining(@RequestBody TrainingRequestDto trainingRequestDto) {
+    public TrainingDto createTraining(@RequestBody TrainingRequestDto trainingRequestDto,
+                                      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            trainingRequestDto.setIdempotencyKey(idempotencyKey);
+        }
         Training training = trainingService.createTraining(trainingRequestDto);
         return trainingMapper.toDto(training);
     }
 
+    /**
+     * Creates many trainings at once, e.g. uploaded by the wearable devices sync.
+     * Invalid trainings are rejected one by one, without failing the rest of the batch.
+     *
+     * @param trainings the trainings to create
+     * @return report with the outcome of every training
+     * @throws BusinessException if the batch is larger than the configured maximum
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public TrainingIngestReport ingestTrainings(@RequestBody List<TrainingRequestDto> trainings) {
+        return trainingIngester.ingest(trainings);
+    }
+
+    /**
+     * Creates trainings streamed as newline-delimited JSON, one training per line, e.g. uploaded continuously by a device.
+     * The stream is committed in micro-batches while it is read, and reading slows down when the database falls behind.
+     *
+     * @param body the request body with the trainings
+     * @return report with the counts and the rejected trainings
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public TrainingStreamReport ingestTrainingStream(InputStream body) throws IOException {
+        return trainingStreamIngester.ingest(body);
+    }
+
     @PutMapping("/{trainingId}")
     public TrainingDto updateTraining(
             @PathVariable Long trainingId,
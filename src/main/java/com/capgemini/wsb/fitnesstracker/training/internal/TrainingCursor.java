@@ -0,0 +1,51 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+
+import java.time.Instant;
+
+/**
+ * Opaque keyset pagination cursor for the training listings, which return the most recently finished trainings first.
+ * It wraps the end time and id of the last training returned on the previous page, so the next page is read with
+ * {@code (endTime, id) < (lastEndTime, lastId)} straight from the {@code (..., end_time)} indexes,
+ * no matter how deep the client has paged.
+ *
+ * @param endTime end time of the last training of the previous page, in epoch milliseconds
+ * @param id      id of the last training of the previous page
+ */
+record TrainingCursor(long endTime, long id) {
+
+    private static final String PREFIX = "t";
+
+    /**
+     * Cursor pointing before the first training finished before the given time, i.e. at the exclusive end of a time window.
+     *
+     * @param to exclusive end of the time window
+     * @return cursor of the first page
+     */
+    static TrainingCursor before(Instant to) {
+        return new TrainingCursor(to.toEpochMilli(), Long.MIN_VALUE);
+    }
+
+    /**
+     * Encodes the cursor into an url-safe token.
+     *
+     * @return token to be passed back by the client to read the next page
+     */
+    String encode() {
+        return KeysetCursors.encode(PREFIX, endTime, id);
+    }
+
+    /**
+     * Decodes the token created by {@link #encode()}.
+     *
+     * @param token token received from the client
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static TrainingCursor decode(String token) {
+        long[] keys = KeysetCursors.decode(PREFIX, 2, token);
+        return new TrainingCursor(keys[0], keys[1]);
+    }
+
+}
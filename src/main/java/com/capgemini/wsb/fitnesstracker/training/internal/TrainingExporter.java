@@ -0,0 +1,43 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.NdjsonExporter;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes all trainings as newline-delimited JSON (one {@link TrainingDto} per line) with the {@link NdjsonExporter},
+ * so the memory used does not depend on the number of trainings.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class TrainingExporter {
+
+    private final TrainingRepository trainingRepository;
+    private final TrainingMapper trainingMapper;
+    private final ObjectMapper objectMapper;
+    private final NdjsonExporter ndjsonExporter;
+
+    /**
+     * Writes all trainings to the given output stream.
+     *
+     * @param outputStream stream the trainings are written to, it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) throws IOException {
+        long exported = ndjsonExporter.export(trainingRepository.streamAllWithUser(),
+                                              trainingMapper::toDto,
+                                              objectMapper.writerFor(TrainingDto.class),
+                                              outputStream);
+        log.info("Exported {} trainings", exported);
+    }
+
+}
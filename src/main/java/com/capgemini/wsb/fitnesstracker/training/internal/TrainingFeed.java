@@ -0,0 +1,236 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process publish/subscribe bus pushing the created and updated trainings of the followed users to Server-Sent Events
+ * subscribers, so the clients do not have to poll the database.
+ * <p>
+ * The trainings are taken from the {@link TrainingsCreatedEvent} and {@link TrainingUpdatedEvent} once their transaction
+ * commits and sent as {@link CompactTrainingDto}, named {@value #CREATED_EVENT} or {@value #UPDATED_EVENT}, without any query.
+ * Publishing only puts the event into the queue of every matching subscriber, bounded by
+ * {@link TrainingFeedProperties#getQueueCapacity()}, and the queues are drained by a small pool of sender threads.
+ * A subscriber not keeping up loses its oldest waiting events, which is announced by a {@value #DROPPED_EVENT} event
+ * with the number of the dropped ones, so the client knows to reload the trainings once. A subscriber whose queue
+ * overflows more than {@link TrainingFeedProperties#getMaxOverflows()} times is considered stalled and its subscription
+ * is closed, so a client which stopped reading does not keep one of the sender threads blocked on every publish.
+ */
+@Component
+@Slf4j
+class TrainingFeed {
+
+    static final String CREATED_EVENT = "created";
+    static final String UPDATED_EVENT = "updated";
+    static final String DROPPED_EVENT = "dropped";
+
+    private final TrainingFeedProperties properties;
+    private final ExecutorService senders;
+
+    private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    TrainingFeed(TrainingFeedProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.getSenders(), new CustomizableThreadFactory("training-feed-")));
+    }
+
+    TrainingFeed(TrainingFeedProperties properties, ExecutorService senders) {
+        this.properties = properties;
+        this.senders = senders;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        senders.shutdown();
+    }
+
+    /**
+     * Subscribes to the trainings of the users.
+     *
+     * @param userIds IDs of the followed users
+     * @return emitter of the events, completed after {@link TrainingFeedProperties#getTimeout()}
+     * @throws IllegalArgumentException if no or too many users are given
+     */
+    SseEmitter subscribe(Set<Long> userIds) {
+        if (userIds.isEmpty() || userIds.size() > properties.getMaxUserIds()) {
+            throw new IllegalArgumentException("Between 1 and %d user IDs must be given.".formatted(properties.getMaxUserIds()));
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscription subscription = new Subscription(Set.copyOf(userIds), emitter, new ArrayBlockingQueue<>(properties.getQueueCapacity()));
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscription));
+
+        subscriptions.add(subscription);
+        for (Long userId : subscription.userIds) {
+            subscriptionsByUser.compute(userId, (key, followers) -> {
+                Set<Subscription> updated = followers != null ? followers : ConcurrentHashMap.newKeySet();
+                updated.add(subscription);
+                return updated;
+            });
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingsCreated(TrainingsCreatedEvent event) {
+        event.trainings().forEach(training -> publish(CREATED_EVENT, training.userId(), training));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingUpdated(TrainingUpdatedEvent event) {
+        TrainingSnapshot current = event.current();
+        publish(UPDATED_EVENT, current.userId(), current);
+        // followers of the previous owner learn that the training is no longer theirs
+        if (!current.userId().equals(event.previous().userId())) {
+            publish(UPDATED_EVENT, event.previous().userId(), current);
+        }
+    }
+
+    /**
+     * Sends a comment to all subscribers, so idle connections are kept open and the closed ones are detected.
+     */
+    @Scheduled(fixedDelayString = "${training.feed.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            // a heartbeat is only useful on an idle connection, so it never displaces an event
+            if (subscription.queue.isEmpty() && subscription.queue.offer(SseEmitter.event().comment("heartbeat"))) {
+                schedule(subscription);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void publish(String eventName, Long userId, TrainingSnapshot training) {
+        Set<Subscription> followers = subscriptionsByUser.get(userId);
+        if (followers == null) {
+            return;
+        }
+        CompactTrainingDto data = new CompactTrainingDto(training.trainingId(), training.userId(), training.startTime(), training.endTime(),
+                                                         training.activityType(), training.distance(), training.averageSpeed());
+        for (Subscription subscription : followers) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(eventName).id(String.valueOf(training.trainingId())).data(data);
+            boolean overflowed = false;
+            while (!subscription.queue.offer(event)) {
+                overflowed = true;
+                if (subscription.queue.poll() != null) {
+                    subscription.dropped.incrementAndGet();
+                }
+            }
+            if (overflowed && subscription.overflows.incrementAndGet() > properties.getMaxOverflows()) {
+                evict(subscription);
+            } else {
+                schedule(subscription);
+            }
+        }
+    }
+
+    /**
+     * Closes the subscription of a stalled subscriber, the client is expected to reconnect and reload the trainings.
+     */
+    private void evict(Subscription subscription) {
+        if (subscriptions.contains(subscription)) {
+            log.debug("Closing the training feed subscription of users {}, it overflowed {} times",
+                      subscription.userIds, subscription.overflows.get());
+            unsubscribe(subscription);
+            subscription.emitter.complete();
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscription));
+            } catch (RuntimeException e) {
+                subscription.scheduled.set(false);
+                log.debug("Training feed event not sent, the feed is shutting down", e);
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            long dropped = subscription.dropped.getAndSet(0);
+            if (dropped > 0) {
+                subscription.emitter.send(SseEmitter.event().name(DROPPED_EVENT).data(dropped));
+            }
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.queue.poll()) != null) {
+                subscription.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client has disconnected or the emitter has completed
+            unsubscribe(subscription);
+            subscription.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscription.scheduled.set(false);
+        }
+        // events published after the queue was found empty but before the flag was cleared
+        if (!subscription.queue.isEmpty() || subscription.dropped.get() > 0) {
+            schedule(subscription);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        subscription.queue.clear();
+        subscription.dropped.set(0);
+        for (Long userId : subscription.userIds) {
+            subscriptionsByUser.computeIfPresent(userId, (key, followers) -> {
+                followers.remove(subscription);
+                return followers.isEmpty() ? null : followers;
+            });
+        }
+    }
+
+    /**
+     * Followed users, emitter and waiting events of one subscriber.
+     */
+    private static final class Subscription {
+
+        private final Set<Long> userIds;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicInteger overflows = new AtomicInteger();
+
+        Subscription(Set<Long> userIds, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue) {
+            this.userIds = userIds;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+    }
+
+}
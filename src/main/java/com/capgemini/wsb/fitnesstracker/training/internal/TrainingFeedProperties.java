@@ -0,0 +1,58 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the live feed of trainings, see {@link TrainingFeed}. The interval of the heartbeats keeping idle
+ * connections open is configured by {@code training.feed.heartbeat-interval}.
+ */
+@ConfigurationProperties(prefix = "training.feed")
+@Getter
+class TrainingFeedProperties {
+
+    /**
+     * Number of events waiting to be sent to one subscriber, after which the oldest waiting events are dropped.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Number of times the queue of one subscriber may overflow, after which the subscriber is considered stalled
+     * and its subscription is closed, so it does not keep a sender thread blocked.
+     */
+    private final int maxOverflows;
+
+    /**
+     * Maximal number of users one subscriber may follow.
+     */
+    private final int maxUserIds;
+
+    /**
+     * Number of threads writing the events to the subscribers.
+     */
+    private final int senders;
+
+    /**
+     * Time after which a subscription is closed, the client is expected to reconnect.
+     */
+    private final Duration timeout;
+
+    TrainingFeedProperties(@DefaultValue("256") int queueCapacity,
+                           @DefaultValue("16") int maxOverflows,
+                           @DefaultValue("100") int maxUserIds,
+                           @DefaultValue("4") int senders,
+                           @DefaultValue("30m") Duration timeout) {
+        if (queueCapacity < 1 || maxOverflows < 1 || maxUserIds < 1 || senders < 1) {
+            throw new IllegalArgumentException("Queue capacity, maximal overflows, maximal user IDs and senders must be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+        this.maxOverflows = maxOverflows;
+        this.maxUserIds = maxUserIds;
+        this.senders = senders;
+        this.timeout = timeout;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the training ingestion, see {@link TrainingIngester}, {@link TrainingStreamIngester}
+ * and {@link RecentTrainingKeys}.
+ */
+@ConfigurationProperties(prefix = "training.ingest")
+@Getter
+class TrainingIngestProperties {
+
+    /**
+     * Number of trainings inserted with one JDBC batch, in one transaction.
+     */
+    private final int chunkSize;
+
+    /**
+     * Maximal number of trainings of one batch upload, a larger batch is rejected as a whole.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Maximal number of streamed trainings committed together.
+     */
+    private final int microBatchSize;
+
+    /**
+     * Maximal time a streamed training waits for its micro-batch to fill up before it is committed anyway.
+     */
+    private final Duration maxBatchDelay;
+
+    /**
+     * Number of parsed streamed trainings waiting to be committed, after which the reading of the stream is paused.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Number of streams committed concurrently, further streams are rejected until a worker is free.
+     */
+    private final int streamWorkers;
+
+    /**
+     * Maximal number of duplicate or rejected trainings listed in the report of a stream, the further ones are only counted.
+     */
+    private final int maxReportedRejections;
+
+    /**
+     * Maximal number of characters of one line of a streamed training, a longer line fails the stream.
+     */
+    private final int maxLineLength;
+
+    /**
+     * Maximal number of deduplication keys of the recently created trainings kept in memory, see {@link RecentTrainingKeys}.
+     */
+    private final long recentKeysMaximumSize;
+
+    /**
+     * Time for which the deduplication key of a created training is kept in memory.
+     */
+    private final Duration recentKeysTimeToLive;
+
+    TrainingIngestProperties(@DefaultValue("1000") int chunkSize,
+                             @DefaultValue("500") int microBatchSize,
+                             @DefaultValue("200ms") Duration maxBatchDelay,
+                             @DefaultValue("2000") int queueCapacity,
+                             @DefaultValue("4") int streamWorkers,
+                             @DefaultValue("100000") long recentKeysMaximumSize,
+                             @DefaultValue("10m") Duration recentKeysTimeToLive,
+                             @DefaultValue("1000") int maxReportedRejections,
+                             @DefaultValue("16384") int maxLineLength,
+                             @DefaultValue("10000") int maxBatchSize) {
+        if (chunkSize < 1 || microBatchSize < 1 || queueCapacity < 1 || streamWorkers < 1 || maxLineLength < 1) {
+            throw new IllegalArgumentException("Chunk size, micro-batch size, queue capacity, stream workers and maximal line length must be positive.");
+        }
+        if (maxBatchSize < microBatchSize) {
+            throw new IllegalArgumentException("Maximal batch size must not be smaller than the micro-batch size.");
+        }
+        if (maxReportedRejections < 0) {
+            throw new IllegalArgumentException("Maximal number of reported rejections must not be negative.");
+        }
+        this.chunkSize = chunkSize;
+        this.microBatchSize = microBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+        this.queueCapacity = queueCapacity;
+        this.streamWorkers = streamWorkers;
+        this.recentKeysMaximumSize = recentKeysMaximumSize;
+        this.recentKeysTimeToLive = recentKeysTimeToLive;
+        this.maxReportedRejections = maxReportedRejections;
+        this.maxLineLength = maxLineLength;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+}
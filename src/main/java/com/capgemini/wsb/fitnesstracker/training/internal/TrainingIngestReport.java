@@ -0,0 +1,17 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import java.util.List;
+
+/**
+ * Report of the bulk training ingestion.
+ *
+ * @param total          number of ingested trainings
+ * @param created        number of created trainings
+ * @param duplicate      number of trainings which already existed
+ * @param rejected       number of rejected trainings
+ * @param durationMillis time the ingestion took, in milliseconds
+ * @param results        outcome of every training, in the batch order
+ */
+record TrainingIngestReport(int total, int created, int duplicate, int rejected, long durationMillis, List<TrainingIngestResult> results) {
+
+}
@@ -0,0 +1,32 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.BatchResult;
+import jakarta.annotation.Nullable;
+
+/**
+ * Outcome of ingesting a single training of the bulk ingestion.
+ *
+ * @param index   position of the training in the ingested batch, starting from 0
+ * @param status  whether the training was created, recognized as a duplicate or rejected
+ * @param id      ID of the created training or of the already existing one if known, {@code null} if rejected
+ * @param message reason of the rejection, {@code null} if created
+ */
+record TrainingIngestResult(int index, Status status, @Nullable Long id, @Nullable String message) implements BatchResult {
+
+    static TrainingIngestResult created(int index, Long id) {
+        return new TrainingIngestResult(index, Status.CREATED, id, null);
+    }
+
+    static TrainingIngestResult duplicate(int index, @Nullable Long existingId) {
+        return new TrainingIngestResult(index, Status.DUPLICATE, existingId, "Training already exists.");
+    }
+
+    static TrainingIngestResult rejected(int index, String message) {
+        return new TrainingIngestResult(index, Status.REJECTED, null, message);
+    }
+
+    TrainingIngestResult withIndex(int index) {
+        return new TrainingIngestResult(index, status, id, message);
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.BatchInserter;
+import com.capgemini.wsb.fitnesstracker.common.api.BatchResult;
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.user.api.UserProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests large batches of trainings, e.g. uploaded by the wearable devices sync.
+ * <p>
+ * Batches of more than {@link TrainingIngestProperties#getMaxBatchSize()} trainings are rejected. The whole batch is
+ * validated first, resolving the referenced users with one query per chunk of users. The valid trainings are then inserted in chunks of {@link TrainingIngestProperties#getChunkSize()} trainings by the {@link BatchInserter},
+ * so a constraint violation (e.g. a user removed concurrently) rejects only the offending trainings.
+ * <p>
+ * Trainings uploaded repeatedly are recognized by their deduplication keys (see {@link TrainingServiceImpl#dedupKeyOf}):
+ * within the batch, by the {@link RecentTrainingKeys} and by a single key lookup per chunk, so a retried upload costs
+ * a few hash lookups and one indexed query instead of an insert. Concurrent uploads are caught by the unique index.
+ * <p>
+ * Every insert transaction publishes one {@link TrainingsCreatedEvent} with the trainings it created.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class TrainingIngester {
+
+    private static final String INSERT_SQL =
+            "insert into trainings (user_id, start_time, end_time, activity_type, distance, average_speed, dedup_key) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserProvider userProvider;
+    private final BatchInserter batchInserter;
+    private final TrainingIngestProperties properties;
+    private final TrainingRepository trainingRepository;
+    private final RecentTrainingKeys recentTrainingKeys;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Ingests all the trainings.
+     *
+     * @param trainings trainings to be created
+     * @return report with the outcome of every training
+     * @throws BusinessException if the batch has more than {@link TrainingIngestProperties#getMaxBatchSize()} trainings
+     */
+    TrainingIngestReport ingest(List<TrainingRequestDto> trainings) {
+        if (trainings.size() > properties.getMaxBatchSize()) {
+            throw new BusinessException("Batch of %d trainings exceeds the maximum of %d.".formatted(trainings.size(), properties.getMaxBatchSize()));
+        }
+        long start = System.currentTimeMillis();
+        List<TrainingIngestResult> results = new ArrayList<>(trainings.size());
+
+        Set<Long> existingUserIds = findExistingUserIds(trainings);
+        Set<String> batchKeys = new HashSet<>();
+        List<PendingTraining> pending = new ArrayList<>(trainings.size());
+        for (int i = 0; i < trainings.size(); i++) {
+            String error = validate(trainings.get(i), existingUserIds);
+            if (error != null) {
+                results.add(TrainingIngestResult.rejected(i, error));
+                continue;
+            }
+            String dedupKey = TrainingServiceImpl.dedupKeyOf(trainings.get(i));
+            if (!batchKeys.add(dedupKey)) {
+                results.add(TrainingIngestResult.duplicate(i, null));
+                continue;
+            }
+            Optional<Long> recentId = recentTrainingKeys.find(dedupKey);
+            if (recentId.isPresent()) {
+                results.add(TrainingIngestResult.duplicate(i, recentId.get()));
+                continue;
+            }
+            pending.add(new PendingTraining(i, trainings.get(i), dedupKey));
+        }
+
+        int chunkSize = properties.getChunkSize();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            insertChunk(pending.subList(from, Math.min(from + chunkSize, pending.size())), results);
+        }
+
+        results.sort(Comparator.comparingInt(TrainingIngestResult::index));
+        int created = BatchResult.count(results, BatchResult.Status.CREATED);
+        int duplicate = BatchResult.count(results, BatchResult.Status.DUPLICATE);
+        long duration = System.currentTimeMillis() - start;
+        log.info("Ingested {} of {} trainings ({} duplicates) in {} ms", created, trainings.size(), duplicate, duration);
+
+        return new TrainingIngestReport(trainings.size(), created, duplicate, trainings.size() - created - duplicate, duration, results);
+    }
+
+    private Set<Long> findExistingUserIds(List<TrainingRequestDto> trainings) {
+        List<Long> userIds = trainings.stream()
+                .filter(Objects::nonNull)
+                .map(TrainingRequestDto::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Set<Long> existingUserIds = new HashSet<>();
+        int chunkSize = properties.getChunkSize();
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            existingUserIds.addAll(userProvider.findExistingUserIds(userIds.subList(from, Math.min(from + chunkSize, userIds.size()))));
+        }
+        return existingUserIds;
+    }
+
+    private static String validate(TrainingRequestDto training, Set<Long> existingUserIds) {
+        if (training == null) {
+            return "Training is missing.";
+        }
+        String error = TrainingServiceImpl.validateNewTraining(training);
+        if (error != null) {
+            return error;
+        }
+        if (!existingUserIds.contains(training.getUserId())) {
+            return "User with ID %s not found".formatted(training.getUserId());
+        }
+        return null;
+    }
+
+    private void insertChunk(List<PendingTraining> chunk, List<TrainingIngestResult> results) {
+        Map<String, Long> existingIds = trainingRepository.findKeys(chunk.stream().map(PendingTraining::dedupKey).toList())
+                .stream()
+                .collect(Collectors.toMap(TrainingKey::dedupKey, TrainingKey::id));
+
+        List<PendingTraining> toInsert = new ArrayList<>(chunk.size());
+        for (PendingTraining pending : chunk) {
+            Long existingId = existingIds.get(pending.dedupKey());
+            if (existingId == null) {
+                toInsert.add(pending);
+            } else {
+                recentTrainingKeys.remember(pending.dedupKey(), existingId);
+                results.add(TrainingIngestResult.duplicate(pending.index(), existingId));
+            }
+        }
+        batchInserter.insert(INSERT_SQL, toInsert, new BatchInserter.Batch<>() {
+
+            @Override
+            public void bind(PreparedStatement statement, PendingTraining pending) throws SQLException {
+                TrainingRequestDto training = pending.training();
+                statement.setLong(1, training.getUserId());
+                statement.setTimestamp(2, Timestamp.valueOf(training.getStartTime()));
+                statement.setTimestamp(3, Timestamp.valueOf(training.getEndTime()));
+                statement.setInt(4, training.getActivityType().ordinal());
+                statement.setDouble(5, training.getDistance());
+                statement.setDouble(6, training.getAverageSpeed());
+                statement.setString(7, pending.dedupKey());
+            }
+
+            @Override
+            public void inserted(List<PendingTraining> trainings, List<Long> ids) {
+                List<TrainingSnapshot> snapshots = new ArrayList<>(trainings.size());
+                for (int i = 0; i < trainings.size(); i++) {
+                    snapshots.add(snapshot(ids.get(i), trainings.get(i).training()));
+                }
+                eventPublisher.publishEvent(new TrainingsCreatedEvent(snapshots));
+            }
+
+            @Override
+            public void created(PendingTraining pending, long id) {
+                recentTrainingKeys.remember(pending.dedupKey(), id);
+                results.add(TrainingIngestResult.created(pending.index(), id));
+            }
+
+            @Override
+            public void rejected(PendingTraining pending, DataIntegrityViolationException e) {
+                results.add(trainingRepository.findIdByDedupKey(pending.dedupKey())
+                                    .map(existingId -> TrainingIngestResult.duplicate(pending.index(), existingId))
+                                    .orElseGet(() -> TrainingIngestResult.rejected(pending.index(),
+                                                                                   "User with ID %s not found".formatted(pending.training().getUserId()))));
+            }
+        });
+    }
+
+    private static TrainingSnapshot snapshot(Long id, TrainingRequestDto training) {
+        return new TrainingSnapshot(id,
+                                    training.getUserId(),
+                                    TrainingServiceImpl.convertToDate(training.getStartTime()),
+                                    TrainingServiceImpl.convertToDate(training.getEndTime()),
+                                    training.getActivityType(),
+                                    training.getDistance(),
+                                    training.getAverageSpeed());
+    }
+
+    private record PendingTraining(int index, TrainingRequestDto training, String dedupKey) {
+
+    }
+
+}
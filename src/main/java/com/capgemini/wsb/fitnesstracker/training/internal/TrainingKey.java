@@ -0,0 +1,11 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+/**
+ * Deduplication key of an existing training.
+ *
+ * @param dedupKey deduplication key
+ * @param id       ID of the training
+ */
+record TrainingKey(String dedupKey, Long id) {
+
+}
@@ -2,6 +2,9 @@ package com.capgemini.wsb.fitnesstracker.training.internal;
 
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingDto;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingPercentileProvider;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUserDto;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -9,14 +12,22 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class TrainingMapper {
 
+    private final TrainingPercentileProvider trainingPercentileProvider;
+
     public TrainingDto toDto(Training training) {
         return new TrainingDto(
-                training.getUser(),
+                training.getId(),
+                toUserDto(training.getUser()),
                 training.getStartTime(),
                 training.getEndTime(),
                 training.getActivityType(),
                 training.getDistance(),
-                training.getAverageSpeed());
+                training.getAverageSpeed(),
+                trainingPercentileProvider.percentilesOf(training));
+    }
+
+    private static TrainingUserDto toUserDto(User user) {
+        return new TrainingUserDto(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
     }
 
 }
@@ -1,17 +1,160 @@
 package com.capgemini.wsb.fitnesstracker.training.internal;
 
+import com.capgemini.wsb.fitnesstracker.common.api.NdjsonExporter;
+import com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto;
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Repository of the {@link Training} entities.
+ * The queries returning trainings fetch their users in the same select (see {@link #WITH_USER}),
+ * so listing trainings does not issue an additional user select per training.
+ */
 interface TrainingRepository extends JpaRepository<Training, Long> {
 
+    String WITH_USER = "user";
+
+    @Override
+    @EntityGraph(attributePaths = WITH_USER)
+    List<Training> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = WITH_USER)
+    Optional<Training> findById(Long id);
+
+    @EntityGraph(attributePaths = WITH_USER)
     List<Training> findByUserId(Long userId);
+
+    @EntityGraph(attributePaths = WITH_USER)
     List<Training> findByEndTimeAfter(Date endTime);
+
+    @EntityGraph(attributePaths = WITH_USER)
     List<Training> findByActivityType(ActivityType activityType);
 
+    /**
+     * Keyset query reading trainings of the user finished in the window {@code [from, before)}, the most recent first.
+     * Served by the {@code (user_id, end_time)} index, so only about {@code limit} rows are read however long the user's history is.
+     *
+     * @param userId        id of the user
+     * @param activityType  activity type to filter by, {@code null} for all of them
+     * @param from          inclusive start of the window
+     * @param beforeEndTime end time of the last training of the previous page, or the exclusive end of the window
+     * @param beforeId      id of the last training of the previous page, or {@link Long#MIN_VALUE} for the first page
+     * @param limit         maximal number of trainings to read
+     * @return trainings ordered by end time and id descending
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.user.id = :userId
+              and (:activityType is null or t.activityType = :activityType)
+              and t.endTime >= :from
+              and (t.endTime < :beforeEndTime or (t.endTime = :beforeEndTime and t.id < :beforeId))
+            order by t.endTime desc, t.id desc""")
+    List<Training> findUserTrainingsBefore(Long userId, ActivityType activityType, Date from, Date beforeEndTime, long beforeId, Limit limit);
+
+    /**
+     * Keyset query reading trainings of the activity type finished in the window {@code [from, before)}, the most recent first.
+     * Served by the {@code (activity_type, end_time)} index.
+     *
+     * @see #findUserTrainingsBefore(Long, ActivityType, Date, Date, long, Limit)
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.activityType = :activityType
+              and t.endTime >= :from
+              and (t.endTime < :beforeEndTime or (t.endTime = :beforeEndTime and t.id < :beforeId))
+            order by t.endTime desc, t.id desc""")
+    List<Training> findActivityTrainingsBefore(ActivityType activityType, Date from, Date beforeEndTime, long beforeId, Limit limit);
+
+    /**
+     * Keyset query reading all trainings finished in the window {@code [from, before)}, the most recent first.
+     * Served by the {@code (end_time)} index.
+     *
+     * @see #findUserTrainingsBefore(Long, ActivityType, Date, Date, long, Limit)
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.endTime >= :from
+              and (t.endTime < :beforeEndTime or (t.endTime = :beforeEndTime and t.id < :beforeId))
+            order by t.endTime desc, t.id desc""")
+    List<Training> findTrainingsBefore(Date from, Date beforeEndTime, long beforeId, Limit limit);
+
+    /**
+     * Query looking up the trainings by their deduplication keys.
+     *
+     * @param dedupKeys deduplication keys to look up
+     * @return keys and IDs of the existing trainings
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.training.internal.TrainingKey(t.dedupKey, t.id)
+            from Training t
+            where t.dedupKey in :dedupKeys""")
+    List<TrainingKey> findKeys(Collection<String> dedupKeys);
+
+    /**
+     * Query looking up the training by its deduplication key.
+     *
+     * @param dedupKey deduplication key
+     * @return ID of the training, if it exists
+     */
+    @Query("select t.id from Training t where t.dedupKey = :dedupKey")
+    Optional<Long> findIdByDedupKey(String dedupKey);
+
+    /**
+     * Query reading all trainings as {@link CompactTrainingDto}s. The users table is not read at all.
+     *
+     * @return all trainings ordered by id
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto(
+                t.id, t.user.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            order by t.id""")
+    List<CompactTrainingDto> findAllCompact();
+
+    /**
+     * Query reading trainings of the user as {@link CompactTrainingDto}s. The users table is not read at all.
+     *
+     * @param userId id of the user
+     * @return trainings of the user ordered by id
+     */
+    @Query("""
+            select new com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto(
+                t.id, t.user.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.user.id = :userId
+            order by t.id""")
+    List<CompactTrainingDto> findCompactByUserId(Long userId);
+
+    /**
+     * Streams all trainings together with their users in the id order,
+     * fetching them from the database in chunks of {@value NdjsonExporter#FETCH_SIZE} rows.
+     * Must be called within a transaction and the returned stream has to be closed.
+     *
+     * @return stream of all trainings
+     */
+    @Query("select t from Training t join fetch t.user order by t.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE_HINT),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Training> streamAllWithUser();
+
 }
@@ -1,18 +1,31 @@
 package com.capgemini.wsb.fitnesstracker.training.internal;
 
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.training.api.CompactTrainingDto;
+import com.capgemini.wsb.fitnesstracker.training.api.DuplicateTrainingException;
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingNotFoundException;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingProvider;
 import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
 import com.capgemini.wsb.fitnesstracker.user.api.UserSearch;
 import com.capgemini.wsb.fitnesstracker.user.api.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Date;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -25,8 +38,13 @@ import java.util.Optional;
 @Slf4j
 public class TrainingServiceImpl implements TrainingProvider {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final TrainingRepository trainingRepository;
     private final UserService userService;
+    private final RecentTrainingKeys recentTrainingKeys;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Optional<Training> getTraining(final Long trainingId) {
@@ -47,6 +65,20 @@ public class TrainingServiceImpl implements TrainingProvider {
         return trainingRepository.findByUserId(userId);
     }
 
+    @Override
+    public List<CompactTrainingDto> findAllCompactTrainings() {
+        log.info("Getting all compact trainings.");
+
+        return trainingRepository.findAllCompact();
+    }
+
+    @Override
+    public List<CompactTrainingDto> findCompactTrainingsByUserId(Long userId) {
+        log.info("Getting all compact trainings for the user with the id: {}", userId);
+
+        return trainingRepository.findCompactByUserId(userId);
+    }
+
     @Override
     public List<Training> findFinishedTrainingsAfter(LocalDate afterTime) {
         log.info("Getting all trainings finished after: {}",
@@ -61,8 +93,63 @@ public class TrainingServiceImpl implements TrainingProvider {
         return trainingRepository.findByActivityType(activityType);
     }
 
+    /**
+     * Retrieves the next keyset page of trainings finished in the window {@code [from, to)}, the most recently finished first.
+     * Each combination of filters is answered from its own {@code (..., end_time)} index, seeking directly to the cursor,
+     * so a page costs about {@code limit} row reads however many trainings match in total.
+     *
+     * @param userId       ID of the user to filter by, {@code null} for all users
+     * @param activityType activity type to filter by, {@code null} for all of them
+     * @param from         inclusive start of the window
+     * @param cursor       position after the last training of the previous page, or {@link TrainingCursor#before(Instant)}
+     *                     the exclusive end of the window for the first page
+     * @param limit        maximal number of trainings to return
+     * @return trainings ordered by end time and ID descending
+     * @throws BusinessException if the limit is out of range
+     */
+    public List<Training> findTrainingsBefore(@Nullable Long userId,
+                                              @Nullable ActivityType activityType,
+                                              Instant from,
+                                              TrainingCursor cursor,
+                                              int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and %d.".formatted(MAX_PAGE_SIZE));
+        }
+        java.util.Date fromTime = Date.from(from);
+        java.util.Date beforeEndTime = new java.util.Date(cursor.endTime());
+
+        if (userId != null) {
+            return trainingRepository.findUserTrainingsBefore(userId, activityType, fromTime, beforeEndTime, cursor.id(), Limit.of(limit));
+        }
+        if (activityType != null) {
+            return trainingRepository.findActivityTrainingsBefore(activityType, fromTime, beforeEndTime, cursor.id(), Limit.of(limit));
+        }
+        return trainingRepository.findTrainingsBefore(fromTime, beforeEndTime, cursor.id(), Limit.of(limit));
+    }
+
+    /**
+     * Creates the training, unless the same training was already created before.
+     * The training is identified by the idempotency key of the request or, if missing, by its user, times and activity type.
+     * Recently created trainings are recognized in memory, the older ones by the unique index on the deduplication key.
+     * The {@link TrainingsCreatedEvent} is published within the creating transaction.
+     *
+     * @param trainingRequestDto the training to create
+     * @return the created training
+     * @throws BusinessException          if the training is incomplete or invalid
+     * @throws UserNotFoundException      if the user does not exist
+     * @throws DuplicateTrainingException if the training already exists
+     */
     @Override
     public Training createTraining(TrainingRequestDto trainingRequestDto) {
+        String error = validateNewTraining(trainingRequestDto);
+        if (error != null) {
+            throw new BusinessException(error);
+        }
+        String dedupKey = dedupKeyOf(trainingRequestDto);
+        recentTrainingKeys.find(dedupKey).ifPresent(existingId -> {
+            throw new DuplicateTrainingException(existingId);
+        });
+
         Optional<User> optionalUser = userService.getUserDetailsById(trainingRequestDto.getUserId());
         if (optionalUser.isEmpty()) {
             throw new UserNotFoundException(trainingRequestDto.getUserId());
@@ -74,10 +161,38 @@ public class TrainingServiceImpl implements TrainingProvider {
                 trainingRequestDto.getActivityType(),
                 trainingRequestDto.getDistance(),
                 trainingRequestDto.getAverageSpeed());
+        training.setDedupKey(dedupKey);
 
-        return trainingRepository.save(training);
+        Training created;
+        try {
+            // not @Transactional: the duplicate lookup below has to run after the failed transaction is rolled back
+            created = transactionTemplate.execute(status -> {
+                Training saved = trainingRepository.save(training);
+                eventPublisher.publishEvent(new TrainingsCreatedEvent(List.of(TrainingSnapshot.of(saved))));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw trainingRepository.findIdByDedupKey(dedupKey)
+                    .map(DuplicateTrainingException::new)
+                    .orElseThrow(() -> e);
+        }
+        recentTrainingKeys.remember(dedupKey, created.getId());
+        return created;
     }
 
+    /**
+     * Updates the training, publishing the {@link TrainingUpdatedEvent} within the updating transaction.
+     * The deduplication key derived from the user, times and activity type is derived again from the updated values,
+     * the key sent by the client is kept.
+     *
+     * @param trainingId         the ID of the training to update
+     * @param trainingRequestDto the values to update, {@code null} and non-positive values are not changed
+     * @return the updated training
+     * @throws TrainingNotFoundException if the training does not exist
+     * @throws UserNotFoundException     if the user does not exist
+     * @throws DuplicateTrainingException if the updated training is the same as another one
+     */
+    @Transactional
     public Training updateTraining(Long trainingId, TrainingRequestDto trainingRequestDto) {
         Optional<Training> optionalTraining = getTraining(trainingId);
         if (optionalTraining.isEmpty()) {
@@ -85,6 +200,7 @@ public class TrainingServiceImpl implements TrainingProvider {
         }
 
         Training existingTraining = optionalTraining.get();
+        TrainingSnapshot previous = TrainingSnapshot.of(existingTraining);
 
         Optional<User> optionalUser = userService.getUserDetailsById(trainingRequestDto.getUserId());
         if (optionalUser.isEmpty()) {
@@ -111,7 +227,21 @@ public class TrainingServiceImpl implements TrainingProvider {
             existingTraining.setAverageSpeed(trainingRequestDto.getAverageSpeed());
         }
 
-        return trainingRepository.save(existingTraining);  // Zapisanie zaktualizowanego treningu
+        String previousKey = existingTraining.getDedupKey();
+        if (previousKey != null && previousKey.equals(derivedDedupKeyOf(previous))) {
+            String updatedKey = derivedDedupKeyOf(TrainingSnapshot.of(existingTraining));
+            if (!updatedKey.equals(previousKey)) {
+                trainingRepository.findIdByDedupKey(updatedKey).ifPresent(existingId -> {
+                    throw new DuplicateTrainingException(existingId);
+                });
+                existingTraining.setDedupKey(updatedKey);
+                recentTrainingKeys.forget(previousKey);
+            }
+        }
+
+        Training updatedTraining = trainingRepository.save(existingTraining);  // Zapisanie zaktualizowanego treningu
+        eventPublisher.publishEvent(new TrainingUpdatedEvent(previous, TrainingSnapshot.of(updatedTraining)));
+        return updatedTraining;
     }
 
 
@@ -120,4 +250,51 @@ public class TrainingServiceImpl implements TrainingProvider {
     public static java.util.Date convertToDate(LocalDateTime localDateTime) {
         return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
     }
+
+    /**
+     * Validates the fields of a training to be created, except for the existence of its user.
+     *
+     * @param trainingRequestDto the requested training
+     * @return reason why the training is invalid, or {@code null} if it is valid
+     */
+    @Nullable
+    static String validateNewTraining(TrainingRequestDto trainingRequestDto) {
+        if (trainingRequestDto.getUserId() == null) {
+            return "User id is missing.";
+        }
+        if (trainingRequestDto.getStartTime() == null || trainingRequestDto.getEndTime() == null) {
+            return "Start and end time are required.";
+        }
+        if (trainingRequestDto.getEndTime().isBefore(trainingRequestDto.getStartTime())) {
+            return "End time must not be before the start time.";
+        }
+        if (trainingRequestDto.getActivityType() == null) {
+            return "Activity type is missing.";
+        }
+        if (!(trainingRequestDto.getDistance() >= 0) || !(trainingRequestDto.getAverageSpeed() >= 0)) {
+            return "Distance and average speed must not be negative.";
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the deduplication key of the requested training, see {@link Training#getDedupKey()}.
+     *
+     * @param trainingRequestDto the requested training, validated by {@link #validateNewTraining(TrainingRequestDto)}
+     * @return deduplication key
+     */
+    static String dedupKeyOf(TrainingRequestDto trainingRequestDto) {
+        String idempotencyKey = trainingRequestDto.getIdempotencyKey();
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return Training.clientDedupKey(trainingRequestDto.getUserId(), idempotencyKey);
+        }
+        return Training.derivedDedupKey(trainingRequestDto.getUserId(),
+                                        convertToDate(trainingRequestDto.getStartTime()),
+                                        convertToDate(trainingRequestDto.getEndTime()),
+                                        trainingRequestDto.getActivityType());
+    }
+
+    private static String derivedDedupKeyOf(TrainingSnapshot training) {
+        return Training.derivedDedupKey(training.userId(), training.startTime(), training.endTime(), training.activityType());
+    }
 }
@@ -0,0 +1,271 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.BatchResult;
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.exception.api.ServiceUnavailableException;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingests trainings streamed as newline-delimited JSON, one {@link TrainingRequestDto} per line.
+ * <p>
+ * The calling thread parses the stream line by line and hands the trainings over to a worker through a queue bounded by
+ * {@link TrainingIngestProperties#getQueueCapacity()}. The worker commits them with the {@link TrainingIngester} in
+ * micro-batches of up to {@link TrainingIngestProperties#getMicroBatchSize()} trainings, or whatever arrived within
+ * {@link TrainingIngestProperties#getMaxBatchDelay()}. When the database falls behind the queue fills up and the parsing
+ * blocks, which stops reading the request body, so the client is slowed down instead of the stream being buffered in memory.
+ * <p>
+ * Every stream holds a worker until it ends. A stream arriving when all {@link TrainingIngestProperties#getStreamWorkers()}
+ * workers are busy is rejected with {@link ServiceUnavailableException} instead of waiting in an unbounded queue.
+ * The report lists at most {@link TrainingIngestProperties#getMaxReportedRejections()} trainings which were not created.
+ * <p>
+ * A line is read only up to {@link TrainingIngestProperties#getMaxLineLength()} characters, so a stream without line breaks
+ * cannot be buffered in memory either. A longer line fails the stream with {@link BusinessException}; the trainings of
+ * the lines before it are still committed.
+ */
+@Component
+@Slf4j
+class TrainingStreamIngester {
+
+    private static final long FULL_QUEUE_CHECK_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final Pending END = new Pending(-1, null);
+
+    private final TrainingIngester trainingIngester;
+    private final ObjectReader trainingReader;
+    private final TrainingIngestProperties properties;
+    private final ExecutorService workers;
+
+    TrainingStreamIngester(TrainingIngester trainingIngester, ObjectMapper objectMapper, TrainingIngestProperties properties) {
+        this.trainingIngester = trainingIngester;
+        this.trainingReader = objectMapper.readerFor(TrainingRequestDto.class);
+        this.properties = properties;
+        this.workers = new ThreadPoolExecutor(properties.getStreamWorkers(), properties.getStreamWorkers(),
+                                              0, TimeUnit.MILLISECONDS,
+                                              new SynchronousQueue<>(),
+                                              new CustomizableThreadFactory("training-stream-"),
+                                              new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stops accepting new streams and waits a while for the running ones to be committed.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Ingests all trainings of the stream, returning once all of them are committed.
+     *
+     * @param body newline-delimited JSON stream of trainings, blank lines are skipped
+     * @return report with the counts and the rejected trainings
+     * @throws IOException                 if the stream cannot be read
+     * @throws BusinessException           if a line of the stream is longer than the maximal line length
+     * @throws ServiceUnavailableException if all the workers are busy with other streams
+     */
+    TrainingStreamReport ingest(InputStream body) throws IOException {
+        long start = System.currentTimeMillis();
+        BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Future<Committed> worker;
+        try {
+            worker = workers.submit(() -> commitAll(queue));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("All %d training stream workers are busy, retry later."
+                                                          .formatted(properties.getStreamWorkers()));
+        }
+        List<TrainingIngestResult> malformed = new ArrayList<>();
+        int malformedCount = 0;
+        int total = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder buffer = new StringBuilder();
+        int lineNumber = 0;
+        try {
+            String line;
+            while ((line = readLine(reader, buffer, ++lineNumber)) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int index = total++;
+                try {
+                    enqueue(queue, new Pending(index, trainingReader.readValue(line)), worker);
+                } catch (JsonProcessingException e) {
+                    if (malformedCount++ < properties.getMaxReportedRejections()) {
+                        malformed.add(TrainingIngestResult.rejected(index, "Malformed training: " + e.getOriginalMessage()));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                enqueue(queue, END, worker);
+            } catch (RuntimeException endFailure) {
+                e.addSuppressed(endFailure);
+            }
+            throw e;
+        }
+        enqueue(queue, END, worker);
+
+        Committed committed = await(worker);
+        List<TrainingIngestResult> rejections = new ArrayList<>(committed.rejections());
+        rejections.addAll(malformed);
+        rejections.sort(Comparator.comparingInt(TrainingIngestResult::index));
+        if (rejections.size() > properties.getMaxReportedRejections()) {
+            rejections = new ArrayList<>(rejections.subList(0, properties.getMaxReportedRejections()));
+        }
+        int rejected = total - committed.created() - committed.duplicate();
+        long duration = System.currentTimeMillis() - start;
+        log.info("Ingested {} of {} streamed trainings ({} duplicates) in {} micro-batches in {} ms",
+                 committed.created(), total, committed.duplicate(), committed.batches(), duration);
+
+        return new TrainingStreamReport(total, committed.created(), committed.duplicate(), rejected, committed.batches(), duration,
+                                        rejections, committed.duplicate() + rejected - rejections.size());
+    }
+
+    /**
+     * Reads the next line, terminated by a line feed optionally preceded by a carriage return, or by the end of the stream.
+     *
+     * @return the line, or {@code null} at the end of the stream
+     * @throws BusinessException if the line is longer than the maximal line length
+     */
+    private String readLine(BufferedReader reader, StringBuilder buffer, int lineNumber) throws IOException {
+        buffer.setLength(0);
+        int next;
+        while ((next = reader.read()) != -1 && next != '\n') {
+            if (buffer.length() == properties.getMaxLineLength() + 1) {
+                // one more character is kept for a carriage return ending the line
+                throw lineTooLong(lineNumber);
+            }
+            buffer.append((char) next);
+        }
+        if (next == -1 && buffer.isEmpty()) {
+            return null;
+        }
+        int length = buffer.length();
+        if (length > 0 && buffer.charAt(length - 1) == '\r') {
+            length--;
+        }
+        if (length > properties.getMaxLineLength()) {
+            throw lineTooLong(lineNumber);
+        }
+        return buffer.substring(0, length);
+    }
+
+    private BusinessException lineTooLong(int lineNumber) {
+        return new BusinessException("Line %d of the training stream is longer than %d characters.".formatted(lineNumber, properties.getMaxLineLength()));
+    }
+
+    /**
+     * Blocks until there is space in the queue, unless the worker has failed and will never free it.
+     */
+    private static void enqueue(BlockingQueue<Pending> queue, Pending pending, Future<Committed> worker) {
+        try {
+            while (!queue.offer(pending, FULL_QUEUE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (worker.isDone()) {
+                    await(worker);
+                    throw new IllegalStateException("Training stream worker has finished prematurely.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.cancel(true);
+            throw new IllegalStateException("Interrupted while ingesting the training stream.", e);
+        }
+    }
+
+    private static Committed await(Future<Committed> worker) {
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.cancel(true);
+            throw new IllegalStateException("Interrupted while ingesting the training stream.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Training stream worker has failed.", e.getCause());
+        }
+    }
+
+    private Committed commitAll(BlockingQueue<Pending> queue) throws InterruptedException {
+        long maxDelayNanos = properties.getMaxBatchDelay().toNanos();
+        List<Pending> batch = new ArrayList<>(properties.getMicroBatchSize());
+        List<TrainingIngestResult> rejections = new ArrayList<>();
+        int created = 0;
+        int duplicate = 0;
+        int batches = 0;
+
+        boolean finished = false;
+        while (!finished) {
+            Pending pending = queue.take();
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (pending != END) {
+                batch.add(pending);
+                if (batch.size() == properties.getMicroBatchSize()) {
+                    break;
+                }
+                pending = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (pending == null) {
+                    break;
+                }
+            }
+            finished = pending == END;
+
+            if (!batch.isEmpty()) {
+                TrainingIngestReport report = commit(batch, rejections);
+                created += report.created();
+                duplicate += report.duplicate();
+                batches++;
+                batch.clear();
+            }
+        }
+        return new Committed(created, duplicate, batches, rejections);
+    }
+
+    private TrainingIngestReport commit(List<Pending> batch, List<TrainingIngestResult> rejections) {
+        TrainingIngestReport report = trainingIngester.ingest(batch.stream().map(Pending::training).toList());
+        for (TrainingIngestResult result : report.results()) {
+            if (result.status() != BatchResult.Status.CREATED && rejections.size() < properties.getMaxReportedRejections()) {
+                rejections.add(result.withIndex(batch.get(result.index()).index()));
+            }
+        }
+        return report;
+    }
+
+    private record Pending(int index, TrainingRequestDto training) {
+
+    }
+
+    private record Committed(int created, int duplicate, int batches, List<TrainingIngestResult> rejections) {
+
+    }
+
+}
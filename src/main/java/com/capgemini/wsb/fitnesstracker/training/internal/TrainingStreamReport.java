@@ -0,0 +1,22 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import java.util.List;
+
+/**
+ * Report of the streamed training ingestion.
+ * Unlike {@link TrainingIngestReport}, only the trainings which were not created are listed, so the report of a long stream stays small.
+ *
+ * @param total          number of trainings read from the stream
+ * @param created        number of created trainings
+ * @param duplicate      number of trainings which already existed
+ * @param rejected       number of rejected trainings
+ * @param batches        number of committed micro-batches
+ * @param durationMillis time the ingestion took, in milliseconds
+ * @param rejections     outcome of the first {@link TrainingIngestProperties#getMaxReportedRejections()} duplicate
+ *                       or rejected trainings, in the stream order
+ * @param omitted        number of duplicate or rejected trainings not listed in the rejections
+ */
+record TrainingStreamReport(int total, int created, int duplicate, int rejected, int batches, long durationMillis,
+                            List<TrainingIngestResult> rejections, int omitted) {
+
+}
@@ -5,10 +5,17 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+       indexes = {
+               @Index(name = "ux_users_email_normalized", columnList = "email_normalized", unique = true),
+               @Index(name = "idx_users_last_name_first_name", columnList = "last_name, first_name"),
+               @Index(name = "idx_users_first_name", columnList = "first_name"),
+               @Index(name = "idx_users_birthdate", columnList = "birthdate")
+       })
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -32,6 +39,15 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    /**
+     * Lower-cased copy of {@link #email}, kept in sync by {@link #setEmail(String)}.
+     * Backs the case-insensitive email lookups with a unique index instead of a table scan.
+     */
+    @Column(name = "email_normalized", nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String emailNormalized;
+
     public User(
             final String firstName,
             final String lastName,
@@ -41,7 +57,22 @@ public class User {
         this.firstName = firstName;
         this.lastName = lastName;
         this.birthdate = birthdate;
+        setEmail(email);
+    }
+
+    public void setEmail(final String email) {
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    /**
+     * Normalizes the email address into the form used by the case-insensitive email index.
+     *
+     * @param email email address to normalize, may be {@code null}
+     * @return trimmed, lower-cased email or {@code null} if {@code null} was passed
+     */
+    public static String normalizeEmail(@Nullable final String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     @Override
@@ -1,7 +1,11 @@
 package com.capgemini.wsb.fitnesstracker.user.api;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserProvider {
 
@@ -30,4 +34,28 @@ public interface UserProvider {
      */
     List<User> findAllUsers();
 
+    /**
+     * Checks which of the users exist, with a single query for all of them.
+     *
+     * @param userIds IDs of the users to check
+     * @return the subset of the given IDs belonging to existing users
+     */
+    Set<Long> findExistingUserIds(Collection<Long> userIds);
+
+    /**
+     * Reads the birthdates of the users, with a single query for all of them.
+     *
+     * @param userIds IDs of the users
+     * @return birthdates of the existing users by their IDs
+     */
+    Map<Long, LocalDate> findBirthdates(Collection<Long> userIds);
+
+    /**
+     * Reads the emails of the users, with a single query for all of them.
+     *
+     * @param userIds IDs of the users
+     * @return emails of the existing users by their IDs
+     */
+    Map<Long, String> findEmails(Collection<Long> userIds);
+
 }
@@ -1,5 +1,8 @@
 package com.capgemini.wsb.fitnesstracker.user.api;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -11,8 +14,10 @@ public interface UserService {
 
     User createUser(User user) throws IllegalArgumentException, UserNotFoundException;
     Optional<User> getUserDetailsById(Long id);
+    List<User> findUsersAfter(Long afterId, int limit);
     Optional<User> getUserDetailsByEmail(String email);
     List<User> findMatchingUsers(UserSearch search);
+    Page<User> findMatchingUsers(UserSearch search, Pageable pageable);
     List<User> findUsersOlderThan(LocalDate date);
     User updateUser(Long id, User user);
 
@@ -0,0 +1,356 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over the normalized user emails, answering substring queries without scanning the users table.
+ * <p>
+ * Every email is split into its distinct 3-character substrings (trigrams), and for each trigram a sorted posting list
+ * of user IDs is kept. A fragment is searched by intersecting the posting lists of its trigrams, starting from the shortest one,
+ * and verifying the remaining candidates against the indexed email.
+ * <p>
+ * Fragments shorter than a trigram cannot be answered from the posting lists and are rejected.
+ * <p>
+ * The index is built in chunks of {@value #BUILD_CHUNK_SIZE} users on a background thread once the application is ready,
+ * and is kept in sync by {@link UserServiceImpl} on user creation, update and removal. The users stored bypassing it,
+ * e.g. by another instance of the application, are indexed every {@link EmailTrigramIndexProperties#getRefreshInterval()}.
+ * Until the build finishes {@link #search(String, int)} returns {@link Optional#empty()}, so the callers fall back
+ * to the database query. The callers verify the loaded users, since an email changed bypassing the index
+ * is only re-indexed by the next build.
+ * <p>
+ * Memory: one {@code long} (8 bytes) per distinct trigram of every email, plus the indexed email itself,
+ * e.g. about 300 bytes per user for a typical 25 character address.
+ */
+@Component
+@Slf4j
+class EmailTrigramIndex {
+
+    static final int BUILD_CHUNK_SIZE = 5_000;
+    static final int GRAM_LENGTH = 3;
+
+    private final UserRepository userRepository;
+    private final EmailTrigramIndexProperties properties;
+    private final ScheduledExecutorService builder;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> emails = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Set<Long> removedDuringBuild = new HashSet<>();
+
+    private volatile boolean ready;
+    private boolean building;
+    /**
+     * ID of the last user read from the database by the build or a refresh. The users indexed by {@link #add(Long, String)}
+     * do not move it, so a refresh still reads the users with lower IDs stored meanwhile bypassing the index.
+     */
+    private long refreshedUpToId;
+
+    EmailTrigramIndex(UserRepository userRepository, EmailTrigramIndexProperties properties) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.builder = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("email-index-"));
+    }
+
+    /**
+     * Builds the index in the background and schedules the indexing of the users stored bypassing it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getRefreshInterval().toMillis();
+        builder.execute(this::build);
+        builder.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.error("Indexing of the new user emails failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Builds the index from all users stored in the database.
+     */
+    public void build() {
+        startBuild();
+        long start = System.currentTimeMillis();
+        int indexed;
+        try {
+            indexed = indexUsersAfter(0);
+        } finally {
+            finishBuild();
+        }
+        log.info("Email trigram index built for {} users in {} ms", indexed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexes the users stored after the last one read by the build or the previous refresh.
+     */
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        long lastId;
+        lock.readLock().lock();
+        try {
+            lastId = refreshedUpToId;
+        } finally {
+            lock.readLock().unlock();
+        }
+        int indexed = indexUsersAfter(lastId);
+        if (indexed > 0) {
+            log.info("Email trigram index refreshed with {} new users", indexed);
+        }
+    }
+
+    /**
+     * Indexes the email of the user, replacing the previously indexed email of the same user.
+     *
+     * @param userId ID of the user
+     * @param email  email of the user
+     */
+    public void add(Long userId, String email) {
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild.remove(userId);
+            unindex(userId);
+            index(userId, User.normalizeEmail(email));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the user from the index.
+     *
+     * @param userId ID of the user
+     */
+    public void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                removedDuringBuild.add(userId);
+            }
+            unindex(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the IDs of users whose email contains the fragment, ignoring case.
+     *
+     * @param fragment email fragment to search for, at least {@value #GRAM_LENGTH} characters long
+     * @param limit    maximal number of returned IDs
+     * @return the lowest IDs of the matching users in ascending order,
+     * or {@link Optional#empty()} if the index is not built yet and cannot answer the query
+     * @throws IllegalArgumentException if the fragment is shorter than {@value #GRAM_LENGTH} characters
+     */
+    public Optional<List<Long>> search(String fragment, int limit) {
+        String normalized = User.normalizeEmail(fragment);
+        if (normalized.length() < GRAM_LENGTH) {
+            throw new IllegalArgumentException("Email fragment must have at least %d characters.".formatted(GRAM_LENGTH));
+        }
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            return Optional.of(intersect(normalized, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    private void startBuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            refreshedUpToId = 0;
+            emails.clear();
+            postings.clear();
+            removedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void finishBuild() {
+        lock.writeLock().lock();
+        try {
+            building = false;
+            removedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int indexUsersAfter(long lastId) {
+        int indexed = 0;
+        List<User> chunk;
+        do {
+            chunk = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_CHUNK_SIZE));
+            indexChunk(chunk);
+            indexed += chunk.size();
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == BUILD_CHUNK_SIZE);
+        return indexed;
+    }
+
+    private void indexChunk(List<User> users) {
+        lock.writeLock().lock();
+        try {
+            for (User user : users) {
+                // users added, updated or removed concurrently with the build are already up to date
+                if (!emails.containsKey(user.getId()) && !removedDuringBuild.contains(user.getId())) {
+                    index(user.getId(), User.normalizeEmail(user.getEmail()));
+                }
+                refreshedUpToId = Math.max(refreshedUpToId, user.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> intersect(String fragment, int limit) {
+        List<PostingList> lists = new ArrayList<>();
+        for (long gram : distinctGrams(fragment)) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        PostingList smallest = lists.get(0);
+        List<Long> result = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < smallest.size() && result.size() < limit; i++) {
+            long id = smallest.get(i);
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    continue candidates;
+                }
+            }
+            // trigrams may match in a different order, e.g. "abcab" for "cabc"
+            if (emails.get(id).contains(fragment)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void index(Long userId, String email) {
+        emails.put(userId, email);
+        for (long gram : distinctGrams(email)) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(userId);
+        }
+    }
+
+    private void unindex(Long userId) {
+        String email = emails.remove(userId);
+        if (email == null) {
+            return;
+        }
+        for (long gram : distinctGrams(email)) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(userId) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static long[] distinctGrams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * Sorted set of user IDs backed by a growable primitive array.
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+    }
+
+}
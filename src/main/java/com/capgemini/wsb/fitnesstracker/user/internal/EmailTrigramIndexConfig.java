@@ -0,0 +1,10 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(EmailTrigramIndexProperties.class)
+class EmailTrigramIndexConfig {
+
+}
@@ -0,0 +1,28 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link EmailTrigramIndex}.
+ */
+@ConfigurationProperties(prefix = "user.email-index")
+@Getter
+class EmailTrigramIndexProperties {
+
+    /**
+     * Interval in which the users stored without {@link UserServiceImpl}, e.g. by another application instance, are indexed.
+     */
+    private final Duration refreshInterval;
+
+    EmailTrigramIndexProperties(@DefaultValue("1m") Duration refreshInterval) {
+        if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("Refresh interval must be positive.");
+        }
+        this.refreshInterval = refreshInterval;
+    }
+
+}
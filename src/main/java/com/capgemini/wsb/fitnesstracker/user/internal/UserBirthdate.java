@@ -0,0 +1,13 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import java.time.LocalDate;
+
+/**
+ * Birthdate of a user, read without loading the user entity.
+ *
+ * @param id        ID of the user
+ * @param birthdate birthdate of the user
+ */
+record UserBirthdate(Long id, LocalDate birthdate) {
+
+}
@@ -0,0 +1,29 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.CacheNames;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches of the user lookups, holding immutable {@link com.capgemini.wsb.fitnesstracker.user.api.UserDto} copies
+ * of the users (see {@link UserLookup}).
+ */
+@Configuration
+class UserCacheConfig {
+
+    /**
+     * Cache of users keyed by their ID.
+     */
+    static final String USERS_BY_ID = "usersById";
+
+    /**
+     * Cache of users keyed by their normalized email.
+     */
+    static final String USERS_BY_EMAIL = "usersByEmail";
+
+    @Bean
+    CacheNames userCacheNames() {
+        return CacheNames.of(USERS_BY_ID, USERS_BY_EMAIL);
+    }
+
+}
@@ -1,18 +1,31 @@
 package com.capgemini.wsb.fitnesstracker.user.internal;
 
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
 import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
 import com.capgemini.wsb.fitnesstracker.user.api.UserSearch;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Collections;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,33 +37,58 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 class UserController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "firstName", "lastName", "birthdate", "email");
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserServiceImpl userService;
     private final UserMapper userMapper;
+    private final UserExporter userExporter;
+    private final UserImporter userImporter;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all users and returns them as a list of UserDto objects.
+     * Retrieves a page of users, ordered by ID, and returns them as a list of UserDto objects.
+     * If there may be more users, the cursor of the next page is returned in the {@value KeysetCursors#NEXT_CURSOR_HEADER} header.
      *
-     * @return a list of all users in the system
+     * @param cursor the cursor returned with the previous page, none for the first page
+     * @param limit  the maximal number of users on the page
+     * @return a page of users in the system
      */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<UserDto> getAllUsers() {
-        return userService.findAllUsers()
-                          .stream()
-                          .map(userMapper::toDto)
-                          .toList();
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return keysetPage(cursor, limit, userMapper::toDto);
     }
 
     /**
-     * Retrieves simplified data for all users.
+     * Retrieves simplified data for a page of users, ordered by ID.
+     * If there may be more users, the cursor of the next page is returned in the {@value KeysetCursors#NEXT_CURSOR_HEADER} header.
      *
+     * @param cursor the cursor returned with the previous page, none for the first page
+     * @param limit  the maximal number of users on the page
      * @return a list of UserSimpleDto with basic user data
      */
     @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<UserSimpleDto> getSimpleDataForAllUsers() {
-        return userService.findAllUsers()
-                          .stream()
-                          .map(userMapper::toSimpleDto)
-                          .toList();
+    public ResponseEntity<List<UserSimpleDto>> getSimpleDataForAllUsers(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return keysetPage(cursor, limit, userMapper::toSimpleDto);
+    }
+
+    /**
+     * Exports all users as newline-delimited JSON, one UserDto per line.
+     * The users are written while they are read from the database, so the response starts immediately
+     * and the memory used does not grow with the number of users.
+     *
+     * @return streamed body with all users
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExporter::export);
     }
 
     /**
@@ -67,6 +105,31 @@ class UserController {
         return userService.createUser(userMapper.toEntity(userDto));
     }
 
+    /**
+     * Imports many users at once from a JSON array of UserDto objects.
+     * The payload is read incrementally, so it may be arbitrarily large.
+     *
+     * @param body the request body with the JSON array
+     * @return report with the outcome of every imported row
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public UserImportReport importUsersFromJson(InputStream body) throws IOException {
+        return userImporter.importUsers(UserImportParser.json(body, objectMapper));
+    }
+
+    /**
+     * Imports many users at once from CSV lines in the {@code firstName,lastName,birthdate,email} format.
+     * The payload is read incrementally, so it may be arbitrarily large.
+     *
+     * @param body the request body with the CSV lines
+     * @return report with the outcome of every imported row
+     */
+    @PostMapping(value = "/batch", consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public UserImportReport importUsersFromCsv(InputStream body) {
+        return userImporter.importUsers(UserImportParser.csv(body));
+    }
+
     /**
      * Retrieves detailed information of a user by their ID.
      *
@@ -137,15 +200,32 @@ class UserController {
 
     /**
      * Searches for users matching specific criteria.
+     * The results are paged with the {@code page}, {@code size} and {@code sort} request parameters: without them only
+     * the first {@value #DEFAULT_SEARCH_PAGE_SIZE} users ordered by ID are returned, so the clients should compare the page
+     * with the total number of matching users returned in the {@value #TOTAL_COUNT_HEADER} header.
+     * The users can be sorted by {@code id}, {@code firstName}, {@code lastName}, {@code birthdate} and {@code email}.
      *
      * @param userSearch the search criteria encapsulated in a UserSearch object
+     * @param pageable   the requested page of the results
      * @return a list of UserDto objects that match the search criteria
+     * @throws BusinessException if the page is larger than {@value UserServiceImpl#MAX_PAGE_SIZE} users or the users cannot be
+     *                           sorted by the requested property
      */
     @PostMapping(value = "/matching-users", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<UserDto> findMatchingUser(@RequestBody UserSearch userSearch) {
-        return userService.findMatchingUsers(userSearch)
-                .stream().map(userMapper::toDtoJustEmailAndId)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<UserDto>> findMatchingUser(@RequestBody UserSearch userSearch,
+                                                          @PageableDefault(size = DEFAULT_SEARCH_PAGE_SIZE, sort = "id") Pageable pageable) {
+        if (pageable.getPageSize() > UserServiceImpl.MAX_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and %d.".formatted(UserServiceImpl.MAX_PAGE_SIZE));
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new BusinessException("Users cannot be sorted by %s, only by %s.".formatted(order.getProperty(), SORTABLE_PROPERTIES));
+            }
+        }
+        Page<User> users = userService.findMatchingUsers(userSearch, pageable);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(users.getTotalElements()))
+                .body(users.map(userMapper::toDtoJustEmailAndId).getContent());
     }
 
 
@@ -160,4 +240,16 @@ class UserController {
     public User updateUser(@PathVariable Long id, @RequestBody UserDto userDto) {
         return userService.updateUser(id, userMapper.toEntity(userDto));
     }
+
+    private <T> ResponseEntity<List<T>> keysetPage(String cursor, int limit, Function<User, T> mapper) {
+        List<User> users = userService.findUsersAfter(UserCursor.decode(cursor).lastId(), limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() == limit) {
+            response.header(KeysetCursors.NEXT_CURSOR_HEADER, new UserCursor(users.get(users.size() - 1).getId()).encode());
+        }
+        return response.body(users.stream()
+                                 .map(mapper)
+                                 .toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+
+/**
+ * Opaque keyset pagination cursor for the users listing.
+ * It wraps the id of the last user returned on the previous page, so the next page is read with {@code id > lastId}
+ * from the primary key index, no matter how deep the client has paged.
+ *
+ * @param lastId id of the last user of the previous page
+ */
+record UserCursor(long lastId) {
+
+    private static final String PREFIX = "u";
+
+    /**
+     * Cursor pointing before the first user.
+     */
+    static final UserCursor FIRST = new UserCursor(0L);
+
+    /**
+     * Encodes the cursor into an url-safe token.
+     *
+     * @return token to be passed back by the client to read the next page
+     */
+    String encode() {
+        return KeysetCursors.encode(PREFIX, lastId);
+    }
+
+    /**
+     * Decodes the token created by {@link #encode()}.
+     *
+     * @param token token received from the client, {@code null} or blank means the first page
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static UserCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        return new UserCursor(KeysetCursors.decode(PREFIX, 1, token)[0]);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+/**
+ * Email of a user, read without loading the user entity.
+ *
+ * @param id    ID of the user
+ * @param email email of the user
+ */
+record UserEmail(Long id, String email) {
+
+}
@@ -0,0 +1,43 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.NdjsonExporter;
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes all users as newline-delimited JSON (one {@link UserDto} per line) with the {@link NdjsonExporter},
+ * so the memory used does not depend on the number of users.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class UserExporter {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final NdjsonExporter ndjsonExporter;
+
+    /**
+     * Writes all users to the given output stream.
+     *
+     * @param outputStream stream the users are written to, it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) throws IOException {
+        long exported = ndjsonExporter.export(userRepository.streamAllByOrderByIdAsc(),
+                                              userMapper::toDto,
+                                              objectMapper.writerFor(UserDto.class),
+                                              outputStream);
+        log.info("Exported {} users", exported);
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Incremental parsers of the bulk user import payloads.
+ * The rows are read from the request body one at a time, so the whole payload is never held in memory.
+ * A row which cannot be mapped to a user is returned as malformed, a payload which cannot be read any further
+ * throws {@link MalformedPayloadException} from the iterator.
+ */
+final class UserImportParser {
+
+    private static final String CSV_HEADER_PREFIX = "firstName";
+    private static final int CSV_COLUMNS = 4;
+
+    private UserImportParser() {
+    }
+
+    /**
+     * Parses a JSON array of {@link UserDto} objects.
+     * Each element is read as a tree first, so an element that cannot be mapped to the user is reported
+     * as a malformed row without breaking the parsing of the following elements.
+     *
+     * @param body         request body with the JSON array
+     * @param objectMapper mapper used to read the users
+     * @return iterator over the rows of the array
+     * @throws IOException if the body cannot be read
+     */
+    static Iterator<UserImportRow> json(InputStream body, ObjectMapper objectMapper) throws IOException {
+        MappingIterator<JsonNode> users = objectMapper.readerFor(JsonNode.class).readValues(body);
+        return new Iterator<>() {
+
+            private int number;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return users.hasNext();
+                } catch (RuntimeException e) {
+                    // MappingIterator reports the parse errors as unchecked exceptions wrapping the Jackson ones
+                    throw new MalformedPayloadException(e);
+                }
+            }
+
+            @Override
+            public UserImportRow next() {
+                JsonNode user;
+                try {
+                    user = users.next();
+                } catch (RuntimeException e) {
+                    throw new MalformedPayloadException(e);
+                }
+                number++;
+                try {
+                    return UserImportRow.parsed(number, objectMapper.treeToValue(user, UserDto.class));
+                } catch (JsonProcessingException e) {
+                    return UserImportRow.malformed(number, "Malformed user: " + e.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Parses CSV lines in the {@code firstName,lastName,birthdate,email} format, with an optional header line.
+     *
+     * @param body request body with the CSV lines
+     * @return iterator over the CSV rows
+     */
+    static Iterator<UserImportRow> csv(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return new Iterator<>() {
+
+            private int number;
+            private String nextLine = readLine(true);
+
+            @Override
+            public boolean hasNext() {
+                return nextLine != null;
+            }
+
+            @Override
+            public UserImportRow next() {
+                if (nextLine == null) {
+                    throw new NoSuchElementException();
+                }
+                String line = nextLine;
+                nextLine = readLine(false);
+                return parseCsvLine(++number, line);
+            }
+
+            private String readLine(boolean first) {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                    } while (line != null && line.isBlank());
+                    if (first && line != null && line.startsWith(CSV_HEADER_PREFIX)) {
+                        return readLine(false);
+                    }
+                    return line;
+                } catch (IOException e) {
+                    throw new MalformedPayloadException(e);
+                }
+            }
+        };
+    }
+
+    private static UserImportRow parseCsvLine(int number, String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != CSV_COLUMNS) {
+            return UserImportRow.malformed(number, "Expected %d columns but got %d.".formatted(CSV_COLUMNS, columns.length));
+        }
+        try {
+            LocalDate birthdate = columns[2].isBlank() ? null : LocalDate.parse(columns[2].trim());
+            return UserImportRow.parsed(number, new UserDto(null,
+                                                            blankToNull(columns[0]),
+                                                            blankToNull(columns[1]),
+                                                            birthdate,
+                                                            blankToNull(columns[3])));
+        } catch (DateTimeParseException e) {
+            return UserImportRow.malformed(number, "Invalid birthdate.");
+        }
+    }
+
+    private static String blankToNull(String column) {
+        return column.isBlank() ? null : column.trim();
+    }
+
+    /**
+     * Thrown by the row iterators when the rest of the payload cannot be read.
+     */
+    static final class MalformedPayloadException extends RuntimeException {
+
+        MalformedPayloadException(Throwable cause) {
+            super(cause);
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import java.util.List;
+
+/**
+ * Report of the bulk user import.
+ *
+ * @param total          number of rows read from the payload
+ * @param created        number of created users
+ * @param rejected       number of rejected rows, including the unreadable rest of a malformed payload
+ * @param durationMillis time the import took, in milliseconds
+ * @param results        outcome of every row, in the payload order
+ */
+record UserImportReport(int total, int created, int rejected, long durationMillis, List<UserImportResult> results) {
+
+}
@@ -0,0 +1,26 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.BatchResult;
+import jakarta.annotation.Nullable;
+
+/**
+ * Outcome of importing a single row of the bulk user import.
+ *
+ * @param row     number of the row in the imported payload, starting from 1
+ * @param status  whether the user was created or rejected
+ * @param id      ID of the created user, {@code null} if rejected
+ * @param email   email of the row, if it could be read
+ * @param message reason of the rejection, {@code null} if created
+ */
+record UserImportResult(int row, Status status, @Nullable Long id, @Nullable String email, @Nullable String message)
+        implements BatchResult {
+
+    static UserImportResult created(int row, Long id, String email) {
+        return new UserImportResult(row, Status.CREATED, id, email, null);
+    }
+
+    static UserImportResult rejected(int row, @Nullable String email, String message) {
+        return new UserImportResult(row, Status.REJECTED, null, email, message);
+    }
+
+}
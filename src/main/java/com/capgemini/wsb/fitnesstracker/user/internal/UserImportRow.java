@@ -0,0 +1,23 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import jakarta.annotation.Nullable;
+
+/**
+ * Single row of the bulk user import.
+ *
+ * @param number     number of the row in the imported payload, starting from 1
+ * @param user       parsed user or {@code null} if the row could not be parsed
+ * @param parseError reason why the row could not be parsed, {@code null} if it was parsed
+ */
+record UserImportRow(int number, @Nullable UserDto user, @Nullable String parseError) {
+
+    static UserImportRow parsed(int number, UserDto user) {
+        return new UserImportRow(number, user, null);
+    }
+
+    static UserImportRow malformed(int number, String parseError) {
+        return new UserImportRow(number, null, parseError);
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.common.api.BatchInserter;
+import com.capgemini.wsb.fitnesstracker.common.api.BatchResult;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports large numbers of users in a single pass over the payload.
+ * <p>
+ * Rows are validated as they are read and collected into chunks of {@value #CHUNK_SIZE} users. For every chunk the email
+ * uniqueness is checked with a single query and the remaining users are inserted by the {@link BatchInserter},
+ * so a concurrent import of the same email rejects only the offending rows.
+ * <p>
+ * A payload which cannot be parsed any further ends the import with a rejected row, the rows read before it are kept.
+ * Database errors other than constraint violations abort the import.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class UserImporter {
+
+    static final int CHUNK_SIZE = 1_000;
+    private static final String INSERT_SQL =
+            "insert into users (first_name, last_name, birthdate, email, email_normalized) values (?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final BatchInserter batchInserter;
+    private final EmailTrigramIndex emailTrigramIndex;
+
+    /**
+     * Imports all the rows.
+     *
+     * @param rows rows to be imported, read only once
+     * @return report with the outcome of every row
+     */
+    UserImportReport importUsers(Iterator<UserImportRow> rows) {
+        long start = System.currentTimeMillis();
+        List<UserImportResult> results = new ArrayList<>();
+        Set<String> importedEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(CHUNK_SIZE);
+        int total = 0;
+
+        try {
+            while (rows.hasNext()) {
+                UserImportRow row = rows.next();
+                total++;
+                validate(row, importedEmails, chunk, results);
+                if (chunk.size() == CHUNK_SIZE) {
+                    insertChunk(chunk, results);
+                    chunk.clear();
+                }
+            }
+        } catch (UserImportParser.MalformedPayloadException e) {
+            log.warn("Bulk user import stopped after {} rows, payload is malformed", total, e);
+            results.add(UserImportResult.rejected(total + 1, null, "Malformed payload, the remaining rows were not read."));
+        }
+        insertChunk(chunk, results);
+
+        results.sort(Comparator.comparingInt(UserImportResult::row));
+        int created = BatchResult.count(results, BatchResult.Status.CREATED);
+        int rejected = BatchResult.count(results, BatchResult.Status.REJECTED);
+        long duration = System.currentTimeMillis() - start;
+        log.info("Imported {} of {} users in {} ms", created, total, duration);
+
+        return new UserImportReport(total, created, rejected, duration, results);
+    }
+
+    private void validate(UserImportRow row, Set<String> importedEmails, List<PendingUser> chunk, List<UserImportResult> results) {
+        if (row.parseError() != null) {
+            results.add(UserImportResult.rejected(row.number(), null, row.parseError()));
+            return;
+        }
+        User user = userMapper.toEntity(row.user());
+        try {
+            UserServiceImpl.validateNewUser(user);
+        } catch (IllegalArgumentException e) {
+            results.add(UserImportResult.rejected(row.number(), user.getEmail(), e.getMessage()));
+            return;
+        }
+        if (!importedEmails.add(User.normalizeEmail(user.getEmail()))) {
+            results.add(UserImportResult.rejected(row.number(), user.getEmail(), "Duplicated email in the imported rows."));
+            return;
+        }
+        chunk.add(new PendingUser(row.number(), user));
+    }
+
+    private void insertChunk(List<PendingUser> chunk, List<UserImportResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> existingEmails = userRepository.findExistingNormalizedEmails(
+                chunk.stream().map(pending -> User.normalizeEmail(pending.user().getEmail())).toList());
+
+        List<PendingUser> toInsert = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            if (existingEmails.contains(User.normalizeEmail(pending.user().getEmail()))) {
+                results.add(UserImportResult.rejected(pending.row(), pending.user().getEmail(), "User with this email already exists."));
+            } else {
+                toInsert.add(pending);
+            }
+        }
+        batchInserter.insert(INSERT_SQL, toInsert, new BatchInserter.Batch<>() {
+
+            @Override
+            public void bind(PreparedStatement statement, PendingUser pending) throws SQLException {
+                User user = pending.user();
+                statement.setString(1, user.getFirstName());
+                statement.setString(2, user.getLastName());
+                statement.setDate(3, Date.valueOf(user.getBirthdate()));
+                statement.setString(4, user.getEmail());
+                statement.setString(5, User.normalizeEmail(user.getEmail()));
+            }
+
+            @Override
+            public void created(PendingUser pending, long id) {
+                emailTrigramIndex.add(id, pending.user().getEmail());
+                results.add(UserImportResult.created(pending.row(), id, pending.user().getEmail()));
+            }
+
+            @Override
+            public void rejected(PendingUser pending, DataIntegrityViolationException e) {
+                results.add(UserImportResult.rejected(pending.row(), pending.user().getEmail(), "User with this email already exists."));
+            }
+        });
+    }
+
+    private record PendingUser(int row, User user) {
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_EMAIL;
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_ID;
+
+/**
+ * Cached single user lookups. The caches hold immutable {@link UserDto} copies instead of the entities,
+ * so no caller can change a cached user or share a managed entity with other requests.
+ * The entries are evicted by the modifying operations of {@link UserServiceImpl}.
+ */
+@Component
+@RequiredArgsConstructor
+class UserLookup {
+
+    static final String NORMALIZED_EMAIL_KEY = "T(com.capgemini.wsb.fitnesstracker.user.api.User).normalizeEmail(#email)";
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    @Cacheable(cacheNames = USERS_BY_ID, key = "#id", condition = "#id != null", unless = "#result == null")
+    public Optional<UserDto> findById(Long id) {
+        return userRepository.findById(id).map(userMapper::toDto);
+    }
+
+    @Cacheable(cacheNames = USERS_BY_EMAIL, key = NORMALIZED_EMAIL_KEY, condition = "#email != null", unless = "#result == null")
+    public Optional<UserDto> findByEmail(String email) {
+        return userRepository.findByEmail(email).map(userMapper::toDto);
+    }
+
+}
@@ -65,4 +65,16 @@ class UserMapper {
                 userDto.email());
     }
 
+    /**
+     * Converts a {@link UserDto} to a detached {@link User} entity, including its ID.
+     *
+     * @param userDto the {@link UserDto} to convert
+     * @return a new {@link User} entity with the ID and the data of the {@link UserDto}
+     */
+    User toDetachedEntity(UserDto userDto) {
+        User user = toEntity(userDto);
+        user.setId(userDto.id());
+        return user;
+    }
+
 }
\ No newline at end of file
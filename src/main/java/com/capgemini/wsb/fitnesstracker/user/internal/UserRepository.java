@@ -1,58 +1,129 @@
 package com.capgemini.wsb.fitnesstracker.user.internal;
 
+import com.capgemini.wsb.fitnesstracker.common.api.NdjsonExporter;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import com.capgemini.wsb.fitnesstracker.user.api.UserSearch;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-interface UserRepository extends JpaRepository<User, Long> {
+interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     /**
-     * Query searching users by email address. It matches by exact match.
+     * Query searching users by email address. It matches case-insensitively, using the normalized email index.
      *
      * @param email email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
     default Optional<User> findByEmail(String email) {
-        return findAll().stream()
-                        .filter(user -> Objects.equals(user.getEmail().toLowerCase(), email.toLowerCase()))
-                        .findFirst();
+        return findByEmailNormalized(User.normalizeEmail(email));
     }
 
     /**
-     * Query searching users by id. It matches by exact match.
+     * Query searching users by already normalized email address (see {@link User#normalizeEmail(String)}).
      *
-     * @param id id of the user to search
+     * @param emailNormalized normalized email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
-    default Optional<User> findById(Long id) {
-        return findAll().stream()
-                .filter(user -> (Objects.equals(user.getId(), id)))
-                .findFirst();
-    }
+    Optional<User> findByEmailNormalized(String emailNormalized);
 
+    /**
+     * Query searching users matching all the non-null criteria of the {@link UserSearch}.
+     *
+     * @param search search criteria, {@code null} fields are not used for filtering
+     * @return list of the matching users ordered by id
+     */
     default List<User> findMatchingUser(UserSearch search) {
-        return findAll().stream()
-                .filter(user ->
-                        (search.getFirstName() == null
-                        || Objects.equals(user.getFirstName(), search.getFirstName())) &&
-                        (search.getLastName() == null
-                        || Objects.equals(user.getLastName(), search.getLastName())) &&
-                        (search.getBirthdate() == null
-                        || user.getBirthdate().isEqual(search.getBirthdate())) &&
-                        (search.getEmail() == null
-                        || Objects.equals(user.getEmail(), search.getEmail()))
-                )
-                .collect(Collectors.toList());
+        return findAll(UserSpecifications.matching(search), Sort.by("id"));
     }
 
-    List<User> findAllByEmailContainingIgnoreCase(String partialEmail);
+    /**
+     * Query searching a page of users matching all the non-null criteria of the {@link UserSearch}.
+     *
+     * @param search   search criteria, {@code null} fields are not used for filtering
+     * @param pageable page to be returned
+     * @return requested page of the matching users
+     */
+    default Page<User> findMatchingUser(UserSearch search, Pageable pageable) {
+        return findAll(UserSpecifications.matching(search), pageable);
+    }
+
+    /**
+     * Query checking which of the normalized emails are already used by some users.
+     *
+     * @param emailsNormalized normalized emails to check
+     * @return the subset of the given emails that already exist
+     */
+    @Query("select u.emailNormalized from User u where u.emailNormalized in :emails")
+    Set<String> findExistingNormalizedEmails(@Param("emails") Collection<String> emailsNormalized);
+
+    /**
+     * Query checking which of the users exist.
+     *
+     * @param ids IDs of the users to check
+     * @return the subset of the given IDs that exist
+     */
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Query reading the birthdates of the users, without loading the user entities.
+     *
+     * @param ids IDs of the users
+     * @return birthdates of the existing users
+     */
+    @Query("select new com.capgemini.wsb.fitnesstracker.user.internal.UserBirthdate(u.id, u.birthdate) from User u where u.id in :ids")
+    List<UserBirthdate> findBirthdates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Query reading the emails of the users, without loading the user entities.
+     *
+     * @param ids IDs of the users
+     * @return emails of the existing users
+     */
+    @Query("select new com.capgemini.wsb.fitnesstracker.user.internal.UserEmail(u.id, u.email) from User u where u.id in :ids")
+    List<UserEmail> findEmails(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset query reading the users with id greater than the given one, in the id order.
+     *
+     * @param id    id after which the users are read
+     * @param limit maximal number of users to read
+     * @return users following the given id
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams all users in the id order, fetching them from the database in chunks of {@value NdjsonExporter#FETCH_SIZE} rows.
+     * Must be called within a transaction and the returned stream has to be closed.
+     *
+     * @return stream of all users
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE_HINT),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllByOrderByIdAsc();
+
+    List<User> findAllByEmailContainingIgnoreCaseOrderByIdAsc(String partialEmail, Limit limit);
     List<User> findByBirthdateBefore(LocalDate date);
 }
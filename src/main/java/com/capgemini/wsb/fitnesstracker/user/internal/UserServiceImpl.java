@@ -1,19 +1,36 @@
 package com.capgemini.wsb.fitnesstracker.user.internal;
 
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
 import com.capgemini.wsb.fitnesstracker.user.api.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_EMAIL;
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_ID;
 
 /**
  * Service implementation for managing user-related operations.
  * This service provides methods to create, retrieve, update, delete, and search users.
+ * Single user lookups by ID and email are cached (see {@link UserLookup}) and evicted by the modifying operations.
+ * Every lookup returns a new detached copy of the cached user.
  */
 @Service
 @RequiredArgsConstructor
@@ -23,8 +40,14 @@ class UserServiceImpl implements UserService, UserProvider {
     private static final String NAME_REGEX = "^[\\p{L} .'-]+$";
     private static final String EMAIL_REGEX = "^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$";
     private static final String PARTIAL_EMAIL_REGEX = "^[\\w.@-]+$";
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_EMAIL_MATCHES = 1000;
+    private static final int EMAIL_MATCH_CHUNK_SIZE = 500;
 
     private final UserRepository userRepository;
+    private final EmailTrigramIndex emailTrigramIndex;
+    private final UserLookup userLookup;
+    private final UserMapper userMapper;
 
     /**
      * Creates a new user after validating the provided user details.
@@ -34,6 +57,9 @@ class UserServiceImpl implements UserService, UserProvider {
      * @throws IllegalArgumentException if the user details are invalid or the user already has an ID
      */
     @Override
+    @CacheEvict(cacheNames = USERS_BY_EMAIL,
+                key = "T(com.capgemini.wsb.fitnesstracker.user.api.User).normalizeEmail(#user.email)",
+                condition = "#user != null && #user.email != null")
     public User createUser(final User user) throws IllegalArgumentException, UserNotFoundException {
         validateNewUser(user);
 
@@ -41,7 +67,9 @@ class UserServiceImpl implements UserService, UserProvider {
         if (user.getId() != null) {
             throw new IllegalArgumentException("User has already DB ID, update is not permitted!");
         }
-        return userRepository.save(user);
+        User createdUser = userRepository.save(user);
+        emailTrigramIndex.add(createdUser.getId(), createdUser.getEmail());
+        return createdUser;
     }
 
     /**
@@ -52,7 +80,7 @@ class UserServiceImpl implements UserService, UserProvider {
      */
     @Override
     public Optional<User> getUser(final Long userId) {
-        return userRepository.findById(userId);
+        return userLookup.findById(userId).map(userMapper::toDetachedEntity);
     }
 
     /**
@@ -63,7 +91,7 @@ class UserServiceImpl implements UserService, UserProvider {
      */
     @Override
     public Optional<User> getUserByEmail(final String email) {
-        return userRepository.findByEmail(email);
+        return userLookup.findByEmail(email).map(userMapper::toDetachedEntity);
     }
 
     /**
@@ -76,6 +104,73 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findAll();
     }
 
+    /**
+     * Checks which of the users exist, with a single query for all of them.
+     *
+     * @param userIds IDs of the users to check
+     * @return the subset of the given IDs belonging to existing users
+     */
+    @Override
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        return userRepository.findExistingIds(userIds);
+    }
+
+    /**
+     * Reads the birthdates of the users, with a single query for all of them.
+     *
+     * @param userIds IDs of the users
+     * @return birthdates of the existing users by their IDs
+     */
+    @Override
+    public Map<Long, LocalDate> findBirthdates(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findBirthdates(userIds)
+                .stream()
+                .collect(Collectors.toMap(UserBirthdate::id, UserBirthdate::birthdate));
+    }
+
+    /**
+     * Reads the emails of the users, with a single query for all of them.
+     *
+     * @param userIds IDs of the users
+     * @return emails of the existing users by their IDs
+     */
+    @Override
+    public Map<Long, String> findEmails(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findEmails(userIds)
+                .stream()
+                .collect(Collectors.toMap(UserEmail::id, UserEmail::email));
+    }
+
+    /**
+     * Retrieves the next keyset page of users, ordered by their ID.
+     * The query seeks directly to the given ID in the primary key index, so every page costs the same as the first one.
+     *
+     * @param afterId the ID of the last user of the previous page, {@code 0} for the first page
+     * @param limit   the maximal number of users to return
+     * @return users with ID greater than {@code afterId}
+     * @throws IllegalArgumentException if the ID is invalid
+     * @throws BusinessException        if the limit is out of range
+     */
+    @Override
+    public List<User> findUsersAfter(Long afterId, int limit) {
+        if (afterId == null || afterId < 0) {
+            throw new IllegalArgumentException("Invalid id");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and %d.".formatted(MAX_PAGE_SIZE));
+        }
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
     /**
      * Retrieves detailed information of a user by their ID, with validation.
      *
@@ -92,7 +187,7 @@ class UserServiceImpl implements UserService, UserProvider {
 
         log.info("Getting details for user's id: {}", id);
 
-        return userRepository.findById(id);
+        return userLookup.findById(id).map(userMapper::toDetachedEntity);
     }
 
     /**
@@ -110,7 +205,7 @@ class UserServiceImpl implements UserService, UserProvider {
         }
         log.info("Getting details for user's email: {}", email);
 
-        return userRepository.findByEmail(email);
+        return userLookup.findByEmail(email).map(userMapper::toDetachedEntity);
     }
 
     /**
@@ -122,6 +217,11 @@ class UserServiceImpl implements UserService, UserProvider {
      * @throws IllegalArgumentException if multiple users match the given ID
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = USERS_BY_EMAIL,
+                        key = "T(com.capgemini.wsb.fitnesstracker.user.api.User).normalizeEmail(#result.email)")
+    })
     public User deleteUserById(Long id) {
         List<User> users = userRepository.findAllById(Collections.singleton(id));
         if (users.isEmpty()) {
@@ -131,6 +231,7 @@ class UserServiceImpl implements UserService, UserProvider {
             throw new IllegalArgumentException("There is more than one user with id: " + id);
         }
         userRepository.delete(users.get(0));
+        emailTrigramIndex.remove(id);
         return users.get(0);
     }
 
@@ -149,11 +250,30 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findMatchingUser(search);
     }
 
+    /**
+     * Finds a page of users matching specific search criteria.
+     *
+     * @param search   the search criteria to match users
+     * @param pageable the page to be returned
+     * @return a page of users that match the search criteria
+     * @throws IllegalArgumentException if any search criteria are invalid
+     */
+    @Override
+    public Page<User> findMatchingUsers(UserSearch search, Pageable pageable) {
+        validateSearch(search);
+
+        log.info("Getting page {} of matching users by search: {}", pageable, search);
+        return userRepository.findMatchingUser(search, pageable);
+    }
+
     /**
      * Finds users whose email contains the specified partial email fragment.
+     * The matching users are found with the {@link EmailTrigramIndex}, the database {@code LIKE} query is used
+     * only while the index is not built yet. At most {@value #MAX_EMAIL_MATCHES} users with the lowest IDs are returned,
+     * loaded in chunks of {@value #EMAIL_MATCH_CHUNK_SIZE}.
      *
-     * @param partialEmail the email fragment to search for
-     * @return a list of users whose email contains the partial email
+     * @param partialEmail the email fragment to search for, at least {@value EmailTrigramIndex#GRAM_LENGTH} characters long
+     * @return a list of users whose email contains the partial email, ordered by ID
      * @throws IllegalArgumentException if the partial email is invalid
      */
     @Override
@@ -161,7 +281,25 @@ class UserServiceImpl implements UserService, UserProvider {
         validatePartialEmail(partialEmail);
         log.info("Getting matching users by email fragment: {}", partialEmail);
 
-        return userRepository.findAllByEmailContainingIgnoreCase(partialEmail);
+        return emailTrigramIndex.search(partialEmail, MAX_EMAIL_MATCHES)
+                .map(ids -> findUsersWithEmailContaining(ids, partialEmail))
+                .orElseGet(() -> userRepository.findAllByEmailContainingIgnoreCaseOrderByIdAsc(partialEmail,
+                                                                                             Limit.of(MAX_EMAIL_MATCHES)));
+    }
+
+    private List<User> findUsersWithEmailContaining(List<Long> ids, String partialEmail) {
+        String fragment = User.normalizeEmail(partialEmail);
+        List<User> users = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += EMAIL_MATCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + EMAIL_MATCH_CHUNK_SIZE, ids.size()));
+            userRepository.findAllById(chunk)
+                    .stream()
+                    // the index may still hold the previous email of a user changed bypassing it
+                    .filter(user -> User.normalizeEmail(user.getEmail()).contains(fragment))
+                    .sorted(Comparator.comparing(User::getId))
+                    .forEach(users::add);
+        }
+        return users;
     }
 
     /**
@@ -191,6 +329,11 @@ class UserServiceImpl implements UserService, UserProvider {
      * @throws IllegalArgumentException if any details in userToUpdate are invalid
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_BY_ID, key = "#id"),
+            // the previous email of the user is not known here, updates are rare enough to drop the whole email cache
+            @CacheEvict(cacheNames = USERS_BY_EMAIL, allEntries = true)
+    })
     public User updateUser(Long id, User userToUpdate) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
@@ -209,7 +352,9 @@ class UserServiceImpl implements UserService, UserProvider {
             existingUser.setEmail(userToUpdate.getEmail());
         }
 
-        return userRepository.save(existingUser);
+        User updatedUser = userRepository.save(existingUser);
+        emailTrigramIndex.add(updatedUser.getId(), updatedUser.getEmail());
+        return updatedUser;
     }
 
 //==================== util methods ====================
@@ -244,7 +389,7 @@ class UserServiceImpl implements UserService, UserProvider {
      * @param user the user to validate
      * @throws IllegalArgumentException if any user details are invalid
      */
-    private void validateNewUser(User user) {
+    static void validateNewUser(User user) {
         if (Objects.equals(user, null)) {
             throw new IllegalArgumentException("User cannot be null.");
         }
@@ -292,6 +437,10 @@ class UserServiceImpl implements UserService, UserProvider {
         if (!partialEmail.matches(PARTIAL_EMAIL_REGEX)) {
             throw new IllegalArgumentException("Email fragment contains invalid characters.");
         }
+        if (partialEmail.trim().length() < EmailTrigramIndex.GRAM_LENGTH) {
+            throw new IllegalArgumentException("Email fragment must have at least %d characters."
+                                                       .formatted(EmailTrigramIndex.GRAM_LENGTH));
+        }
 
     }
 
@@ -0,0 +1,46 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.capgemini.wsb.fitnesstracker.user.api.UserSearch;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Factory of JPA {@link Specification}s used to query {@link User} entities.
+ */
+final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    /**
+     * Builds a specification matching users by the criteria supplied in the {@link UserSearch}.
+     * Only the non-null fields of the search become predicates, so the database receives a single query
+     * containing just the conditions that were actually requested.
+     *
+     * @param search the search criteria, each {@code null} field is ignored
+     * @return specification combining the supplied criteria with {@code AND}
+     */
+    static Specification<User> matching(UserSearch search) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>(4);
+            if (search.getFirstName() != null) {
+                predicates.add(builder.equal(root.get("firstName"), search.getFirstName()));
+            }
+            if (search.getLastName() != null) {
+                predicates.add(builder.equal(root.get("lastName"), search.getLastName()));
+            }
+            if (search.getBirthdate() != null) {
+                predicates.add(builder.equal(root.get("birthdate"), search.getBirthdate()));
+            }
+            if (search.getEmail() != null) {
+                predicates.add(builder.equal(root.get("email"), search.getEmail()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+}
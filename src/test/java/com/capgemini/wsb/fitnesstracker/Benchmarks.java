@@ -0,0 +1,51 @@
+package com.capgemini.wsb.fitnesstracker;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the JMH benchmarks of the {@link PerformanceTest} tests.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs all benchmark methods of the class on a single thread.
+     *
+     * @param benchmark class of the benchmark
+     * @param key       name of the score of a result, e.g. {@link #param(String)} or {@link #method()}
+     * @return primary scores of the results by their names
+     * @throws RunnerException if the benchmark fails
+     */
+    public static Map<String, Double> runSingleThreaded(Class<?> benchmark, Function<RunResult, String> key) throws RunnerException {
+        return new Runner(new OptionsBuilder()
+                                  .include(benchmark.getName())
+                                  .threads(1)
+                                  .build()).run()
+                .stream()
+                .collect(Collectors.toMap(key, result -> result.getPrimaryResult().getScore()));
+    }
+
+    /**
+     * Names the results by the value of a {@code @Param} of the benchmark.
+     */
+    public static Function<RunResult, String> param(String name) {
+        return result -> result.getParams().getParam(name);
+    }
+
+    /**
+     * Names the results by the benchmark method.
+     */
+    public static Function<RunResult, String> method() {
+        return result -> result.getParams().getBenchmark().replaceAll(".*\\.", "");
+    }
+
+}
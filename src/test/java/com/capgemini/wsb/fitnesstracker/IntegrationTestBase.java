@@ -1,5 +1,8 @@
 package com.capgemini.wsb.fitnesstracker;
 
+import com.capgemini.wsb.fitnesstracker.achievement.api.UserAchievement;
+import com.capgemini.wsb.fitnesstracker.rollup.api.TrainingRollup;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import org.junit.Before;
@@ -9,8 +12,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static java.util.UUID.randomUUID;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 public abstract class IntegrationTestBase {
@@ -21,8 +27,20 @@ public abstract class IntegrationTestBase {
     @Autowired
     private JpaRepository<Training, Long> trainingRepository;
 
+    @Autowired
+    private JpaRepository<Statistics, Long> statisticsRepository;
+
+    @Autowired
+    private JpaRepository<TrainingRollup, Long> trainingRollupRepository;
+
+    @Autowired
+    private JpaRepository<UserAchievement, Long> userAchievementRepository;
+
     @AfterEach
     void cleanUpDB() {
+        statisticsRepository.deleteAll();
+        trainingRollupRepository.deleteAll();
+        userAchievementRepository.deleteAll();
         trainingRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -30,11 +48,18 @@ public abstract class IntegrationTestBase {
 
     @Before
     public void setUp() {
+        statisticsRepository.deleteAll();
+        trainingRollupRepository.deleteAll();
+        userAchievementRepository.deleteAll();
         trainingRepository.deleteAll();
         userRepository.deleteAll();
 
     }
 
+    protected static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com");
+    }
+
     protected Training persistTraining(Training training) {
         return trainingRepository.save(training);
     }
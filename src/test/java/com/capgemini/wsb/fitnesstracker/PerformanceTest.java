@@ -0,0 +1,18 @@
+package com.capgemini.wsb.fitnesstracker;
+
+import org.junit.jupiter.api.Tag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks long-running benchmark tests. They are excluded from the default build and run with the {@code benchmark} profile.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Tag("PerformanceTest")
+public @interface PerformanceTest {
+
+}
@@ -0,0 +1,115 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark recording committed trainings of many users against thousands of achievement rules with
+ * {@link AchievementEngine#record(List)}, reported in nanoseconds per training. The users have no stored trainings,
+ * so their progress is replayed from empty results once, and the awards are consumed instead of being stored.
+ * Run by {@link AchievementEngineBenchmarkTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AchievementEngineBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int TRAININGS = 1 << 16;
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+    private static final AchievementMetric[] METRICS = AchievementMetric.values();
+    private static final Duration[] WINDOWS = {Duration.ofDays(1), Duration.ofDays(7), Duration.ofDays(30)};
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Param({"1000", "10000"})
+    public int rules;
+
+    private AchievementEngine engine;
+    private List<List<TrainingSnapshot>> trainings;
+    private Blackhole blackhole;
+    private int next;
+
+    @Setup
+    public void createEngine() {
+        Random random = new Random(42);
+        List<AchievementRuleDefinition> definitions = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            AchievementMetric metric = METRICS[random.nextInt(METRICS.length)];
+            ActivityType activityType = random.nextInt(ACTIVITY_TYPES.length + 1) == 0 ? null : ACTIVITY_TYPES[random.nextInt(ACTIVITY_TYPES.length)];
+            definitions.add(switch (metric) {
+                case TRAININGS -> new AchievementRuleDefinition("rule-" + i, null, metric, activityType, 1 + random.nextInt(1_000), null);
+                case TOTAL_DISTANCE -> new AchievementRuleDefinition("rule-" + i, null, metric, activityType, 1 + random.nextInt(10_000), null);
+                case LONGEST_DISTANCE -> new AchievementRuleDefinition("rule-" + i, null, metric, activityType, 1 + random.nextInt(100), null);
+                case TRAININGS_IN_WINDOW -> new AchievementRuleDefinition("rule-" + i, null, metric, activityType, 2 + random.nextInt(20),
+                                                                          WINDOWS[random.nextInt(WINDOWS.length)]);
+            });
+        }
+        AchievementProperties properties = new AchievementProperties(definitions, 500, USERS, Duration.ofHours(1));
+        engine = new AchievementEngine(AchievementRules.compile(definitions), new ConsumingAwardWriter(properties), new EmptyJdbcTemplate(), properties);
+
+        trainings = new ArrayList<>(TRAININGS);
+        for (int i = 0; i < TRAININGS; i++) {
+            Date start = new Date(i * DAY / 100 + random.nextInt((int) DAY));
+            trainings.add(List.of(new TrainingSnapshot((long) i, (long) random.nextInt(USERS), start, start,
+                                                       ACTIVITY_TYPES[random.nextInt(ACTIVITY_TYPES.length)], random.nextDouble() * 50, 10.0)));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setBlackhole(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Benchmark
+    public void recordTraining() {
+        engine.record(trainings.get(next++ & (TRAININGS - 1)));
+    }
+
+    /**
+     * Award writer consuming the awards, so they are neither stored nor accumulated.
+     */
+    private final class ConsumingAwardWriter extends AchievementAwardWriter {
+
+        ConsumingAwardWriter(AchievementProperties properties) {
+            super(null, null, null, properties);
+        }
+
+        @Override
+        void add(List<AchievementAward> awards) {
+            blackhole.consume(awards);
+        }
+
+    }
+
+    /**
+     * JDBC template answering every replay query with an empty result, as for users without stored trainings.
+     */
+    private static final class EmptyJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            return List.of();
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            return List.of();
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.Benchmarks;
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link AchievementEngineBenchmark} on a single thread and checks a training is evaluated within microseconds,
+ * independent of the number of rules. Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@Slf4j
+class AchievementEngineBenchmarkTest {
+
+    private static final double MAX_NANOS_PER_TRAINING = 5_000;
+
+    @Test
+    void trainingShouldBeEvaluatedWithinMicroseconds_whenThousandsOfRulesAreActive() throws Exception {
+        Map<String, Double> nanosPerTraining = Benchmarks.runSingleThreaded(AchievementEngineBenchmark.class, Benchmarks.param("rules"));
+        log.info("Achievement evaluation on one thread: 1000 rules {} ns/training, 10000 rules {} ns/training",
+                 Math.round(nanosPerTraining.get("1000")), Math.round(nanosPerTraining.get("10000")));
+        assertThat(nanosPerTraining.get("10000"))
+                .isLessThan(MAX_NANOS_PER_TRAINING)
+                .isLessThan(nanosPerTraining.get("1000") * 3);
+    }
+
+}
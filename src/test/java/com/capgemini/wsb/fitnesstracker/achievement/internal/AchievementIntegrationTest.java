@@ -0,0 +1,140 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@TestPropertySource(properties = {
+        "achievement.flush-interval=PT1H",
+        "achievement.batch-size=2",
+        "achievement.rules[0].code=first-10-km-run",
+        "achievement.rules[0].name=First 10 km run",
+        "achievement.rules[0].metric=LONGEST_DISTANCE",
+        "achievement.rules[0].activity-type=RUNNING",
+        "achievement.rules[0].threshold=10",
+        "achievement.rules[1].code=3-trainings",
+        "achievement.rules[1].metric=TRAININGS",
+        "achievement.rules[1].threshold=3",
+        "achievement.rules[2].code=2-swims-in-a-week",
+        "achievement.rules[2].metric=TRAININGS_IN_WINDOW",
+        "achievement.rules[2].activity-type=SWIMMING",
+        "achievement.rules[2].threshold=2",
+        "achievement.rules[2].window=7d"
+})
+class AchievementIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AchievementAwardWriter awardWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldAwardAchievements_whenTrainingsAreCreated() throws Exception {
+        User user = newUser();
+
+        createTraining(user, "2024-04-01T08:00:00", "RUNNING", 5);
+        createTraining(user, "2024-04-02T08:00:00", "RUNNING", 10.5);
+        assertThat(awardWriter.flush()).isEqualTo(1);
+
+        createTraining(user, "2024-04-03T08:00:00", "SWIMMING", 1);
+        createTraining(user, "2024-04-05T08:00:00", "SWIMMING", 1);
+        assertThat(awardWriter.flush()).isEqualTo(2);
+
+        mockMvc.perform(get("/v1/achievements/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].code").value("first-10-km-run"))
+                .andExpect(jsonPath("$[0].name").value("First 10 km run"));
+    }
+
+    @Test
+    void shouldCountStoredTrainings_whenFirstTrainingOfUserIsCreated() throws Exception {
+        User user = newUser();
+        persistTraining(training(user, LocalDate.of(2024, 3, 1), ActivityType.CYCLING, 20));
+        persistTraining(training(user, LocalDate.of(2024, 3, 2), ActivityType.SWIMMING, 1));
+
+        createTraining(user, "2024-03-05T08:00:00", "SWIMMING", 1);
+        createTraining(user, "2024-03-06T08:00:00", "TENNIS", 0.1);
+
+        assertThat(awardWriter.flush()).isEqualTo(2);
+        mockMvc.perform(get("/v1/achievements/{userId}", user.getId()))
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("3-trainings", "2-swims-in-a-week")));
+    }
+
+    @Test
+    void shouldSkipAchievements_whenUserWasRemovedBeforeFlush() throws Exception {
+        User user = newUser();
+        createTraining(user, "2024-04-01T08:00:00", "RUNNING", 12);
+        jdbcTemplate.update("delete from trainings where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from statistics where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from training_rollups where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+
+        assertThat(awardWriter.flush()).isZero();
+    }
+
+    @Test
+    void shouldKeepAchievements_whenStoringThemFails() throws Exception {
+        User user = newUser();
+        createTraining(user, "2024-04-02T08:00:00", "RUNNING", 10.5);
+        jdbcTemplate.execute("alter table user_achievements add constraint ck_user_achievements_test check (code <> 'first-10-km-run')");
+        try {
+            assertThat(awardWriter.flush()).isZero();
+        } finally {
+            jdbcTemplate.execute("alter table user_achievements drop constraint ck_user_achievements_test");
+        }
+
+        assertThat(awardWriter.flush()).isEqualTo(1);
+        mockMvc.perform(get("/v1/achievements/{userId}", user.getId()))
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("first-10-km-run")));
+    }
+
+    private User newUser() {
+        return existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com"));
+    }
+
+    private void createTraining(User user, String startTime, String activityType, double distance) throws Exception {
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": "%s",
+                            "startTime": "%s",
+                            "endTime": "%s",
+                            "activityType": "%s",
+                            "distance": %s,
+                            "averageSpeed": 8.2
+                        }
+                        """.formatted(user.getId(), startTime, startTime, activityType, distance)))
+                .andExpect(status().isCreated());
+    }
+
+    private static Training training(User user, LocalDate day, ActivityType activityType, double distance) {
+        Date start = Date.from(day.atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant());
+        return new Training(user, start, start, activityType, distance, 8.2);
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.capgemini.wsb.fitnesstracker.achievement.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProgressTest {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final AchievementRules rules = AchievementRules.compile(List.of(
+            rule("first-10-km-run", AchievementMetric.LONGEST_DISTANCE, ActivityType.RUNNING, 10, null),
+            rule("first-5-km-run", AchievementMetric.LONGEST_DISTANCE, ActivityType.RUNNING, 5, null),
+            rule("3-trainings", AchievementMetric.TRAININGS, null, 3, null),
+            rule("50-km-cycled", AchievementMetric.TOTAL_DISTANCE, ActivityType.CYCLING, 50, null),
+            rule("3-swims-in-a-week", AchievementMetric.TRAININGS_IN_WINDOW, ActivityType.SWIMMING, 3, Duration.ofDays(7))));
+
+    private final UserProgress progress = new UserProgress(rules);
+
+    @Test
+    void shouldShareSlot_whenRulesDifferInThresholdOnly() {
+        assertThat(rules.slots()).hasSize(4);
+        assertThat(rules.slotsOf(ActivityType.RUNNING)).hasSize(2);
+        assertThat(rules.slotsOf(ActivityType.TENNIS)).hasSize(1);
+    }
+
+    @Test
+    void shouldAwardEveryReachedThresholdOnce_whenTrainingsAreRecorded() {
+        assertThat(record(ActivityType.RUNNING, 12, 0)).containsExactly("first-5-km-run", "first-10-km-run");
+        assertThat(record(ActivityType.RUNNING, 20, DAY)).isEmpty();
+        assertThat(record(ActivityType.CYCLING, 30, 2 * DAY)).containsExactly("3-trainings");
+        assertThat(record(ActivityType.CYCLING, 20, 3 * DAY)).containsExactly("50-km-cycled");
+        assertThat(record(ActivityType.CYCLING, 20, 4 * DAY)).isEmpty();
+    }
+
+    @Test
+    void shouldNotAwardAgain_whenAchievementWasAlreadyAwarded() {
+        progress.markAwarded(rules.indexOf("first-5-km-run"));
+
+        assertThat(record(ActivityType.RUNNING, 12, 0)).containsExactly("first-10-km-run");
+    }
+
+    @Test
+    void shouldCountTrainingsWithinWindow_whenTrainingsAreSpreadOut() {
+        assertThat(record(ActivityType.SWIMMING, 1, 0)).isEmpty();
+        assertThat(record(ActivityType.SWIMMING, 1, 5 * DAY)).isEmpty();
+        assertThat(record(ActivityType.SWIMMING, 1, 8 * DAY)).containsExactly("3-trainings");
+        assertThat(record(ActivityType.SWIMMING, 1, 20 * DAY)).isEmpty();
+        // recorded late, completes the week of the trainings on days 5 and 8
+        assertThat(record(ActivityType.SWIMMING, 1, 6 * DAY)).containsExactly("3-swims-in-a-week");
+    }
+
+    @Test
+    void shouldRejectDefinition_whenInvalid() {
+        assertThatThrownBy(() -> AchievementRules.compile(List.of(rule("a", AchievementMetric.TRAININGS, null, 0, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AchievementRules.compile(List.of(rule("a", AchievementMetric.TRAININGS_IN_WINDOW, null, 3, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AchievementRules.compile(List.of(rule("a", AchievementMetric.TRAININGS, null, 3, Duration.ofDays(1)))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AchievementRules.compile(List.of(rule("a", AchievementMetric.TRAININGS, null, 3, null),
+                                                                  rule("a", AchievementMetric.TRAININGS, null, 4, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> record(ActivityType activityType, double distance, long startMillis) {
+        List<String> awarded = new ArrayList<>();
+        progress.record(activityType, distance, startMillis, rule -> awarded.add(rules.rule(rule).code()));
+        return awarded;
+    }
+
+    static AchievementRuleDefinition rule(String code, AchievementMetric metric, ActivityType activityType, double threshold, Duration window) {
+        return new AchievementRuleDefinition(code, null, metric, activityType, threshold, window);
+    }
+
+}
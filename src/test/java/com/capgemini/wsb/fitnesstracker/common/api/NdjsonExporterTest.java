@@ -0,0 +1,14 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonExporterTest {
+
+    @Test
+    void fetchSizeHintShouldMatchFetchSize() {
+        assertThat(NdjsonExporter.FETCH_SIZE_HINT).isEqualTo(String.valueOf(NdjsonExporter.FETCH_SIZE));
+    }
+
+}
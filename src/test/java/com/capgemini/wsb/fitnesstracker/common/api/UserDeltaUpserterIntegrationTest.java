@@ -0,0 +1,62 @@
+package com.capgemini.wsb.fitnesstracker.common.api;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@IntegrationTest
+class UserDeltaUpserterIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserDeltaUpserter userDeltaUpserter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldWaitForLockOfUser_whenAnotherTransactionHoldsIt() throws Exception {
+        User user = existingUser(generateClient());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            userDeltaUpserter.lockUserRange(user.getId(), user.getId() + 1);
+            locked.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(
+                () -> transactionTemplate.executeWithoutResult(status -> userDeltaUpserter.lockUsers(List.of(user.getId()))));
+        Thread.sleep(200);
+        assertThat(waiting).isNotDone();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldRejectLocking_whenNoTransactionIsActive() {
+        assertThatThrownBy(() -> userDeltaUpserter.lockUsers(List.of(1L))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
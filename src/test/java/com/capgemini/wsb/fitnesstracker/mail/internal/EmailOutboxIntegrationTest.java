@@ -0,0 +1,197 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutbox;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.internet.MimeMessage;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@IntegrationTest
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.outbox.batch-size=10",
+        "mail.outbox.max-attempts=3",
+        "mail.outbox.purge-chunk-size=2",
+        "mail.outbox.poll-interval=PT1H",
+        "mail.outbox.purge-interval=PT1H"
+})
+class EmailOutboxIntegrationTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUpOutbox() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSendStoredEmails_whenDispatching() throws Exception {
+        enqueue(3);
+
+        assertThat(outboxDispatcher.dispatch().join()).isEqualTo(3);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).extracting(MimeMessage::getSubject).containsExactlyInAnyOrder("Report 0", "Report 1", "Report 2");
+        assertThat(outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT)).isEqualTo(3);
+        assertThat(outboxDispatcher.dispatch().join()).isZero();
+    }
+
+    @Test
+    void shouldNotStoreEmails_whenTransactionIsRolledBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutbox.enqueue(List.of(new EmailDto("john@domain.com", "Report", "Content")));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxEmailRepository.count()).isZero();
+        assertThatThrownBy(() -> emailOutbox.enqueue(List.of(new EmailDto("john@domain.com", "Report", "Content"))))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void shouldRescheduleEmail_whenSendingFails() {
+        greenMail.stop();
+        enqueue(1);
+
+        assertThat(outboxDispatcher.dispatch().join()).isEqualTo(1);
+
+        OutboxEmail email = outboxEmailRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isAfter(Instant.now());
+        // not due before the backoff passes
+        assertThat(outboxDispatcher.dispatch().join()).isZero();
+    }
+
+    @Test
+    void shouldMarkEmailFailed_whenAllAttemptsFail() {
+        greenMail.stop();
+        enqueue(1);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            jdbcTemplate.update("update email_outbox set next_attempt_at = ?", Timestamp.from(Instant.now().minusSeconds(1)));
+            assertThat(outboxDispatcher.dispatch().join()).isEqualTo(1);
+        }
+
+        OutboxEmail email = outboxEmailRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCountTimedOutClaimAsAttempt_whenClaimingEmailAgain() {
+        enqueue(1);
+        timeOutClaim(0);
+
+        assertThat(outboxDispatcher.dispatch().join()).isEqualTo(1);
+
+        OutboxEmail email = outboxEmailRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+        assertThat(email.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMarkEmailFailed_whenTimedOutClaimWasLastAttempt() {
+        enqueue(1);
+        timeOutClaim(2);
+
+        assertThat(outboxDispatcher.dispatch().join()).isZero();
+
+        OutboxEmail email = outboxEmailRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(3);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldSendEveryEmailOnce_whenDispatchersRunConcurrently() throws Exception {
+        enqueue(100);
+
+        CompletableFuture<?>[] dispatchers = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    while (outboxDispatcher.dispatch().join() > 0) {
+                        // keep claiming until the outbox is empty
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(dispatchers).join();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(100);
+        assertThat(Arrays.stream(received).map(message -> {
+            try {
+                return message.getSubject();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).distinct()).hasSize(100);
+        assertThat(outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT)).isEqualTo(100);
+    }
+
+    @Test
+    void shouldPurgeOnlyOldSentEmails_whenPurging() {
+        enqueue(7);
+        jdbcTemplate.update("update email_outbox set status = 'SENT', sent_at = ? where id in (select id from email_outbox order by id fetch first 5 rows only)",
+                            Timestamp.from(Instant.now().minus(Duration.ofDays(8))));
+        jdbcTemplate.update("update email_outbox set status = 'SENT', sent_at = ? where status = 'PENDING' and id = (select max(id) from email_outbox)",
+                            Timestamp.from(Instant.now()));
+
+        assertThat(outboxDispatcher.purge()).isEqualTo(5);
+
+        assertThat(outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT)).isEqualTo(1);
+        assertThat(outboxEmailRepository.countByStatus(OutboxEmail.Status.PENDING)).isEqualTo(1);
+    }
+
+    /**
+     * Leaves the emails claimed by a dispatcher which stopped after the given attempts.
+     */
+    private void timeOutClaim(int attempts) {
+        jdbcTemplate.update("update email_outbox set status = 'SENDING', claim_token = 'stopped', claimed_at = ?, attempts = ?",
+                            Timestamp.from(Instant.now().minus(Duration.ofHours(1))), attempts);
+    }
+
+    private void enqueue(int count) {
+        transactionTemplate.executeWithoutResult(status -> emailOutbox.enqueue(
+                IntStream.range(0, count).mapToObj(i -> new EmailDto("user%d@domain.com".formatted(i), "Report " + i, "Content " + i)).toList()));
+    }
+
+}
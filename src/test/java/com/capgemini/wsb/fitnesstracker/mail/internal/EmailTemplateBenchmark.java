@@ -0,0 +1,81 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark rendering a report-like email with a {@link CompiledEmailTemplate} and, for comparison,
+ * with {@link String#formatted(Object...)}, reported in emails per second. Run by {@link EmailTemplateBenchmarkTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    static final String SOURCE = """
+            Your training summary for the week of {{weekStart}}
+
+            Hi {{firstName}},
+
+            your trainings in the week of {{weekStart}}:
+            {{#activities}}
+            - {{name}}: {{trainings}} trainings, {{distance}} km, {{minutes}} min
+            {{/activities}}
+            Keep it up!
+            """;
+
+    public record Activity(String name, long trainings, double distance, long minutes) {
+
+    }
+
+    public record Report(String firstName, LocalDate weekStart, List<Activity> activities) {
+
+    }
+
+    private EmailTemplate<Report> template;
+    private Report report;
+
+    @Setup
+    public void compileTemplate() {
+        template = EmailTemplatesImpl.compileSource(SOURCE, new TemplateBindings<Report>()
+                .text("firstName", Report::firstName)
+                .text("weekStart", Report::weekStart)
+                .list("activities", Report::activities, new TemplateBindings<Activity>()
+                        .text("name", Activity::name)
+                        .integer("trainings", Activity::trainings)
+                        .decimal("distance", Activity::distance, 1)
+                        .integer("minutes", Activity::minutes)));
+        report = new Report("John", LocalDate.of(2024, 4, 1), List.of(
+                new Activity("RUNNING", 3, 24.5, 150),
+                new Activity("CYCLING", 1, 42.25, 95),
+                new Activity("SWIMMING", 2, 3.0, 80)));
+    }
+
+    @Benchmark
+    public EmailDto compiledTemplate() {
+        return template.render("john@domain.com", report);
+    }
+
+    @Benchmark
+    public EmailDto formattedString() {
+        StringBuilder activities = new StringBuilder();
+        for (Activity activity : report.activities()) {
+            activities.append("- %s: %d trainings, %s km, %d min%n".formatted(
+                    activity.name(), activity.trainings(), String.format(Locale.ROOT, "%.1f", activity.distance()), activity.minutes()));
+        }
+        return new EmailDto("john@domain.com",
+                            "Your training summary for the week of %s".formatted(report.weekStart()),
+                            "Hi %s,%n%nyour trainings in the week of %s:%n%sKeep it up!%n".formatted(report.firstName(), report.weekStart(), activities));
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.Benchmarks;
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link EmailTemplateBenchmark} on a single thread and checks the compiled templates render emails
+ * faster than the {@link String#formatted(Object...)} equivalent. Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@Slf4j
+class EmailTemplateBenchmarkTest {
+
+    private static final double MIN_EMAILS_PER_SECOND = 500_000;
+
+    @Test
+    void compiledTemplateShouldRenderFasterThanFormattedStrings() throws Exception {
+        Map<String, Double> emailsPerSecond = Benchmarks.runSingleThreaded(EmailTemplateBenchmark.class, Benchmarks.method());
+        log.info("Email rendering on one thread: compiled template {} emails/s, String.formatted {} emails/s",
+                 Math.round(emailsPerSecond.get("compiledTemplate")), Math.round(emailsPerSecond.get("formattedString")));
+        assertThat(emailsPerSecond.get("compiledTemplate"))
+                .isGreaterThan(MIN_EMAILS_PER_SECOND)
+                .isGreaterThan(emailsPerSecond.get("formattedString"));
+    }
+
+}
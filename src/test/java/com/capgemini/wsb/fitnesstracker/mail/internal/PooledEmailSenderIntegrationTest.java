@@ -0,0 +1,71 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutcome;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.from=tracker@domain.com",
+        "mail.batch-size=50"
+})
+class PooledEmailSenderIntegrationTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private PooledEmailSender emailSender;
+
+    @Test
+    void shouldSendEmail_whenSendingEmail() throws Exception {
+        EmailOutcome outcome = emailSender.sendAsync(new EmailDto("john@domain.com", "Weekly report", "Keep it up!")).join();
+
+        assertThat(outcome.status()).isEqualTo(EmailOutcome.Status.SENT);
+        assertThat(outcome.attempts()).isEqualTo(1);
+        assertThat(outcome.error()).isNull();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Weekly report");
+        assertThat(received[0].getFrom()[0]).hasToString("tracker@domain.com");
+        assertThat(GreenMailUtil.getBody(received[0])).isEqualTo("Keep it up!");
+    }
+
+    @Test
+    void shouldSendAllEmails_whenSendingManyEmailsAtOnce() {
+        List<CompletableFuture<EmailOutcome>> outcomes = IntStream.range(0, 500)
+                .mapToObj(i -> emailSender.sendAsync(new EmailDto("user%d@domain.com".formatted(i), "Report " + i, "Content " + i)))
+                .toList();
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome.join().status()).isEqualTo(EmailOutcome.Status.SENT));
+        assertThat(greenMail.getReceivedMessages()).hasSize(500);
+    }
+
+    @Test
+    void shouldFailAfterOneAttempt_whenServerIsUnavailable() {
+        greenMail.stop();
+
+        EmailOutcome outcome = emailSender.sendAsync(new EmailDto("john@domain.com", "Weekly report", "Keep it up!")).join();
+
+        assertThat(outcome.status()).isEqualTo(EmailOutcome.Status.FAILED);
+        assertThat(outcome.attempts()).isEqualTo(1);
+        assertThat(outcome.error()).isNotBlank();
+    }
+
+}
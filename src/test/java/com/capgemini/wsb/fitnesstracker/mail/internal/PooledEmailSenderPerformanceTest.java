@@ -0,0 +1,81 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailOutcome;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the throughput of the {@link PooledEmailSender} sending {@value #MESSAGES} emails with sending every email
+ * over its own SMTP connection. Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@SpringBootTest(properties = {"spring.mail.host=localhost", "spring.mail.port=3025", "mail.from=tracker@domain.com"})
+@Slf4j
+class PooledEmailSenderPerformanceTest {
+
+    private static final int MESSAGES = 10_000;
+    private static final int NAIVE_MESSAGES = 1_000;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private PooledEmailSender emailSender;
+
+    @Autowired
+    private JavaMailSender javaMailSender;
+
+    @Test
+    void pooledSenderShouldSendFasterThanConnectionPerMessage() {
+        long start = System.nanoTime();
+        List<CompletableFuture<EmailOutcome>> outcomes = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            outcomes.add(emailSender.sendAsync(email(i)));
+        }
+        long enqueuedNanos = System.nanoTime() - start;
+        CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).join();
+        long pooledNanos = System.nanoTime() - start;
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome.join().status()).isEqualTo(EmailOutcome.Status.SENT));
+        assertThat(greenMail.getReceivedMessages()).hasSize(MESSAGES);
+
+        start = System.nanoTime();
+        for (int i = 0; i < NAIVE_MESSAGES; i++) {
+            EmailDto email = email(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("tracker@domain.com");
+            message.setTo(email.toAddress());
+            message.setSubject(email.subject());
+            message.setText(email.content());
+            javaMailSender.send(message);
+        }
+        long naiveNanos = System.nanoTime() - start;
+
+        double pooledPerSecond = MESSAGES * 1e9 / pooledNanos;
+        double naivePerSecond = NAIVE_MESSAGES * 1e9 / naiveNanos;
+        log.info("emails={} enqueued in {} ms, pooled sender={} emails/s, connection per email={} emails/s",
+                 MESSAGES, enqueuedNanos / 1_000_000, Math.round(pooledPerSecond), Math.round(naivePerSecond));
+
+        assertThat(pooledPerSecond).isGreaterThan(naivePerSecond);
+    }
+
+    private static EmailDto email(int i) {
+        return new EmailDto("user%d@domain.com".formatted(i), "Weekly report " + i, "Hi user %d,%n%nkeep it up!%n".formatted(i));
+    }
+
+}
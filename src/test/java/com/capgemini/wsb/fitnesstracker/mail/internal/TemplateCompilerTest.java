@@ -0,0 +1,98 @@
+package com.capgemini.wsb.fitnesstracker.mail.internal;
+
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailTemplate;
+import com.capgemini.wsb.fitnesstracker.mail.api.TemplateBindings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateCompilerTest {
+
+    private record Item(String name, double price) {
+
+    }
+
+    private record Order(String customer, long number, List<Item> items) {
+
+    }
+
+    private static final TemplateBindings<Order> BINDINGS = new TemplateBindings<Order>()
+            .text("customer", Order::customer)
+            .integer("number", Order::number)
+            .condition("paid", order -> order.number() % 2 == 0)
+            .list("items", Order::items, new TemplateBindings<Item>()
+                    .text("name", Item::name)
+                    .decimal("price", Item::price, 2));
+
+    @Test
+    void shouldRenderValuesAndSections_whenRenderingTemplate() {
+        EmailTemplate<Order> template = EmailTemplatesImpl.compileSource("""
+                Order {{number}}
+
+                Dear {{ customer }},
+                {{#items}}
+                  * {{name}}: {{price}}
+                {{/items}}
+                {{^items}}
+                your order is empty.
+                {{/items}}
+                {{#paid}}Paid.{{/paid}}{{^paid}}Not paid.{{/paid}}
+                """, BINDINGS);
+
+        EmailDto email = template.render("john@domain.com", new Order("John", 42, List.of(new Item("Shoes", 99.5), new Item("Socks", 3.014))));
+
+        assertThat(email.toAddress()).isEqualTo("john@domain.com");
+        assertThat(email.subject()).isEqualTo("Order 42");
+        assertThat(email.content()).isEqualTo("""
+                Dear John,
+                  * Shoes: 99.50
+                  * Socks: 3.01
+                Paid.
+                """);
+        assertThat(template.render("jane@domain.com", new Order("Jane", 7, List.of())).content()).isEqualTo("""
+                Dear Jane,
+                your order is empty.
+                Not paid.
+                """);
+    }
+
+    @Test
+    void shouldRoundDecimals_whenRenderingDecimalValues() {
+        assertThat(decimal(0.0, 1)).isEqualTo("0.0");
+        assertThat(decimal(1.25, 1)).isEqualTo("1.3");
+        assertThat(decimal(-1.04, 1)).isEqualTo("-1.0");
+        assertThat(decimal(-0.04, 1)).isEqualTo("0.0");
+        assertThat(decimal(12.005, 3)).isEqualTo("12.005");
+        assertThat(decimal(7.6, 0)).isEqualTo("8");
+        assertThat(decimal(Double.NaN, 2)).isEqualTo("NaN");
+    }
+
+    @Test
+    void shouldRejectTemplate_whenMalformed() {
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\nContent", BINDINGS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{unknown}}", BINDINGS))
+                .hasMessage("Name unknown is not bound.");
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{#items}}{{name}}", BINDINGS))
+                .hasMessage("Section items is not closed.");
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{#items}}{{/paid}}", BINDINGS))
+                .hasMessageStartingWith("Unexpected end of section paid");
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{#customer}}{{/customer}}", BINDINGS))
+                .hasMessageContaining("cannot open a section");
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{items}}", BINDINGS))
+                .hasMessageContaining("can only open a section");
+        assertThatThrownBy(() -> EmailTemplatesImpl.compileSource("Subject\n\n{{customer", BINDINGS))
+                .hasMessageStartingWith("Unclosed placeholder");
+    }
+
+    private static String decimal(double value, int fractionDigits) {
+        StringBuilder out = new StringBuilder();
+        TemplateNode.DecimalValue.appendDecimal(out, value, fractionDigits);
+        return out.toString();
+    }
+
+}
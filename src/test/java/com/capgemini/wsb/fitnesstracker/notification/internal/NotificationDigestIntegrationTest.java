@@ -0,0 +1,163 @@
+package com.capgemini.wsb.fitnesstracker.notification.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.notification.api.Notification;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@TestPropertySource(properties = {
+        "notification.digest.window=15m",
+        "notification.digest.max-notifications-per-user=3",
+        "notification.digest.max-buffered-notifications=5",
+        "notification.digest.flush-interval=PT1H",
+        "mail.outbox.poll-interval=PT1H"
+})
+class NotificationDigestIntegrationTest extends IntegrationTestBase {
+
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+
+    @Autowired
+    private NotificationDigestBuffer digestBuffer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearBuffer() {
+        digestBuffer.flushAll();
+        jdbcTemplate.update("delete from email_outbox");
+    }
+
+    @AfterEach
+    void cleanUpOutbox() {
+        jdbcTemplate.update("delete from email_outbox");
+    }
+
+    @Test
+    void shouldSendOneDigestPerUser_whenWindowHasPassed() {
+        User john = newUser("john@domain.com");
+        User jane = newUser("jane@domain.com");
+        digestBuffer.publish(new Notification(john.getId(), "First", Instant.now()));
+        digestBuffer.publish(new Notification(john.getId(), "Second", Instant.now()));
+        digestBuffer.publish(new Notification(jane.getId(), "Third", Instant.now()));
+
+        digestBuffer.flush(Instant.now());
+        assertThat(outbox()).isEmpty();
+
+        digestBuffer.flush(Instant.now().plus(WINDOW).plusSeconds(1));
+
+        List<Map<String, Object>> emails = outbox();
+        assertThat(emails).extracting(email -> email.get("TO_ADDRESS")).containsExactlyInAnyOrder("john@domain.com", "jane@domain.com");
+        Map<String, Object> johnsDigest = emailTo(emails, "john@domain.com");
+        assertThat(johnsDigest.get("SUBJECT")).isEqualTo("2 new notifications from the Fitness Tracker");
+        assertThat((String) johnsDigest.get("CONTENT")).contains("- First\n- Second\n").doesNotContain("more");
+        assertThat(emailTo(emails, "jane@domain.com").get("SUBJECT")).isEqualTo("1 new notification from the Fitness Tracker");
+        assertThat(digestBuffer.bufferedNotifications()).isZero();
+    }
+
+    @Test
+    void shouldCountOmittedNotifications_whenUserLimitIsReached() {
+        User john = newUser("john@domain.com");
+        for (int i = 0; i < 5; i++) {
+            digestBuffer.publish(new Notification(john.getId(), "Notification " + i, Instant.now()));
+        }
+
+        assertThat(digestBuffer.bufferedNotifications()).isEqualTo(3);
+        digestBuffer.flushAll();
+
+        Map<String, Object> digest = emailTo(outbox(), "john@domain.com");
+        assertThat(digest.get("SUBJECT")).isEqualTo("5 new notifications from the Fitness Tracker");
+        assertThat((String) digest.get("CONTENT"))
+                .contains("- Notification 2\n- and 2 more\n")
+                .doesNotContain("Notification 3");
+    }
+
+    @Test
+    void shouldSendAllDigestsEarly_whenBufferIsFull() {
+        User john = newUser("john@domain.com");
+        User jane = newUser("jane@domain.com");
+        for (int i = 0; i < 3; i++) {
+            digestBuffer.publish(new Notification(john.getId(), "John " + i, Instant.now()));
+            digestBuffer.publish(new Notification(jane.getId(), "Jane " + i, Instant.now()));
+        }
+        assertThat(digestBuffer.bufferedNotifications()).isEqualTo(5);
+
+        digestBuffer.flush(Instant.now());
+
+        assertThat(outbox()).hasSize(2);
+        assertThat(digestBuffer.bufferedNotifications()).isZero();
+    }
+
+    @Test
+    void shouldKeepDigestInBuffer_whenStoringItFails() {
+        User john = newUser("john@domain.com");
+        digestBuffer.publish(new Notification(john.getId(), "First", Instant.now()));
+        jdbcTemplate.execute("alter table email_outbox add constraint ck_email_outbox_test check (to_address <> 'john@domain.com')");
+        try {
+            digestBuffer.flushAll();
+            digestBuffer.publish(new Notification(john.getId(), "Second", Instant.now()));
+        } finally {
+            jdbcTemplate.execute("alter table email_outbox drop constraint ck_email_outbox_test");
+        }
+        assertThat(outbox()).isEmpty();
+        assertThat(digestBuffer.bufferedNotifications()).isEqualTo(2);
+
+        digestBuffer.flushAll();
+
+        assertThat((String) emailTo(outbox(), "john@domain.com").get("CONTENT")).contains("- First\n- Second\n");
+        assertThat(digestBuffer.bufferedNotifications()).isZero();
+    }
+
+    @Test
+    void shouldBufferNotification_whenTrainingIsCreated() {
+        User john = newUser("john@domain.com");
+        Date start = Date.from(LocalDate.of(2024, 4, 2).atTime(8, 0).atZone(ZoneId.systemDefault()).toInstant());
+        Date end = Date.from(LocalDate.of(2024, 4, 2).atTime(9, 0).atZone(ZoneId.systemDefault()).toInstant());
+
+        eventPublisher.publishEvent(new TrainingsCreatedEvent(List.of(
+                new TrainingSnapshot(1L, john.getId(), start, end, ActivityType.RUNNING, 10.0, 10.0))));
+
+        assertThat(digestBuffer.bufferedNotifications()).isEqualTo(1);
+        digestBuffer.flushAll();
+        assertThat((String) emailTo(outbox(), "john@domain.com").get("CONTENT"))
+                .contains("- Running training of 10.0 km in 60 min recorded for 2024-04-02");
+    }
+
+    private User newUser(String email) {
+        return existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), email));
+    }
+
+    private List<Map<String, Object>> outbox() {
+        return jdbcTemplate.queryForList("select to_address, subject, content from email_outbox");
+    }
+
+    private static Map<String, Object> emailTo(List<Map<String, Object>> emails, String address) {
+        return emails.stream().filter(email -> address.equals(email.get("TO_ADDRESS"))).findFirst().orElseThrow();
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.capgemini.wsb.fitnesstracker.report.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.mail.api.EmailDto;
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@IntegrationTest
+@TestPropertySource(properties = {"report.weekly.chunk-size=2", "report.weekly.parallelism=2"})
+class WeeklyReportIntegrationTest extends IntegrationTestBase {
+
+    private static final LocalDate WEEK = LocalDate.of(2024, 4, 1);
+
+    @Autowired
+    private WeeklyReportJob weeklyReportJob;
+
+    @Autowired
+    private WeeklyReportChunkRepository chunkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUpReports() {
+        chunkRepository.deleteAll();
+        jdbcTemplate.update("delete from email_outbox");
+    }
+
+    @Test
+    void shouldSendWeekTotalsToEveryUser_whenGeneratingReports() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(training(user1, ActivityType.RUNNING, LocalDateTime.of(2024, 4, 2, 10, 0), 60, 10));
+        persistTraining(training(user1, ActivityType.RUNNING, LocalDateTime.of(2024, 4, 3, 10, 0), 30, 5));
+        persistTraining(training(user1, ActivityType.CYCLING, LocalDateTime.of(2024, 4, 4, 10, 0), 60, 20));
+        persistTraining(training(user1, ActivityType.RUNNING, LocalDateTime.of(2024, 4, 8, 10, 0), 60, 10));
+        persistTraining(training(user3, ActivityType.WALKING, LocalDateTime.of(2024, 4, 7, 20, 0), 60, 4));
+
+        WeeklyReportRunSummary summary = weeklyReportJob.generate(WEEK);
+
+        assertThat(summary.chunks()).isEqualTo(2);
+        assertThat(summary.sent()).isEqualTo(3);
+        assertThat(summary.failedChunks()).isZero();
+        assertThat(emailTo(user1).subject()).isEqualTo("Your training summary for the week of 2024-04-01");
+        assertThat(emailTo(user1).content())
+                .contains("- RUNNING: 2 trainings, 15.0 km, 1 h 30 min\n")
+                .contains("- CYCLING: 1 training, 20.0 km, 1 h 0 min\n")
+                .contains("Total: 3 trainings, 35.0 km, 2 h 30 min\n");
+        assertThat(emailTo(user2).content()).contains("you did not record any trainings in the week from 2024-04-01 to 2024-04-07");
+        assertThat(emailTo(user3).content()).contains("Total: 1 training, 4.0 km, 1 h 0 min\n");
+    }
+
+    @Test
+    void shouldNotSendReportsAgain_whenGeneratingCompletedWeek() {
+        existingUser(generateClient());
+        existingUser(generateClient());
+        existingUser(generateClient());
+        weeklyReportJob.generate(WEEK);
+
+        WeeklyReportRunSummary summary = weeklyReportJob.generate(WEEK);
+
+        assertThat(summary.chunks()).isZero();
+        assertThat(outboxEmails()).hasSize(3);
+    }
+
+    @Test
+    void shouldResumeFromCheckpoints_whenRunWasInterrupted() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        // the run sent the reports of the first chunk, recorded the second one and stopped
+        WeeklyReportChunk sent = chunkRepository.save(new WeeklyReportChunk(WEEK, user1.getId(), user2.getId()));
+        chunkRepository.markCompleted(sent.getId());
+        chunkRepository.save(new WeeklyReportChunk(WEEK, user3.getId(), user3.getId()));
+
+        WeeklyReportRunSummary summary = weeklyReportJob.generate(WEEK);
+
+        assertThat(summary.chunks()).isEqualTo(2);
+        assertThat(summary.sent()).isEqualTo(2);
+        assertThat(outboxEmails()).extracting(EmailDto::toAddress).containsExactlyInAnyOrder(user3.getEmail(), user4.getEmail());
+        assertThat(chunkRepository.findByWeekStartAndCompletedFalseOrderByFirstUserIdAsc(WEEK)).isEmpty();
+    }
+
+    @Test
+    void shouldRetryFailedChunksOfEarlierWeek_whenGeneratingNextWeek() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        // the chunk of the week before failed in its run
+        chunkRepository.save(new WeeklyReportChunk(WEEK.minusWeeks(1), user1.getId(), user1.getId()));
+
+        WeeklyReportRunSummary summary = weeklyReportJob.generate(WEEK);
+
+        assertThat(summary.chunks()).isEqualTo(2);
+        assertThat(summary.sent()).isEqualTo(3);
+        assertThat(outboxEmails())
+                .filteredOn(email -> email.subject().endsWith(WEEK.minusWeeks(1).toString()))
+                .extracting(EmailDto::toAddress)
+                .containsExactly(user1.getEmail());
+        assertThat(outboxEmails())
+                .filteredOn(email -> email.subject().endsWith(WEEK.toString()))
+                .extracting(EmailDto::toAddress)
+                .containsExactlyInAnyOrder(user1.getEmail(), user2.getEmail());
+        assertThat(chunkRepository.findByWeekStartBeforeAndCompletedFalseOrderByWeekStartAscFirstUserIdAsc(WEEK)).isEmpty();
+    }
+
+    @Test
+    void shouldNotSendReportsOfChunk_whenAnotherRunCompletedIt() {
+        User user1 = existingUser(generateClient());
+        WeeklyReportChunk chunk = chunkRepository.save(new WeeklyReportChunk(WEEK, user1.getId(), user1.getId()));
+        // another instance claimed the chunk after this run read it
+        chunkRepository.markCompleted(chunk.getId());
+
+        int sent = weeklyReportJob.send(chunk);
+
+        assertThat(sent).isZero();
+        assertThat(outboxEmails()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectChunk_whenAnotherInstanceRecordedIt() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        // another instance recorded the chunk after this run read where the scan continues
+        chunkRepository.save(new WeeklyReportChunk(WEEK, user1.getId(), user2.getId()));
+
+        assertThatThrownBy(() -> chunkRepository.save(new WeeklyReportChunk(WEEK, user1.getId(), user2.getId())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(chunkRepository.findByWeekStartAndCompletedFalseOrderByFirstUserIdAsc(WEEK))
+                .extracting(WeeklyReportChunk::getFirstUserId)
+                .containsExactly(user1.getId());
+    }
+
+    @Test
+    void shouldRejectWeek_whenNotStartingOnMonday() {
+        assertThatThrownBy(() -> weeklyReportJob.generate(WEEK.plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private EmailDto emailTo(User user) {
+        List<EmailDto> emails = outboxEmails().stream().filter(email -> email.toAddress().equals(user.getEmail())).toList();
+        assertThat(emails).hasSize(1);
+        return emails.get(0);
+    }
+
+    private List<EmailDto> outboxEmails() {
+        return jdbcTemplate.query("select to_address, subject, content from email_outbox where status = 'PENDING'",
+                                  (row, rowNum) -> new EmailDto(row.getString(1), row.getString(2), row.getString(3)));
+    }
+
+    private static Training training(User user, ActivityType activityType, LocalDateTime start, int minutes, double distance) {
+        return new Training(user,
+                            Date.from(start.atZone(ZoneId.systemDefault()).toInstant()),
+                            Date.from(start.plusMinutes(minutes).atZone(ZoneId.systemDefault()).toInstant()),
+                            activityType,
+                            distance,
+                            distance * 60 / minutes);
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.capgemini.wsb.fitnesstracker.rollup.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingRollupIntegrationTest extends IntegrationTestBase {
+
+    private static final String TRAINING = """
+            {"userId": %s, "startTime": "%s", "endTime": "%s", "activityType": "%s", "distance": %s, "averageSpeed": 10}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldAggregateTrainingsPerWeekAndMonth_whenCreatingTrainings() throws Exception {
+        User user = existingUser(generateClient());
+        createTrainings(user);
+
+        getRollups(user, "WEEK", "2024-04-01", "2024-04-15", null)
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-01"))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].trainingCount").value(2))
+                .andExpect(jsonPath("$[0].totalDistance", closeTo(15.0, 1e-9)))
+                .andExpect(jsonPath("$[0].totalDurationSeconds").value(5400))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-04-08"))
+                .andExpect(jsonPath("$[1].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[1].trainingCount").value(1));
+
+        getRollups(user, "MONTH", "2024-04-10", "2024-06-01", null)
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-01"))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].trainingCount").value(2))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-04-01"))
+                .andExpect(jsonPath("$[1].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[2].periodStart").value("2024-05-01"))
+                .andExpect(jsonPath("$[2].totalDistance", closeTo(3.0, 1e-9)));
+
+        getRollups(user, "MONTH", "2024-01-01", "2025-01-01", ActivityType.RUNNING)
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].activityType").value(everyItem(is("RUNNING"))));
+    }
+
+    @Test
+    void shouldMoveTrainingBetweenRollups_whenUpdatingTraining() throws Exception {
+        User user = existingUser(generateClient());
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10));
+        Long trainingId = createTraining(TRAINING.formatted(user.getId(), "2024-04-02T10:00:00", "2024-04-02T11:00:00", "RUNNING", 5));
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                                .content(TRAINING.formatted(user.getId(), "2024-04-09T10:00:00", "2024-04-09T10:30:00", "RUNNING", 4)))
+                .andExpect(status().isOk());
+
+        getRollups(user, "WEEK", "2024-04-01", "2024-04-15", null)
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].trainingCount").value(1))
+                .andExpect(jsonPath("$[0].totalDistance", closeTo(10.0, 1e-9)))
+                .andExpect(jsonPath("$[0].totalDurationSeconds").value(3600))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-04-08"))
+                .andExpect(jsonPath("$[1].trainingCount").value(1))
+                .andExpect(jsonPath("$[1].totalDistance", closeTo(4.0, 1e-9)))
+                .andExpect(jsonPath("$[1].totalDurationSeconds").value(1800));
+        getRollups(user, "MONTH", "2024-04-01", "2024-05-01", null)
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].trainingCount").value(2))
+                .andExpect(jsonPath("$[0].totalDistance", closeTo(14.0, 1e-9)));
+    }
+
+    @Test
+    void shouldReproduceIncrementalRollups_whenBackfilling() throws Exception {
+        User user = existingUser(generateClient());
+        createTrainings(user);
+        String incremental = getRollups(user, "WEEK", "2024-01-01", "2025-01-01", null).andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/v1/rollups/backfill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").value(1))
+                .andExpect(jsonPath("$.trainings").value(4))
+                .andExpect(jsonPath("$.rollups").value(6));
+
+        String backfilled = getRollups(user, "WEEK", "2024-01-01", "2025-01-01", null).andReturn().getResponse().getContentAsString();
+        assertThat(backfilled).isEqualTo(incremental);
+    }
+
+    @Test
+    void shouldBuildRollups_whenBackfillingTrainingsStoredWithoutEvents() throws Exception {
+        User user = existingUser(generateClient());
+        persistTraining(new Training(user, date(2024, 4, 1, 10), date(2024, 4, 1, 11), ActivityType.SWIMMING, 2, 2));
+        persistTraining(new Training(user, date(2024, 4, 5, 10), date(2024, 4, 5, 12), ActivityType.SWIMMING, 3, 1.5));
+
+        getRollups(user, "WEEK", "2024-04-01", "2024-04-08", null)
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(post("/v1/rollups/backfill"))
+                .andExpect(status().isOk());
+
+        getRollups(user, "WEEK", "2024-04-01", "2024-04-08", null)
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].activityType").value("SWIMMING"))
+                .andExpect(jsonPath("$[0].trainingCount").value(2))
+                .andExpect(jsonPath("$[0].totalDistance", closeTo(5.0, 1e-9)))
+                .andExpect(jsonPath("$[0].totalDurationSeconds").value(3 * 3600));
+    }
+
+    private void createTrainings(User user) throws Exception {
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10));
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-03T10:00:00", "2024-04-03T10:30:00", "RUNNING", 5));
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-08T10:00:00", "2024-04-08T11:00:00", "CYCLING", 20));
+        createTraining(TRAINING.formatted(user.getId(), "2024-05-02T10:00:00", "2024-05-02T10:20:00", "RUNNING", 3));
+    }
+
+    private ResultActions getRollups(User user, String period, String from, String to, ActivityType activityType) throws Exception {
+        var request = get("/v1/rollups/{userId}", user.getId()).param("period", period).param("from", from).param("to", to);
+        if (activityType != null) {
+            request.param("activityType", activityType.name());
+        }
+        return mockMvc.perform(request).andExpect(status().isOk());
+    }
+
+    private Long createTraining(String training) throws Exception {
+        String response = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(training))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return ((Number) JsonPath.read(response, "$.id")).longValue();
+    }
+
+    private static Date date(int year, int month, int day, int hour) {
+        return Date.from(LocalDateTime.of(year, month, day, hour, 0).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
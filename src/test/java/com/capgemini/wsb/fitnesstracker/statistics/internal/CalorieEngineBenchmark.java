@@ -0,0 +1,48 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link CalorieEngine} over batches of random trainings, reported in trainings per second.
+ * Run by {@link CalorieEngineBenchmarkTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalorieEngineBenchmark {
+
+    static final int BATCH_SIZE = 10_000;
+
+    private CalorieBatch batch;
+    private int[] calories;
+
+    @Setup
+    public void createBatch() {
+        SplittableRandom random = new SplittableRandom(42);
+        ActivityType[] activityTypes = ActivityType.values();
+        batch = new CalorieBatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(random.nextLong(600_000, 10_800_000),
+                      random.nextDouble(0, 60),
+                      random.nextDouble(0, 30),
+                      activityTypes[random.nextInt(activityTypes.length)],
+                      random.nextInt(CalorieBatch.UNKNOWN_AGE, 90));
+        }
+        calories = new int[BATCH_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] caloriesBurned() {
+        CalorieEngine.caloriesBurned(batch, calories);
+        return calories;
+    }
+
+}
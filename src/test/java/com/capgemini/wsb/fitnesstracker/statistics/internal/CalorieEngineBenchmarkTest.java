@@ -0,0 +1,27 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.Benchmarks;
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link CalorieEngineBenchmark} on a single thread and checks the engine estimates millions of trainings per second.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@Slf4j
+class CalorieEngineBenchmarkTest {
+
+    private static final double MIN_TRAININGS_PER_SECOND = 1_000_000;
+
+    @Test
+    void engineShouldEstimateMillionsOfTrainingsPerSecond() throws Exception {
+        double trainingsPerSecond = Benchmarks.runSingleThreaded(CalorieEngineBenchmark.class, Benchmarks.method()).get("caloriesBurned");
+        log.info("CalorieEngine: {} trainings/s on one thread", Math.round(trainingsPerSecond));
+        assertThat(trainingsPerSecond).isGreaterThan(MIN_TRAININGS_PER_SECOND);
+    }
+
+}
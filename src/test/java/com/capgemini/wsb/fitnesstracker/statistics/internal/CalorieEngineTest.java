@@ -0,0 +1,84 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static com.capgemini.wsb.fitnesstracker.statistics.internal.CalorieBatch.UNKNOWN_AGE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+class CalorieEngineTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void shouldUseSpeedDependentMet_whenDistanceKnown() {
+        CalorieBatch batch = new CalorieBatch(4);
+        // 10 km/h: 2.0 + 0.78 * 10 = 9.8 MET
+        batch.add(HOUR, 10, 0, ActivityType.RUNNING, UNKNOWN_AGE);
+        // 5 km/h: 0.3 + 0.7 * 5 = 3.8 MET
+        batch.add(HOUR / 2, 2.5, 0, ActivityType.WALKING, UNKNOWN_AGE);
+        // 20 km/h walking is clamped to 8 MET
+        batch.add(HOUR, 20, 0, ActivityType.WALKING, UNKNOWN_AGE);
+        // 30 km/h: -2.6 + 0.53 * 30 = 13.3 MET
+        batch.add(HOUR, 30, 0, ActivityType.CYCLING, UNKNOWN_AGE);
+
+        assertArrayEquals(new int[]{686, 133, 560, 931}, CalorieEngine.caloriesBurned(batch));
+    }
+
+    @Test
+    void shouldFallBackToAverageSpeedAndTypicalMet_whenDistanceUnknown() {
+        CalorieBatch batch = new CalorieBatch(4);
+        // 12 km/h: 2.0 + 0.78 * 12 = 11.36 MET
+        batch.add(HOUR, 0, 12, ActivityType.RUNNING, UNKNOWN_AGE);
+        batch.add(HOUR, 0, 0, ActivityType.CYCLING, UNKNOWN_AGE);
+        batch.add(HOUR, 2, 0, ActivityType.SWIMMING, UNKNOWN_AGE);
+        batch.add(2 * HOUR, 0, 0, ActivityType.TENNIS, UNKNOWN_AGE);
+
+        assertArrayEquals(new int[]{795, 525, 560, 1022}, CalorieEngine.caloriesBurned(batch));
+    }
+
+    @Test
+    void shouldBurnLess_whenUserOlder() {
+        CalorieBatch batch = new CalorieBatch(3);
+        batch.add(HOUR, 10, 0, ActivityType.RUNNING, CalorieEngine.REFERENCE_AGE);
+        batch.add(HOUR, 10, 0, ActivityType.RUNNING, 70);
+        batch.add(HOUR, 10, 0, ActivityType.RUNNING, 20);
+
+        assertArrayEquals(new int[]{686, 608, 719}, CalorieEngine.caloriesBurned(batch));
+    }
+
+    @Test
+    void shouldGrowBatchAndComputeAgeAtTraining_whenAddingTrainings() {
+        CalorieBatch batch = new CalorieBatch(1);
+        for (int i = 0; i < 20; i++) {
+            batch.add(training(LocalDateTime.of(2025, 1, 1, 10, 0)), LocalDate.of(1990, 1, 2));
+        }
+        batch.add(training(LocalDateTime.of(2025, 1, 2, 10, 0)), LocalDate.of(1990, 1, 2));
+        batch.add(training(LocalDateTime.of(2025, 1, 2, 10, 0)), null);
+
+        assertEquals(22, batch.size());
+        assertEquals(34, batch.age()[0]);
+        assertEquals(35, batch.age()[20]);
+        assertEquals(UNKNOWN_AGE, batch.age()[21]);
+        assertEquals(686, CalorieEngine.caloriesBurned(batch)[20]);
+    }
+
+    private static TrainingSnapshot training(LocalDateTime start) {
+        ZoneId zone = ZoneId.systemDefault();
+        return new TrainingSnapshot(1L,
+                                    1L,
+                                    Date.from(start.atZone(zone).toInstant()),
+                                    Date.from(start.plusHours(1).atZone(zone).toInstant()),
+                                    ActivityType.RUNNING,
+                                    10,
+                                    10);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+class QuantileSketchTest {
+
+    private static final double ACCURACY = QuantileSketch.RELATIVE_ACCURACY;
+
+    @Test
+    void shouldAnswerQuantilesWithinRelativeAccuracy_whenValuesAdded() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100_000; i++) {
+            sketch.add(i / 100.0);
+        }
+
+        assertEquals(100_000, sketch.count());
+        assertEquals(500, sketch.quantile(0.5), 500 * ACCURACY);
+        assertEquals(900, sketch.quantile(0.9), 900 * ACCURACY);
+        assertEquals(990, sketch.quantile(0.99), 990 * ACCURACY);
+        assertEquals(0.01, sketch.quantile(0), 0.01 * ACCURACY);
+        assertEquals(1000, sketch.quantile(1), 1000 * ACCURACY);
+    }
+
+    @Test
+    void shouldRankValues_whenValuesAdded() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100_000; i++) {
+            sketch.add(i / 100.0);
+        }
+
+        assertEquals(0.25, sketch.rank(250), 0.01);
+        assertEquals(0.8, sketch.rank(800), 0.01);
+        assertEquals(0, sketch.rank(0.001), 0.001);
+        assertEquals(1, sketch.rank(5_000), 0.001);
+        assertTrue(Double.isNaN(new QuantileSketch().rank(1)));
+    }
+
+    @Test
+    void shouldEqualSketchOfAllValues_whenMerged() {
+        QuantileSketch odd = new QuantileSketch();
+        QuantileSketch even = new QuantileSketch();
+        QuantileSketch all = new QuantileSketch();
+        for (int i = 1; i <= 10_000; i++) {
+            (i % 2 == 0 ? even : odd).add(i);
+            all.add(i);
+        }
+
+        odd.merge(even);
+
+        assertEquals(all.count(), odd.count());
+        for (double fraction : new double[]{0.1, 0.5, 0.9, 0.999}) {
+            assertEquals(all.quantile(fraction), odd.quantile(fraction), 0);
+        }
+    }
+
+    @Test
+    void shouldRestoreSketch_whenSerializedAndRemovingValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 1_000; i++) {
+            sketch.add(i);
+        }
+        sketch.add(1e9);
+        sketch.remove(1e9);
+
+        QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(1_000, restored.count());
+        assertEquals(sketch.quantile(0.5), restored.quantile(0.5), 0);
+        assertEquals(1_000, restored.quantile(1), 1_000 * ACCURACY);
+        assertEquals(8 * (QuantileSketch.BUCKETS + 1), sketch.toBytes().length);
+    }
+
+}
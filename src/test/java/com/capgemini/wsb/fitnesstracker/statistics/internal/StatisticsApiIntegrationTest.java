@@ -0,0 +1,141 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class StatisticsApiIntegrationTest extends IntegrationTestBase {
+
+    private static final String STATISTICS = """
+            {"userId": %s, "totalTrainings": %s, "totalDistance": %s, "totalCaloriesBurned": %s}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldCreateReadUpdateAndDeleteStatistics() throws Exception {
+        User user = existingUser(generateClient());
+
+        String response = mockMvc.perform(post("/v1/statistics").contentType(MediaType.APPLICATION_JSON)
+                                                  .content(STATISTICS.formatted(user.getId(), 3, 12.5, 900)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(3))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long id = ((Number) JsonPath.read(response, "$.id")).longValue();
+
+        mockMvc.perform(get("/v1/statistics/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalDistance", closeTo(12.5, 1e-9)))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(900));
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(id));
+
+        mockMvc.perform(put("/v1/statistics/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                                .content(STATISTICS.formatted(null, 4, 20, 1200)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(4))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(1200));
+
+        mockMvc.perform(delete("/v1/statistics/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/v1/statistics/{id}", id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldRejectStatistics_whenUserMissingOrAlreadyHasThem() throws Exception {
+        User user = existingUser(generateClient());
+        statisticsRepository.save(new Statistics(user, 1, 1, 100));
+
+        mockMvc.perform(post("/v1/statistics").contentType(MediaType.APPLICATION_JSON)
+                                .content(STATISTICS.formatted(user.getId(), 3, 12.5, 900)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/v1/statistics").contentType(MediaType.APPLICATION_JSON)
+                                .content(STATISTICS.formatted(Long.MAX_VALUE, 3, 12.5, 900)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldPageStatisticsAboveCalories_whenSearchingByCalories() throws Exception {
+        for (int calories : new int[]{500, 100, 300, 200, 400, 300}) {
+            statisticsRepository.save(new Statistics(existingUser(generateClient()), 1, 1, calories));
+        }
+
+        String cursor = mockMvc.perform(get("/v1/statistics/calories").param("calories", "150").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].totalCaloriesBurned").value(200))
+                .andExpect(jsonPath("$[1].totalCaloriesBurned").value(300))
+                .andExpect(jsonPath("$[2].totalCaloriesBurned").value(300))
+                .andExpect(header().exists(KeysetCursors.NEXT_CURSOR_HEADER))
+                .andReturn()
+                .getResponse()
+                .getHeader(KeysetCursors.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/statistics/calories").param("calories", "150").param("limit", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].totalCaloriesBurned").value(400))
+                .andExpect(jsonPath("$[1].totalCaloriesBurned").value(500))
+                .andExpect(header().doesNotExist(KeysetCursors.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void shouldRejectPage_whenLimitIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/v1/statistics/calories").param("calories", "150").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldScanCaloriesIndex_whenSearchingByCalories() {
+        String plan = jdbcTemplate.queryForObject("""
+                explain select * from statistics s
+                where s.total_calories_burned > 150 or (s.total_calories_burned = 150 and s.id > 0)
+                order by s.total_calories_burned, s.id
+                fetch first 100 rows only""", String.class);
+
+        assertThat(plan.toLowerCase(Locale.ROOT)).contains("idx_statistics_total_calories_burned");
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class StatisticsEventIntegrationTest extends IntegrationTestBase {
+
+    private static final String TRAINING = """
+            {"userId": %s, "startTime": "%s", "endTime": "%s", "activityType": "%s", "distance": %s, "averageSpeed": 10}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldAccumulateStatistics_whenCreatingTrainings() throws Exception {
+        User user = existingUser(generateClient());
+
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10));
+        createTraining(TRAINING.formatted(user.getId(), "2024-04-02T10:00:00", "2024-04-02T10:30:00", "WALKING", 2.5));
+
+        Statistics statistics = statisticsOf(user);
+        assertThat(statistics.getTotalTrainings()).isEqualTo(2);
+        assertThat(statistics.getTotalDistance()).isCloseTo(12.5, within(1e-9));
+        // 10 km/h running at 9.8 MET * 70 kg * 1 h + 5 km/h walking at 3.8 MET * 70 kg * 0.5 h, both scaled by 1.0032 for age 34
+        assertThat(statistics.getTotalCaloriesBurned()).isEqualTo(688 + 133);
+    }
+
+    @Test
+    void shouldAccumulateStatistics_whenIngestingTrainingsBatch() throws Exception {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        String batch = "[" + String.join(",",
+                                         TRAINING.formatted(user1.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10),
+                                         TRAINING.formatted(user1.getId(), "2024-04-02T10:00:00", "2024-04-02T11:00:00", "RUNNING", 5),
+                                         TRAINING.formatted(user2.getId(), "2024-04-02T10:00:00", "2024-04-02T11:00:00", "CYCLING", 30)) + "]";
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk());
+
+        assertThat(statisticsOf(user1).getTotalTrainings()).isEqualTo(2);
+        assertThat(statisticsOf(user1).getTotalDistance()).isCloseTo(15, within(1e-9));
+        assertThat(statisticsOf(user2).getTotalTrainings()).isEqualTo(1);
+        // 30 km/h cycling at 13.3 MET * 70 kg * 1 h * 1.0032
+        assertThat(statisticsOf(user2).getTotalCaloriesBurned()).isEqualTo(934);
+    }
+
+    @Test
+    void shouldApplyDeltas_whenUpdatingTraining() throws Exception {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        createTraining(TRAINING.formatted(user1.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10));
+        Long trainingId = createTraining(TRAINING.formatted(user1.getId(), "2024-04-02T10:00:00", "2024-04-02T11:00:00", "RUNNING", 5));
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                                .content(TRAINING.formatted(user1.getId(), "2024-04-02T10:00:00", "2024-04-02T12:00:00", "RUNNING", 8)))
+                .andExpect(status().isOk());
+
+        assertThat(statisticsOf(user1).getTotalTrainings()).isEqualTo(2);
+        assertThat(statisticsOf(user1).getTotalDistance()).isCloseTo(18, within(1e-9));
+        // 4 km/h running is clamped to 6 MET * 70 kg * 2 h * 1.0032
+        assertThat(statisticsOf(user1).getTotalCaloriesBurned()).isEqualTo(688 + 843);
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                                .content(TRAINING.formatted(user2.getId(), "2024-04-02T10:00:00", "2024-04-02T12:00:00", "RUNNING", 8)))
+                .andExpect(status().isOk());
+
+        assertThat(statisticsOf(user1).getTotalTrainings()).isEqualTo(1);
+        assertThat(statisticsOf(user1).getTotalDistance()).isCloseTo(10, within(1e-9));
+        assertThat(statisticsOf(user1).getTotalCaloriesBurned()).isEqualTo(688);
+        assertThat(statisticsOf(user2).getTotalTrainings()).isEqualTo(1);
+        assertThat(statisticsOf(user2).getTotalDistance()).isCloseTo(8, within(1e-9));
+    }
+
+    @Test
+    void shouldSubtractCountedCalories_whenUpdatingTrainingAfterBirthdateChanged() throws Exception {
+        User user = existingUser(generateClient());
+        User olderUser = generateClient();
+        olderUser.setBirthdate(LocalDate.of(1950, 1, 1));
+        olderUser = existingUser(olderUser);
+        String training = TRAINING.formatted(user.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10);
+        Long trainingId = createTraining(training);
+        createTraining(TRAINING.formatted(olderUser.getId(), "2024-04-01T10:00:00", "2024-04-01T11:00:00", "RUNNING", 10));
+        assertThat(statisticsOf(user).getTotalCaloriesBurned()).isEqualTo(688);
+
+        user.setBirthdate(olderUser.getBirthdate());
+        existingUser(user);
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON).content(training))
+                .andExpect(status().isOk());
+
+        assertThat(statisticsOf(user).getTotalTrainings()).isEqualTo(1);
+        assertThat(statisticsOf(user).getTotalCaloriesBurned()).isEqualTo(statisticsOf(olderUser).getTotalCaloriesBurned());
+    }
+
+    private Long createTraining(String training) throws Exception {
+        String response = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(training))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return ((Number) JsonPath.read(response, "$.id")).longValue();
+    }
+
+    private Statistics statisticsOf(User user) {
+        entityManager.flush();
+        entityManager.clear();
+        return statisticsRepository.findByUserId(user.getId()).orElseThrow();
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.statistics.api.Statistics;
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+@TestPropertySource(properties = "statistics.rebuild.range-size=2")
+class StatisticsRebuildIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private StatisticsRebuildEndpoint statisticsRebuildEndpoint;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void shouldRecomputeStatisticsOfAllUsers_whenRebuilding() {
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        persistTraining(running(user1, 10));
+        persistTraining(running(user1, 5));
+        persistTraining(running(user2, 10));
+        persistTraining(running(user3, 10));
+        statisticsRepository.save(new Statistics(user2, 7, 70, 7000));
+        statisticsRepository.save(new Statistics(user4, 1, 1, 100));
+
+        StatisticsRebuildProgress progress = rebuild();
+
+        assertThat(progress.totalRanges()).isEqualTo(2);
+        assertThat(progress.completedRanges()).isEqualTo(2);
+        assertThat(progress.users()).isEqualTo(3);
+        assertThat(progress.trainings()).isEqualTo(4);
+        assertThat(progress.etaMillis()).isZero();
+
+        // 10 km/h running at 9.8 MET * 70 kg * 1 h, scaled by 1.0032 for age 34; 5 km/h running is clamped to 6 MET
+        assertStatistics(user1, 2, 15, 688 + 421);
+        assertStatistics(user2, 1, 10, 688);
+        assertStatistics(user3, 1, 10, 688);
+        assertThat(statisticsRepository.findByUserId(user4.getId())).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from statistics_rebuild_ranges", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldRebuildOnlyPendingRanges_whenResumingInterruptedRebuild() {
+        User user1 = existingUser(generateClient());
+        existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(running(user1, 10));
+        persistTraining(running(user3, 10));
+        statisticsRepository.save(new Statistics(user1, 7, 70, 7000));
+        // the first range was committed before the previous rebuild crashed
+        jdbcTemplate.update("insert into statistics_rebuild_ranges (range_start, range_end, completed) values (?, ?, true), (?, ?, false)",
+                            user1.getId(), user1.getId() + 2, user1.getId() + 2, user3.getId() + 1);
+
+        StatisticsRebuildProgress progress = rebuild();
+
+        assertThat(progress.totalRanges()).isEqualTo(2);
+        assertThat(progress.completedRanges()).isEqualTo(2);
+        assertThat(progress.users()).isEqualTo(1);
+        assertStatistics(user1, 7, 70, 7000);
+        assertStatistics(user3, 1, 10, 688);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from statistics_rebuild_ranges", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldPlanNewRebuild_whenPreviousRebuildCompletedAllRangesWithoutClearingThem() {
+        User user1 = existingUser(generateClient());
+        persistTraining(running(user1, 10));
+        statisticsRepository.save(new Statistics(user1, 7, 70, 7000));
+        // the previous rebuild crashed after committing its last range
+        jdbcTemplate.update("insert into statistics_rebuild_ranges (range_start, range_end, completed) values (?, ?, true)",
+                            user1.getId(), user1.getId() + 2);
+
+        StatisticsRebuildProgress progress = rebuild();
+
+        assertThat(progress.totalRanges()).isEqualTo(1);
+        assertThat(progress.users()).isEqualTo(1);
+        assertStatistics(user1, 1, 10, 688);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from statistics_rebuild_ranges", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldCountTrainingOnce_whenTrainingIsCreatedWhileRebuilding() throws Exception {
+        User user = existingUser(generateClient());
+        persistTraining(running(user, 10));
+        CountDownLatch created = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> creation = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            Training training = persistTraining(running(user, 5));
+            eventPublisher.publishEvent(new TrainingsCreatedEvent(List.of(TrainingSnapshot.of(training))));
+            created.countDown();
+            awaitQuietly(commit);
+        }));
+        assertThat(created.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(statisticsRebuildEndpoint.start().state()).isEqualTo(StatisticsRebuildProgress.State.RUNNING);
+        Thread.sleep(200);
+        // the range waits for the user locked by the statistics of the uncommitted training
+        assertThat(statisticsRebuildEndpoint.progress().state()).isEqualTo(StatisticsRebuildProgress.State.RUNNING);
+        commit.countDown();
+        creation.get(5, TimeUnit.SECONDS);
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> statisticsRebuildEndpoint.progress().state() != StatisticsRebuildProgress.State.RUNNING);
+
+        assertThat(statisticsRebuildEndpoint.progress().state()).isEqualTo(StatisticsRebuildProgress.State.COMPLETED);
+        assertStatistics(user, 2, 15, 688 + 421);
+    }
+
+    @Test
+    void shouldKeepFailedRangePending_whenRebuildingRangeFails() {
+        User user1 = existingUser(generateClient());
+        existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(running(user1, 10));
+        persistTraining(running(user3, 10));
+        jdbcTemplate.execute("alter table statistics add constraint ck_statistics_test check (user_id <> %d)".formatted(user3.getId()));
+        try {
+            assertThat(statisticsRebuildEndpoint.start().state()).isEqualTo(StatisticsRebuildProgress.State.RUNNING);
+            await().atMost(Duration.ofSeconds(30))
+                    .until(() -> statisticsRebuildEndpoint.progress().state() != StatisticsRebuildProgress.State.RUNNING);
+        } finally {
+            jdbcTemplate.execute("alter table statistics drop constraint ck_statistics_test");
+        }
+
+        assertThat(statisticsRebuildEndpoint.progress().state()).isEqualTo(StatisticsRebuildProgress.State.FAILED);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from statistics_rebuild_ranges where completed = false and range_start <= ? and range_end > ?",
+                                               Integer.class, user3.getId(), user3.getId())).isOne();
+
+        rebuild();
+        assertStatistics(user3, 1, 10, 688);
+    }
+
+    private StatisticsRebuildProgress rebuild() {
+        assertThat(statisticsRebuildEndpoint.start().state()).isEqualTo(StatisticsRebuildProgress.State.RUNNING);
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> statisticsRebuildEndpoint.progress().state() != StatisticsRebuildProgress.State.RUNNING);
+
+        StatisticsRebuildProgress progress = statisticsRebuildEndpoint.progress();
+        assertThat(progress.state()).isEqualTo(StatisticsRebuildProgress.State.COMPLETED);
+        return progress;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void assertStatistics(User user, int trainings, double distance, int calories) {
+        Statistics statistics = statisticsRepository.findByUserId(user.getId()).orElseThrow();
+        assertThat(statistics.getTotalTrainings()).isEqualTo(trainings);
+        assertThat(statistics.getTotalDistance()).isEqualTo(distance);
+        assertThat(statistics.getTotalCaloriesBurned()).isEqualTo(calories);
+    }
+
+    private static Training running(User user, double distance) {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 1, 10, 0);
+        ZoneId zone = ZoneId.systemDefault();
+        return new Training(user,
+                            Date.from(start.atZone(zone).toInstant()),
+                            Date.from(start.plusHours(1).atZone(zone).toInstant()),
+                            ActivityType.RUNNING,
+                            distance,
+                            distance);
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingPercentileIntegrationTest extends IntegrationTestBase {
+
+    private static final String TRAINING = """
+            {"userId": %s, "startTime": "2024-04-0%sT10:00:00", "endTime": "2024-04-0%sT11:00:00", "activityType": "RUNNING", "distance": %s, "averageSpeed": %s}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TrainingPercentileSketches trainingPercentileSketches;
+
+    @Autowired
+    private TrainingPercentileSketchRepository sketchRepository;
+
+    private int trainings;
+
+    @BeforeEach
+    @AfterEach
+    void clearSketches() {
+        trainingPercentileSketches.clear();
+        sketchRepository.deleteAll();
+    }
+
+    @Test
+    void shouldRankTrainingAmongSameActivity_whenCreatingTraining() throws Exception {
+        User user = existingUser(generateClient());
+        for (int speed : new int[]{8, 10, 12, 14}) {
+            createTraining(user, speed, speed);
+        }
+
+        // 3 of 5 trainings are slower, the created one counts by half: (3 + 0.5) / 5
+        createTraining(user, 13, 13)
+                .andExpect(jsonPath("$.percentiles.averageSpeed", closeTo(70.0, 0.1)))
+                .andExpect(jsonPath("$.percentiles.distance", closeTo(70.0, 0.1)))
+                .andExpect(jsonPath("$.percentiles.duration", closeTo(50.0, 0.1)));
+
+        mockMvc.perform(get("/v1/statistics/percentiles").param("activityType", "RUNNING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].metric").value("AVERAGE_SPEED"))
+                .andExpect(jsonPath("$[0].count").value(5))
+                .andExpect(jsonPath("$[0].p50", closeTo(12.0, 12 * QuantileSketch.RELATIVE_ACCURACY)))
+                .andExpect(jsonPath("$[2].metric").value("DURATION"))
+                .andExpect(jsonPath("$[2].p90", closeTo(3600.0, 3600 * QuantileSketch.RELATIVE_ACCURACY)));
+        mockMvc.perform(get("/v1/statistics/percentiles").param("activityType", "SWIMMING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(0))
+                .andExpect(jsonPath("$[0].p50").doesNotExist());
+    }
+
+    @Test
+    void shouldRestoreSketches_whenLoadingPersistedSketches() throws Exception {
+        User user = existingUser(generateClient());
+        createTraining(user, 6, 12);
+        createTraining(user, 4, 8);
+
+        trainingPercentileSketches.persist();
+        trainingPercentileSketches.clear();
+        assertThat(trainingPercentileSketches.distributionsOf(ActivityType.RUNNING).get(0).count()).isZero();
+
+        trainingPercentileSketches.load();
+
+        TrainingMetricDistribution speed = trainingPercentileSketches.distributionsOf(ActivityType.RUNNING).get(0);
+        assertThat(speed.count()).isEqualTo(2);
+        // the lower median of 8 and 12
+        assertThat(speed.p50()).isCloseTo(8.0, within(8 * QuantileSketch.RELATIVE_ACCURACY));
+    }
+
+    private ResultActions createTraining(User user, int distance, int speed) throws Exception {
+        int day = ++trainings;
+        return mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                                       .content(TRAINING.formatted(user.getId(), day, day, distance, speed)))
+                .andExpect(status().isCreated());
+    }
+
+}
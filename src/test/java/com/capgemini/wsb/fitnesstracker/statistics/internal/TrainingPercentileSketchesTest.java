@@ -0,0 +1,82 @@
+package com.capgemini.wsb.fitnesstracker.statistics.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingPercentileSketchesTest {
+
+    @Mock
+    private TrainingPercentileSketchRepository mockSketchRepository;
+
+    @Mock
+    private TransactionTemplate mockTransactionTemplate;
+
+    private TrainingPercentileSketches trainingPercentileSketches;
+
+    @BeforeEach
+    void setUp() {
+        trainingPercentileSketches = new TrainingPercentileSketches(mockSketchRepository, mockTransactionTemplate);
+        when(mockTransactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void loadShouldCountEveryTrainingOnce_whenTrainingsAreCreatedDuringBuild() {
+        // given
+        when(mockSketchRepository.findMaxTrainingId()).thenReturn(2L);
+        when(mockSketchRepository.streamTrainingsUpTo(2L)).thenAnswer(invocation -> {
+            // training 2 committed while the build was reading, training 3 after the high-water ID was read
+            trainingPercentileSketches.onTrainingsCreated(new TrainingsCreatedEvent(List.of(running(2L), running(3L))));
+            return Stream.of(running(1L), running(2L));
+        });
+
+        // when
+        trainingPercentileSketches.load();
+        trainingPercentileSketches.onTrainingsCreated(new TrainingsCreatedEvent(List.of(running(4L))));
+
+        // then
+        assertEquals(4, trainingPercentileSketches.distributionsOf(ActivityType.RUNNING).get(0).count());
+    }
+
+    @Test
+    void persistShouldSkipSketches_whenAnotherInstancePersistedThem() {
+        // given
+        when(mockSketchRepository.findMaxTrainingId()).thenReturn(null);
+        when(mockSketchRepository.streamTrainingsUpTo(0L)).thenReturn(Stream.empty());
+        trainingPercentileSketches.load();
+        trainingPercentileSketches.onTrainingsCreated(new TrainingsCreatedEvent(List.of(running(1L))));
+        when(mockSketchRepository.findAllForUpdate())
+                .thenReturn(List.of(new TrainingPercentileSketch(ActivityType.RUNNING, TrainingMetric.DISTANCE, new byte[0], Instant.now())));
+
+        // when
+        trainingPercentileSketches.persist();
+
+        // then
+        verify(mockSketchRepository, never()).saveAll(anyList());
+    }
+
+    private static TrainingSnapshot running(Long trainingId) {
+        return new TrainingSnapshot(trainingId, 1L, new Date(0), new Date(3_600_000), ActivityType.RUNNING, 10.0, 10.0);
+    }
+
+}
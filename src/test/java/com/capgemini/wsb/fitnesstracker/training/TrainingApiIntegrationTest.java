@@ -5,21 +5,27 @@ import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
 import com.capgemini.wsb.fitnesstracker.training.api.Training;
 import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 
-import static java.time.LocalDate.now;
-import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @IntegrationTest
@@ -45,6 +51,7 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
                 .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
                 .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[0].user.birthdate").doesNotExist())
 
 
                 .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
@@ -55,6 +62,31 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[1]").doesNotExist());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldStreamAllTrainingsAsNdjson_whenExportingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTraining(user1));
+        persistTraining(generateTrainingWithActivityType(user1, ActivityType.SWIMMING));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains(user1.getEmail()).contains(ActivityType.RUNNING.name());
+        assertThat(lines[1]).contains(user1.getEmail()).contains(ActivityType.SWIMMING.name());
+    }
+
     @Test
     void shouldReturnAllTrainingsForDedicatedUser_whenGettingAllTrainingsForDedicatedUser() throws Exception {
 
@@ -128,6 +160,77 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    void shouldPageUserTrainingsMostRecentFirst_whenGettingTrainingsPage() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training oldest = persistTraining(generateTrainingWithDetails(user1, "2024-01-10 08:00:00", "2024-01-10 09:00:00", ActivityType.RUNNING, 5, 10));
+        Training older = persistTraining(generateTrainingWithDetails(user1, "2024-01-11 08:00:00", "2024-01-11 09:00:00", ActivityType.SWIMMING, 1, 2));
+        Training newer = persistTraining(generateTrainingWithDetails(user1, "2024-01-12 08:00:00", "2024-01-12 09:00:00", ActivityType.RUNNING, 5, 10));
+        persistTraining(generateTrainingWithDetails(user1, "2024-02-01 08:00:00", "2024-02-01 09:00:00", ActivityType.RUNNING, 5, 10));
+        persistTraining(generateTrainingWithDetails(user2, "2024-01-11 10:00:00", "2024-01-11 11:00:00", ActivityType.RUNNING, 5, 10));
+
+        String nextCursor = mockMvc.perform(get("/v1/trainings/page")
+                                                    .param("userId", user1.getId().toString())
+                                                    .param("from", "2024-01-01T00:00:00Z")
+                                                    .param("to", "2024-01-31T00:00:00Z")
+                                                    .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newer.getId()))
+                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$[1].id").value(older.getId()))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/v1/trainings/page")
+                                .param("userId", user1.getId().toString())
+                                .param("from", "2024-01-01T00:00:00Z")
+                                .param("cursor", nextCursor)
+                                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(oldest.getId()))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/v1/trainings/page")
+                                .param("userId", user1.getId().toString())
+                                .param("activityType", ActivityType.SWIMMING.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(older.getId()));
+    }
+
+    @Test
+    void shouldRejectTrainingsPage_whenLimitIsOutOfRange() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings/page").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldPageTrainingsOfActivityType_whenGettingTrainingsPage() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training first = persistTraining(generateTrainingWithDetails(user1, "2024-01-10 08:00:00", "2024-01-10 09:00:00", ActivityType.TENNIS, 0, 0));
+        Training second = persistTraining(generateTrainingWithDetails(user2, "2024-01-10 08:00:00", "2024-01-10 09:00:00", ActivityType.TENNIS, 0, 0));
+        persistTraining(generateTrainingWithDetails(user2, "2024-01-11 08:00:00", "2024-01-11 09:00:00", ActivityType.RUNNING, 5, 10));
+
+        mockMvc.perform(get("/v1/trainings/page").param("activityType", ActivityType.TENNIS.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(jsonPath("$[1].id").value(first.getId()));
+
+        mockMvc.perform(get("/v1/trainings/page").param("to", "2024-01-11T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     void shouldPersistTraining_whenCreatingNewTraining() throws Exception {
 
@@ -155,6 +258,234 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldReportEveryTraining_whenIngestingTrainingsBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %2$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %1$s, "startTime": "2024-04-01T12:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T10:30:00", "activityType": "SWIMMING", "distance": 1.0, "averageSpeed": 2.0}
+                ]
+                """.formatted(user1.getId(), user1.getId() + 1000);
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").isNumber())
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].message").value("User with ID %s not found".formatted(user1.getId() + 1000)))
+                .andExpect(jsonPath("$.results[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[3].index").value(3))
+                .andExpect(jsonPath("$.results[3].status").value("CREATED"));
+
+        assertThat(getAllTrainings())
+                .extracting(Training::getActivityType)
+                .containsExactlyInAnyOrder(ActivityType.RUNNING, ActivityType.SWIMMING);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldCommitStreamedTrainings_whenIngestingTrainingStream() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                {"userId": %1$s, "startTime": "2024-04-01T10:00:00",
+
+                {"userId": %2$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T10:30:00", "activityType": "SWIMMING", "distance": 1.0, "averageSpeed": 2.0}
+                """.formatted(user1.getId(), user1.getId() + 1000);
+        mockMvc.perform(post("/v1/trainings/stream").contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejections[0].index").value(1))
+                .andExpect(jsonPath("$.rejections[1].index").value(2))
+                .andExpect(jsonPath("$.rejections[1].message").value("User with ID %s not found".formatted(user1.getId() + 1000)));
+
+        assertThat(getAllTrainings())
+                .extracting(Training::getActivityType)
+                .containsExactlyInAnyOrder(ActivityType.RUNNING, ActivityType.SWIMMING);
+    }
+
+    @Test
+    void shouldRejectDuplicate_whenCreatingSameTrainingTwice() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isConflict());
+
+        assertThat(getAllTrainings()).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectTraining_whenCreatingTrainingWithoutStartTime() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+
+        assertThat(getAllTrainings()).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldCreateTrainingAgain_whenSameTrainingWasUpdatedToDifferentTimes() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(user1.getId());
+        String response = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer trainingId = JsonPath.read(response, "$.id");
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody.replace("2024-04-01", "2024-04-02")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isCreated());
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectDuplicate_whenCreatingTrainingWithUsedIdempotencyKey() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """;
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                                .header("Idempotency-Key", "upload-1")
+                                .content(requestBody.formatted(user1.getId(), "2024-04-01T10:00:00")))
+                .andExpect(status().isCreated());
+
+        // the retry has its start time rounded differently, but the same key
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                                .header("Idempotency-Key", "upload-1")
+                                .content(requestBody.formatted(user1.getId(), "2024-04-01T10:00:01")))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                                .header("Idempotency-Key", "upload-2")
+                                .content(requestBody.formatted(user1.getId(), "2024-04-01T10:00:00")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldReportDuplicates_whenIngestingAlreadyStoredTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training stored = persistTraining(withDerivedDedupKey(generateTrainingWithDetails(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10.5, 10.5)));
+
+        String requestBody = """
+                [
+                    {"userId": %1$s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5},
+                    {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                ]
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicate").value(2))
+                .andExpect(jsonPath("$.rejected").value(0))
+                .andExpect(jsonPath("$.results[0].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[0].id").value(stored.getId()))
+                .andExpect(jsonPath("$.results[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[2].status").value("DUPLICATE"));
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.duplicate").value(3));
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectBatch_whenItHasTooManyTrainings() throws Exception {
+
+        String requestBody = "[" + String.join(",", Collections.nCopies(10_001, "{}")) + "]";
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isBadRequest());
+
+        assertThat(getAllTrainings()).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRejectDuplicate_whenCreatingAlreadyStoredTraining() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training stored = persistTraining(withDerivedDedupKey(generateTrainingWithDetails(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10.5, 10.5)));
+
+        String requestBody = """
+                {"userId": %s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.5, "averageSpeed": 10.5}
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isConflict());
+
+        assertThat(getAllTrainings())
+                .extracting(Training::getId)
+                .containsExactly(stored.getId());
+    }
+
     @Test
     void shouldUpdateTraining_whenUpdatingTraining() throws Exception {
 
@@ -182,8 +513,9 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.averageSpeed").value(0.0));
     }
 
-    private static User generateClient() {
-        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    private static Training withDerivedDedupKey(Training training) {
+        training.setDedupKey(Training.derivedDedupKey(training.getUser().getId(), training.getStartTime(), training.getEndTime(), training.getActivityType()));
+        return training;
     }
 
     private static Training generateTraining(User user) throws ParseException {
@@ -221,6 +553,5 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 averageSpeed);
     }
 
-
 }
 
@@ -0,0 +1,143 @@
+package com.capgemini.wsb.fitnesstracker.training;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.training.api.Training;
+import com.capgemini.wsb.fitnesstracker.training.internal.ActivityType;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the training read paths against N+1 selects: every listing must be answered by a single select,
+ * no matter how many distinct users the listed trainings belong to.
+ */
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingQueryCountIntegrationTest extends IntegrationTestBase {
+
+    private static final int USERS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void shouldSelectTrainingsWithUsersOnce_whenGettingAllTrainings() throws Exception {
+        persistTrainingsOfDistinctUsers();
+
+        mockMvc.perform(get("/v1/trainings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USERS))
+                .andExpect(jsonPath("$[0].user.email").isNotEmpty());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSelectTrainingsWithUsersOnce_whenGettingTrainingsByActivityType() throws Exception {
+        persistTrainingsOfDistinctUsers();
+
+        mockMvc.perform(get("/v1/trainings/activityType").param("activityType", ActivityType.RUNNING.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USERS))
+                .andExpect(jsonPath("$[0].user.email").isNotEmpty());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSelectTrainingsWithUsersOnce_whenGettingFinishedTrainings() throws Exception {
+        persistTrainingsOfDistinctUsers();
+
+        mockMvc.perform(get("/v1/trainings/finished/{afterTime}", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USERS))
+                .andExpect(jsonPath("$[0].user.email").isNotEmpty());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotSelectUsers_whenGettingCompactTrainings() throws Exception {
+        User user = persistTrainingsOfDistinctUsers();
+
+        mockMvc.perform(get("/v1/trainings/compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USERS))
+                .andExpect(jsonPath("$[0].userId").isNumber())
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+
+        mockMvc.perform(get("/v1/trainings/compact/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].userId").value(user.getId()))
+                .andExpect(jsonPath("$[0].activityType").value(ActivityType.RUNNING.name()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    /**
+     * Persists one training for each of {@value #USERS} users and detaches everything,
+     * so the users have to be read from the database again.
+     *
+     * @return the last persisted user
+     */
+    private User persistTrainingsOfDistinctUsers() {
+        User user = null;
+        for (int i = 0; i < USERS; i++) {
+            user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), "user" + i + "@domain.com"));
+            persistTraining(new Training(
+                    user,
+                    Date.from(LocalDate.of(2024, 1, 19).atTime(8, 0).toInstant(ZoneOffset.UTC)),
+                    Date.from(LocalDate.of(2024, 1, 19).atTime(9, 30).toInstant(ZoneOffset.UTC)),
+                    ActivityType.RUNNING,
+                    10.5,
+                    8.2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return user;
+    }
+
+}
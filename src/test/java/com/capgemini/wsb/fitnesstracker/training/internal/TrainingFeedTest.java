@@ -0,0 +1,166 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingSnapshot;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingUpdatedEvent;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingsCreatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class TrainingFeedTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+    private static final int MAX_OVERFLOWS = 3;
+
+    private final ExecutorService senders = Executors.newSingleThreadExecutor();
+    private final TrainingFeed trainingFeed = new TrainingFeed(new TrainingFeedProperties(QUEUE_CAPACITY, MAX_OVERFLOWS, 3, 1, Duration.ofMinutes(1)), senders);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new LiveController(trainingFeed)).build();
+
+    @AfterEach
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    @Test
+    void shouldSendTrainingsOfFollowedUsersOnly_whenTrainingsAreCreated() throws Exception {
+        MockHttpServletResponse response = subscribe("1,2");
+
+        trainingFeed.onTrainingsCreated(new TrainingsCreatedEvent(List.of(training(10L, 1L), training(11L, 3L), training(12L, 2L))));
+        awaitSent();
+
+        assertThat(response.getContentAsString())
+                .contains("event:created\nid:10\ndata:{\"id\":10,\"userId\":1")
+                .contains("id:12\n")
+                .doesNotContain("id:11\n");
+    }
+
+    @Test
+    void shouldNotifyPreviousAndCurrentOwner_whenTrainingChangesUser() throws Exception {
+        MockHttpServletResponse previousOwner = subscribe("1");
+        MockHttpServletResponse currentOwner = subscribe("2");
+
+        trainingFeed.onTrainingUpdated(new TrainingUpdatedEvent(training(10L, 1L), training(10L, 2L)));
+        awaitSent();
+
+        assertThat(previousOwner.getContentAsString()).contains("event:updated\nid:10\ndata:{\"id\":10,\"userId\":2");
+        assertThat(currentOwner.getContentAsString()).contains("event:updated\nid:10\n");
+    }
+
+    @Test
+    void shouldDropOldestEvents_whenSubscriberFallsBehind() throws Exception {
+        MockHttpServletResponse response = subscribe("1");
+        CountDownLatch release = new CountDownLatch(1);
+        senders.execute(() -> awaitQuietly(release));
+
+        for (long id = 1; id <= 5; id++) {
+            trainingFeed.onTrainingsCreated(new TrainingsCreatedEvent(List.of(training(id, 1L))));
+        }
+        release.countDown();
+        awaitSent();
+
+        assertThat(response.getContentAsString())
+                .startsWith("event:dropped\ndata:3\n")
+                .contains("id:4\n", "id:5\n")
+                .doesNotContain("id:1\n", "id:2\n", "id:3\n");
+    }
+
+    @Test
+    void shouldCloseSubscription_whenSubscriberOverflowsTooOften() throws Exception {
+        MockHttpServletResponse stalled = subscribe("1");
+        MockHttpServletResponse other = subscribe("2");
+        CountDownLatch release = new CountDownLatch(1);
+        senders.execute(() -> awaitQuietly(release));
+
+        for (long id = 1; id <= QUEUE_CAPACITY + MAX_OVERFLOWS + 1; id++) {
+            trainingFeed.onTrainingsCreated(new TrainingsCreatedEvent(List.of(training(id, 1L))));
+        }
+        trainingFeed.onTrainingsCreated(new TrainingsCreatedEvent(List.of(training(100L, 2L))));
+        release.countDown();
+        awaitSent();
+
+        assertThat(trainingFeed.subscriberCount()).isEqualTo(1);
+        assertThat(stalled.getContentAsString()).doesNotContain("event:created");
+        assertThat(other.getContentAsString()).contains("id:100\n");
+    }
+
+    @Test
+    void shouldUnsubscribe_whenSendingToCompletedEmitter() throws Exception {
+        SseEmitter emitter = trainingFeed.subscribe(Set.of(1L));
+        assertThat(trainingFeed.subscriberCount()).isEqualTo(1);
+
+        emitter.complete();
+        trainingFeed.onTrainingsCreated(new TrainingsCreatedEvent(List.of(training(10L, 1L))));
+        awaitSent();
+
+        assertThat(trainingFeed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void shouldRejectSubscription_whenTooManyUsersAreFollowed() {
+        assertThatThrownBy(() -> trainingFeed.subscribe(Set.of(1L, 2L, 3L, 4L))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trainingFeed.subscribe(Set.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private MockHttpServletResponse subscribe(String userIds) throws Exception {
+        return mockMvc.perform(get("/live").param("userIds", userIds))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    /**
+     * Waits until the single sender thread has run everything scheduled so far.
+     */
+    private void awaitSent() throws Exception {
+        senders.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TrainingSnapshot training(Long trainingId, Long userId) {
+        return new TrainingSnapshot(trainingId, userId, new Date(0), new Date(3_600_000), ActivityType.RUNNING, 10.0, 10.0);
+    }
+
+    @RestController
+    static class LiveController {
+
+        private final TrainingFeed trainingFeed;
+
+        LiveController(TrainingFeed trainingFeed) {
+            this.trainingFeed = trainingFeed;
+        }
+
+        @GetMapping("/live")
+        SseEmitter live(@RequestParam Set<Long> userIds) {
+            return trainingFeed.subscribe(userIds);
+        }
+
+    }
+
+}
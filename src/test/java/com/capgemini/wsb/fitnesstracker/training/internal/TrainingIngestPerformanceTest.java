@@ -0,0 +1,127 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares uploading trainings through the bulk ingestion endpoint with uploading the same trainings one request at a time.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@Slf4j
+class TrainingIngestPerformanceTest {
+
+    private static final int USERS = 100;
+    private static final int TRAININGS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> userIds;
+
+    @BeforeEach
+    void seedUsers() {
+        for (int i = 0; i < USERS; i++) {
+            jdbcTemplate.update("insert into users (first_name, last_name, birthdate, email, email_normalized) values (?, ?, ?, ?, ?)",
+                                "First", "Last", java.sql.Date.valueOf("1990-01-01"), "ingest.%d@domain.com".formatted(i), "ingest.%d@domain.com".formatted(i));
+        }
+        userIds = jdbcTemplate.queryForList("select id from users", Long.class);
+    }
+
+    @AfterEach
+    void cleanUpDB() {
+        jdbcTemplate.update("delete from statistics");
+        jdbcTemplate.update("delete from training_rollups");
+        jdbcTemplate.update("delete from trainings");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void bulkIngestShouldBeTenTimesFasterThanSingleInserts() throws Exception {
+        // warm up both paths
+        ingest(trainings(1_000, 0));
+        createOneByOne(trainings(1_000, 1));
+        jdbcTemplate.update("delete from trainings");
+
+        List<TrainingRequestDto> single = trainings(TRAININGS, 2);
+        long singleStart = System.nanoTime();
+        createOneByOne(single);
+        long singleNanos = System.nanoTime() - singleStart;
+
+        List<TrainingRequestDto> bulk = trainings(TRAININGS, 3);
+        long bulkStart = System.nanoTime();
+        TrainingIngestReport report = ingest(bulk);
+        long bulkNanos = System.nanoTime() - bulkStart;
+
+        log.info("trainings={} single requests {} ms ({} trainings/s), bulk ingest {} ms ({} trainings/s), speedup {}x",
+                 TRAININGS,
+                 singleNanos / 1_000_000, TRAININGS * 1_000_000_000L / singleNanos,
+                 bulkNanos / 1_000_000, TRAININGS * 1_000_000_000L / bulkNanos,
+                 singleNanos / bulkNanos);
+        assertThat(report.created()).isEqualTo(TRAININGS);
+        assertThat(singleNanos).isGreaterThan(bulkNanos * 10);
+    }
+
+    private void createOneByOne(List<TrainingRequestDto> trainings) throws Exception {
+        for (TrainingRequestDto training : trainings) {
+            mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(training)))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private TrainingIngestReport ingest(List<TrainingRequestDto> trainings) throws Exception {
+        byte[] response = mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(trainings)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        return objectMapper.readValue(response, TrainingIngestReport.class);
+    }
+
+    /**
+     * Generates distinct trainings for every round, so none of them is recognized as a duplicate of an earlier round.
+     */
+    private List<TrainingRequestDto> trainings(int count, int round) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0).plusYears(round);
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    TrainingRequestDto training = new TrainingRequestDto();
+                    training.setUserId(userIds.get(i % userIds.size()));
+                    training.setStartTime(start.plusMinutes(i));
+                    training.setEndTime(start.plusMinutes(i + 45));
+                    training.setActivityType(ActivityType.values()[i % ActivityType.values().length]);
+                    training.setDistance(5 + i % 10);
+                    training.setAverageSpeed(10);
+                    return training;
+                })
+                .toList();
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.capgemini.wsb.fitnesstracker.training.internal;
+
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
+import com.capgemini.wsb.fitnesstracker.exception.api.ServiceUnavailableException;
+import com.capgemini.wsb.fitnesstracker.training.api.TrainingRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingStreamIngesterTest {
+
+    private static final String TRAINING = """
+            {"userId": 1, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 1, "averageSpeed": 1}
+            """;
+
+    @Mock
+    private TrainingIngester mockTrainingIngester;
+
+    private TrainingStreamIngester trainingStreamIngester;
+
+    @BeforeEach
+    void setUp() {
+        trainingStreamIngester = ingester(100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        trainingStreamIngester.shutdown();
+    }
+
+    @Test
+    void ingestShouldCommitInMicroBatchesAndReportRejectionsInStreamOrder() throws Exception {
+        //given
+        when(mockTrainingIngester.ingest(anyList())).thenAnswer(invocation -> rejectingFirst(invocation.getArgument(0)));
+        InputStream body = lines(5);
+
+        //when
+        TrainingStreamReport report = trainingStreamIngester.ingest(body);
+
+        //then
+        assertEquals(5, report.total());
+        assertEquals(3, report.batches());
+        assertEquals(2, report.created());
+        assertEquals(List.of(0, 2, 4), report.rejections().stream().map(TrainingIngestResult::index).toList());
+    }
+
+    @Test
+    void ingestShouldStopReadingTheStream_whenCommitsFallBehind() throws Exception {
+        //given
+        CountDownLatch databaseAvailable = new CountDownLatch(1);
+        when(mockTrainingIngester.ingest(anyList())).thenAnswer(invocation -> {
+            databaseAvailable.await();
+            return allCreated(invocation.getArgument(0));
+        });
+        AtomicInteger linesRead = new AtomicInteger();
+        InputStream body = lines(1_000, linesRead);
+
+        //when
+        CompletableFuture<TrainingStreamReport> ingestion = CompletableFuture.supplyAsync(() -> {
+            try {
+                return trainingStreamIngester.ingest(body);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(500);
+        int linesReadWhileBlocked = linesRead.get();
+        databaseAvailable.countDown();
+        TrainingStreamReport report = ingestion.get(30, TimeUnit.SECONDS);
+
+        //then
+        // micro-batch being committed + full queue + the training waiting to be queued, plus the reader's read-ahead
+        assertTrue("read " + linesReadWhileBlocked + " lines", linesReadWhileBlocked < 10);
+        assertEquals(1_000, report.total());
+        assertEquals(1_000, report.created());
+    }
+
+    @Test
+    void ingestShouldListOnlyFirstRejections_whenMoreTrainingsAreRejected() throws Exception {
+        //given
+        trainingStreamIngester.shutdown();
+        trainingStreamIngester = ingester(2);
+        when(mockTrainingIngester.ingest(anyList())).thenAnswer(invocation -> rejectingFirst(invocation.getArgument(0)));
+
+        //when
+        TrainingStreamReport report = trainingStreamIngester.ingest(lines(5));
+
+        //then
+        assertEquals(3, report.rejected());
+        assertEquals(List.of(0, 2), report.rejections().stream().map(TrainingIngestResult::index).toList());
+        assertEquals(1, report.omitted());
+    }
+
+    @Test
+    void ingestShouldRejectStream_whenAllWorkersAreBusy() throws Exception {
+        //given
+        CountDownLatch databaseAvailable = new CountDownLatch(1);
+        when(mockTrainingIngester.ingest(anyList())).thenAnswer(invocation -> {
+            databaseAvailable.await();
+            return allCreated(invocation.getArgument(0));
+        });
+        CompletableFuture<TrainingStreamReport> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return trainingStreamIngester.ingest(lines(10));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(500);
+
+        //when
+        //then
+        assertThrows(ServiceUnavailableException.class, () -> trainingStreamIngester.ingest(lines(1)));
+        databaseAvailable.countDown();
+        assertEquals(10, first.get(30, TimeUnit.SECONDS).created());
+    }
+
+    @Test
+    void ingestShouldRejectStreamAndCommitPreviousLines_whenLineIsTooLong() {
+        //given
+        when(mockTrainingIngester.ingest(anyList())).thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+        InputStream body = new ByteArrayInputStream((TRAINING + "x".repeat(TRAINING.length() + 1)).getBytes(StandardCharsets.UTF_8));
+
+        //when
+        BusinessException exception = assertThrows(BusinessException.class, () -> trainingStreamIngester.ingest(body));
+
+        //then
+        assertTrue(exception.getMessage().startsWith("Line 2 "));
+        verify(mockTrainingIngester, timeout(5_000)).ingest(argThat(trainings -> trainings.size() == 1));
+    }
+
+    private TrainingStreamIngester ingester(int maxReportedRejections) {
+        TrainingIngestProperties properties = new TrainingIngestProperties(1000, 2, Duration.ofSeconds(10), 2, 1, 100, Duration.ofMinutes(1),
+                                                                           maxReportedRejections, TRAINING.length(), 2);
+        return new TrainingStreamIngester(mockTrainingIngester, new ObjectMapper().registerModule(new JavaTimeModule()), properties);
+    }
+
+    private static TrainingIngestReport allCreated(List<TrainingRequestDto> trainings) {
+        List<TrainingIngestResult> results = IntStream.range(0, trainings.size())
+                .mapToObj(i -> TrainingIngestResult.created(i, (long) i))
+                .toList();
+        return new TrainingIngestReport(trainings.size(), trainings.size(), 0, 0, 0, results);
+    }
+
+    private static TrainingIngestReport rejectingFirst(List<TrainingRequestDto> trainings) {
+        List<TrainingIngestResult> results = IntStream.range(0, trainings.size())
+                .mapToObj(i -> i == 0 ? TrainingIngestResult.rejected(i, "rejected") : TrainingIngestResult.created(i, (long) i))
+                .toList();
+        return new TrainingIngestReport(trainings.size(), trainings.size() - 1, 0, 1, 0, results);
+    }
+
+    private static InputStream lines(int count) {
+        return lines(count, new AtomicInteger());
+    }
+
+    /**
+     * Stream returning at most one line per read, counting the lines read.
+     */
+    private static InputStream lines(int count, AtomicInteger linesRead) {
+        byte[] line = TRAINING.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+
+            private int position = line.length;
+
+            @Override
+            public int read() {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0];
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (position == line.length) {
+                    if (linesRead.get() == count) {
+                        return -1;
+                    }
+                    linesRead.incrementAndGet();
+                    position = 0;
+                }
+                int read = Math.min(length, line.length - position);
+                System.arraycopy(line, position, buffer, offset, read);
+                position += read;
+                return read;
+            }
+        };
+    }
+
+}
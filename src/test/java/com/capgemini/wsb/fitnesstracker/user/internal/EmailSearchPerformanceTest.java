@@ -0,0 +1,99 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the partial email search done with the {@link EmailTrigramIndex} against the {@code LIKE '%fragment%'} query.
+ * The number of users defaults to 1 000 000 and can be changed with the {@code benchmark.users} system property.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@SpringBootTest
+@Slf4j
+class EmailSearchPerformanceTest {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000_000);
+    private static final int SEARCHES = 200;
+    private static final int SEARCH_LIMIT = UserServiceImpl.MAX_EMAIL_MATCHES;
+    private static final int INSERT_BATCH = 5_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailTrigramIndex emailTrigramIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUpDB() {
+        jdbcTemplate.update("delete from users");
+        emailTrigramIndex.build();
+    }
+
+    @Test
+    void indexSearchShouldBeFasterThanLikeQuery() {
+        seedUsers();
+        emailTrigramIndex.build();
+
+        List<String> fragments = new ArrayList<>(SEARCHES);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SEARCHES; i++) {
+            fragments.add("member%d.".formatted(random.nextInt(USERS)));
+        }
+
+        long indexNanos = measure(fragments, fragment -> userRepository.findAllById(emailTrigramIndex.search(fragment, SEARCH_LIMIT).orElseThrow()));
+        long likeNanos = measure(fragments, fragment -> userRepository.findAllByEmailContainingIgnoreCaseOrderByIdAsc(fragment, Limit.of(SEARCH_LIMIT)));
+        log.info("users={} avg trigram index search={} us, avg LIKE query={} us", USERS, indexNanos / 1_000, likeNanos / 1_000);
+
+        assertThat(indexNanos).isLessThan(likeNanos);
+    }
+
+    private long measure(List<String> fragments, Search search) {
+        search.find(fragments.get(0));
+        long start = System.nanoTime();
+        for (String fragment : fragments) {
+            assertThat(search.find(fragment)).isNotEmpty();
+        }
+        return (System.nanoTime() - start) / fragments.size();
+    }
+
+    private void seedUsers() {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < USERS; i++) {
+            String email = "Member%d.Gym%d@domain.com".formatted(i, i % 100);
+            batch.add(new Object[]{"First", "Last", Date.valueOf(LocalDate.of(1990, 1, 1)), email, User.normalizeEmail(email)});
+            if (batch.size() == INSERT_BATCH || i == USERS - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into users (first_name, last_name, birthdate, email, email_normalized) values (?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Search {
+
+        List<User> find(String fragment);
+
+    }
+
+}
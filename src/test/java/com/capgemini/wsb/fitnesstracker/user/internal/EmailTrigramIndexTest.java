@@ -0,0 +1,138 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailTrigramIndexTest {
+
+    @Mock
+    private UserRepository mockUserRepository;
+
+    private EmailTrigramIndex emailTrigramIndex;
+
+    @BeforeEach
+    void buildIndex() {
+        emailTrigramIndex = new EmailTrigramIndex(mockUserRepository, new EmailTrigramIndexProperties(Duration.ofMinutes(1)));
+        when(mockUserRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "John.Doe@example.com"),
+                                    user(2L, "jane.doe@example.com"),
+                                    user(3L, "abcab@domain.com")));
+        emailTrigramIndex.build();
+    }
+
+    @Test
+    void searchShouldReturnEmptyWhenIndexIsNotBuilt() {
+        // given
+        EmailTrigramIndex notBuiltIndex = new EmailTrigramIndex(mockUserRepository, new EmailTrigramIndexProperties(Duration.ofMinutes(1)));
+
+        // when
+        Optional<List<Long>> result = notBuiltIndex.search("doe", 10);
+
+        // then
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void searchShouldReturnUsersContainingFragmentIgnoringCase() {
+        // when
+        Optional<List<Long>> result = emailTrigramIndex.search("DOE@EXAMPLE", 10);
+
+        // then
+        assertEquals(Optional.of(List.of(1L, 2L)), result);
+    }
+
+    @Test
+    void searchShouldNotReturnUsersHavingAllTrigramsInDifferentOrder() {
+        // when
+        Optional<List<Long>> result = emailTrigramIndex.search("cabc", 10);
+
+        // then
+        assertEquals(Optional.of(List.of()), result);
+    }
+
+    @Test
+    void searchShouldRejectFragmentShorterThanTrigram() {
+        // when and then
+        assertThrows(IllegalArgumentException.class, () -> emailTrigramIndex.search("jo", 10));
+    }
+
+    @Test
+    void searchShouldReturnLowestIdsWhenMoreUsersMatchThanLimit() {
+        // when
+        Optional<List<Long>> result = emailTrigramIndex.search("doe", 1);
+
+        // then
+        assertEquals(Optional.of(List.of(1L)), result);
+    }
+
+    @Test
+    void refreshShouldIndexUsersStoredBypassingIndex() {
+        // given
+        when(mockUserRepository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Limit.class)))
+                .thenReturn(List.of(user(4L, "imported.doe@example.com")));
+
+        // when
+        emailTrigramIndex.refresh();
+
+        // then
+        assertEquals(Optional.of(List.of(1L, 2L, 4L)), emailTrigramIndex.search("doe", 10));
+    }
+
+    @Test
+    void refreshShouldIndexUsersWithLowerIdsThanUserAddedThroughIndex() {
+        // given
+        emailTrigramIndex.add(10L, "local.doe@example.com");
+        when(mockUserRepository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Limit.class)))
+                .thenReturn(List.of(user(4L, "remote.doe@example.com"), user(10L, "local.doe@example.com")));
+
+        // when
+        emailTrigramIndex.refresh();
+
+        // then
+        assertEquals(Optional.of(List.of(1L, 2L, 4L, 10L)), emailTrigramIndex.search("doe@example", 10));
+    }
+
+    @Test
+    void searchShouldFindNewEmailWhenUserIsUpdated() {
+        // when
+        emailTrigramIndex.add(1L, "mike.scott@domain.com");
+
+        // then
+        assertEquals(Optional.of(List.of(2L)), emailTrigramIndex.search("doe", 10));
+        assertEquals(Optional.of(List.of(1L, 3L)), emailTrigramIndex.search("@domain", 10));
+    }
+
+    @Test
+    void searchShouldNotReturnRemovedUser() {
+        // when
+        emailTrigramIndex.remove(2L);
+
+        // then
+        assertEquals(Optional.of(List.of(1L)), emailTrigramIndex.search("doe", 10));
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User("John", "Doe", LocalDate.of(1985, 5, 15), email);
+        user.setId(id);
+        return user;
+    }
+
+}
@@ -2,12 +2,16 @@ package com.capgemini.wsb.fitnesstracker.user.internal;
 
 import com.capgemini.wsb.fitnesstracker.IntegrationTest;
 import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.common.api.KeysetCursors;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.capgemini.wsb.fitnesstracker.user.api.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -19,7 +23,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @IntegrationTest
@@ -30,6 +37,9 @@ class UserApiIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private UserService userService;
+
     @Test
     void shouldReturnAllUsers_whenGettingAllUsers() throws Exception {
         User user1 = existingUser(generateUser());
@@ -68,6 +78,52 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnNextPageOfUsers_whenGettingAllUsersWithCursor() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        String nextCursor = mockMvc.perform(get("/v1/users").param("limit", "1").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()))
+                .andExpect(header().exists(KeysetCursors.NEXT_CURSOR_HEADER))
+                .andReturn()
+                .getResponse()
+                .getHeader(KeysetCursors.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/users/simple").param("limit", "2").param("cursor", nextCursor).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName").value(user2.getFirstName()))
+                .andExpect(header().doesNotExist(KeysetCursors.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldStreamAllUsersAsNdjson_whenExportingUsers() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        MvcResult result = mockMvc.perform(get("/v1/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains(user1.getEmail());
+        assertThat(lines[1]).contains(user2.getEmail());
+    }
+
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserById() throws Exception {
         User user1 = existingUser(generateUser());
@@ -95,6 +151,31 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
     }
 
+    @Test
+    void shouldReturnDetailsAboutUser_whenGettingUserByEmailWithDifferentCase() throws Exception {
+        User user1 = existingUser(generateUser());
+
+        mockMvc.perform(get("/v1/users/email").param("email", user1.getEmail().toUpperCase()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
+    }
+
+    @Test
+    void shouldReturnUsersWithMatchingEmail_whenGettingUsersByPartialEmail() throws Exception {
+        User user1 = userService.createUser(new User("Anna", "Nowak", LocalDate.of(1990, 1, 1), "anna.nowak@gym.com"));
+        userService.createUser(new User("Jan", "Kowalski", LocalDate.of(1990, 1, 1), "jan.kowalski@gym.com"));
+
+        mockMvc.perform(get("/v1/users/partial-email").param("partialEmail", "NOWAK@").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
+    }
+
     @Test
     void shouldReturnAllUsersOlderThan_whenGettingAllUsersOlderThan() throws Exception {
         User user1 = existingUser(generateUserWithDate(LocalDate.of(2000, 8, 11)));
@@ -112,6 +193,144 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[1]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnPageOfMatchingUsers_whenSearchingMatchingUsers() throws Exception {
+        User user1 = existingUser(new User("Anna", "Nowak", LocalDate.of(1990, 1, 1), "anna.nowak@domain.com"));
+        User user2 = existingUser(new User("Jan", "Nowak", LocalDate.of(1990, 1, 1), "jan.nowak@domain.com"));
+        existingUser(new User("Jan", "Kowalski", LocalDate.of(1990, 1, 1), "jan.kowalski@domain.com"));
+
+        String searchRequest = """
+                {
+                "lastName": "Nowak",
+                "birthdate": "1990-01-01"
+                }
+                """;
+
+        mockMvc.perform(post("/v1/users/matching-users").param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(searchRequest))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.TOTAL_COUNT_HEADER, "2"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()));
+
+        mockMvc.perform(post("/v1/users/matching-users").param("size", "1").param("page", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(searchRequest))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user2.getId().intValue()))
+                .andExpect(jsonPath("$[0].email").value(user2.getEmail()));
+    }
+
+    @Test
+    void shouldRejectPage_whenLimitIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/v1/users").param("limit", "0").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/v1/users/simple").param("limit", "1001").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectSearch_whenPageIsTooLarge() throws Exception {
+        mockMvc.perform(post("/v1/users/matching-users").param("size", "1001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectSearch_whenSortingByUnknownProperty() throws Exception {
+        mockMvc.perform(post("/v1/users/matching-users").param("sort", "password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldCreateValidUsersAndReportRejectedRows_whenImportingUsersFromJson() throws Exception {
+        User existingUser = existingUser(new User("Jim", "Halpert", LocalDate.of(1990, 1, 1), "jim.halpert@domain.com"));
+
+        String importRequest = """
+                [
+                {"firstName": "Mike", "lastName": "Scott", "birthdate": "1999-09-29", "email": "mike.scott@domain.com"},
+                {"firstName": "Dwight", "lastName": "Schrute", "birthdate": "not-a-date", "email": "dwight@domain.com"},
+                {"firstName": "Jim", "lastName": "Halpert", "birthdate": "1990-01-01", "email": "%s"},
+                {"firstName": "Pam", "lastName": "Beesly", "birthdate": "1990-01-01", "email": "MIKE.SCOTT@domain.com"},
+                {"firstName": "Pam", "lastName": "Beesly", "birthdate": "1990-01-01", "email": "pam.beesly@domain.com"}
+                ]
+                """.formatted(existingUser.getEmail());
+
+        mockMvc.perform(post("/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(importRequest))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[2].message").value("User with this email already exists."))
+                .andExpect(jsonPath("$.results[3].message").value("Duplicated email in the imported rows."))
+                .andExpect(jsonPath("$.results[4].status").value("CREATED"));
+
+        assertThat(getAllUsers()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder(existingUser.getEmail(), "mike.scott@domain.com", "pam.beesly@domain.com");
+    }
+
+    @Test
+    void shouldKeepReadRowsAndReportMalformedPayload_whenImportingTruncatedJson() throws Exception {
+        String importRequest = """
+                [
+                {"firstName": "Mike", "lastName": "Scott", "birthdate": "1999-09-29", "email": "mike.scott@domain.com"},
+                {"firstName": "Pam", "lastName": "Bee
+                """;
+
+        mockMvc.perform(post("/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(importRequest))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[1].row").value(2))
+                .andExpect(jsonPath("$.results[1].message").value("Malformed payload, the remaining rows were not read."));
+
+        assertThat(getAllUsers()).extracting(User::getEmail).containsExactly("mike.scott@domain.com");
+    }
+
+    @Test
+    void shouldCreateUsers_whenImportingUsersFromCsv() throws Exception {
+        String importRequest = """
+                firstName,lastName,birthdate,email
+                Mike,Scott,1999-09-29,mike.scott@domain.com
+                Jim,Halpert,1990-01-01
+                Pam,Beesly,1990-01-01,pam.beesly@domain.com
+                """;
+
+        mockMvc.perform(post("/v1/users/batch")
+                        .contentType("text/csv")
+                        .content(importRequest))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].row").value(2))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+
+        assertThat(getAllUsers()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("mike.scott@domain.com", "pam.beesly@domain.com");
+    }
+
     @Test
     void shouldRemoveUserFromRepository_whenDeletingClient() throws Exception {
         User user1 = existingUser(generateUser());
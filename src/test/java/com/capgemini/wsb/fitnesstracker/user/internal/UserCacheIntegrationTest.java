@@ -0,0 +1,132 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.IntegrationTest;
+import com.capgemini.wsb.fitnesstracker.IntegrationTestBase;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import com.capgemini.wsb.fitnesstracker.user.api.UserProvider;
+import com.capgemini.wsb.fitnesstracker.user.api.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserApiIntegrationTest.generateUser;
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_EMAIL;
+import static com.capgemini.wsb.fitnesstracker.user.internal.UserCacheConfig.USERS_BY_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class UserCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserProvider userProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void shouldServeUserFromCache_whenGettingUserTwice() {
+        User user = existingUser(generateUser());
+        double hitsBefore = cacheHits(USERS_BY_ID);
+
+        userProvider.getUser(user.getId());
+        assertThat(userProvider.getUser(user.getId())).contains(user);
+
+        assertThat(cacheHits(USERS_BY_ID) - hitsBefore).isEqualTo(1);
+        assertThat(cache(USERS_BY_ID).get(user.getId())).isNotNull();
+    }
+
+    @Test
+    void shouldServeUserFromCache_whenGettingUserByEmailWithDifferentCase() {
+        User user = existingUser(generateUser());
+
+        userProvider.getUserByEmail(user.getEmail());
+
+        assertThat(cache(USERS_BY_EMAIL).get(User.normalizeEmail(user.getEmail()))).isNotNull();
+        assertThat(userProvider.getUserByEmail(user.getEmail().toUpperCase())).contains(user);
+    }
+
+    @Test
+    void shouldNotShareCachedUser_whenCallerChangesReturnedUser() {
+        User user = existingUser(generateUser());
+        User returned = userProvider.getUser(user.getId()).orElseThrow();
+
+        returned.setFirstName("Changed");
+
+        assertThat(cache(USERS_BY_ID).get(user.getId()).get()).isInstanceOf(UserDto.class);
+        assertThat(userProvider.getUser(user.getId())).get().extracting(User::getFirstName).isEqualTo(user.getFirstName());
+    }
+
+    @Test
+    void shouldNotCacheMissingUser_whenUserDoesNotExist() {
+        assertThat(userProvider.getUser(Long.MAX_VALUE)).isEmpty();
+
+        assertThat(cache(USERS_BY_ID).get(Long.MAX_VALUE)).isNull();
+    }
+
+    @Test
+    void shouldEvictCachedUser_whenUpdatingUser() {
+        User user = existingUser(generateUser());
+        userProvider.getUser(user.getId());
+        userProvider.getUserByEmail(user.getEmail());
+
+        userService.updateUser(user.getId(), new User("Mike", null, null, null));
+
+        assertThat(cache(USERS_BY_ID).get(user.getId())).isNull();
+        assertThat(cache(USERS_BY_EMAIL).get(User.normalizeEmail(user.getEmail()))).isNull();
+        assertThat(userProvider.getUser(user.getId())).get().extracting(User::getFirstName).isEqualTo("Mike");
+    }
+
+    @Test
+    void shouldEvictCachedUser_whenDeletingUser() {
+        User user = existingUser(generateUser());
+        userProvider.getUser(user.getId());
+        userProvider.getUserByEmail(user.getEmail());
+
+        userService.deleteUserById(user.getId());
+
+        assertThat(cache(USERS_BY_ID).get(user.getId())).isNull();
+        assertThat(cache(USERS_BY_EMAIL).get(User.normalizeEmail(user.getEmail()))).isNull();
+        assertThat(userProvider.getUser(user.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldEvictCachedEmail_whenCreatingUser() {
+        User user = new User("Mike", "Scott", LocalDate.of(1999, 9, 29), "mike.scott@domain.com");
+        cache(USERS_BY_EMAIL).put(User.normalizeEmail(user.getEmail()),
+                                  new UserDto(Long.MAX_VALUE, "Old", "User", LocalDate.of(1990, 1, 1), user.getEmail()));
+
+        userService.createUser(user);
+
+        assertThat(cache(USERS_BY_EMAIL).get(User.normalizeEmail(user.getEmail()))).isNull();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private double cacheHits(String name) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import com.capgemini.wsb.fitnesstracker.user.api.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the bulk user import time against the number of imported rows.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@SpringBootTest
+@Slf4j
+class UserImportPerformanceTest {
+
+    private static final int WARM_UP_ROWS = 5_000;
+    private static final int[] ROW_COUNTS = {5_000, 20_000, 50_000};
+    /**
+     * Allowed growth of the time per row between the smallest and the larger imports, a quadratic import
+     * would grow ten times between 5 000 and 50 000 rows.
+     */
+    private static final double MAX_TIME_PER_ROW_GROWTH = 3.0;
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Autowired
+    private EmailTrigramIndex emailTrigramIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUpDB() {
+        jdbcTemplate.update("delete from users");
+        emailTrigramIndex.build();
+    }
+
+    @Test
+    void importTimeShouldGrowLinearly_whenRowCountGrows() {
+        userImporter.importUsers(rows(0, WARM_UP_ROWS));
+        int offset = WARM_UP_ROWS;
+        double baseMillisPerRow = 0;
+        for (int rowCount : ROW_COUNTS) {
+            UserImportReport report = userImporter.importUsers(rows(offset, rowCount));
+            offset += rowCount;
+
+            assertThat(report.created()).isEqualTo(rowCount);
+            double millisPerRow = (double) Math.max(1, report.durationMillis()) / rowCount;
+            log.info("rows={} import took {} ms ({} rows/s)",
+                     rowCount, report.durationMillis(), rowCount * 1_000L / Math.max(1, report.durationMillis()));
+            if (baseMillisPerRow == 0) {
+                baseMillisPerRow = millisPerRow;
+            } else {
+                assertThat(millisPerRow).isLessThanOrEqualTo(baseMillisPerRow * MAX_TIME_PER_ROW_GROWTH);
+            }
+        }
+    }
+
+    private static Iterator<UserImportRow> rows(int offset, int count) {
+        return IntStream.range(offset, offset + count)
+                .mapToObj(i -> UserImportRow.parsed(i - offset + 1, new UserDto(null,
+                                                                                 "First",
+                                                                                 "Last",
+                                                                                 LocalDate.of(1990, 1, 1),
+                                                                                 "imported.%d@domain.com".formatted(i))))
+                .iterator();
+    }
+
+}
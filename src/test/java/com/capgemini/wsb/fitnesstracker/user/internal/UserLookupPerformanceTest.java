@@ -0,0 +1,115 @@
+package com.capgemini.wsb.fitnesstracker.user.internal;
+
+import com.capgemini.wsb.fitnesstracker.PerformanceTest;
+import com.capgemini.wsb.fitnesstracker.user.api.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the id and email lookups while the users table grows, to prove they do not degrade with the table size.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@PerformanceTest
+@SpringBootTest
+@Slf4j
+class UserLookupPerformanceTest {
+
+    private static final int[] TABLE_SIZES = {1_000, 10_000, 100_000};
+    private static final int LOOKUPS = 5_000;
+    private static final int INSERT_BATCH = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUpDB() {
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void lookupCostShouldStayFlat_whenUserCountGrows() {
+        Map<Integer, Long> emailNanos = new LinkedHashMap<>();
+        Map<Integer, Long> idNanos = new LinkedHashMap<>();
+        int seeded = 0;
+
+        for (int size : TABLE_SIZES) {
+            seedUsers(seeded, size);
+            seeded = size;
+
+            emailNanos.put(size, measureEmailLookup(size));
+            idNanos.put(size, measureIdLookup());
+            log.info("users={} avg findByEmail={} ns, avg findById={} ns", size, emailNanos.get(size), idNanos.get(size));
+        }
+
+        int smallest = TABLE_SIZES[0];
+        int largest = TABLE_SIZES[TABLE_SIZES.length - 1];
+        assertThat(emailNanos.get(largest)).isLessThan(emailNanos.get(smallest) * 5);
+        assertThat(idNanos.get(largest)).isLessThan(idNanos.get(smallest) * 5);
+    }
+
+    private long measureEmailLookup(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        warmUp(() -> userRepository.findByEmail(email(random.nextInt(size)).toUpperCase(Locale.ROOT)));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(userRepository.findByEmail(email(random.nextInt(size)).toUpperCase(Locale.ROOT))).isPresent();
+        }
+        return (System.nanoTime() - start) / LOOKUPS;
+    }
+
+    private long measureIdLookup() {
+        List<Long> ids = jdbcTemplate.queryForList("select id from users", Long.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        warmUp(() -> userRepository.findById(ids.get(random.nextInt(ids.size()))));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(userRepository.findById(ids.get(random.nextInt(ids.size())))).isPresent();
+        }
+        return (System.nanoTime() - start) / LOOKUPS;
+    }
+
+    private static void warmUp(Runnable lookup) {
+        for (int i = 0; i < LOOKUPS / 5; i++) {
+            lookup.run();
+        }
+    }
+
+    private void seedUsers(int fromInclusive, int toExclusive) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            String email = email(i);
+            batch.add(new Object[]{"First", "Last", Date.valueOf(LocalDate.of(1990, 1, 1)), email, User.normalizeEmail(email)});
+            if (batch.size() == INSERT_BATCH || i == toExclusive - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into users (first_name, last_name, birthdate, email, email_normalized) values (?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static String email(int i) {
+        return "user.%d@domain.com".formatted(i);
+    }
+
+}
@@ -1,13 +1,15 @@
 package com.capgemini.wsb.fitnesstracker.user.internal;
 
+import com.capgemini.wsb.fitnesstracker.exception.api.BusinessException;
 import com.capgemini.wsb.fitnesstracker.user.api.User;
 import com.capgemini.wsb.fitnesstracker.user.api.UserNotFoundException;
 import com.capgemini.wsb.fitnesstracker.user.api.UserSearch;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -23,9 +25,18 @@ class UserServiceImplTest {
     @Mock
     private UserRepository mockUserRepository;
 
-    @InjectMocks
+    @Mock
+    private EmailTrigramIndex mockEmailTrigramIndex;
+
     private UserServiceImpl userService;
 
+    @BeforeEach
+    void setUp() {
+        UserMapper userMapper = new UserMapper();
+        userService = new UserServiceImpl(mockUserRepository, mockEmailTrigramIndex,
+                                          new UserLookup(mockUserRepository, userMapper), userMapper);
+    }
+
 
     @Test
     void createUserShouldSaveUserWhenCorrectValues() {
@@ -155,6 +166,27 @@ class UserServiceImplTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void findUsersAfterShouldReturnNextPageOfUsers() {
+        // given
+        User user = new User("John", "Doe", LocalDate.of(1985, 5, 15), "john.doe@example.com");
+        user.setId(11L);
+        when(mockUserRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(5))).thenReturn(List.of(user));
+
+        // when
+        List<User> result = userService.findUsersAfter(10L, 5);
+
+        // then
+        assertEquals(List.of(user), result);
+    }
+
+    @Test
+    void findUsersAfterShouldThrowExceptionWhenLimitIsTooBig() {
+        // when and then
+        assertThrows(BusinessException.class, () -> userService.findUsersAfter(0L, UserServiceImpl.MAX_PAGE_SIZE + 1));
+        verify(mockUserRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
     @Test
     void getUserDetailsByIdShouldReturnUserWhenUserExists() {
         // given
@@ -348,7 +380,7 @@ class UserServiceImplTest {
         User user = new User("John", "Doe", LocalDate.of(1985, 5, 15), "john.doe@example.com");
         user.setId(1L);
 
-        when(mockUserRepository.findAllByEmailContainingIgnoreCase(validPartialEmail)).thenReturn(List.of(user));
+        when(mockUserRepository.findAllByEmailContainingIgnoreCaseOrderByIdAsc(eq(validPartialEmail), any(Limit.class))).thenReturn(List.of(user));
 
         // when
         List<User> result = userService.findMatchingUsersByPartialEmail(validPartialEmail);
@@ -356,21 +388,39 @@ class UserServiceImplTest {
         // then
         assertEquals(1, result.size());
         assertEquals(user, result.get(0));
-        verify(mockUserRepository, times(1)).findAllByEmailContainingIgnoreCase(validPartialEmail);
+        verify(mockUserRepository, times(1)).findAllByEmailContainingIgnoreCaseOrderByIdAsc(eq(validPartialEmail), any(Limit.class));
     }
 
     @Test
     void findMatchingUsersByPartialEmailShouldReturnEmptyListWhenNoUsersMatch() {
         // given
         String validPartialEmail = "unknown";
-        when(mockUserRepository.findAllByEmailContainingIgnoreCase(validPartialEmail)).thenReturn(Collections.emptyList());
+        when(mockUserRepository.findAllByEmailContainingIgnoreCaseOrderByIdAsc(eq(validPartialEmail), any(Limit.class))).thenReturn(Collections.emptyList());
 
         // when
         List<User> result = userService.findMatchingUsersByPartialEmail(validPartialEmail);
 
         // then
         assertTrue(result.isEmpty());
-        verify(mockUserRepository, times(1)).findAllByEmailContainingIgnoreCase(validPartialEmail);
+        verify(mockUserRepository, times(1)).findAllByEmailContainingIgnoreCaseOrderByIdAsc(eq(validPartialEmail), any(Limit.class));
+    }
+
+    @Test
+    void findMatchingUsersByPartialEmailShouldUseIndexWhenIndexIsReady() {
+        // given
+        String validPartialEmail = "doe";
+        User user = new User("John", "Doe", LocalDate.of(1985, 5, 15), "john.doe@example.com");
+        user.setId(1L);
+
+        when(mockEmailTrigramIndex.search(validPartialEmail, UserServiceImpl.MAX_EMAIL_MATCHES)).thenReturn(Optional.of(List.of(1L)));
+        when(mockUserRepository.findAllById(List.of(1L))).thenReturn(List.of(user));
+
+        // when
+        List<User> result = userService.findMatchingUsersByPartialEmail(validPartialEmail);
+
+        // then
+        assertEquals(List.of(user), result);
+        verify(mockUserRepository, never()).findAllByEmailContainingIgnoreCaseOrderByIdAsc(any(), any());
     }
 
     @Test
@@ -380,7 +430,36 @@ class UserServiceImplTest {
 
         // when and then
         assertThrows(IllegalArgumentException.class, () -> userService.findMatchingUsersByPartialEmail(invalidPartialEmail));
-        verify(mockUserRepository, never()).findAllByEmailContainingIgnoreCase(any());
+        verify(mockUserRepository, never()).findAllByEmailContainingIgnoreCaseOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void findMatchingUsersByPartialEmailShouldSkipUserWhenIndexedEmailIsStale() {
+        // given
+        String validPartialEmail = "doe";
+        User user = new User("John", "Doe", LocalDate.of(1985, 5, 15), "john.doe@example.com");
+        user.setId(1L);
+        User changedUser = new User("Jane", "Smith", LocalDate.of(1985, 5, 15), "jane.smith@example.com");
+        changedUser.setId(2L);
+
+        when(mockEmailTrigramIndex.search(validPartialEmail, UserServiceImpl.MAX_EMAIL_MATCHES)).thenReturn(Optional.of(List.of(1L, 2L)));
+        when(mockUserRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(changedUser, user));
+
+        // when
+        List<User> result = userService.findMatchingUsersByPartialEmail(validPartialEmail);
+
+        // then
+        assertEquals(List.of(user), result);
+    }
+
+    @Test
+    void findMatchingUsersByPartialEmailShouldThrowExceptionWhenEmailFragmentIsShorterThanTrigram() {
+        // given
+        String shortPartialEmail = "jo";
+
+        // when and then
+        assertThrows(IllegalArgumentException.class, () -> userService.findMatchingUsersByPartialEmail(shortPartialEmail));
+        verify(mockUserRepository, never()).findAllByEmailContainingIgnoreCaseOrderByIdAsc(any(), any());
     }
 
     @Test